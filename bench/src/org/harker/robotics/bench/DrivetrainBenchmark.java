@@ -0,0 +1,92 @@
+package org.harker.robotics.bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.harker.robotics.harkerrobolib.sim.SimClock;
+import org.harker.robotics.harkerrobolib.sim.SimulatedHardwareFactory;
+import org.harker.robotics.sim.Simulation;
+import org.harker.robotics.subsystems.Drivetrain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Times one pass of the drivetrain's control loop, which runs every
+ * {@link Drivetrain#PERIOD} seconds: it takes the newest command, moves the
+ * odometry on, runs the rate loop, limits the change in each axis, mixes the
+ * mecanum wheel speeds and writes the four Talons. The Drivetrain runs on the
+ * simulated hardware, whose control loop runs on whichever thread fires the
+ * simulated notifiers, so the benchmark thread is the loop's only thread just
+ * as the control thread is on the robot. The Talon writes cost what the
+ * hardware layer costs and no more.
+ * 
+ * {@link #controlLoop()} leaves the targets alone, as happens between
+ * Scheduler runs; the others first set new targets from a random stick
+ * position every call, so the acceleration limits are almost always in play.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DrivetrainBenchmark {
+	
+	private static final int STICK_SAMPLES = 1024;
+	
+	private Drivetrain drivetrain;
+	private SimClock clock;
+	private SimulatedHardwareFactory hardware;
+	private double[] sticks;
+	private int next;
+	
+	@Setup
+	public void setup() {
+		Simulation sim = new Simulation();
+		sim.install(false);
+		clock = sim.getClock();
+		hardware = sim.getHardware();
+		Drivetrain.initialize();
+		drivetrain = Drivetrain.getInstance();
+		
+		Random random = new Random(2015);
+		sticks = new double[STICK_SAMPLES * 3];
+		for (int i = 0; i < sticks.length; i++)
+			sticks[i] = random.nextDouble() * 2 - 1;
+	}
+	
+	@Benchmark
+	public void controlLoop() {
+		runPass();
+	}
+	
+	@Benchmark
+	public void driveAndLoop() {
+		drivetrain.drive(sticks[next], sticks[next + 1], sticks[next + 2]);
+		runPass();
+		next = (next + 3) % sticks.length;
+	}
+	
+	@Benchmark
+	public void tankDriveAndLoop() {
+		drivetrain.drive(sticks[next], sticks[next + 1]);
+		runPass();
+		next = (next + 3) % sticks.length;
+	}
+	
+	/**
+	 * Runs the control loop once, as its notifier would.
+	 */
+	private void runPass() {
+		clock.advance(Drivetrain.PERIOD);
+		hardware.runNotifiers(clock.getNanos());
+	}
+}
@@ -0,0 +1,82 @@
+package org.harker.robotics.bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.harker.robotics.harkerrobolib.util.MathUtil;
+import org.harker.robotics.harkerrobolib.util.RunningRegression;
+import org.harker.robotics.harkerrobolib.util.RunningStats;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Times {@link MathUtil#stdev(double[])} and {@link MathUtil#linReg(double[], double[])}
+ * over windows of samples, and the cost per sample of keeping the same
+ * statistics up to date with {@link RunningStats} and {@link RunningRegression}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MathUtilBenchmark {
+	
+	@Param({"16", "256"})
+	public int samples;
+	
+	private double[] x;
+	private double[] y;
+	private final RunningStats stats = new RunningStats();
+	private final RunningRegression regression = new RunningRegression();
+	private int next;
+	
+	@Setup
+	public void setup() {
+		Random random = new Random(2015);
+		x = new double[samples];
+		y = new double[samples];
+		for (int i = 0; i < samples; i++) {
+			x[i] = i * 0.02;
+			y[i] = 3 * x[i] + 1 + random.nextGaussian() * 0.1;
+		}
+	}
+	
+	@Benchmark
+	public double stdev() {
+		return MathUtil.stdev(y);
+	}
+	
+	@Benchmark
+	public double mean() {
+		return MathUtil.mean(y);
+	}
+	
+	@Benchmark
+	public double[] linReg() {
+		return MathUtil.linReg(x, y);
+	}
+	
+	@Benchmark
+	public double runningStatsAdd() {
+		stats.add(y[next]);
+		next = (next + 1) % samples;
+		return stats.getStdev();
+	}
+	
+	@Benchmark
+	public double runningRegressionAdd() {
+		regression.add(x[next], y[next]);
+		next = (next + 1) % samples;
+		return regression.getSlope();
+	}
+}
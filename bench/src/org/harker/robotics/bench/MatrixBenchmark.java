@@ -0,0 +1,131 @@
+package org.harker.robotics.bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.harker.robotics.harkerrobolib.util.FlatMatrix;
+import org.harker.robotics.harkerrobolib.util.LUDecomposition;
+import org.harker.robotics.harkerrobolib.util.Matrix;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Times {@link Matrix#mult(Matrix)} and {@link Matrix#solve(Matrix)} on square
+ * matrices of the sizes a robot's estimators use: 3 (a pose), 6 (a pose and
+ * its velocity) and 12, and against {@link FlatMatrix}, which does the same
+ * work without allocating. Size 64 is there to show the blocked product.
+ * The lu benchmarks solve against a factorization made once in setup, one
+ * right hand side at a time and {@link #BATCH} at a time.
+ * Run with <code>-prof gc</code> to see the difference in garbage.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MatrixBenchmark {
+	
+	//The number of right hand sides solved together
+	public static final int BATCH = 8;
+	
+	@Param({"3", "6", "12", "64"})
+	public int size;
+	
+	private Matrix a;
+	private Matrix b;
+	private Matrix rhs;
+	private FlatMatrix flatA;
+	private FlatMatrix flatB;
+	private FlatMatrix flatC;
+	private LUDecomposition lu;
+	private double[] vectorB;
+	private double[] vectorX;
+	private FlatMatrix batchB;
+	private FlatMatrix batchX;
+	
+	@Setup
+	public void setup() {
+		Random random = new Random(2015);
+		a = new Matrix(size, size);
+		b = new Matrix(size, size);
+		rhs = new Matrix(size, 1);
+		for (int i = 0; i < size; i++) {
+			for (int j = 0; j < size; j++) {
+				a.setValue(i, j, random.nextDouble());
+				b.setValue(i, j, random.nextDouble());
+			}
+			//Diagonally dominant, so it is never singular
+			a.setValue(i, i, a.getValue(i, i) + size);
+			rhs.setValue(i, 0, random.nextDouble());
+		}
+		flatA = new FlatMatrix(a, size, size);
+		flatB = new FlatMatrix(b, size, size);
+		flatC = new FlatMatrix(size, size);
+		
+		lu = a.decompose();
+		vectorB = new double[size];
+		vectorX = new double[size];
+		batchB = new FlatMatrix(size, BATCH);
+		batchX = new FlatMatrix(size, BATCH);
+		for (int i = 0; i < size; i++) {
+			vectorB[i] = rhs.getValue(i, 0);
+			for (int j = 0; j < BATCH; j++)
+				batchB.setValue(i, j, random.nextDouble());
+		}
+	}
+	
+	@Benchmark
+	public Matrix mult() {
+		return a.mult(b);
+	}
+	
+	@Benchmark
+	public Matrix solve() {
+		return a.solve(rhs);
+	}
+	
+	@Benchmark
+	public double[] luSolveInto() {
+		return lu.solveInto(vectorB, vectorX);
+	}
+	
+	@Benchmark
+	public FlatMatrix luSolveBatch() {
+		return lu.solveInto(batchB, batchX);
+	}
+	
+	@Benchmark
+	public FlatMatrix flatMultInto() {
+		return flatA.multInto(flatB, flatC);
+	}
+	
+	@Benchmark
+	public Matrix plus() {
+		return a.plus(b);
+	}
+	
+	@Benchmark
+	public FlatMatrix flatAddInto() {
+		return flatA.addInto(flatB, flatC);
+	}
+	
+	@Benchmark
+	public Matrix transpose() {
+		return a.transpose();
+	}
+	
+	@Benchmark
+	public FlatMatrix flatTransposeInto() {
+		return flatA.transposeInto(flatC);
+	}
+}
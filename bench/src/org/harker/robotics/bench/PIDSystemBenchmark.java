@@ -0,0 +1,96 @@
+package org.harker.robotics.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.harker.robotics.harkerrobolib.util.PIDBank;
+import org.harker.robotics.harkerrobolib.util.PIDSystem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Times one {@link PIDSystem#updatePID(double, double)}, with and without
+ * integral saturation, against an error which changes every call, and
+ * {@link #LOOPS} loops run as separate PIDSystems against the same loops in
+ * one {@link PIDBank} with output limits and derivative filters.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PIDSystemBenchmark {
+	
+	private static final double PERIOD = 0.005;
+	//Four wheel velocities, heading hold and the elevator
+	private static final int LOOPS = 6;
+	
+	private PIDSystem pid;
+	private PIDSystem saturated;
+	private PIDSystem[] systems;
+	private PIDBank bank;
+	private double error;
+	
+	@Setup
+	public void setup() {
+		pid = new PIDSystem("Bench", 1.0, 0.1, 0.01);
+		saturated = new PIDSystem("Bench saturated", 1.0, 0.1, 0.01, -1, 1);
+		systems = new PIDSystem[LOOPS];
+		bank = new PIDBank(LOOPS);
+		for (int k = 0; k < LOOPS; k++) {
+			systems[k] = new PIDSystem("Bench " + k, 1.0, 0.1, 0.01, -1, 1);
+			bank.setGains(k, 1.0, 0.1, 0.01);
+			bank.setOutputLimits(k, -1, 1);
+			bank.setDerivativeFilter(k, 0.02);
+		}
+		error = 0.5;
+	}
+	
+	@Benchmark
+	public double updatePID() {
+		error = -error * 0.999;
+		pid.updatePID(error, PERIOD);
+		return pid.getOutput();
+	}
+	
+	@Benchmark
+	public double updatePIDSaturated() {
+		error = -error * 0.999;
+		saturated.updatePID(error, PERIOD);
+		return saturated.getOutput();
+	}
+	
+	@Benchmark
+	public double separateSystems() {
+		error = -error * 0.999;
+		double sum = 0;
+		for (int k = 0; k < LOOPS; k++) {
+			systems[k].updatePID(error * (k + 1), PERIOD);
+			double output = systems[k].getOutput();
+			if (output > 1) output = 1;
+			else if (output < -1) output = -1;
+			sum += output;
+		}
+		return sum;
+	}
+	
+	@Benchmark
+	public double bank() {
+		error = -error * 0.999;
+		for (int k = 0; k < LOOPS; k++)
+			bank.setError(k, error * (k + 1));
+		bank.update(PERIOD);
+		double sum = 0;
+		for (int k = 0; k < LOOPS; k++)
+			sum += bank.getOutput(k);
+		return sum;
+	}
+}
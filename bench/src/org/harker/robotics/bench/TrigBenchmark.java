@@ -0,0 +1,235 @@
+package org.harker.robotics.bench;
+
+import java.io.PrintStream;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.harker.robotics.harkerrobolib.util.MathUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Times the table-driven trigonometry in {@link MathUtil} against
+ * {@link Math}. Each call works through an array of angles spread over
+ * several turns (or of ratios, for the inverse functions), so the times are
+ * per value and include the range reduction.
+ * 
+ * Run as a program, it measures the other half of the trade instead: the
+ * largest and mean absolute error of each approximation against Math, over
+ * {@link #ACCURACY_SAMPLES} points evenly spread across its domain. tan is
+ * only compared where it stays within {@link #TAN_LIMIT}, as its absolute
+ * error near the poles says nothing about the approximation. Through ant:
+ * <code>ant -f bench/build.xml accuracy</code>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TrigBenchmark {
+	
+	private static final int COUNT = 1024;
+	
+	//How many points each approximation is checked at, and the largest tangent checked
+	public static final int ACCURACY_SAMPLES = 1 << 22;
+	public static final double TAN_LIMIT = 10;
+	
+	//The functions, for the accuracy report
+	private static final int SIN = 0;
+	private static final int COS = 1;
+	private static final int TAN = 2;
+	private static final int ATAN = 3;
+	private static final int ASIN = 4;
+	private static final int ACOS = 5;
+	private static final String[] NAMES = {"sin", "cos", "tan", "aTan", "aSin", "aCos"};
+	//The domain each is checked over
+	private static final double[] LOW = {-4 * Math.PI, -4 * Math.PI, -4 * Math.PI, -20, -1, -1};
+	private static final double[] HIGH = {4 * Math.PI, 4 * Math.PI, 4 * Math.PI, 20, 1, 1};
+	
+	private double[] angles;
+	private double[] ratios;
+	private double[] units;
+	
+	@Setup
+	public void setup() {
+		Random random = new Random(2015);
+		angles = new double[COUNT];
+		ratios = new double[COUNT];
+		units = new double[COUNT];
+		for (int i = 0; i < COUNT; i++) {
+			angles[i] = (random.nextDouble() - 0.5) * 8 * Math.PI;
+			ratios[i] = random.nextGaussian() * 2;
+			units[i] = random.nextDouble() * 2 - 1;
+		}
+	}
+	
+	@Benchmark
+	@OperationsPerInvocation(COUNT)
+	public double mathSin() {
+		double sum = 0;
+		for (int i = 0; i < COUNT; i++)
+			sum += Math.sin(angles[i]);
+		return sum;
+	}
+	
+	@Benchmark
+	@OperationsPerInvocation(COUNT)
+	public double fastSin() {
+		double sum = 0;
+		for (int i = 0; i < COUNT; i++)
+			sum += MathUtil.sin(angles[i]);
+		return sum;
+	}
+	
+	@Benchmark
+	@OperationsPerInvocation(COUNT)
+	public double mathCos() {
+		double sum = 0;
+		for (int i = 0; i < COUNT; i++)
+			sum += Math.cos(angles[i]);
+		return sum;
+	}
+	
+	@Benchmark
+	@OperationsPerInvocation(COUNT)
+	public double fastCos() {
+		double sum = 0;
+		for (int i = 0; i < COUNT; i++)
+			sum += MathUtil.cos(angles[i]);
+		return sum;
+	}
+	
+	@Benchmark
+	@OperationsPerInvocation(COUNT)
+	public double mathTan() {
+		double sum = 0;
+		for (int i = 0; i < COUNT; i++)
+			sum += Math.tan(angles[i]);
+		return sum;
+	}
+	
+	@Benchmark
+	@OperationsPerInvocation(COUNT)
+	public double fastTan() {
+		double sum = 0;
+		for (int i = 0; i < COUNT; i++)
+			sum += MathUtil.tan(angles[i]);
+		return sum;
+	}
+	
+	@Benchmark
+	@OperationsPerInvocation(COUNT)
+	public double mathAtan() {
+		double sum = 0;
+		for (int i = 0; i < COUNT; i++)
+			sum += Math.atan(ratios[i]);
+		return sum;
+	}
+	
+	@Benchmark
+	@OperationsPerInvocation(COUNT)
+	public double fastAtan() {
+		double sum = 0;
+		for (int i = 0; i < COUNT; i++)
+			sum += MathUtil.aTan(ratios[i]);
+		return sum;
+	}
+	
+	@Benchmark
+	@OperationsPerInvocation(COUNT)
+	public double mathAsin() {
+		double sum = 0;
+		for (int i = 0; i < COUNT; i++)
+			sum += Math.asin(units[i]);
+		return sum;
+	}
+	
+	@Benchmark
+	@OperationsPerInvocation(COUNT)
+	public double fastAsin() {
+		double sum = 0;
+		for (int i = 0; i < COUNT; i++)
+			sum += MathUtil.aSin(units[i]);
+		return sum;
+	}
+	
+	@Benchmark
+	@OperationsPerInvocation(COUNT)
+	public double mathAcos() {
+		double sum = 0;
+		for (int i = 0; i < COUNT; i++)
+			sum += Math.acos(units[i]);
+		return sum;
+	}
+	
+	@Benchmark
+	@OperationsPerInvocation(COUNT)
+	public double fastAcos() {
+		double sum = 0;
+		for (int i = 0; i < COUNT; i++)
+			sum += MathUtil.aCos(units[i]);
+		return sum;
+	}
+	
+	private static double approximate(int function, double x) {
+		switch (function) {
+		case SIN: return MathUtil.sin(x);
+		case COS: return MathUtil.cos(x);
+		case TAN: return MathUtil.tan(x);
+		case ATAN: return MathUtil.aTan(x);
+		case ASIN: return MathUtil.aSin(x);
+		default: return MathUtil.aCos(x);
+		}
+	}
+	
+	private static double exact(int function, double x) {
+		switch (function) {
+		case SIN: return Math.sin(x);
+		case COS: return Math.cos(x);
+		case TAN: return Math.tan(x);
+		case ATAN: return Math.atan(x);
+		case ASIN: return Math.asin(x);
+		default: return Math.acos(x);
+		}
+	}
+	
+	/**
+	 * Prints the largest and mean absolute error of each approximation.
+	 * @param out Where to print the table
+	 */
+	public static void printAccuracy(PrintStream out) {
+		out.println(String.format("%-6s %-22s %12s %12s %10s", "", "domain", "max error", "mean error", "points"));
+		for (int f = SIN; f <= ACOS; f++) {
+			double max = 0, sum = 0;
+			int points = 0;
+			double step = (HIGH[f] - LOW[f]) / (ACCURACY_SAMPLES - 1);
+			for (int i = 0; i < ACCURACY_SAMPLES; i++) {
+				double x = LOW[f] + i * step;
+				double expected = exact(f, x);
+				if (f == TAN && !(Math.abs(expected) <= TAN_LIMIT))
+					continue;
+				double error = Math.abs(approximate(f, x) - expected);
+				if (error > max)
+					max = error;
+				sum += error;
+				points++;
+			}
+			out.println(String.format("%-6s [%9.4f, %9.4f] %12.3e %12.3e %10d",
+					NAMES[f], LOW[f], HIGH[f], max, sum / points, points));
+		}
+	}
+	
+	public static void main(String[] args) {
+		printAccuracy(System.out);
+	}
+}
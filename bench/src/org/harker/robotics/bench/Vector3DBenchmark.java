@@ -0,0 +1,166 @@
+package org.harker.robotics.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.harker.robotics.harkerrobolib.util.MutableVector3D;
+import org.harker.robotics.harkerrobolib.util.Vector3D;
+import org.harker.robotics.harkerrobolib.util.Vector3DArray;
+import org.harker.robotics.harkerrobolib.util.Vector3DPool;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Times the {@link Vector3D} operations. Each one which returns a vector
+ * allocates it, which shows up in the gc profiler's allocation rate. The
+ * mutable benchmarks do the same work with {@link MutableVector3D}, a
+ * {@link Vector3DPool} and a {@link Vector3DArray} of {@link #BATCH} vectors,
+ * and should allocate nothing.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class Vector3DBenchmark {
+	
+	//The number of vectors in the batch benchmarks
+	public static final int BATCH = 64;
+	
+	private Vector3D u;
+	private Vector3D v;
+	private Vector3D w;
+	
+	private MutableVector3D mu;
+	private MutableVector3D mv;
+	private MutableVector3D mw;
+	private MutableVector3D dest;
+	private Vector3DPool pool;
+	private Vector3D[] objects;
+	private Vector3DArray batch;
+	private Vector3DArray batchOther;
+	private double[] dots;
+	
+	@Setup
+	public void setup() {
+		u = new Vector3D(1.5, -2.25, 0.75);
+		v = new Vector3D(-0.5, 3.0, 1.25);
+		w = new Vector3D(2.0, 0.5, -1.0);
+		
+		mu = new MutableVector3D().set(u);
+		mv = new MutableVector3D().set(v);
+		mw = new MutableVector3D().set(w);
+		dest = new MutableVector3D();
+		pool = Vector3DPool.get();
+		objects = new Vector3D[BATCH];
+		batch = new Vector3DArray(BATCH);
+		batchOther = new Vector3DArray(BATCH);
+		dots = new double[BATCH];
+		for (int i = 0; i < BATCH; i++) {
+			objects[i] = new Vector3D(i, -i, 0.5 * i);
+			batch.set(i, i, -i, 0.5 * i);
+			batchOther.set(i, 1, 2, 3);
+		}
+	}
+	
+	@Benchmark
+	public Vector3D add() {
+		return u.add(v);
+	}
+	
+	@Benchmark
+	public Vector3D subtract() {
+		return u.subtract(v);
+	}
+	
+	@Benchmark
+	public Vector3D scale() {
+		return u.scale(1.75);
+	}
+	
+	@Benchmark
+	public double dot() {
+		return u.dot(v);
+	}
+	
+	@Benchmark
+	public Vector3D cross() {
+		return u.cross(v);
+	}
+	
+	@Benchmark
+	public Vector3D normalize() {
+		return u.normalize();
+	}
+	
+	@Benchmark
+	public double magnitude() {
+		return u.magnitude();
+	}
+	
+	@Benchmark
+	public Vector3D vectorTriple() {
+		return u.vectorTrip(u, v, w);
+	}
+	
+	@Benchmark
+	public Vector3D polar() {
+		return new Vector3D(2.5, 0.6);
+	}
+	
+	@Benchmark
+	public MutableVector3D mutableAdd() {
+		return mu.addInto(mv, dest);
+	}
+	
+	@Benchmark
+	public MutableVector3D mutableCross() {
+		return mu.crossInto(mv, dest);
+	}
+	
+	@Benchmark
+	public MutableVector3D mutableNormalize() {
+		return dest.set(mu).normalizeInPlace();
+	}
+	
+	@Benchmark
+	public MutableVector3D mutableVectorTriple() {
+		return MutableVector3D.vectorTripInto(mu, mv, mw, dest);
+	}
+	
+	@Benchmark
+	public double pooledTemporaries() {
+		int mark = pool.mark();
+		MutableVector3D a = pool.acquire();
+		MutableVector3D b = pool.acquire();
+		mu.crossInto(mv, a);
+		mw.subtractInto(mu, b);
+		double result = a.dot(b);
+		pool.release(mark);
+		return result;
+	}
+	
+	@Benchmark
+	public double[] objectBatch() {
+		Vector3D other = new Vector3D(1, 2, 3);
+		for (int i = 0; i < BATCH; i++) {
+			objects[i] = objects[i].add(other).subtract(other);
+			dots[i] = objects[i].dot(other);
+		}
+		return dots;
+	}
+	
+	@Benchmark
+	public double[] arrayBatch() {
+		batch.addInPlace(batchOther).subtractInPlace(batchOther);
+		return batch.dotInto(batchOther, dots);
+	}
+}
@@ -0,0 +1,185 @@
+package org.harker.robotics;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.harker.robotics.harkerrobolib.util.FlightRecorder;
+import org.harker.robotics.harkerrobolib.wrappers.GamepadWrapper;
+import org.harker.robotics.subsystems.Drivetrain;
+import org.harker.robotics.subsystems.Manipulator;
+
+import edu.wpi.first.wpilibj.Timer;
+
+/**
+ * Records what the robot was told and what it did on every periodic call,
+ * using a {@link FlightRecorder}: the driver's raw inputs, the drive targets,
+ * every motor, the gyro, the wheel encoders, the limit switches, the range finder
+ * and the clamps.
+ * 
+ * The drivetrain's rate loop runs four times per periodic call, so it is
+ * recorded on its own: the control loop writes every pass, with the rate
+ * loop's setpoint, input and output, the Talons and the gyro, into a second
+ * recording alongside the first with {@link #LOOP_SUFFIX}.
+ * 
+ * Convert a recording to CSV with
+ * <code>java org.harker.robotics.harkerrobolib.util.FlightRecordDecoder flight.bin flight.csv</code>
+ */
+public class FlightLog {
+	
+	//Where the robot keeps its recording; the one before is kept alongside with PREVIOUS_SUFFIX
+	public static final String DEFAULT_FILE = "/home/lvuser/flight.bin";
+	public static final String PREVIOUS_SUFFIX = ".prev";
+	//About eleven minutes of periodic calls
+	public static final int CAPACITY = 1 << 15;
+	//The control loop's recording, and about eleven minutes of its passes
+	public static final String LOOP_SUFFIX = ".loop";
+	public static final int LOOP_CAPACITY = 1 << 17;
+	
+	//The mode the robot was in
+	public static final int MODE_DISABLED = 0;
+	public static final int MODE_AUTONOMOUS = 1;
+	public static final int MODE_TELEOP = 2;
+	public static final int MODE_TEST = 3;
+	
+	//The number of gamepad axes and buttons recorded
+	public static final int AXES = 6;
+	public static final int BUTTONS = GamepadWrapper.BUTTONS;
+	
+	//Indices of the fields
+	public static final int FIELD_MODE = 0;
+	public static final int FIELD_AXIS = 1;		//One per axis
+	public static final int FIELD_BUTTONS = FIELD_AXIS + AXES;		//Button n is bit n - 1
+	public static final int FIELD_TARGET_X = FIELD_BUTTONS + 1;
+	public static final int FIELD_TARGET_Y = FIELD_TARGET_X + 1;
+	public static final int FIELD_TARGET_T = FIELD_TARGET_Y + 1;
+	public static final int FIELD_RELATIVE = FIELD_TARGET_T + 1;
+	public static final int FIELD_LEFT_FRONT = FIELD_RELATIVE + 1;
+	public static final int FIELD_RIGHT_FRONT = FIELD_LEFT_FRONT + 1;
+	public static final int FIELD_LEFT_BACK = FIELD_RIGHT_FRONT + 1;
+	public static final int FIELD_RIGHT_BACK = FIELD_LEFT_BACK + 1;
+	public static final int FIELD_ELEVATOR = FIELD_RIGHT_BACK + 1;
+	public static final int FIELD_HEADING = FIELD_ELEVATOR + 1;
+	public static final int FIELD_ROTATIONAL_RATE = FIELD_HEADING + 1;
+	public static final int FIELD_FRONT_LEFT_DISTANCE = FIELD_ROTATIONAL_RATE + 1;
+	public static final int FIELD_FRONT_RIGHT_DISTANCE = FIELD_FRONT_LEFT_DISTANCE + 1;
+	public static final int FIELD_REAR_LEFT_DISTANCE = FIELD_FRONT_RIGHT_DISTANCE + 1;
+	public static final int FIELD_REAR_RIGHT_DISTANCE = FIELD_REAR_LEFT_DISTANCE + 1;
+	public static final int FIELD_HIGH_LIMIT = FIELD_REAR_RIGHT_DISTANCE + 1;
+	public static final int FIELD_LOW_LIMIT = FIELD_HIGH_LIMIT + 1;
+	public static final int FIELD_LEFT_CLAMP = FIELD_LOW_LIMIT + 1;
+	public static final int FIELD_RIGHT_CLAMP = FIELD_LEFT_CLAMP + 1;
+	public static final int FIELD_LEFT_BIN_CLAMP = FIELD_RIGHT_CLAMP + 1;
+	public static final int FIELD_RIGHT_BIN_CLAMP = FIELD_LEFT_BIN_CLAMP + 1;
+	public static final int FIELD_RANGE_FINDER = FIELD_RIGHT_BIN_CLAMP + 1;
+	public static final int FIELD_COUNT = FIELD_RANGE_FINDER + 1;
+	
+	private final FlightRecorder recorder;
+	private final FlightRecorder loopRecorder;
+	
+	/**
+	 * Starts a recording, and the control loop's alongside it, keeping the last
+	 * ones under the same names with {@link #PREVIOUS_SUFFIX} so that restarting
+	 * the robot after a brownout does not destroy the recording of what happened.
+	 * @param file The file to record into
+	 * @throws IOException If the files cannot be created
+	 */
+	public FlightLog(File file) throws IOException {
+		File loopFile = new File(file.getPath() + LOOP_SUFFIX);
+		keepPrevious(file);
+		keepPrevious(loopFile);
+		recorder = new FlightRecorder(file, getFieldNames(), CAPACITY);
+		loopRecorder = new FlightRecorder(loopFile, Drivetrain.getTraceFieldNames(), LOOP_CAPACITY);
+		Drivetrain.getInstance().setTrace(loopRecorder);
+	}
+	
+	private static void keepPrevious(File file) {
+		if (file.exists()) {
+			File previous = new File(file.getPath() + PREVIOUS_SUFFIX);
+			previous.delete();
+			file.renameTo(previous);
+		}
+	}
+	
+	/**
+	 * Names the fields, in the order of the FIELD_ constants.
+	 * @return The names
+	 */
+	public static String[] getFieldNames() {
+		String[] names = new String[FIELD_COUNT];
+		names[FIELD_MODE] = "mode";
+		for (int i = 0; i < AXES; i++)
+			names[FIELD_AXIS + i] = "axis " + i;
+		names[FIELD_BUTTONS] = "buttons";
+		names[FIELD_TARGET_X] = "target x";
+		names[FIELD_TARGET_Y] = "target y";
+		names[FIELD_TARGET_T] = "target t";
+		names[FIELD_RELATIVE] = "relative";
+		names[FIELD_LEFT_FRONT] = "left front";
+		names[FIELD_RIGHT_FRONT] = "right front";
+		names[FIELD_LEFT_BACK] = "left back";
+		names[FIELD_RIGHT_BACK] = "right back";
+		names[FIELD_ELEVATOR] = "elevator";
+		names[FIELD_HEADING] = "heading";
+		names[FIELD_ROTATIONAL_RATE] = "rotational rate";
+		names[FIELD_FRONT_LEFT_DISTANCE] = "front left distance";
+		names[FIELD_FRONT_RIGHT_DISTANCE] = "front right distance";
+		names[FIELD_REAR_LEFT_DISTANCE] = "rear left distance";
+		names[FIELD_REAR_RIGHT_DISTANCE] = "rear right distance";
+		names[FIELD_HIGH_LIMIT] = "high limit";
+		names[FIELD_LOW_LIMIT] = "low limit";
+		names[FIELD_LEFT_CLAMP] = "left clamp";
+		names[FIELD_RIGHT_CLAMP] = "right clamp";
+		names[FIELD_LEFT_BIN_CLAMP] = "left bin clamp";
+		names[FIELD_RIGHT_BIN_CLAMP] = "right bin clamp";
+		names[FIELD_RANGE_FINDER] = "range finder";
+		return names;
+	}
+	
+	/**
+	 * Records the state of the robot. Called at the end of every periodic call.
+	 * @param mode One of the MODE_ constants
+	 */
+	public void record(int mode) {
+		Drivetrain drivetrain = Drivetrain.getInstance();
+		Manipulator manipulator = Manipulator.getInstance();
+		
+		recorder.set(FIELD_MODE, mode);
+		for (int i = 0; i < AXES; i++)
+			recorder.set(FIELD_AXIS + i, OI.gamepad.getRawAxis(i));
+		recorder.set(FIELD_BUTTONS, OI.gamepad.getRawButtons() & ((1 << BUTTONS) - 1));
+		
+		recorder.set(FIELD_TARGET_X, drivetrain.getTargetX());
+		recorder.set(FIELD_TARGET_Y, drivetrain.getTargetY());
+		recorder.set(FIELD_TARGET_T, drivetrain.getTargetT());
+		recorder.set(FIELD_RELATIVE, drivetrain.isRelative());
+		recorder.set(FIELD_LEFT_FRONT, drivetrain.getLeftFrontSpeed());
+		recorder.set(FIELD_RIGHT_FRONT, drivetrain.getRightFrontSpeed());
+		recorder.set(FIELD_LEFT_BACK, drivetrain.getLeftBackSpeed());
+		recorder.set(FIELD_RIGHT_BACK, drivetrain.getRightBackSpeed());
+		recorder.set(FIELD_HEADING, drivetrain.getCurrentContinuousHeading());
+		recorder.set(FIELD_ROTATIONAL_RATE, drivetrain.getRotationalRate());
+		recorder.set(FIELD_FRONT_LEFT_DISTANCE, drivetrain.getFrontLeftDistance());
+		recorder.set(FIELD_FRONT_RIGHT_DISTANCE, drivetrain.getFrontRightDistance());
+		recorder.set(FIELD_REAR_LEFT_DISTANCE, drivetrain.getRearLeftDistance());
+		recorder.set(FIELD_REAR_RIGHT_DISTANCE, drivetrain.getRearRightDistance());
+		
+		recorder.set(FIELD_ELEVATOR, manipulator.getElevatorSpeed());
+		recorder.set(FIELD_HIGH_LIMIT, manipulator.isHighSwitchPressed());
+		recorder.set(FIELD_LOW_LIMIT, manipulator.isLowSwitchPressed());
+		recorder.set(FIELD_LEFT_CLAMP, manipulator.getLeftClamp());
+		recorder.set(FIELD_RIGHT_CLAMP, manipulator.getRightClamp());
+		recorder.set(FIELD_LEFT_BIN_CLAMP, manipulator.getLeftBinClamp());
+		recorder.set(FIELD_RIGHT_BIN_CLAMP, manipulator.getRightBinClamp());
+		recorder.set(FIELD_RANGE_FINDER, manipulator.getRangeFinderVoltage());
+		
+		recorder.commit(Timer.getFPGATimestamp());
+	}
+	
+	/**
+	 * Writes both recordings out to the disk. Takes too long to call every period.
+	 */
+	public void force() {
+		recorder.force();
+		loopRecorder.force();
+	}
+}
@@ -6,14 +6,19 @@ import java.awt.event.KeyEvent;
 
 import org.harker.robotics.RobotMap;
 
+import org.harker.robotics.commands.AutoTuneElevatorCommand;
+import org.harker.robotics.commands.AutoTuneRotationCommand;
 import org.harker.robotics.commands.ToggleClampsCommand;
 import org.harker.robotics.commands.ToggleBotBinClampCommand;
 import org.harker.robotics.commands.ToggleLeftClampCommand;
 import org.harker.robotics.commands.ToggleTopBinClampCommand;
 import org.harker.robotics.commands.ToggleRightClampCommand;
+import org.harker.robotics.harkerrobolib.util.AxisCurve;
+import org.harker.robotics.harkerrobolib.util.ButtonEventQueue;
 import org.harker.robotics.harkerrobolib.wrappers.GamepadWrapper;
 
 import edu.wpi.first.wpilibj.command.Command;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 
 /**
  * This class is the glue that binds the controls on the physical operator
@@ -28,6 +33,11 @@ public class OI {
 	private static OI oi; 
 	public static GamepadWrapper gamepad;
 	
+	//Shaping for the driving sticks: the left stick as a whole, with a round
+	//dead zone, and the right stick's x axis for rotation
+	public static final AxisCurve TRANSLATION_CURVE = new AxisCurve(0.15, 0.4, 1);
+	public static final AxisCurve ROTATION_CURVE = new AxisCurve(0.20, 0.6, 1);
+	
 	/**
 	 * OI singleton constructor. Initializes the gamepad along with 
 	 * the functionalities associated with buttons on the gamepad. 
@@ -35,13 +45,16 @@ public class OI {
 	public OI() {
 		gamepad = new GamepadWrapper(RobotMap.OI.GAMEPAD_PORT, GamepadWrapper.SETTING_XBOX);
 //		gamepad.getButtonB().whenPressed(new ToggleRelativeDrivingCommand());
-		gamepad.getButtonA().whenPressed(new ToggleClampsCommand());
-		gamepad.getButtonBumperLeft().whenPressed(new ToggleLeftClampCommand());
-		gamepad.getButtonBumperRight().whenPressed(new ToggleRightClampCommand());
-		gamepad.getButtonX().whenPressed(new ToggleBotBinClampCommand());
-		gamepad.getButtonY().whenPressed(new ToggleTopBinClampCommand());
+		gamepad.getButtonA().whenEvent(ButtonEventQueue.PRESSED, new ToggleClampsCommand());
+		gamepad.getButtonBumperLeft().whenEvent(ButtonEventQueue.PRESSED, new ToggleLeftClampCommand());
+		gamepad.getButtonBumperRight().whenEvent(ButtonEventQueue.PRESSED, new ToggleRightClampCommand());
+		gamepad.getButtonX().whenEvent(ButtonEventQueue.PRESSED, new ToggleBotBinClampCommand());
+		gamepad.getButtonY().whenEvent(ButtonEventQueue.PRESSED, new ToggleTopBinClampCommand());
 //		gamepad.getButtonX().whenPressed(new ResetElevatorCommand());
 		
+		SmartDashboard.putData("Auto-tune rotation", new AutoTuneRotationCommand());
+		SmartDashboard.putData("Auto-tune elevator", new AutoTuneElevatorCommand());
+		
 //		gamepad.addKeyboard().addKeyListener(new KeyListener() {
 //			public void keyPressed(KeyEvent event) {
 //				switch (event.getKeyCode()) {
@@ -1,17 +1,8 @@
-
 package org.harker.robotics;
 
-import org.harker.robotics.OI;
-import org.harker.robotics.commands.AutonomousCommand;
-import org.harker.robotics.commands.PersistentCommands;
-import org.harker.robotics.subsystems.Drivetrain;
-import org.harker.robotics.subsystems.Manipulator;
+import java.io.File;
 
-import edu.wpi.first.wpilibj.CameraServer;
 import edu.wpi.first.wpilibj.IterativeRobot;
-import edu.wpi.first.wpilibj.command.Scheduler;
-import edu.wpi.first.wpilibj.livewindow.LiveWindow;
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 
 /**
  * The VM is configured to automatically run this class, and to call the
@@ -20,45 +11,42 @@ import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
  * creating this project, you must also update the manifest file in the resource
  * directory.
  * 
+ * The work for each mode lives in {@link RobotCore} so that it can also be run
+ * by the headless simulator.
+ * 
  * @author Andrew Tierno
  * @author Vedaad Shakib
  */
 public class Robot extends IterativeRobot {
+	
+	RobotCore core = new RobotCore();
+	
     /**
      * This function is run when the robot is first started up and should be
      * used for any initialization code.
      */
-	
-	PersistentCommands persistentCommands;
-	CameraServer server;
-	
     public void robotInit() {
-    	Drivetrain.initialize();
-    	Manipulator.initialize();
-		OI.initialize();
-
-		persistentCommands = new PersistentCommands();
+    	core.robotInit();
+    	core.startRecording(new File(FlightLog.DEFAULT_FILE));
     }
 	
 	public void disabledPeriodic() {
-		Scheduler.getInstance().run();
+		core.disabledPeriodic();
 	}
 
     public void autonomousInit() {
-    	persistentCommands.start();
-    	(new AutonomousCommand()).start();
+    	core.autonomousInit();
     }
 
     /**
      * This function is called periodically during autonomous
      */
     public void autonomousPeriodic() {
-        Scheduler.getInstance().run();
+        core.autonomousPeriodic();
     }
 
     public void teleopInit() {
-    	persistentCommands.start();
-    	Drivetrain.getInstance().enable();
+    	core.teleopInit();
     }
 
     /**
@@ -66,20 +54,20 @@ public class Robot extends IterativeRobot {
      * You can use it to reset subsystems before shutting down.
      */
     public void disabledInit(){
-
+    	core.disabledInit();
     }
 
     /**
      * This function is called periodically during operator control
      */
     public void teleopPeriodic() {
-        Scheduler.getInstance().run();
+        core.teleopPeriodic();
     }
     
     /**
      * This function is called periodically during test mode
      */
     public void testPeriodic() {
-        LiveWindow.run();
+        core.testPeriodic();
     }
 }
@@ -0,0 +1,160 @@
+package org.harker.robotics;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.harker.robotics.commands.AutonomousCommand;
+import org.harker.robotics.commands.PersistentCommands;
+import org.harker.robotics.harkerrobolib.util.LoopTimer;
+import org.harker.robotics.harkerrobolib.util.TelemetryPublisher;
+import org.harker.robotics.subsystems.Drivetrain;
+import org.harker.robotics.subsystems.Manipulator;
+
+import edu.wpi.first.wpilibj.command.Scheduler;
+import edu.wpi.first.wpilibj.livewindow.LiveWindow;
+
+/**
+ * The work done by the robot in each mode. {@link Robot} simply forwards the
+ * IterativeRobot callbacks here, which lets the headless simulator run exactly
+ * the same lifecycle without constructing an IterativeRobot (whose constructor
+ * requires the driver station).
+ */
+public class RobotCore {
+	
+	//The time between calls of the periodic methods, set by the driver station, in seconds
+	public static final double PERIOD = 0.02;
+	//How many periodic calls pass between publishing the loop timings
+	private static final int PUBLISH_INTERVAL = 50;
+	
+	private PersistentCommands persistentCommands;
+	private final LoopTimer autonomousTimer = LoopTimer.forLoop("Autonomous periodic", PERIOD);
+	private final LoopTimer teleopTimer = LoopTimer.forLoop("Teleop periodic", PERIOD);
+	private int ticks;
+	private FlightLog flightLog;
+	
+	/**
+	 * Initializes the subsystems and the OI. Called once when the robot starts.
+	 */
+	public void robotInit() {
+		Drivetrain.initialize();
+		Manipulator.initialize();
+		OI.initialize();
+		
+		persistentCommands = new PersistentCommands();
+		TelemetryPublisher.start(TelemetryPublisher.DEFAULT_RATE);
+	}
+	
+	/**
+	 * Starts recording the state of the robot on every periodic call. Must be
+	 * called after {@link #robotInit()}. If the recording cannot be started the
+	 * robot runs without one.
+	 * @param file The file to record into
+	 */
+	public void startRecording(File file) {
+		try {
+			flightLog = new FlightLog(file);
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+	
+	/**
+	 * Called when the robot is disabled.
+	 */
+	public void disabledInit() {
+		//The end of a match is a good time to make sure the recording is on disk
+		if (flightLog != null)
+			flightLog.force();
+	}
+	
+	/**
+	 * Called periodically while the robot is disabled.
+	 */
+	public void disabledPeriodic() {
+		beginPeriodic();
+		Scheduler.getInstance().run();
+		endPeriodic(FlightLog.MODE_DISABLED);
+	}
+	
+	/**
+	 * Starts the autonomous routine.
+	 */
+	public void autonomousInit() {
+		autonomousInit(AutonomousCommand.DEFAULT_MODE);
+	}
+	
+	/**
+	 * Starts the autonomous routine for a mode.
+	 * @param mode The autonomous mode, as given to {@link AutonomousCommand#AutonomousCommand(String)}
+	 */
+	public void autonomousInit(String mode) {
+		//Autonomous starts from where the robot was placed, which is the origin of the field
+		Drivetrain.getInstance().resetPose(0, 0, 0);
+		persistentCommands.start();
+		(new AutonomousCommand(mode)).start();
+		autonomousTimer.restart();
+	}
+	
+	/**
+	 * Called periodically during autonomous.
+	 */
+	public void autonomousPeriodic() {
+		beginPeriodic();
+		autonomousTimer.start();
+		Scheduler.getInstance().run();
+		autonomousTimer.stop();
+		endPeriodic(FlightLog.MODE_AUTONOMOUS);
+	}
+	
+	/**
+	 * Prepares the robot for operator control.
+	 */
+	public void teleopInit() {
+		persistentCommands.start();
+		Drivetrain.getInstance().enable();
+		teleopTimer.restart();
+	}
+	
+	/**
+	 * Called periodically during operator control.
+	 */
+	public void teleopPeriodic() {
+		beginPeriodic();
+		teleopTimer.start();
+		Scheduler.getInstance().run();
+		teleopTimer.stop();
+		endPeriodic(FlightLog.MODE_TELEOP);
+	}
+	
+	/**
+	 * Called periodically during test mode.
+	 */
+	public void testPeriodic() {
+		beginPeriodic();
+		LiveWindow.run();
+		endPeriodic(FlightLog.MODE_TEST);
+	}
+	
+	/**
+	 * Reads the driver's input once for the whole periodic call, so every
+	 * command sees the same input. Called at the start of every periodic call.
+	 */
+	private void beginPeriodic() {
+		OI.gamepad.update();
+	}
+	
+	/**
+	 * Writes the solenoids, records the state of the robot, if recording, and puts the loop timings
+	 * on the SmartDashboard every {@link #PUBLISH_INTERVAL} periodic calls,
+	 * which is often enough to watch and rare enough not to load the loop it measures.
+	 * @param mode The mode the robot is in, one of the FlightLog.MODE_ constants
+	 */
+	private void endPeriodic(int mode) {
+		//Every clamp set during the call goes out in one write, before it is recorded
+		Manipulator.getInstance().flushSolenoids();
+		if (flightLog != null)
+			flightLog.record(mode);
+		if (++ticks % PUBLISH_INTERVAL == 0)
+			LoopTimer.publishAll();
+	}
+}
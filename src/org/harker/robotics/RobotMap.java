@@ -19,6 +19,16 @@ public class RobotMap {
 	    public static final int RIGHT_BACK_TALON_PORT = 1;
 	    
 	    public static final int GYRO_PORT = 0;
+	    
+	    //Each encoder takes an A and a B channel
+	    public static final int LEFT_FRONT_ENCODER_A_PORT = 0;
+	    public static final int LEFT_FRONT_ENCODER_B_PORT = 1;
+	    public static final int RIGHT_FRONT_ENCODER_A_PORT = 2;
+	    public static final int RIGHT_FRONT_ENCODER_B_PORT = 3;
+	    public static final int LEFT_BACK_ENCODER_A_PORT = 4;
+	    public static final int LEFT_BACK_ENCODER_B_PORT = 5;
+	    public static final int RIGHT_BACK_ENCODER_A_PORT = 6;
+	    public static final int RIGHT_BACK_ENCODER_B_PORT = 7;
 	}
 	
 	/**
@@ -32,6 +42,7 @@ public class RobotMap {
 		public static final int ELEVATOR_TALON_PORT = 4;
 		public static final int LIMIT_SWITCH_HIGH_PORT = 8;
 		public static final int LIMIT_SWITCH_LOW_PORT = 9;
+		public static final int RANGE_FINDER_PORT = 1;
 	}
 	
 	/**
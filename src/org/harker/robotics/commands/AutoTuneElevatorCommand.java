@@ -0,0 +1,69 @@
+package org.harker.robotics.commands;
+
+import org.harker.robotics.harkerrobolib.commands.InstrumentedCommand;
+import org.harker.robotics.harkerrobolib.util.RelayTuner;
+import org.harker.robotics.subsystems.Manipulator;
+
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+
+/**
+ * Runs a relay feedback test on the elevator's height around the middle of
+ * its travel and proposes gains for a height loop. The relay runs at the
+ * Scheduler's rate through {@link Manipulator#moveElevator(double)}, so the
+ * limit switches still stop the elevator. The proposed gains are printed and
+ * put on the dashboard.
+ */
+public class AutoTuneElevatorCommand extends InstrumentedCommand {
+	
+	//The height to oscillate around, in inches
+	private static final double SETPOINT = 40;
+	//The speed which roughly holds the elevator against gravity
+	private static final double BIAS = 0.05;
+	private static final double AMPLITUDE = 0.3;
+	private static final double HYSTERESIS = 0.5;
+	private static final int CYCLES = 3;
+	private static final int RULE = RelayTuner.RULE_CLASSIC_PID;
+	//Give up if the elevator has not settled into an oscillation by then
+	private static final double TIMEOUT = 15;
+	
+	private Manipulator manipulator;
+	private RelayTuner tuner;
+	
+	public AutoTuneElevatorCommand() {
+		manipulator = Manipulator.getInstance();
+		requires(manipulator);
+		setTimeout(TIMEOUT);
+	}
+	
+	// Called just before this Command runs the first time
+	protected void initialize() {
+		tuner = new RelayTuner(SETPOINT, BIAS, AMPLITUDE, HYSTERESIS, CYCLES);
+	}
+	
+	// Called repeatedly when this Command is scheduled to run
+	protected void timedExecute() {
+		manipulator.moveElevator(tuner.update(manipulator.getAverageElevatorHeight(), timeSinceInitialized()));
+	}
+	
+	// Make this return true when this Command no longer needs to run execute()
+	protected boolean isFinished() {
+		return tuner.isDone() || isTimedOut();
+	}
+	
+	// Called once after isFinished returns true
+	protected void end() {
+		manipulator.moveElevator(0);
+		tuner.printReport(System.out, "Elevator height loop");
+		if (tuner.isDone() && !Double.isNaN(tuner.getUltimateGain())) {
+			SmartDashboard.putNumber("Elevator P", tuner.getP(RULE));
+			SmartDashboard.putNumber("Elevator I", tuner.getI(RULE));
+			SmartDashboard.putNumber("Elevator D", tuner.getD(RULE));
+		}
+	}
+	
+	// Called when another command which requires one or more of the same
+	// subsystems is scheduled to run
+	protected void interrupted() {
+		manipulator.moveElevator(0);
+	}
+}
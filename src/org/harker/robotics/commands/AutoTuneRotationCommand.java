@@ -0,0 +1,80 @@
+package org.harker.robotics.commands;
+
+import org.harker.robotics.harkerrobolib.commands.InstrumentedCommand;
+import org.harker.robotics.harkerrobolib.util.RelayTuner;
+import org.harker.robotics.subsystems.Drivetrain;
+
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+
+/**
+ * Runs a relay feedback test on the drivetrain's rotational rate loop with the
+ * robot turning in place, and proposes gains for the loop. The relay runs in
+ * the drivetrain's control loop at its full rate (see
+ * {@link Drivetrain#startTuning(RelayTuner)}). The proposed gains are printed
+ * and put in the DT P, DT I and DT D dashboard fields, so that they take
+ * effect when Reset PID is pressed and not before.
+ */
+public class AutoTuneRotationCommand extends InstrumentedCommand {
+	
+	//The rate to oscillate around, in the units of the rate loop's input
+	private static final double SETPOINT = 0;
+	//How hard the relay turns the robot either way. A positive rotation
+	//lowers the rate loop's input, so the relay works in reverse.
+	private static final double AMPLITUDE = -0.3;
+	private static final double HYSTERESIS = 0.01;
+	private static final int CYCLES = 4;
+	//Gyro rates are noisy, so the rate loop is tuned as a PI loop
+	private static final int RULE = RelayTuner.RULE_PI;
+	//Give up if the robot has not settled into an oscillation by then
+	private static final double TIMEOUT = 10;
+	
+	private Drivetrain drivetrain;
+	private RelayTuner tuner;
+	
+	public AutoTuneRotationCommand() {
+		drivetrain = Drivetrain.getInstance();
+		requires(drivetrain);
+		setTimeout(TIMEOUT);
+	}
+	
+	// Called just before this Command runs the first time
+	protected void initialize() {
+		tuner = new RelayTuner(SETPOINT, 0, AMPLITUDE, HYSTERESIS, CYCLES);
+		drivetrain.startTuning(tuner);
+	}
+	
+	// The relay runs in the drivetrain's control loop
+	protected void timedExecute() {
+	}
+	
+	// Make this return true when this Command no longer needs to run execute()
+	protected boolean isFinished() {
+		return tuner.isDone() || isTimedOut();
+	}
+	
+	// Called once after isFinished returns true
+	protected void end() {
+		stop();
+		tuner.printReport(System.out, "Rotational rate loop");
+		if (tuner.isDone() && !Double.isNaN(tuner.getUltimateGain())) {
+			SmartDashboard.putNumber("DT P", tuner.getP(RULE));
+			SmartDashboard.putNumber("DT I", tuner.getI(RULE));
+			SmartDashboard.putNumber("DT D", tuner.getD(RULE));
+		}
+	}
+	
+	// Called when another command which requires one or more of the same
+	// subsystems is scheduled to run
+	protected void interrupted() {
+		stop();
+	}
+	
+	/**
+	 * Stops the robot and hands the drivetrain back to its rate loop, which
+	 * the relay took the place of, so that driving works again at once.
+	 */
+	private void stop() {
+		drivetrain.drive(0, 0, 0);
+		drivetrain.enable();
+	}
+}
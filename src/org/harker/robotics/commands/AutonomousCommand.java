@@ -25,8 +25,23 @@ public class AutonomousCommand extends CommandGroup {
 	private static final double TIME_TO_TOTE = 2;
 	private static final double TOTE_HEIGHT = 27;
 	private static final double BIN_HEIGHT = 20;
+	//How far the profiled backup drives, to the middle of the auto zone
+	private static final double DISTANCE_TO_ZONE = 3.2;
+	//The trajectory which backs away from the tote, turns and drives into the auto zone in one move
+	private static final String TOTE_TRAJECTORY = "Tote";
 	
-    public  AutonomousCommand() {
+	//The mode run when none is chosen
+	public static final String DEFAULT_MODE = "Backup";
+	
+	public AutonomousCommand() {
+		this(DEFAULT_MODE);
+	}
+	
+	/**
+	 * Creates the autonomous routine for a mode.
+	 * @param mode "Bin", "Path", "Backup", "Profiled" or "Proto"; anything else runs the complex routine
+	 */
+    public  AutonomousCommand(String mode) {
     	manipulator = Manipulator.getInstance();
     	drivetrain = Drivetrain.getInstance();
     	drivetrain.disable();
@@ -35,7 +50,6 @@ public class AutonomousCommand extends CommandGroup {
 //		addSequential(new ResetElevatorCommand());
 				
 //		String mode = SmartDashboard.getString("Autonomous mode");
-    	String mode = "Backup";
 		System.out.println("Mode: " + mode);
 
 		try {
@@ -46,19 +60,12 @@ public class AutonomousCommand extends CommandGroup {
 	    	addSequential(new DriveForTimeCommand(TIME_TO_SCORING, 0.6));
 //	    	addSequential(new ResetElevatorCommand());
 	        addSequential(new OpenClampsCommand());
-    	} else if (mode.equalsIgnoreCase("Tote")) {
-    		System.out.println("Start tote");
-	    	addSequential(new CloseClampsCommand());
-	    	addSequential(new WaitForTimeCommand(WAIT_TIME));
-	    	addSequential(new DriveForTimeCommand(0.2, -0.3));
-	    	addSequential(new ElevForTimeCommand(0.5, 1));
-	    	
-//	    	addSequential(new MoveForTimeCommand(.3));
-//	    	addSequential(new RotateCommand(-90));
-	    	addSequential(new RotateForTimeCommand(2, 0.3));
-	    	addSequential(new DriveForTimeCommand(1.5, 0.7));
-//	    	addSequential(new ResetElevatorCommand());
-	        addSequential(new OpenClampsCommand());
+    	} else if (mode.equalsIgnoreCase("Path")) {
+    		addSequential(new CloseClampsCommand());
+    		addSequential(new WaitForTimeCommand(WAIT_TIME));
+    		addSequential(new ElevForTimeCommand(0.5, 1));
+    		addSequential(new FollowTrajectoryCommand(TOTE_TRAJECTORY));
+    		addSequential(new OpenClampsCommand());
     	} else if (mode.equalsIgnoreCase("Backup")) {
     		addSequential(new CloseClampsCommand());
     		addSequential(new ElevForTimeCommand(0.4, 1.6));
@@ -68,6 +75,12 @@ public class AutonomousCommand extends CommandGroup {
     		addSequential(new WaitForTimeCommand(1));
     		addSequential(new OpenClampsCommand());
 //    		addSequential(new ElevForTimeCommand(-0.4, 2.5));
+    	} else if (mode.equalsIgnoreCase("Profiled")) {
+    		addSequential(new CloseClampsCommand());
+    		addSequential(new ElevForTimeCommand(0.4, 1.6));
+    		addSequential(new DriveProfileCommand(DISTANCE_TO_ZONE));
+    		addSequential(new WaitForTimeCommand(1));
+    		addSequential(new OpenClampsCommand());
     	} else if (mode.equalsIgnoreCase("Proto")) {
 //    		addParallel(new ElevForTimeCommand(-1, 6));
     		
@@ -1,15 +1,14 @@
 package org.harker.robotics.commands;
 
+import org.harker.robotics.harkerrobolib.commands.InstrumentedCommand;
 import org.harker.robotics.subsystems.Manipulator;
 
-import edu.wpi.first.wpilibj.command.Command;
-
 /**
  * Closes the clamps.
  * 
  * @author Vedaad Shakib
  */
-public class CloseClampsCommand extends Command {
+public class CloseClampsCommand extends InstrumentedCommand {
 
 	Manipulator manipulator;
 	
@@ -22,7 +21,7 @@ public class CloseClampsCommand extends Command {
     }
 
     // Called repeatedly when this Command is scheduled to run
-    protected void execute() {
+    protected void timedExecute() {
     	manipulator.closeClamps();
     	System.out.println("Executed Close Clamps");
     }
@@ -1,15 +1,14 @@
 package org.harker.robotics.commands;
 
+import org.harker.robotics.harkerrobolib.commands.InstrumentedCommand;
 import org.harker.robotics.subsystems.Drivetrain;
 
-import edu.wpi.first.wpilibj.command.Command;
-
 /**
- * Drives for a specific time (can't do distance as we have no encoders)
+ * Drives for a specific time. To drive a distance, use {@link DriveProfileCommand}.
  * 
  * @author Vedaad Shakib
  */
-public class DriveForTimeCommand extends Command {
+public class DriveForTimeCommand extends InstrumentedCommand {
 
 	Drivetrain drivetrain;
 	double speed;
@@ -33,7 +32,7 @@ public class DriveForTimeCommand extends Command {
     }
 
     // Called repeatedly when this Command is scheduled to run
-    protected void execute() {
+    protected void timedExecute() {
     	drivetrain.driveRaw(speed);
 //    	if (speed < 0.6) speed += 0.05;
 //    	System.out.println("Executed Drive for time");
@@ -0,0 +1,108 @@
+package org.harker.robotics.commands;
+
+import org.harker.robotics.harkerrobolib.commands.InstrumentedCommand;
+import org.harker.robotics.harkerrobolib.util.MotionProfile;
+import org.harker.robotics.harkerrobolib.util.Pose;
+import org.harker.robotics.subsystems.Drivetrain;
+
+/**
+ * Drives a set distance along a {@link MotionProfile} made when the command
+ * is constructed. Each pass looks up the profile's velocity and acceleration
+ * for the time since the command started and turns them into a raw speed
+ * with a feedforward model of the drivetrain, so the move takes the same
+ * shape every time. Whatever the model gets wrong is corrected in proportion
+ * to how far the odometry's pose has fallen behind the profile's position,
+ * measured along the axis the robot faced when it started.
+ */
+public class DriveProfileCommand extends InstrumentedCommand {
+	
+	//The directions the command can drive in
+	public static final int AXIS_FORWARD = 0;		//As driveRaw drives
+	public static final int AXIS_STRAFE = 1;		//As strafeRaw drives
+	
+	//Limits for the default S-curve profile
+	public static final double MAX_VELOCITY = 2.5;			//m/s
+	public static final double MAX_ACCELERATION = 3;		//m/s^2
+	public static final double MAX_JERK = 15;				//m/s^3
+	public static final double TIME_STEP = 0.01;			//s
+	
+	//Feedforward for each axis: raw speed per m/s and per m/s^2. Strafing
+	//loses some speed and force to the rollers. Shared with FollowTrajectoryCommand.
+	static final double[] KV = {0.258, 0.37};
+	static final double[] KA = {0.045, 0.064};
+	//Raw speed per meter behind the profile
+	private static final double[] KP = {1.0, 1.4};
+	
+	Drivetrain drivetrain;
+	private final int axis;
+	private final MotionProfile profile;
+	//Where the robot started and the direction a positive speed drives it in the field
+	private Pose start;
+	private double directionX, directionY;
+	
+	/**
+	 * Drives forward along an S-curve profile with the default limits.
+	 * @param distance The distance in meters, in the direction a positive speed drives
+	 */
+	public DriveProfileCommand(double distance) {
+		this(AXIS_FORWARD, MotionProfile.sCurve(distance, MAX_VELOCITY, MAX_ACCELERATION, MAX_JERK, TIME_STEP));
+	}
+	
+	/**
+	 * Drives along a profile.
+	 * @param axis AXIS_FORWARD or AXIS_STRAFE
+	 * @param profile The profile, in meters
+	 */
+	public DriveProfileCommand(int axis, MotionProfile profile) {
+		drivetrain = Drivetrain.getInstance();
+		requires(drivetrain);
+		this.axis = axis;
+		this.profile = profile;
+	}
+	
+	// Called just before this Command runs the first time
+	protected void initialize() {
+		start = drivetrain.getPose();
+		double h = Math.toRadians(start.getHeading());
+		if (axis == AXIS_STRAFE) {
+			directionX = Math.cos(h);
+			directionY = -Math.sin(h);
+		} else {
+			//A positive speed drives backward
+			directionX = -Math.sin(h);
+			directionY = -Math.cos(h);
+		}
+	}
+	
+	// Called repeatedly when this Command is scheduled to run
+	protected void timedExecute() {
+		double t = timeSinceInitialized();
+		Pose pose = drivetrain.getPose();
+		double travelled = (pose.getX() - start.getX()) * directionX + (pose.getY() - start.getY()) * directionY;
+		double error = profile.getPosition(t) - travelled;
+		drive(KV[axis] * profile.getVelocity(t) + KA[axis] * profile.getAcceleration(t) + KP[axis] * error);
+	}
+	
+	// Make this return true when this Command no longer needs to run execute()
+	protected boolean isFinished() {
+		return profile.isFinished(timeSinceInitialized());
+	}
+	
+	// Called once after isFinished returns true
+	protected void end() {
+		drive(0);
+	}
+	
+	// Called when another command which requires one or more of the same
+	// subsystems is scheduled to run
+	protected void interrupted() {
+		drive(0);
+	}
+	
+	private void drive(double speed) {
+		if (axis == AXIS_STRAFE)
+			drivetrain.strafeRaw(speed);
+		else
+			drivetrain.driveRaw(speed);
+	}
+}
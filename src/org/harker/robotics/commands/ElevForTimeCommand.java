@@ -1,13 +1,12 @@
 package org.harker.robotics.commands;
 
+import org.harker.robotics.harkerrobolib.commands.InstrumentedCommand;
 import org.harker.robotics.subsystems.Manipulator;
 
-import edu.wpi.first.wpilibj.command.Command;
-
 /**
  *
  */
-public class ElevForTimeCommand extends Command {
+public class ElevForTimeCommand extends InstrumentedCommand {
 	
 //	private double targetHeight, startHeight;
 	private Manipulator manipulator;
@@ -33,7 +32,7 @@ public class ElevForTimeCommand extends Command {
     }
 
     // Called repeatedly when this Command is scheduled to run
-    protected void execute() {
+    protected void timedExecute() {
     	manipulator.moveElevator(speed);
     }
 
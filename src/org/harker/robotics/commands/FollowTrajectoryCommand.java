@@ -0,0 +1,146 @@
+package org.harker.robotics.commands;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.harker.robotics.harkerrobolib.commands.InstrumentedCommand;
+import org.harker.robotics.harkerrobolib.util.IOUtil;
+import org.harker.robotics.harkerrobolib.util.MathUtil;
+import org.harker.robotics.harkerrobolib.util.Pose;
+import org.harker.robotics.harkerrobolib.util.Trajectory;
+import org.harker.robotics.subsystems.Drivetrain;
+
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+
+/**
+ * Drives the robot along a {@link Trajectory}, moving and turning at once.
+ * Each pass looks up where the trajectory wants the robot to be at the time
+ * since the command started and how fast it should be moving there. The
+ * velocity is corrected in proportion to how far the odometry's pose is from
+ * the trajectory, turned from the field frame into the robot's frame at the
+ * robot's heading, and turned into raw speeds by the same feedforward model
+ * as {@link DriveProfileCommand}. Once the trajectory is over, the command
+ * keeps correcting until the robot is at its end or a short time has passed.
+ * 
+ * Trajectories are in the field frame, which is set at the start of
+ * autonomous, and are read from files made by
+ * {@link org.harker.robotics.harkerrobolib.util.TrajectoryGenerator}.
+ */
+public class FollowTrajectoryCommand extends InstrumentedCommand {
+	
+	//Where trajectory files are kept; the headless targets point this at the repository
+	public static final String DIRECTORY = System.getProperty("trajectory.dir", "/home/lvuser/trajectories");
+	public static final String EXTENSION = ".traj";
+	
+	//Raw rotational speed per degree per second, as measured turning in place
+	private static final double KV_ROTATION = 0.0048;
+	//Correction in m/s per meter off the trajectory, and in degrees per second per degree
+	private static final double KP_POSITION = 2.0;
+	private static final double KP_HEADING = 3.0;
+	
+	//How close to the end counts as there, and how long to keep trying after the trajectory is over
+	private static final double POSITION_TOLERANCE = 0.05;	//m
+	private static final double HEADING_TOLERANCE = 3;		//degrees
+	private static final double SETTLE_TIME = 0.5;			//s
+	
+	Drivetrain drivetrain;
+	private final Trajectory trajectory;
+	
+	/**
+	 * Follows a trajectory from the trajectory directory. If it cannot be
+	 * read, the command does nothing, and says so on the SmartDashboard
+	 * under "Trajectory".
+	 * @param name The name of the file, without its extension
+	 */
+	public FollowTrajectoryCommand(String name) {
+		this(load(name));
+	}
+	
+	/**
+	 * Follows a trajectory.
+	 * @param trajectory The trajectory, or null to do nothing
+	 */
+	public FollowTrajectoryCommand(Trajectory trajectory) {
+		drivetrain = Drivetrain.getInstance();
+		requires(drivetrain);
+		this.trajectory = trajectory;
+	}
+	
+	/**
+	 * Reads a trajectory file and reports whether it could be read, so that a
+	 * missing file shows up before the robot sits still through autonomous.
+	 * @param name The name of the file, without its extension
+	 * @return The trajectory, or null if it could not be read
+	 */
+	private static Trajectory load(String name) {
+		File file = new File(DIRECTORY, name + EXTENSION);
+		try {
+			Trajectory trajectory = Trajectory.read(file);
+			SmartDashboard.putString("Trajectory", name + ": " + trajectory.getDuration() + " s");
+			return trajectory;
+		} catch (IOException e) {
+			IOUtil.warn("Could not read trajectory " + file + ": " + e.getMessage());
+			SmartDashboard.putString("Trajectory", name + ": NOT LOADED, the robot will not move");
+			return null;
+		}
+	}
+	
+	// Called just before this Command runs the first time
+	protected void initialize() {
+	}
+	
+	// Called repeatedly when this Command is scheduled to run
+	protected void timedExecute() {
+		if (trajectory == null)
+			return;
+		double t = timeSinceInitialized();
+		Pose pose = drivetrain.getPose();
+	
+		//Field frame velocity and acceleration, with the correction toward the trajectory
+		double vX = trajectory.getVelocityX(t) + KP_POSITION * (trajectory.getX(t) - pose.getX());
+		double vY = trajectory.getVelocityY(t) + KP_POSITION * (trajectory.getY(t) - pose.getY());
+		double aX = trajectory.getAccelerationX(t);
+		double aY = trajectory.getAccelerationY(t);
+		double rate = trajectory.getRotationalRate(t) + KP_HEADING * (trajectory.getHeading(t) - pose.getHeading());
+	
+		//Into the robot frame
+		double h = Math.toRadians(pose.getHeading());
+		double sin = MathUtil.sin(h), cos = MathUtil.cos(h);
+		double forward = vX * sin + vY * cos;
+		double right = vX * cos - vY * sin;
+		double aForward = aX * sin + aY * cos;
+		double aRight = aX * cos - aY * sin;
+	
+		int f = DriveProfileCommand.AXIS_FORWARD;
+		int s = DriveProfileCommand.AXIS_STRAFE;
+		//A positive raw forward speed drives backward
+		drivetrain.driveRaw(DriveProfileCommand.KV[s] * right + DriveProfileCommand.KA[s] * aRight,
+				-(DriveProfileCommand.KV[f] * forward + DriveProfileCommand.KA[f] * aForward),
+				KV_ROTATION * rate);
+	}
+	
+	// Make this return true when this Command no longer needs to run execute()
+	protected boolean isFinished() {
+		if (trajectory == null)
+			return true;
+		double t = timeSinceInitialized();
+		if (!trajectory.isFinished(t))
+			return false;
+		Pose end = trajectory.getEnd();
+		Pose pose = drivetrain.getPose();
+		boolean there = pose.distanceTo(end) <= POSITION_TOLERANCE
+				&& Math.abs(pose.getHeading() - end.getHeading()) <= HEADING_TOLERANCE;
+		return there || t >= trajectory.getDuration() + SETTLE_TIME;
+	}
+	
+	// Called once after isFinished returns true
+	protected void end() {
+		drivetrain.driveRaw(0, 0, 0);
+	}
+	
+	// Called when another command which requires one or more of the same
+	// subsystems is scheduled to run
+	protected void interrupted() {
+		drivetrain.driveRaw(0, 0, 0);
+	}
+}
@@ -1,21 +1,26 @@
 package org.harker.robotics.commands;
 
+import org.harker.robotics.harkerrobolib.commands.InstrumentedCommand;
+import org.harker.robotics.harkerrobolib.util.RunningRegression;
+import org.harker.robotics.harkerrobolib.util.RunningStats;
 import org.harker.robotics.subsystems.Drivetrain;
 
-import edu.wpi.first.wpilibj.command.Command;
-
 /**
- * Logs the rotation error of vx in the range [-1...1] such that a correlation can be found with an external software.
+ * Logs the rotation error of vx in the range [-1...1] and finds its correlation as it goes.
+ * The error is how fast the robot spins while it is told not to; each step prints the mean
+ * and spread of the error at one vx, and the end prints the line fitted through all of them.
  * 
  * @author Vedaad Shakib
  */
-public class LogErrorCommand extends Command {
+public class LogErrorCommand extends InstrumentedCommand {
 
 	Drivetrain drivetrain;
 	double currVX = 0;
 	double end;
 	double error;
 	double currTime;
+	RunningStats step = new RunningStats();
+	RunningRegression fit = new RunningRegression();
 	
     public LogErrorCommand() {
         drivetrain = Drivetrain.getInstance();
@@ -25,14 +30,19 @@ public class LogErrorCommand extends Command {
 
     // Called just before this Command runs the first time
     protected void initialize() {
+    	step.reset();
+    	fit.reset();
     }
 
     // Called repeatedly when this Command is scheduled to run
-    protected void execute() {
+    protected void timedExecute() {
     	drivetrain.drive(currVX, 0, 0);
-    	error = 0;
+    	error = drivetrain.getRotationalRate();
+    	step.add(error);
+    	fit.add(currVX, error);
     	if ((System.currentTimeMillis() - currTime) > 100) {
-        	System.out.println(currVX+", "+error);
+        	System.out.println(currVX+", "+step.getMean()+", "+step.getStdev());
+        	step.reset();
     		currVX += 0.01;
     		currTime = System.currentTimeMillis();
     	}
@@ -45,6 +55,8 @@ public class LogErrorCommand extends Command {
 
     // Called once after isFinished returns true
     protected void end() {
+    	System.out.println("Error = " + fit.getSlope() + " * vx + " + fit.getIntercept()
+    			+ ", r = " + fit.getCorrelation());
     }
 
     // Called when another command which requires one or more of the same
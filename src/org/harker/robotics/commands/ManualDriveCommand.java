@@ -1,17 +1,16 @@
 package org.harker.robotics.commands;
 
 import org.harker.robotics.OI;
+import org.harker.robotics.harkerrobolib.commands.InstrumentedCommand;
 import org.harker.robotics.subsystems.Drivetrain;
 
-import edu.wpi.first.wpilibj.command.Command;
-
 /**
  * This command is responsible for taking user input from the Joystick and
  * instructing the drivetrain to drive with those values. 
  * 
  * @author Andrew Tierno
  */
-public class ManualDriveCommand extends Command {
+public class ManualDriveCommand extends InstrumentedCommand {
 
 	private Drivetrain drivetrain;
 
@@ -30,10 +29,13 @@ public class ManualDriveCommand extends Command {
      * Invokes the Drivetrain's drive method with the inputs from the Joystick.
      * The x and y magnitudes of the left joystick are mapped to the translational
      * velocities of the robot and the x magnitude of the right joystick is 
-     * mapped to the rotational velocity. 
+     * mapped to the rotational velocity, each shaped by its curve in the OI.
      */
-    protected void execute() {
-		drivetrain.drive(OI.gamepad.getLeftX(), OI.gamepad.getLeftY(), OI.gamepad.getRightX());
+    protected void timedExecute() {
+		double x = OI.gamepad.getLeftX();
+		double y = OI.gamepad.getLeftY();
+		double scale = OI.TRANSLATION_CURVE.radialScale(x, y);
+		drivetrain.drive(x * scale, y * scale, OI.ROTATION_CURVE.apply(OI.gamepad.getRightX()));
     }
     /**
      * This command never terminates, thus this never reports being finished. 
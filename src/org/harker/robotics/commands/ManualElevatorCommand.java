@@ -1,19 +1,21 @@
 package org.harker.robotics.commands;
 import org.harker.robotics.OI;
+import org.harker.robotics.harkerrobolib.commands.InstrumentedCommand;
+import org.harker.robotics.harkerrobolib.util.TelemetryChannel;
+import org.harker.robotics.harkerrobolib.util.TelemetryPublisher;
 import org.harker.robotics.subsystems.Manipulator;
 
 import edu.wpi.first.wpilibj.Timer;
-import edu.wpi.first.wpilibj.command.Command;
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 
 /**
  * Moves the elevator.
  * 
  * @author Vedaad Shakib
  */
-public class ManualElevatorCommand extends Command {
+public class ManualElevatorCommand extends InstrumentedCommand {
 	Manipulator manipulator;
 	public double prevTime;
+	private final TelemetryChannel loopTime = TelemetryPublisher.number("Loop time");
 	
     public ManualElevatorCommand() {
         manipulator = Manipulator.getInstance();
@@ -26,7 +28,7 @@ public class ManualElevatorCommand extends Command {
     }
 
     // Called repeatedly when this Command is scheduled to run
-    protected void execute() {
+    protected void timedExecute() {
     	//The triggers move in a range of 0 to 1. In order to simulate a range of -1 to 1 the difference
     	//of the two triggers is taken.
     	double val = OI.gamepad.getRightTrigger() - OI.gamepad.getLeftTrigger();
@@ -34,7 +36,7 @@ public class ManualElevatorCommand extends Command {
     	manipulator.getAverageElevatorHeight();
     	
     	double curTime = Timer.getFPGATimestamp();
-    	SmartDashboard.putNumber("Loop time", curTime - prevTime);
+    	loopTime.set(curTime - prevTime);
     	prevTime = curTime;
     }
 
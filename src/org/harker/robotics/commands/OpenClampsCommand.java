@@ -1,15 +1,14 @@
 package org.harker.robotics.commands;
 
+import org.harker.robotics.harkerrobolib.commands.InstrumentedCommand;
 import org.harker.robotics.subsystems.Manipulator;
 
-import edu.wpi.first.wpilibj.command.Command;
-
 /**
  * Opens the clamps of the Manipulator
  * 
  * @author Vedaad Shakib
  */
-public class OpenClampsCommand extends Command {
+public class OpenClampsCommand extends InstrumentedCommand {
 
 	Manipulator manipulator;
 	
@@ -22,7 +21,7 @@ public class OpenClampsCommand extends Command {
     }
 
     // Called repeatedly when this Command is scheduled to run
-    protected void execute() {
+    protected void timedExecute() {
     	manipulator.openClamps();
     }
 
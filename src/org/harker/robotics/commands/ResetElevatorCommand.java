@@ -1,16 +1,15 @@
 package org.harker.robotics.commands;
 
 import org.harker.robotics.OI;
+import org.harker.robotics.harkerrobolib.commands.InstrumentedCommand;
 import org.harker.robotics.subsystems.Manipulator;
 
-import edu.wpi.first.wpilibj.command.Command;
-
 /**
  * Resets the elevator to the lowest position
  * 
  * @author Vedaad Shakib
  */
-public class ResetElevatorCommand extends Command {
+public class ResetElevatorCommand extends InstrumentedCommand {
 
 	Manipulator manipulator;
 	boolean isReleased = false;
@@ -25,7 +24,7 @@ public class ResetElevatorCommand extends Command {
     }
 
     // Called repeatedly when this Command is scheduled to run
-    protected void execute() {
+    protected void timedExecute() {
     	manipulator.moveElevator(-1);
     	if (!OI.gamepad.getButtonXState()) isReleased = true;
     }
@@ -1,13 +1,12 @@
 package org.harker.robotics.commands;
 
+import org.harker.robotics.harkerrobolib.commands.InstrumentedCommand;
 import org.harker.robotics.subsystems.Drivetrain;
 
-import edu.wpi.first.wpilibj.command.Command;
-
 /**
  *
  */
-public class ResetPIDCommand extends Command {
+public class ResetPIDCommand extends InstrumentedCommand {
 
     public ResetPIDCommand() {
         // Use requires() here to declare subsystem dependencies
@@ -19,7 +18,7 @@ public class ResetPIDCommand extends Command {
     }
 
     // Called repeatedly when this Command is scheduled to run
-    protected void execute() {
+    protected void timedExecute() {
     	Drivetrain.getInstance().resetPID();
     }
 
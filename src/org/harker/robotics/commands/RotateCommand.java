@@ -1,15 +1,14 @@
 package org.harker.robotics.commands;
 
+import org.harker.robotics.harkerrobolib.commands.InstrumentedCommand;
 import org.harker.robotics.subsystems.Drivetrain;
 
-import edu.wpi.first.wpilibj.command.Command;
-
 /**
  * Drives for a specific time (can't do distance as we have no encoders)
  * 
  * @author Vedaad Shakib
  */
-public class RotateCommand extends Command {
+public class RotateCommand extends InstrumentedCommand {
 
 	Drivetrain drivetrain;
 	double startRot;
@@ -32,7 +31,7 @@ public class RotateCommand extends Command {
     }
 
     // Called repeatedly when this Command is scheduled to run
-    protected void execute() {
+    protected void timedExecute() {
     	double speed = .3;
     	if (endRot > startRot)
     		drivetrain.rotate(speed);
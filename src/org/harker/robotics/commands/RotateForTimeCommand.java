@@ -1,13 +1,12 @@
 package org.harker.robotics.commands;
 
+import org.harker.robotics.harkerrobolib.commands.InstrumentedCommand;
 import org.harker.robotics.subsystems.Drivetrain;
 
-import edu.wpi.first.wpilibj.command.Command;
-
 /**
  *
  */
-public class RotateForTimeCommand extends Command {
+public class RotateForTimeCommand extends InstrumentedCommand {
 	
 	Drivetrain drivetrain;
 	double speed;
@@ -30,7 +29,7 @@ public class RotateForTimeCommand extends Command {
     }
 
     // Called repeatedly when this Command is scheduled to run
-    protected void execute() {
+    protected void timedExecute() {
     	drivetrain.rotate(speed);
 //    	if (speed < 0.6) speed += 0.05;
 //    	System.out.println("Executed Drive for time");
@@ -1,15 +1,14 @@
 package org.harker.robotics.commands;
 
+import org.harker.robotics.harkerrobolib.commands.InstrumentedCommand;
 import org.harker.robotics.subsystems.Manipulator;
 
-import edu.wpi.first.wpilibj.command.Command;
-
 /**
  * Toggles the left bin clamp.
  * 
  * @author Vedaad Shakib
  */
-public class ToggleBotBinClampCommand extends Command {
+public class ToggleBotBinClampCommand extends InstrumentedCommand {
 
 	Manipulator manipulator;
 	
@@ -23,7 +22,7 @@ public class ToggleBotBinClampCommand extends Command {
     }
 
     // Called repeatedly when this Command is scheduled to run
-    protected void execute() {
+    protected void timedExecute() {
     	manipulator.toggleLeftBinClamp();
     }
 
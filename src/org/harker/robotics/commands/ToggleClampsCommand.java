@@ -1,7 +1,7 @@
 package org.harker.robotics.commands;
 
-import edu.wpi.first.wpilibj.command.Command;
 
+import org.harker.robotics.harkerrobolib.commands.InstrumentedCommand;
 import org.harker.robotics.subsystems.Manipulator;
 
 /**
@@ -9,7 +9,7 @@ import org.harker.robotics.subsystems.Manipulator;
  * 
  * @author Vedaad Shakib
  */
-public class ToggleClampsCommand extends Command {
+public class ToggleClampsCommand extends InstrumentedCommand {
 	
 	Manipulator manipulator;
 
@@ -22,7 +22,7 @@ public class ToggleClampsCommand extends Command {
     }
 
     // Called repeatedly when this Command is scheduled to run
-    protected void execute() {
+    protected void timedExecute() {
     	System.out.println("Executed tcc");
     	manipulator.toggleLeftClamp();
     	manipulator.toggleRightClamp();
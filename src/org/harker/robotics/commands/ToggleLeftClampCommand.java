@@ -1,15 +1,14 @@
 package org.harker.robotics.commands;
 
+import org.harker.robotics.harkerrobolib.commands.InstrumentedCommand;
 import org.harker.robotics.subsystems.Manipulator;
 
-import edu.wpi.first.wpilibj.command.Command;
-
 /**
  * Toggles the left clamp.
  * 
  * @author Vedaad Shakib
  */
-public class ToggleLeftClampCommand extends Command {
+public class ToggleLeftClampCommand extends InstrumentedCommand {
 
 	Manipulator manipulator;
 	
@@ -22,7 +21,7 @@ public class ToggleLeftClampCommand extends Command {
     }
 
     // Called repeatedly when this Command is scheduled to run
-    protected void execute() {
+    protected void timedExecute() {
     	manipulator.toggleLeftClamp();
     }
 
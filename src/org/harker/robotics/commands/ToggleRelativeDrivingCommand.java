@@ -1,9 +1,8 @@
 package org.harker.robotics.commands;
 
+import org.harker.robotics.harkerrobolib.commands.InstrumentedCommand;
 import org.harker.robotics.subsystems.Drivetrain;
 
-import edu.wpi.first.wpilibj.command.Command;
-
 /**
  * Toggles the state of the Drivetrain as to whether driving should be relative, 
  * that is, directions are set relative to the user's position or absolute, where
@@ -11,7 +10,7 @@ import edu.wpi.first.wpilibj.command.Command;
  * 
  * @author Andrew Tierno
  */
-public class ToggleRelativeDrivingCommand extends Command {
+public class ToggleRelativeDrivingCommand extends InstrumentedCommand {
 
 	private Drivetrain driveTrain;
 	/**
@@ -31,7 +30,7 @@ public class ToggleRelativeDrivingCommand extends Command {
     /**
      * Toggles the isRelative flag in Drivetrain
      */
-    protected void execute() {
+    protected void timedExecute() {
     	Drivetrain.getInstance().toggleRelative();
     }
 
@@ -1,13 +1,12 @@
 package org.harker.robotics.commands;
 
+import org.harker.robotics.harkerrobolib.commands.InstrumentedCommand;
 import org.harker.robotics.subsystems.Manipulator;
 
-import edu.wpi.first.wpilibj.command.Command;
-
 /**
  *
  */
-public class UpdateElevatorHeightCommand extends Command {
+public class UpdateElevatorHeightCommand extends InstrumentedCommand {
 	
 	
     public UpdateElevatorHeightCommand() {
@@ -19,7 +18,7 @@ public class UpdateElevatorHeightCommand extends Command {
     }
 
     // Called repeatedly when this Command is scheduled to run
-    protected void execute() {
+    protected void timedExecute() {
     	Manipulator.getInstance().updateElevatorHeight();
     }
     
@@ -1,11 +1,11 @@
 package org.harker.robotics.commands;
 
-import edu.wpi.first.wpilibj.command.Command;
+import org.harker.robotics.harkerrobolib.commands.InstrumentedCommand;
 
 /**
  *
  */
-public class WaitForTimeCommand extends Command {
+public class WaitForTimeCommand extends InstrumentedCommand {
 	
     public WaitForTimeCommand(double time) {
         // Use requires() here to declare subsystem dependencies
@@ -18,7 +18,7 @@ public class WaitForTimeCommand extends Command {
     }
 
     // Called repeatedly when this Command is scheduled to run
-    protected void execute() {
+    protected void timedExecute() {
     }
 
     // Make this return true when this Command no longer needs to run execute()
@@ -6,7 +6,7 @@ import edu.wpi.first.wpilibj.command.Command;
  * Cancels a command.
  * @author Manan
  */
-public class CancelCommand extends Command {
+public class CancelCommand extends InstrumentedCommand {
     
     private Command c;
     
@@ -24,7 +24,7 @@ public class CancelCommand extends Command {
     }
 
     // Called repeatedly when this Command is scheduled to run
-    protected void execute() {
+    protected void timedExecute() {
         c.cancel();
     }
 
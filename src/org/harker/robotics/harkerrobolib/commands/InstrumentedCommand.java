@@ -0,0 +1,59 @@
+package org.harker.robotics.harkerrobolib.commands;
+
+import org.harker.robotics.harkerrobolib.util.LoopTimer;
+
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.command.Command;
+
+/**
+ * A command whose every execution is timed by a {@link LoopTimer} named after
+ * the command, so that a command which eats into the Scheduler's period shows
+ * up by name. Subclasses put what would have been in execute() in
+ * {@link #timedExecute()}.
+ * 
+ * A command started by {@link #startFromEvent(long)} also records, in the same
+ * timer, how long after the event its first execution finished, which for a
+ * command that acts in its first pass is the latency from input to actuation.
+ */
+public abstract class InstrumentedCommand extends Command {
+    
+    //The Scheduler runs every 20 ms; a command taking that long on its own overruns the loop
+    public static final double BUDGET = 0.02;
+    
+    private final LoopTimer timer;
+    //When the event which started the command happened, until its first execution
+    private long eventNanos;
+    private boolean startedByEvent;
+    
+    public InstrumentedCommand() {
+        timer = LoopTimer.forTask(getName(), BUDGET);
+    }
+    
+    protected final void execute() {
+        timer.start();
+        timedExecute();
+        timer.stop();
+        if (startedByEvent) {
+            timer.recordLatency((long) (Timer.getFPGATimestamp() * 1e9) - eventNanos);
+            startedByEvent = false;
+        }
+    }
+    
+    /**
+     * Starts the command because of an input event. Does nothing if the command
+     * is already running, as start() would.
+     * @param nanos The FPGA time of the event in nanoseconds
+     */
+    public void startFromEvent(long nanos) {
+        if (isRunning())
+            return;
+        eventNanos = nanos;
+        startedByEvent = true;
+        start();
+    }
+    
+    /**
+     * Called repeatedly while the command is scheduled to run, in place of execute().
+     */
+    protected abstract void timedExecute();
+}
@@ -9,7 +9,7 @@ import edu.wpi.first.wpilibj.command.Command;
  * @author Manan
  * @see StartWithoutButtonCommand
  */
-public class StartWithButtonCommand extends Command {
+public class StartWithButtonCommand extends InstrumentedCommand {
     
     private final Command command;
     private final Button button;
@@ -24,7 +24,7 @@ public class StartWithButtonCommand extends Command {
     }
 
     // Called repeatedly when this Command is scheduled to run
-    protected void execute() {
+    protected void timedExecute() {
         if(button.get()) command.start();
     }
 
@@ -14,7 +14,7 @@ import edu.wpi.first.wpilibj.command.Command;
  * @author Manan
  * @see StartWithButtonCommand
  */
-public class StartWithoutButtonCommand extends Command {
+public class StartWithoutButtonCommand extends InstrumentedCommand {
     
     private final Command command;
     private final Button button;
@@ -29,7 +29,7 @@ public class StartWithoutButtonCommand extends Command {
     }
 
     // Called repeatedly when this Command is scheduled to run
-    protected void execute() {
+    protected void timedExecute() {
         if(!button.get()) command.start();
     }
 
@@ -0,0 +1,13 @@
+package org.harker.robotics.harkerrobolib.hal;
+
+/**
+ * An analog input such as a range finder.
+ */
+public interface AnalogSensor {
+    
+    /**
+     * Gets the voltage on the input.
+     * @return The voltage, from 0 to 5
+     */
+    public double getVoltage();
+}
@@ -0,0 +1,76 @@
+package org.harker.robotics.harkerrobolib.hal;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A {@link PeriodicNotifier} with a thread of its own at the highest priority,
+ * for control loops which must not share a thread with the Scheduler or with
+ * other notifiers. Calls are scheduled against absolute deadlines, so the
+ * period does not drift; if a call runs over, the missed periods are skipped
+ * rather than run back to back.
+ */
+public class ControlThread implements PeriodicNotifier {
+    
+    private final Runnable task;
+    private final Thread thread;
+    private volatile long periodNanos;
+    private volatile boolean running;
+    
+    /**
+     * Creates a control thread. It does not start until {@link #startPeriodic(double)}.
+     * @param name The name of the thread
+     * @param task The task to run
+     */
+    public ControlThread(String name, Runnable task) {
+        this.task = task;
+        thread = new Thread(new Runnable() {
+            public void run() {
+                loop();
+            }
+        }, name);
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MAX_PRIORITY);
+    }
+    
+    public synchronized void startPeriodic(double period) {
+        periodNanos = (long) (period * 1e9);
+        running = periodNanos > 0;
+        if (!thread.isAlive())
+            thread.start();
+        else
+            LockSupport.unpark(thread);
+    }
+    
+    public void stop() {
+        running = false;
+    }
+    
+    private void loop() {
+        long deadline = System.nanoTime();
+        while (true) {
+            if (!running) {
+                LockSupport.park(this);
+                deadline = System.nanoTime();
+                continue;
+            }
+            long period = periodNanos;
+            deadline += period;
+            long wait;
+            while (running && (wait = deadline - System.nanoTime()) > 0)
+                LockSupport.parkNanos(this, wait);
+            if (!running)
+                continue;
+            
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                //Keep the loop alive; a dead drive loop would leave the motors where they are
+                e.printStackTrace();
+            }
+            
+            long late = System.nanoTime() - deadline;
+            if (late > period)
+                deadline += late / period * period;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package org.harker.robotics.harkerrobolib.hal;
+
+/**
+ * A digital input such as a limit switch. Note that, just like the roboRIO's
+ * DIO pins, an unpressed switch wired normally-open reads <code>true</code>.
+ */
+public interface DigitalSensor {
+    
+    /**
+     * Gets the value of the digital input.
+     * @return The value on the input pin
+     */
+    public boolean get();
+}
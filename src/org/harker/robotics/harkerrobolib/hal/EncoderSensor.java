@@ -0,0 +1,24 @@
+package org.harker.robotics.harkerrobolib.hal;
+
+/**
+ * A quadrature encoder reporting raw counts.
+ */
+public interface EncoderSensor {
+    
+    /**
+     * Gets the current count of the encoder.
+     * @return The number of counts since the last reset
+     */
+    public int get();
+    
+    /**
+     * Gets the rate at which the encoder is turning.
+     * @return The rate in counts per second
+     */
+    public double getRate();
+    
+    /**
+     * Resets the count to zero.
+     */
+    public void reset();
+}
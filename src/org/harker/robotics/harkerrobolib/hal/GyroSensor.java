@@ -0,0 +1,30 @@
+package org.harker.robotics.harkerrobolib.hal;
+
+/**
+ * A single-axis rate gyroscope which integrates its rate into a heading.
+ */
+public interface GyroSensor {
+    
+    /**
+     * Gets the continuous heading in degrees (0 -> 360 -> 720 -> ...).
+     * @return The heading in degrees since the last reset
+     */
+    public double getAngle();
+    
+    /**
+     * Gets the rate of rotation in degrees per second.
+     * @return The rotational rate
+     */
+    public double getRate();
+    
+    /**
+     * Resets the heading to zero.
+     */
+    public void reset();
+    
+    /**
+     * Sets the calibration of the gyro.
+     * @param voltsPerDegreePerSecond The sensitivity of the gyro
+     */
+    public void setSensitivity(double voltsPerDegreePerSecond);
+}
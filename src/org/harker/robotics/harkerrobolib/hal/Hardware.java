@@ -0,0 +1,28 @@
+package org.harker.robotics.harkerrobolib.hal;
+
+/**
+ * Holds the {@link HardwareFactory} used to create all actuators and sensors.
+ * Defaults to the real WPILib hardware; simulators must call
+ * {@link #setFactory(HardwareFactory)} before any subsystem is initialized.
+ */
+public class Hardware {
+    
+    private static HardwareFactory factory;
+    
+    /**
+     * Gets the current hardware factory, creating the WPILib one if none has been set.
+     * @return The hardware factory
+     */
+    public static synchronized HardwareFactory getFactory() {
+        if (factory == null) factory = new WPILibHardwareFactory();
+        return factory;
+    }
+    
+    /**
+     * Sets the hardware factory. This must be done before any hardware is created.
+     * @param newFactory The factory to use
+     */
+    public static synchronized void setFactory(HardwareFactory newFactory) {
+        factory = newFactory;
+    }
+}
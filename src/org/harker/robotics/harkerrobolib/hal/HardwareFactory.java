@@ -0,0 +1,80 @@
+package org.harker.robotics.harkerrobolib.hal;
+
+import edu.wpi.first.wpilibj.CounterBase;
+
+/**
+ * Creates the actuators and sensors used by the robot. Subsystems and wrappers
+ * should never construct WPILib hardware classes directly, but should instead
+ * ask the factory returned by {@link Hardware#getFactory()}. This lets the same
+ * code run on the roboRIO ({@link WPILibHardwareFactory}) or in a plain JVM
+ * against a simulated backend.
+ */
+public interface HardwareFactory {
+    
+    /**
+     * Creates a motor on the given PWM channel.
+     * @param channel The PWM channel
+     * @return The motor
+     */
+    public MotorOutput createMotor(int channel);
+    
+    /**
+     * Creates a solenoid on the given channel of the default PCM.
+     * @param channel The solenoid channel
+     * @return The solenoid
+     */
+    public SolenoidOutput createSolenoid(int channel);
+    
+    /**
+     * Creates a digital input on the given DIO channel.
+     * @param channel The DIO channel
+     * @return The digital input
+     */
+    public DigitalSensor createDigitalInput(int channel);
+    
+    /**
+     * Creates an analog gyro on the given analog channel.
+     * @param channel The analog channel
+     * @return The gyro
+     */
+    public GyroSensor createGyro(int channel);
+    
+    /**
+     * Creates an analog input on the given analog channel.
+     * @param channel The analog channel
+     * @return The analog input
+     */
+    public AnalogSensor createAnalogInput(int channel);
+    
+    /**
+     * Creates a quadrature encoder on the given DIO channels.
+     * @param aChannel The A channel
+     * @param bChannel The B channel
+     * @param encodingType The decoding to apply to the signal
+     * @return The encoder
+     */
+    public EncoderSensor createEncoder(int aChannel, int bChannel, CounterBase.EncodingType encodingType);
+    
+    /**
+     * Creates an input for the joystick on the given driver station port.
+     * @param port The USB port on the driver station
+     * @return The joystick input
+     */
+    public JoystickInput createJoystick(int port);
+    
+    /**
+     * Creates a notifier which will call the given task periodically once started.
+     * @param task The task to run
+     * @return The notifier
+     */
+    public PeriodicNotifier createNotifier(Runnable task);
+    
+    /**
+     * Creates a notifier which calls the given task periodically on a thread
+     * of its own, for control loops which must not wait behind anything else.
+     * @param name The name of the thread
+     * @param task The task to run
+     * @return The notifier
+     */
+    public PeriodicNotifier createControlThread(String name, Runnable task);
+}
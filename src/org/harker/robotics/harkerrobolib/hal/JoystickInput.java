@@ -0,0 +1,28 @@
+package org.harker.robotics.harkerrobolib.hal;
+
+/**
+ * The raw axes and buttons of a driver station joystick port.
+ */
+public interface JoystickInput {
+    
+    /**
+     * Gets the value of an axis.
+     * @param axis The axis number
+     * @return The value of the axis in the range [-1, 1]
+     */
+    public double getRawAxis(int axis);
+    
+    /**
+     * Gets the value of a button.
+     * @param button The button number, starting at 1
+     * @return Whether or not the button is pressed
+     */
+    public boolean getRawButton(int button);
+    
+    /**
+     * Gets the angle of a POV hat.
+     * @param pov The index of the POV hat
+     * @return The angle in degrees, or -1 if the hat is not pressed
+     */
+    public int getPOV(int pov);
+}
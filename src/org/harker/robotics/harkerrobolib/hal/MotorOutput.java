@@ -0,0 +1,20 @@
+package org.harker.robotics.harkerrobolib.hal;
+
+/**
+ * A speed controller output (a Talon, Victor or simulated motor) that accepts
+ * a speed in the range [-1, 1].
+ */
+public interface MotorOutput {
+    
+    /**
+     * Sets the speed of the motor.
+     * @param speed The speed in the range [-1, 1]
+     */
+    public void set(double speed);
+    
+    /**
+     * Gets the speed last sent to the motor.
+     * @return The speed in the range [-1, 1]
+     */
+    public double get();
+}
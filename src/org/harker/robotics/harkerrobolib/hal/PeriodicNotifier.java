@@ -0,0 +1,20 @@
+package org.harker.robotics.harkerrobolib.hal;
+
+/**
+ * Calls a task at a fixed period. On the robot this is backed by the FPGA's
+ * timer alarms; in simulation it is fired by the simulated clock, so control
+ * loops run deterministically at any simulation speed.
+ */
+public interface PeriodicNotifier {
+    
+    /**
+     * Starts calling the task repeatedly.
+     * @param period The time between calls, in seconds
+     */
+    public void startPeriodic(double period);
+    
+    /**
+     * Stops calling the task.
+     */
+    public void stop();
+}
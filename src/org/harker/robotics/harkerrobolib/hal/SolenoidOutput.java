@@ -0,0 +1,19 @@
+package org.harker.robotics.harkerrobolib.hal;
+
+/**
+ * A single pneumatic solenoid channel.
+ */
+public interface SolenoidOutput {
+    
+    /**
+     * Sets the state of the solenoid.
+     * @param on Whether or not the solenoid should be energized
+     */
+    public void set(boolean on);
+    
+    /**
+     * Gets the state of the solenoid.
+     * @return Whether or not the solenoid is energized
+     */
+    public boolean get();
+}
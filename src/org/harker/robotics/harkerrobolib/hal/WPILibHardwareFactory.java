@@ -0,0 +1,133 @@
+package org.harker.robotics.harkerrobolib.hal;
+
+import edu.wpi.first.wpilibj.AnalogInput;
+import edu.wpi.first.wpilibj.CounterBase;
+import edu.wpi.first.wpilibj.DigitalInput;
+import edu.wpi.first.wpilibj.Encoder;
+import edu.wpi.first.wpilibj.Gyro;
+import edu.wpi.first.wpilibj.Joystick;
+import edu.wpi.first.wpilibj.Notifier;
+import edu.wpi.first.wpilibj.Solenoid;
+import edu.wpi.first.wpilibj.Talon;
+
+/**
+ * The {@link HardwareFactory} for the real robot, backed by the WPILib classes.
+ */
+public class WPILibHardwareFactory implements HardwareFactory {
+    
+    public MotorOutput createMotor(int channel) {
+        final Talon talon = new Talon(channel);
+        return new MotorOutput() {
+            public void set(double speed) {
+                talon.set(speed);
+            }
+            
+            public double get() {
+                return talon.get();
+            }
+        };
+    }
+    
+    public SolenoidOutput createSolenoid(int channel) {
+        final Solenoid solenoid = new Solenoid(channel);
+        return new SolenoidOutput() {
+            public void set(boolean on) {
+                solenoid.set(on);
+            }
+            
+            public boolean get() {
+                return solenoid.get();
+            }
+        };
+    }
+    
+    public DigitalSensor createDigitalInput(int channel) {
+        final DigitalInput input = new DigitalInput(channel);
+        return new DigitalSensor() {
+            public boolean get() {
+                return input.get();
+            }
+        };
+    }
+    
+    public AnalogSensor createAnalogInput(int channel) {
+        final AnalogInput input = new AnalogInput(channel);
+        return new AnalogSensor() {
+            public double getVoltage() {
+                return input.getVoltage();
+            }
+        };
+    }
+    
+    public GyroSensor createGyro(int channel) {
+        final Gyro gyro = new Gyro(channel);
+        return new GyroSensor() {
+            public double getAngle() {
+                return gyro.getAngle();
+            }
+            
+            public double getRate() {
+                return gyro.getRate();
+            }
+            
+            public void reset() {
+                gyro.reset();
+            }
+            
+            public void setSensitivity(double voltsPerDegreePerSecond) {
+                gyro.setSensitivity(voltsPerDegreePerSecond);
+            }
+        };
+    }
+    
+    public EncoderSensor createEncoder(int aChannel, int bChannel, CounterBase.EncodingType encodingType) {
+        final Encoder encoder = new Encoder(aChannel, bChannel, false, encodingType);
+        return new EncoderSensor() {
+            public int get() {
+                return encoder.get();
+            }
+            
+            public double getRate() {
+                return encoder.getRate();
+            }
+            
+            public void reset() {
+                encoder.reset();
+            }
+        };
+    }
+    
+    public JoystickInput createJoystick(int port) {
+        final Joystick joystick = new Joystick(port);
+        return new JoystickInput() {
+            public double getRawAxis(int axis) {
+                return joystick.getRawAxis(axis);
+            }
+            
+            public boolean getRawButton(int button) {
+                return joystick.getRawButton(button);
+            }
+            
+            public int getPOV(int pov) {
+                return joystick.getPOV(pov);
+            }
+        };
+    }
+    
+    public PeriodicNotifier createNotifier(Runnable task) {
+        final Notifier notifier = new Notifier(task);
+        return new PeriodicNotifier() {
+            public void startPeriodic(double period) {
+                notifier.startPeriodic(period);
+            }
+            
+            public void stop() {
+                notifier.stop();
+            }
+        };
+    }
+    
+    public PeriodicNotifier createControlThread(String name, Runnable task) {
+        return new ControlThread(name, task);
+    }
+}
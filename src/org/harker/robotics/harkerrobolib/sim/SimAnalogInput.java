@@ -0,0 +1,47 @@
+package org.harker.robotics.harkerrobolib.sim;
+
+import org.harker.robotics.harkerrobolib.hal.AnalogSensor;
+
+/**
+ * A simulated analog input whose voltage is set by a physics model.
+ */
+public class SimAnalogInput implements AnalogSensor {
+    
+    private final int channel;
+    private volatile double voltage;
+    
+    /**
+     * Creates a new simulated analog input.
+     * @param channel The analog channel the input pretends to be on
+     */
+    public SimAnalogInput(int channel) {
+        this.channel = channel;
+    }
+    
+    public double getVoltage() {
+        return voltage;
+    }
+    
+    /**
+     * Sets the voltage the input will report.
+     * @param voltage The new voltage
+     */
+    public void set(double voltage) {
+        this.voltage = voltage;
+    }
+    
+    /**
+     * Returns the input to its power-on state, at zero volts.
+     */
+    public void clear() {
+        voltage = 0;
+    }
+    
+    /**
+     * Gets the analog channel of the input.
+     * @return The channel
+     */
+    public int getChannel() {
+        return channel;
+    }
+}
@@ -0,0 +1,42 @@
+package org.harker.robotics.harkerrobolib.sim;
+
+/**
+ * A virtual clock for simulation. Time only moves when {@link #advance(double)}
+ * is called, so a simulation can run as fast (or as slow) as the host allows.
+ */
+public class SimClock {
+    
+    private volatile long nanos;
+    
+    /**
+     * Gets the current simulated time.
+     * @return The time in seconds since the clock was created
+     */
+    public double getTime() {
+        return nanos / 1e9;
+    }
+    
+    /**
+     * Gets the current simulated time.
+     * @return The time in nanoseconds since the clock was created
+     */
+    public long getNanos() {
+        return nanos;
+    }
+    
+    /**
+     * Moves the clock forward.
+     * @param seconds The amount of time to advance by
+     */
+    public synchronized void advance(double seconds) {
+        nanos += (long) (seconds * 1e9);
+    }
+    
+    /**
+     * Sets the clock back to zero. Anything timing itself against the clock
+     * must be restarted as well; see {@link SimulatedHardwareFactory#restartNotifiers()}.
+     */
+    public synchronized void reset() {
+        nanos = 0;
+    }
+}
@@ -0,0 +1,48 @@
+package org.harker.robotics.harkerrobolib.sim;
+
+import org.harker.robotics.harkerrobolib.hal.DigitalSensor;
+
+/**
+ * A simulated digital input whose value is set by a physics model. Like a
+ * real DIO pin with a pull-up, it reads <code>true</code> until it is driven low.
+ */
+public class SimDigitalInput implements DigitalSensor {
+    
+    private final int channel;
+    private volatile boolean value = true;
+    
+    /**
+     * Creates a new simulated digital input.
+     * @param channel The DIO channel the input pretends to be on
+     */
+    public SimDigitalInput(int channel) {
+        this.channel = channel;
+    }
+    
+    public boolean get() {
+        return value;
+    }
+    
+    /**
+     * Sets the value the input will report.
+     * @param value The new value of the pin
+     */
+    public void set(boolean value) {
+        this.value = value;
+    }
+    
+    /**
+     * Returns the input to its power-on state, pulled up.
+     */
+    public void clear() {
+        value = true;
+    }
+    
+    /**
+     * Gets the DIO channel of the input.
+     * @return The channel
+     */
+    public int getChannel() {
+        return channel;
+    }
+}
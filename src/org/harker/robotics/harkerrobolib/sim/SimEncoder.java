@@ -0,0 +1,71 @@
+package org.harker.robotics.harkerrobolib.sim;
+
+import org.harker.robotics.harkerrobolib.hal.EncoderSensor;
+
+/**
+ * A simulated encoder whose count and rate are set by a physics model.
+ */
+public class SimEncoder implements EncoderSensor {
+    
+    private final int aChannel, bChannel;
+    private volatile int count;
+    private volatile int offset;
+    private volatile double rate;
+    
+    /**
+     * Creates a new simulated encoder.
+     * @param aChannel The A channel the encoder pretends to be on
+     * @param bChannel The B channel the encoder pretends to be on
+     */
+    public SimEncoder(int aChannel, int bChannel) {
+        this.aChannel = aChannel;
+        this.bChannel = bChannel;
+    }
+    
+    public int get() {
+        return count - offset;
+    }
+    
+    public double getRate() {
+        return rate;
+    }
+    
+    public void reset() {
+        offset = count;
+    }
+    
+    /**
+     * Updates the state of the encoder from the physics model.
+     * @param count The absolute count of the encoder
+     * @param rate The rate in counts per second
+     */
+    public void update(int count, double rate) {
+        this.count = count;
+        this.rate = rate;
+    }
+    
+    /**
+     * Returns the encoder to its power-on state, at zero counts.
+     */
+    public void clear() {
+        count = 0;
+        offset = 0;
+        rate = 0;
+    }
+    
+    /**
+     * Gets the A channel of the encoder.
+     * @return The channel
+     */
+    public int getAChannel() {
+        return aChannel;
+    }
+    
+    /**
+     * Gets the B channel of the encoder.
+     * @return The channel
+     */
+    public int getBChannel() {
+        return bChannel;
+    }
+}
@@ -0,0 +1,65 @@
+package org.harker.robotics.harkerrobolib.sim;
+
+import org.harker.robotics.harkerrobolib.hal.GyroSensor;
+
+/**
+ * A simulated gyro. The physics model reports the true heading and rate of the
+ * robot; the gyro reports that heading relative to the last call to {@link #reset()}.
+ */
+public class SimGyro implements GyroSensor {
+    
+    private final int channel;
+    private volatile double trueAngle;
+    private volatile double rate;
+    private volatile double offset;
+    
+    /**
+     * Creates a new simulated gyro.
+     * @param channel The analog channel the gyro pretends to be on
+     */
+    public SimGyro(int channel) {
+        this.channel = channel;
+    }
+    
+    public double getAngle() {
+        return trueAngle - offset;
+    }
+    
+    public double getRate() {
+        return rate;
+    }
+    
+    public void reset() {
+        offset = trueAngle;
+    }
+    
+    public void setSensitivity(double voltsPerDegreePerSecond) {
+    }
+    
+    /**
+     * Updates the state of the gyro from the physics model.
+     * @param angle The true heading of the robot in degrees
+     * @param rate The true rotational rate of the robot in degrees per second
+     */
+    public void update(double angle, double rate) {
+        this.trueAngle = angle;
+        this.rate = rate;
+    }
+    
+    /**
+     * Returns the gyro to its power-on state, reading zero.
+     */
+    public void clear() {
+        trueAngle = 0;
+        rate = 0;
+        offset = 0;
+    }
+    
+    /**
+     * Gets the analog channel of the gyro.
+     * @return The channel
+     */
+    public int getChannel() {
+        return channel;
+    }
+}
@@ -0,0 +1,81 @@
+package org.harker.robotics.harkerrobolib.sim;
+
+import org.harker.robotics.harkerrobolib.hal.JoystickInput;
+
+/**
+ * A simulated driver station joystick whose axes and buttons are set by a
+ * script or a recording.
+ */
+public class SimJoystick implements JoystickInput {
+    
+    public static final int NUM_AXES = 12;
+    public static final int NUM_BUTTONS = 16;
+    
+    private final int port;
+    private final double[] axes = new double[NUM_AXES];
+    private final boolean[] buttons = new boolean[NUM_BUTTONS + 1];
+    private volatile int pov = -1;
+    
+    /**
+     * Creates a new simulated joystick.
+     * @param port The driver station port the joystick pretends to be on
+     */
+    public SimJoystick(int port) {
+        this.port = port;
+    }
+    
+    public synchronized double getRawAxis(int axis) {
+        return axes[axis];
+    }
+    
+    public synchronized boolean getRawButton(int button) {
+        return buttons[button];
+    }
+    
+    public int getPOV(int pov) {
+        return this.pov;
+    }
+    
+    /**
+     * Sets the value of an axis.
+     * @param axis The axis number
+     * @param value The value in the range [-1, 1]
+     */
+    public synchronized void setRawAxis(int axis, double value) {
+        axes[axis] = value;
+    }
+    
+    /**
+     * Sets the value of a button.
+     * @param button The button number, starting at 1
+     * @param pressed Whether or not the button is pressed
+     */
+    public synchronized void setRawButton(int button, boolean pressed) {
+        buttons[button] = pressed;
+    }
+    
+    /**
+     * Sets the angle of the POV hat.
+     * @param angle The angle in degrees, or -1 if not pressed
+     */
+    public void setPOV(int angle) {
+        pov = angle;
+    }
+    
+    /**
+     * Releases every button and centers every axis.
+     */
+    public synchronized void clear() {
+        for (int i = 0; i < axes.length; i++) axes[i] = 0;
+        for (int i = 0; i < buttons.length; i++) buttons[i] = false;
+        pov = -1;
+    }
+    
+    /**
+     * Gets the driver station port of the joystick.
+     * @return The port
+     */
+    public int getPort() {
+        return port;
+    }
+}
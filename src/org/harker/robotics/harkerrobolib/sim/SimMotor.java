@@ -0,0 +1,46 @@
+package org.harker.robotics.harkerrobolib.sim;
+
+import org.harker.robotics.harkerrobolib.hal.MotorOutput;
+
+/**
+ * A simulated motor which simply remembers the last speed it was given so that
+ * a physics model can read it back.
+ */
+public class SimMotor implements MotorOutput {
+    
+    private final int channel;
+    private volatile double speed;
+    
+    /**
+     * Creates a new simulated motor.
+     * @param channel The PWM channel the motor pretends to be on
+     */
+    public SimMotor(int channel) {
+        this.channel = channel;
+    }
+    
+    public void set(double speed) {
+        if (speed > 1) speed = 1;
+        else if (speed < -1) speed = -1;
+        this.speed = speed;
+    }
+    
+    public double get() {
+        return speed;
+    }
+    
+    /**
+     * Returns the motor to its power-on state.
+     */
+    public void clear() {
+        speed = 0;
+    }
+    
+    /**
+     * Gets the PWM channel of the motor.
+     * @return The channel
+     */
+    public int getChannel() {
+        return channel;
+    }
+}
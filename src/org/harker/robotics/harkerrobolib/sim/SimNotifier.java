@@ -0,0 +1,60 @@
+package org.harker.robotics.harkerrobolib.sim;
+
+import org.harker.robotics.harkerrobolib.hal.PeriodicNotifier;
+
+/**
+ * A notifier fired by the simulated clock. Rather than running on its own
+ * thread, the task is run by whoever steps the simulation (see
+ * {@link SimulatedHardwareFactory#runNotifiers(long)}), so it always sees
+ * a consistent simulated world.
+ */
+public class SimNotifier implements PeriodicNotifier {
+    
+    private final Runnable task;
+    private final SimClock clock;
+    private long periodNanos;
+    private long nextFireNanos;
+    private boolean running;
+    
+    /**
+     * Creates a new simulated notifier.
+     * @param task The task to run
+     * @param clock The clock which decides when the task is due
+     */
+    public SimNotifier(Runnable task, SimClock clock) {
+        this.task = task;
+        this.clock = clock;
+    }
+    
+    public synchronized void startPeriodic(double period) {
+        periodNanos = (long) (period * 1e9);
+        nextFireNanos = clock.getNanos() + periodNanos;
+        running = periodNanos > 0;
+    }
+    
+    public synchronized void stop() {
+        running = false;
+    }
+    
+    /**
+     * Schedules the next run one period from now, as if the notifier had just
+     * been started. Used when the clock has been reset.
+     */
+    public synchronized void restart() {
+        nextFireNanos = clock.getNanos() + periodNanos;
+    }
+    
+    /**
+     * Runs the task for every period which has elapsed up to the given time.
+     * @param nowNanos The current simulated time
+     */
+    public void fireUntil(long nowNanos) {
+        while (true) {
+            synchronized (this) {
+                if (!running || nextFireNanos > nowNanos) return;
+                nextFireNanos += periodNanos;
+            }
+            task.run();
+        }
+    }
+}
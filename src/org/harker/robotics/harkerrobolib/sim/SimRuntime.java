@@ -0,0 +1,158 @@
+package org.harker.robotics.harkerrobolib.sim;
+
+import edu.wpi.first.wpilibj.HLUsageReporting;
+import edu.wpi.first.wpilibj.RobotState;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.networktables.NetworkTable;
+
+/**
+ * Installs the pieces of the WPILib runtime the command framework needs
+ * (the FPGA timer, the robot state and usage reporting) without touching the
+ * FPGA or the driver station. After {@link #install(SimClock)} the Scheduler,
+ * Commands and SmartDashboard all run in a plain JVM, with time supplied by the
+ * given {@link SimClock}.
+ */
+public class SimRuntime {
+    
+    public static final int MODE_DISABLED = 0;
+    public static final int MODE_AUTONOMOUS = 1;
+    public static final int MODE_TELEOP = 2;
+    public static final int MODE_TEST = 3;
+    
+    private static volatile int mode = MODE_DISABLED;
+    private static SimClock clock;
+    
+    /**
+     * Installs the simulated runtime, serving the SmartDashboard from this
+     * machine so a dashboard can be pointed at the simulated robot.
+     * @param simClock The clock which will back the FPGA timestamp
+     */
+    public static void install(SimClock simClock) {
+        install(simClock, true);
+    }
+    
+    /**
+     * Installs the simulated runtime.
+     * @param simClock The clock which will back the FPGA timestamp
+     * @param serveDashboard Whether to serve the SmartDashboard. Only one
+     * NetworkTables server can listen on a machine, so robots run side by
+     * side in separate class loaders must pass <code>false</code>; their
+     * dashboard values then stay local.
+     */
+    public static void install(SimClock simClock, boolean serveDashboard) {
+        clock = simClock;
+        if (!serveDashboard) {
+            NetworkTable.setClientMode();
+            NetworkTable.setIPAddress("127.0.0.1");
+        }
+        
+        Timer.SetImplementation(new Timer.StaticInterface() {
+            public double getFPGATimestamp() {
+                return clock.getTime();
+            }
+            
+            public double getMatchTime() {
+                return clock.getTime();
+            }
+            
+            public void delay(double seconds) {
+                clock.advance(seconds);
+            }
+            
+            public Timer.Interface newTimer() {
+                return new SimTimer();
+            }
+        });
+        
+        RobotState.SetImplementation(new RobotState.Interface() {
+            public boolean isDisabled() {
+                return mode == MODE_DISABLED;
+            }
+            
+            public boolean isEnabled() {
+                return mode != MODE_DISABLED;
+            }
+            
+            public boolean isOperatorControl() {
+                return mode == MODE_TELEOP;
+            }
+            
+            public boolean isAutonomous() {
+                return mode == MODE_AUTONOMOUS;
+            }
+            
+            public boolean isTest() {
+                return mode == MODE_TEST;
+            }
+        });
+        
+        HLUsageReporting.SetImplementation(new HLUsageReporting.Interface() {
+            public void reportScheduler() {
+            }
+            
+            public void reportPIDController(int num) {
+            }
+            
+            public void reportSmartDashboard() {
+            }
+        });
+    }
+    
+    /**
+     * Sets the mode the robot reports being in.
+     * @param newMode One of the MODE_ constants
+     */
+    public static void setMode(int newMode) {
+        mode = newMode;
+    }
+    
+    /**
+     * Gets the mode the robot reports being in.
+     * @return One of the MODE_ constants
+     */
+    public static int getMode() {
+        return mode;
+    }
+    
+    /**
+     * A WPILib Timer driven by the simulated clock.
+     */
+    private static class SimTimer implements Timer.Interface {
+        private double startTime;
+        private double accumulatedTime;
+        private boolean running;
+        
+        public SimTimer() {
+            reset();
+        }
+        
+        public synchronized double get() {
+            if (running)
+                return accumulatedTime + clock.getTime() - startTime;
+            return accumulatedTime;
+        }
+        
+        public synchronized void reset() {
+            accumulatedTime = 0;
+            startTime = clock.getTime();
+        }
+        
+        public synchronized void start() {
+            startTime = clock.getTime();
+            running = true;
+        }
+        
+        public synchronized void stop() {
+            accumulatedTime = get();
+            running = false;
+        }
+        
+        public synchronized boolean hasPeriodPassed(double period) {
+            if (get() > period) {
+                startTime += period;
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package org.harker.robotics.harkerrobolib.sim;
+
+import org.harker.robotics.harkerrobolib.hal.SolenoidOutput;
+
+/**
+ * A simulated solenoid which counts how many times it has changed state.
+ */
+public class SimSolenoid implements SolenoidOutput {
+    
+    private final int channel;
+    private volatile boolean on;
+    private volatile int actuations;
+    
+    /**
+     * Creates a new simulated solenoid.
+     * @param channel The channel the solenoid pretends to be on
+     */
+    public SimSolenoid(int channel) {
+        this.channel = channel;
+    }
+    
+    public void set(boolean on) {
+        if (this.on != on) actuations++;
+        this.on = on;
+    }
+    
+    public boolean get() {
+        return on;
+    }
+    
+    /**
+     * Gets the number of times the solenoid has changed state.
+     * @return The number of actuations
+     */
+    public int getActuations() {
+        return actuations;
+    }
+    
+    /**
+     * Returns the solenoid to its power-on state, off and with no actuations counted.
+     */
+    public void clear() {
+        on = false;
+        actuations = 0;
+    }
+    
+    /**
+     * Gets the channel of the solenoid.
+     * @return The channel
+     */
+    public int getChannel() {
+        return channel;
+    }
+}
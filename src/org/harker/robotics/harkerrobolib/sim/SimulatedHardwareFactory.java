@@ -0,0 +1,236 @@
+package org.harker.robotics.harkerrobolib.sim;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.harker.robotics.harkerrobolib.hal.AnalogSensor;
+import org.harker.robotics.harkerrobolib.hal.DigitalSensor;
+import org.harker.robotics.harkerrobolib.hal.EncoderSensor;
+import org.harker.robotics.harkerrobolib.hal.GyroSensor;
+import org.harker.robotics.harkerrobolib.hal.HardwareFactory;
+import org.harker.robotics.harkerrobolib.hal.JoystickInput;
+import org.harker.robotics.harkerrobolib.hal.MotorOutput;
+import org.harker.robotics.harkerrobolib.hal.PeriodicNotifier;
+import org.harker.robotics.harkerrobolib.hal.SolenoidOutput;
+
+import edu.wpi.first.wpilibj.CounterBase;
+
+/**
+ * A {@link HardwareFactory} which creates in-process simulated devices. Every
+ * device is remembered by channel so that a physics model or test harness can
+ * look it up and read its outputs or drive its inputs. Just like WPILib, a
+ * channel may only be allocated once.
+ * 
+ * Notifiers are driven by the given {@link SimClock}; whoever steps the
+ * simulation must call {@link #runNotifiers(long)} after advancing the clock.
+ */
+public class SimulatedHardwareFactory implements HardwareFactory {
+    
+    private final SimClock clock;
+    private final Map<Integer, SimMotor> motors = new HashMap<Integer, SimMotor>();
+    private final Map<Integer, SimSolenoid> solenoids = new HashMap<Integer, SimSolenoid>();
+    private final Map<Integer, SimDigitalInput> digitalInputs = new HashMap<Integer, SimDigitalInput>();
+    private final Map<Integer, SimGyro> gyros = new HashMap<Integer, SimGyro>();
+    private final Map<Integer, SimAnalogInput> analogInputs = new HashMap<Integer, SimAnalogInput>();
+    private final Map<Integer, SimEncoder> encoders = new HashMap<Integer, SimEncoder>();
+    private final Map<Integer, SimJoystick> joysticks = new HashMap<Integer, SimJoystick>();
+    private volatile SimNotifier[] notifiers = new SimNotifier[0];
+    
+    /**
+     * Creates a new factory for simulated devices.
+     * @param clock The clock which drives the notifiers
+     */
+    public SimulatedHardwareFactory(SimClock clock) {
+        this.clock = clock;
+    }
+    
+    public synchronized MotorOutput createMotor(int channel) {
+        checkFree(motors, channel, "PWM");
+        SimMotor motor = new SimMotor(channel);
+        motors.put(channel, motor);
+        return motor;
+    }
+    
+    public synchronized SolenoidOutput createSolenoid(int channel) {
+        checkFree(solenoids, channel, "Solenoid");
+        SimSolenoid solenoid = new SimSolenoid(channel);
+        solenoids.put(channel, solenoid);
+        return solenoid;
+    }
+    
+    public synchronized DigitalSensor createDigitalInput(int channel) {
+        checkFree(digitalInputs, channel, "DIO");
+        SimDigitalInput input = new SimDigitalInput(channel);
+        digitalInputs.put(channel, input);
+        return input;
+    }
+    
+    public synchronized GyroSensor createGyro(int channel) {
+        checkFree(gyros, channel, "Analog");
+        checkFree(analogInputs, channel, "Analog");
+        SimGyro gyro = new SimGyro(channel);
+        gyros.put(channel, gyro);
+        return gyro;
+    }
+    
+    public synchronized AnalogSensor createAnalogInput(int channel) {
+        checkFree(gyros, channel, "Analog");
+        checkFree(analogInputs, channel, "Analog");
+        SimAnalogInput input = new SimAnalogInput(channel);
+        analogInputs.put(channel, input);
+        return input;
+    }
+    
+    public synchronized EncoderSensor createEncoder(int aChannel, int bChannel, CounterBase.EncodingType encodingType) {
+        checkFree(encoders, aChannel, "Encoder");
+        SimEncoder encoder = new SimEncoder(aChannel, bChannel);
+        encoders.put(aChannel, encoder);
+        return encoder;
+    }
+    
+    public synchronized JoystickInput createJoystick(int port) {
+        SimJoystick joystick = joysticks.get(port);
+        if (joystick == null) {
+            joystick = new SimJoystick(port);
+            joysticks.put(port, joystick);
+        }
+        return joystick;
+    }
+    
+    public synchronized PeriodicNotifier createNotifier(Runnable task) {
+        SimNotifier notifier = new SimNotifier(task, clock);
+        SimNotifier[] grown = new SimNotifier[notifiers.length + 1];
+        System.arraycopy(notifiers, 0, grown, 0, notifiers.length);
+        grown[notifiers.length] = notifier;
+        notifiers = grown;
+        return notifier;
+    }
+    
+    /**
+     * Creates a notifier fired by the simulated clock, like any other; the
+     * simulation runs every control loop on the thread which steps it.
+     */
+    public PeriodicNotifier createControlThread(String name, Runnable task) {
+        return createNotifier(task);
+    }
+    
+    /**
+     * Runs every notifier task which is due at the given time, in the order
+     * the notifiers were created.
+     * @param nowNanos The current simulated time
+     */
+    public void runNotifiers(long nowNanos) {
+        SimNotifier[] due = notifiers;
+        for (int i = 0; i < due.length; i++)
+            due[i].fireUntil(nowNanos);
+    }
+    
+    /**
+     * Reschedules every notifier relative to the current time. This must be
+     * called after the clock has been reset.
+     */
+    public void restartNotifiers() {
+        SimNotifier[] all = notifiers;
+        for (int i = 0; i < all.length; i++)
+            all[i].restart();
+    }
+    
+    /**
+     * Returns every device to its power-on state, as if the robot had been
+     * turned off and on again. The devices themselves are kept, so the robot
+     * code and physics models holding them carry on using them.
+     */
+    public synchronized void clearDevices() {
+        for (SimMotor motor : motors.values())
+            motor.clear();
+        for (SimSolenoid solenoid : solenoids.values())
+            solenoid.clear();
+        for (SimDigitalInput input : digitalInputs.values())
+            input.clear();
+        for (SimGyro gyro : gyros.values())
+            gyro.clear();
+        for (SimAnalogInput input : analogInputs.values())
+            input.clear();
+        for (SimEncoder encoder : encoders.values())
+            encoder.clear();
+        for (SimJoystick joystick : joysticks.values())
+            joystick.clear();
+    }
+    
+    /**
+     * Gets the clock which drives the simulated devices.
+     * @return The clock
+     */
+    public SimClock getClock() {
+        return clock;
+    }
+    
+    /**
+     * Gets the simulated motor on a PWM channel.
+     * @param channel The PWM channel
+     * @return The motor, or <code>null</code> if none has been created
+     */
+    public synchronized SimMotor getMotor(int channel) {
+        return motors.get(channel);
+    }
+    
+    /**
+     * Gets the simulated solenoid on a channel.
+     * @param channel The solenoid channel
+     * @return The solenoid, or <code>null</code> if none has been created
+     */
+    public synchronized SimSolenoid getSolenoid(int channel) {
+        return solenoids.get(channel);
+    }
+    
+    /**
+     * Gets the simulated digital input on a DIO channel.
+     * @param channel The DIO channel
+     * @return The input, or <code>null</code> if none has been created
+     */
+    public synchronized SimDigitalInput getDigitalInput(int channel) {
+        return digitalInputs.get(channel);
+    }
+    
+    /**
+     * Gets the simulated gyro on an analog channel.
+     * @param channel The analog channel
+     * @return The gyro, or <code>null</code> if none has been created
+     */
+    public synchronized SimGyro getGyro(int channel) {
+        return gyros.get(channel);
+    }
+    
+    /**
+     * Gets the simulated analog input on an analog channel.
+     * @param channel The analog channel
+     * @return The input, or <code>null</code> if none has been created
+     */
+    public synchronized SimAnalogInput getAnalogInput(int channel) {
+        return analogInputs.get(channel);
+    }
+    
+    /**
+     * Gets the simulated encoder whose A channel is given.
+     * @param aChannel The A channel of the encoder
+     * @return The encoder, or <code>null</code> if none has been created
+     */
+    public synchronized SimEncoder getEncoder(int aChannel) {
+        return encoders.get(aChannel);
+    }
+    
+    /**
+     * Gets the simulated joystick on a driver station port, creating it if
+     * the robot has not yet done so.
+     * @param port The driver station port
+     * @return The joystick
+     */
+    public SimJoystick getJoystick(int port) {
+        return (SimJoystick) createJoystick(port);
+    }
+    
+    private static void checkFree(Map<Integer, ?> devices, int channel, String kind) {
+        if (devices.containsKey(channel))
+            throw new RuntimeException(kind + " channel " + channel + " is already allocated");
+    }
+}
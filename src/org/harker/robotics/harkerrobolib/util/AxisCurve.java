@@ -0,0 +1,119 @@
+package org.harker.robotics.harkerrobolib.util;
+
+/**
+ * Shapes a joystick axis before it drives anything. Within the dead zone the
+ * output is zero; beyond it the input is rescaled to start again from zero, so
+ * the output grows smoothly from the edge of the dead zone instead of jumping
+ * to its width. The rescaled input then goes through an expo curve, a blend of
+ * a straight line and a cube, which gives fine control near the middle of the
+ * stick and still reaches full output at the end of it.
+ * 
+ * The curve is worked out once, when it is made, into a table over the
+ * magnitude of the input, so shaping an axis costs one interpolated lookup.
+ * Curves are odd: a negative input gives the negative of the output for the
+ * positive one. They never change once made, so one may be shared freely.
+ */
+public class AxisCurve {
+    
+    //Intervals in the table; a finer table only matters at the edge of the dead zone
+    private static final int SIZE = 256;
+    
+    private final double deadZone;
+    private final double expo;
+    private final double scale;
+    private final double[] table = new double[SIZE + 1];
+    
+    /**
+     * Creates a curve.
+     * @param deadZone How far the stick must move before the output leaves zero, from 0 to 1
+     * @param expo How much of the curve is cubic, from 0 for a straight line to 1 for a pure cube
+     * @param scale The output at full stick
+     */
+    public AxisCurve(double deadZone, double expo, double scale) {
+        if (!(deadZone >= 0 && deadZone < 1)) throw new RuntimeException("Dead zone must be from 0 to less than 1.");
+        if (!(expo >= 0 && expo <= 1)) throw new RuntimeException("Expo must be from 0 to 1.");
+        this.deadZone = deadZone;
+        this.expo = expo;
+        this.scale = scale;
+        for (int i = 0; i <= SIZE; i++)
+            table[i] = evaluate((double) i / SIZE);
+    }
+    
+    /**
+     * Works out the curve directly, for filling the table.
+     * @param magnitude The magnitude of the input, from 0 to 1
+     */
+    private double evaluate(double magnitude) {
+        if (magnitude <= deadZone)
+            return 0;
+        double u = (magnitude - deadZone) / (1 - deadZone);
+        return scale * ((1 - expo) * u + expo * u * u * u);
+    }
+    
+    /**
+     * Shapes one axis.
+     * @param value The input, from -1 to 1; anything beyond is treated as full stick
+     * @return The output
+     */
+    public double apply(double value) {
+        double magnitude = Math.abs(value);
+        double output = lookup(magnitude);
+        return (value < 0) ? -output : output;
+    }
+    
+    /**
+     * Shapes a stick by the distance it has moved from the center rather than
+     * axis by axis, which keeps its direction and gives it a round dead zone.
+     * A square dead zone on each axis catches a stick pushed nearly straight
+     * along one axis and snaps it onto that axis. Multiply both axes by the
+     * factor returned to shape them.
+     * @param x The stick's x axis, from -1 to 1
+     * @param y The stick's y axis, from -1 to 1
+     * @return The factor to multiply both axes by
+     */
+    public double radialScale(double x, double y) {
+        double radius = Math.sqrt(x * x + y * y);
+        if (radius <= deadZone)
+            return 0;
+        //Past full stick in a corner, the direction is kept and the output held at full
+        return lookup(radius) / radius;
+    }
+    
+    /**
+     * Interpolates the table at a magnitude.
+     */
+    private double lookup(double magnitude) {
+        //Exactly zero all the way to the edge, which the table alone would round off
+        if (magnitude <= deadZone)
+            return 0;
+        if (!(magnitude < 1))
+            return (magnitude >= 1) ? table[SIZE] : 0;
+        double index = magnitude * SIZE;
+        int i = (int) index;
+        return table[i] + (table[i + 1] - table[i]) * (index - i);
+    }
+    
+    /**
+     * Gets the dead zone.
+     * @return How far the stick must move before the output leaves zero
+     */
+    public double getDeadZone() {
+        return deadZone;
+    }
+    
+    /**
+     * Gets how much of the curve is cubic.
+     * @return The expo, from 0 to 1
+     */
+    public double getExpo() {
+        return expo;
+    }
+    
+    /**
+     * Gets the output at full stick.
+     * @return The scale
+     */
+    public double getScale() {
+        return scale;
+    }
+}
@@ -0,0 +1,146 @@
+package org.harker.robotics.harkerrobolib.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A ring of button events, each a button, what happened to it and when, in
+ * nanoseconds. One thread posts events and any number of {@link Reader}s take
+ * them, each at its own pace and without taking them from the others, so
+ * every subscriber sees every event. Neither posting nor reading locks or
+ * allocates.
+ * 
+ * Each event is packed into one long, so a slot is always read whole. A
+ * reader which falls a whole ring behind has lost the oldest events; it skips
+ * to the oldest event still there and counts the ones it missed.
+ */
+public class ButtonEventQueue {
+    
+    public static final int PRESSED = 0;
+    public static final int RELEASED = 1;
+    //Pressed for a while without being released; posted once per press
+    public static final int HELD = 2;
+    //Pressed again soon after the last press; posted along with the second press
+    public static final int DOUBLE_TAPPED = 3;
+    
+    //The largest button number an event can carry
+    public static final int MAX_BUTTON = 16;
+    
+    //Low bits of a packed event: the button less one, then the type; the time is above them
+    private static final int BUTTON_BITS = 4;
+    private static final int TYPE_BITS = 2;
+    private static final int TIME_SHIFT = BUTTON_BITS + TYPE_BITS;
+    
+    private final AtomicLongArray slots;
+    private final int mask;
+    //The number of events ever posted; the next goes in slot posted % size
+    private final AtomicLong posted = new AtomicLong();
+    //Times are kept relative to this so that they fit above the button and type
+    private final long epoch;
+    
+    /**
+     * Creates an empty queue.
+     * @param size The number of slots, a power of two; a reader may fall one less than this
+     * many events behind without missing any
+     * @param epoch A time in nanoseconds which events are kept relative to; they must fall
+     * within four years of it either way
+     */
+    public ButtonEventQueue(int size, long epoch) {
+        if (size < 2 || (size & (size - 1)) != 0) throw new RuntimeException("Queue size must be a power of two, at least 2.");
+        slots = new AtomicLongArray(size);
+        mask = size - 1;
+        this.epoch = epoch;
+    }
+    
+    /**
+     * Adds an event. Only one thread may post.
+     * @param type What happened, such as {@link #PRESSED}
+     * @param button The button number, from 1 to {@link #MAX_BUTTON}
+     * @param nanos When it happened, in nanoseconds
+     */
+    public void post(int type, int button, long nanos) {
+        if (button < 1 || button > MAX_BUTTON) throw new RuntimeException("Button number out of range: " + button);
+        long sequence = posted.get();
+        slots.set((int) sequence & mask, (nanos - epoch) << TIME_SHIFT | (long) type << BUTTON_BITS | (button - 1));
+        posted.set(sequence + 1);
+    }
+    
+    /**
+     * Makes a reader which sees the events posted from now on.
+     * @return The reader
+     */
+    public Reader subscribe() {
+        return new Reader();
+    }
+    
+    /**
+     * Takes events from a {@link ButtonEventQueue} one at a time. A reader
+     * belongs to one thread, which need not be the one posting.
+     */
+    public class Reader {
+    
+        private long next;
+        private long missed;
+        private long event;
+    
+        private Reader() {
+            next = posted.get();
+        }
+    
+        /**
+         * Moves on to the next event, if there is one, which the getters then describe.
+         * @return Whether or not there was an event
+         */
+        public boolean poll() {
+            while (true) {
+                long end = posted.get();
+                if (next >= end)
+                    return false;
+                //The oldest slot may be being written over, so only the rest are safe to read
+                if (end - next >= slots.length()) {
+                    missed += end - slots.length() + 1 - next;
+                    next = end - slots.length() + 1;
+                }
+                long value = slots.get((int) next & mask);
+                //The slot may have been reused while it was read; if so, catch up and try again
+                if (posted.get() - next < slots.length()) {
+                    event = value;
+                    next++;
+                    return true;
+                }
+            }
+        }
+    
+        /**
+         * Gets what happened in the current event.
+         * @return The type, such as {@link ButtonEventQueue#PRESSED}
+         */
+        public int getType() {
+            return (int) (event >>> BUTTON_BITS) & ((1 << TYPE_BITS) - 1);
+        }
+    
+        /**
+         * Gets the button of the current event.
+         * @return The button number, starting at 1
+         */
+        public int getButton() {
+            return ((int) event & ((1 << BUTTON_BITS) - 1)) + 1;
+        }
+    
+        /**
+         * Gets when the current event happened.
+         * @return The time in nanoseconds, on the clock the events were posted with
+         */
+        public long getTime() {
+            return (event >> TIME_SHIFT) + epoch;
+        }
+    
+        /**
+         * Gets how many events this reader lost by falling a whole queue behind.
+         * @return The number of events missed
+         */
+        public long getMissed() {
+            return missed;
+        }
+    }
+}
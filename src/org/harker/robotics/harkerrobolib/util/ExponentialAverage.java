@@ -0,0 +1,74 @@
+package org.harker.robotics.harkerrobolib.util;
+
+/**
+ * An exponentially weighted moving average: each sample moves the average
+ * a fixed fraction of the way towards it, so old samples fade away without
+ * having to be stored. Useful for smoothing a noisy signal that is sampled
+ * at a steady rate, such as a sensor read every loop.
+ * 
+ * Not thread safe; add samples from one thread.
+ */
+public class ExponentialAverage {
+    
+    private final double alpha;
+    private double value = Double.NaN;
+    
+    /**
+     * Creates an average.
+     * @param alpha The weight of each new sample, from 0 (never moves) to 1
+     * (always the latest sample)
+     */
+    public ExponentialAverage(double alpha) {
+        if (!(alpha > 0 && alpha <= 1))
+            throw new RuntimeException("Smoothing factor must be in (0, 1].");
+        this.alpha = alpha;
+    }
+    
+    /**
+     * Creates an average which forgets old samples over a given time, so
+     * that after a step it has covered about 63% of the step once the time
+     * constant has passed.
+     * @param timeConstant The time constant in seconds
+     * @param period The time between samples in seconds
+     * @return The average
+     */
+    public static ExponentialAverage forTimeConstant(double timeConstant, double period) {
+        return new ExponentialAverage(1 - Math.exp(-period / timeConstant));
+    }
+    
+    /**
+     * Adds one sample. The first sample after a reset becomes the average.
+     * @param x The sample
+     * @return The new average
+     */
+    public double add(double x) {
+        if (value != value)
+            value = x;
+        else
+            value += alpha * (x - value);
+        return value;
+    }
+    
+    /**
+     * Gets the average.
+     * @return The average, or NaN if no samples have been added
+     */
+    public double get() {
+        return value;
+    }
+    
+    /**
+     * Forgets every sample.
+     */
+    public void reset() {
+        value = Double.NaN;
+    }
+    
+    /**
+     * Gets the weight of each new sample.
+     * @return The smoothing factor
+     */
+    public double getAlpha() {
+        return alpha;
+    }
+}
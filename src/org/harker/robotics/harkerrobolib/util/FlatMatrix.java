@@ -0,0 +1,333 @@
+package org.harker.robotics.harkerrobolib.util;
+
+/**
+ * A mutable matrix stored in a single row-major array, for use where
+ * {@link Matrix} would create garbage on every call, such as inside a control
+ * loop. Every operation either works in place or writes into a matrix the
+ * caller provides, so once the matrices are made nothing is allocated.
+ * 
+ * A destination may not be one of the operands of a product or a transpose,
+ * as it is overwritten while they are still being read.
+ */
+public class FlatMatrix {
+    
+    //Products with every dimension at most this are not blocked
+    private static final int BLOCK = 32;
+    
+    private final int rows;
+    private final int cols;
+    //Element (i, j) is data[i * cols + j]
+    final double[] data;
+    
+    /**
+     * Creates a matrix of zeros.
+     * @param rows The number of rows
+     * @param cols The number of columns
+     */
+    public FlatMatrix(int rows, int cols) {
+        this.rows = rows;
+        this.cols = cols;
+        this.data = new double[rows * cols];
+    }
+    
+    /**
+     * Creates a matrix from a 2-dimensional array.
+     * @param values The elements, indexed by row and then column
+     */
+    public FlatMatrix(double[][] values) {
+        this(values.length, values[0].length);
+        for (int i = 0; i < rows; i++)
+            System.arraycopy(values[i], 0, data, i * cols, cols);
+    }
+    
+    /**
+     * Creates a copy of a {@link Matrix}.
+     * @param m The matrix to copy
+     */
+    public FlatMatrix(Matrix m) {
+        this(m, m.getRows(), m.getCols());
+    }
+    
+    /**
+     * Creates a copy of part of a {@link Matrix}.
+     * @param m The matrix to copy
+     * @param rows The number of rows to copy
+     * @param cols The number of columns to copy
+     */
+    public FlatMatrix(Matrix m, int rows, int cols) {
+        this(rows, cols);
+        for (int i = 0; i < rows; i++)
+            for (int j = 0; j < cols; j++)
+                data[i * cols + j] = m.getValue(i, j);
+    }
+    
+    /**
+     * Creates an N-by-N identity matrix.
+     * @param n The size of the matrix
+     * @return The identity matrix
+     */
+    public static FlatMatrix identity(int n) {
+        FlatMatrix I = new FlatMatrix(n, n);
+        I.setIdentity();
+        return I;
+    }
+    
+    /**
+     * Gets the number of rows.
+     * @return The number of rows
+     */
+    public int getRows() {
+        return rows;
+    }
+    
+    /**
+     * Gets the number of columns.
+     * @return The number of columns
+     */
+    public int getCols() {
+        return cols;
+    }
+    
+    /**
+     * Gets the value of an element.
+     * @param i The row
+     * @param j The column
+     * @return The value at (i, j)
+     */
+    public double getValue(int i, int j) {
+        return data[i * cols + j];
+    }
+    
+    /**
+     * Sets the value of an element.
+     * @param i The row
+     * @param j The column
+     * @param val The value to put at (i, j)
+     */
+    public void setValue(int i, int j, double val) {
+        data[i * cols + j] = val;
+    }
+    
+    /**
+     * Copies another matrix of the same dimensions into this one.
+     * @param B The matrix to copy
+     * @return This matrix
+     */
+    public FlatMatrix set(FlatMatrix B) {
+        checkSameSize(B);
+        System.arraycopy(B.data, 0, data, 0, data.length);
+        return this;
+    }
+    
+    /**
+     * Sets every element to zero.
+     * @return This matrix
+     */
+    public FlatMatrix setZero() {
+        for (int i = 0; i < data.length; i++)
+            data[i] = 0;
+        return this;
+    }
+    
+    /**
+     * Sets this matrix to the identity, which it must be square for.
+     * @return This matrix
+     */
+    public FlatMatrix setIdentity() {
+        if (rows != cols) throw new RuntimeException("Illegal matrix dimensions.");
+        setZero();
+        for (int i = 0; i < rows; i++)
+            data[i * cols + i] = 1;
+        return this;
+    }
+    
+    /**
+     * Adds another matrix to this one.
+     * @param B The matrix to add
+     * @return This matrix, now A + B
+     */
+    public FlatMatrix addInPlace(FlatMatrix B) {
+        checkSameSize(B);
+        for (int i = 0; i < data.length; i++)
+            data[i] += B.data[i];
+        return this;
+    }
+    
+    /**
+     * Subtracts another matrix from this one.
+     * @param B The matrix to subtract
+     * @return This matrix, now A - B
+     */
+    public FlatMatrix subtractInPlace(FlatMatrix B) {
+        checkSameSize(B);
+        for (int i = 0; i < data.length; i++)
+            data[i] -= B.data[i];
+        return this;
+    }
+    
+    /**
+     * Multiplies every element by a number.
+     * @param s The number to multiply by
+     * @return This matrix, now s * A
+     */
+    public FlatMatrix scaleInPlace(double s) {
+        for (int i = 0; i < data.length; i++)
+            data[i] *= s;
+        return this;
+    }
+    
+    /**
+     * Adds a multiple of another matrix to this one.
+     * @param s The multiple
+     * @param B The matrix to add
+     * @return This matrix, now A + s * B
+     */
+    public FlatMatrix addScaledInPlace(double s, FlatMatrix B) {
+        checkSameSize(B);
+        for (int i = 0; i < data.length; i++)
+            data[i] += s * B.data[i];
+        return this;
+    }
+    
+    /**
+     * Adds this matrix and another, putting the sum in a third, which may be either of them.
+     * @param B The matrix to add
+     * @param C The matrix to hold A + B
+     * @return C
+     */
+    public FlatMatrix addInto(FlatMatrix B, FlatMatrix C) {
+        checkSameSize(B);
+        checkSameSize(C);
+        for (int i = 0; i < data.length; i++)
+            C.data[i] = data[i] + B.data[i];
+        return C;
+    }
+    
+    /**
+     * Subtracts another matrix from this one, putting the difference in a third, which may be either of them.
+     * @param B The matrix to subtract
+     * @param C The matrix to hold A - B
+     * @return C
+     */
+    public FlatMatrix subtractInto(FlatMatrix B, FlatMatrix C) {
+        checkSameSize(B);
+        checkSameSize(C);
+        for (int i = 0; i < data.length; i++)
+            C.data[i] = data[i] - B.data[i];
+        return C;
+    }
+    
+    /**
+     * Puts the transpose of this matrix, A<sup>T</sup>, in another.
+     * @param C The matrix to hold the transpose, which may not be this one
+     * @return C
+     */
+    public FlatMatrix transposeInto(FlatMatrix C) {
+        if (C.rows != cols || C.cols != rows) throw new RuntimeException("Illegal matrix dimensions.");
+        if (C == this) throw new RuntimeException("Cannot transpose a matrix into itself.");
+        for (int i = 0; i < rows; i++)
+            for (int j = 0; j < cols; j++)
+                C.data[j * rows + i] = data[i * cols + j];
+        return C;
+    }
+    
+    /**
+     * Multiplies this matrix by another, putting the product in a third. The
+     * rows of B and C are walked in order, and large products are done in
+     * blocks which fit in the cache.
+     * @param B The matrix to multiply by
+     * @param C The matrix to hold A * B, which may not be A or B
+     * @return C
+     */
+    public FlatMatrix multInto(FlatMatrix B, FlatMatrix C) {
+        if (cols != B.rows || C.rows != rows || C.cols != B.cols) throw new RuntimeException("Illegal matrix dimensions.");
+        if (C == this || C == B) throw new RuntimeException("Cannot multiply a matrix into one of its operands.");
+        C.setZero();
+        if (rows <= BLOCK && cols <= BLOCK && B.cols <= BLOCK)
+            multiplyBlock(B, C, 0, cols, 0, B.cols);
+        else
+            for (int kk = 0; kk < cols; kk += BLOCK)
+                for (int jj = 0; jj < B.cols; jj += BLOCK)
+                    multiplyBlock(B, C, kk, Math.min(kk + BLOCK, cols), jj, Math.min(jj + BLOCK, B.cols));
+        return C;
+    }
+    
+    /**
+     * Adds the part of A * B from columns k0 to k1 of A, for columns j0 to j1 of C.
+     */
+    private void multiplyBlock(FlatMatrix B, FlatMatrix C, int k0, int k1, int j0, int j1) {
+        double[] a = data, b = B.data, c = C.data;
+        int n = B.cols;
+        for (int i = 0; i < rows; i++) {
+            int rowA = i * cols;
+            int rowC = i * n;
+            for (int k = k0; k < k1; k++) {
+                double aik = a[rowA + k];
+                int rowB = k * n;
+                for (int j = j0; j < j1; j++)
+                    c[rowC + j] += aik * b[rowB + j];
+            }
+        }
+    }
+    
+    /**
+     * Multiplies this matrix by a column vector.
+     * @param x The vector, with one element per column
+     * @param y The array to hold A * x, with one element per row, which may not be x
+     * @return y
+     */
+    public double[] multInto(double[] x, double[] y) {
+        if (x.length != cols || y.length != rows) throw new RuntimeException("Illegal matrix dimensions.");
+        for (int i = 0; i < rows; i++) {
+            double sum = 0;
+            int row = i * cols;
+            for (int j = 0; j < cols; j++)
+                sum += data[row + j] * x[j];
+            y[i] = sum;
+        }
+        return y;
+    }
+    
+    /**
+     * Creates a {@link Matrix} with the same elements. This allocates, so it
+     * is meant for the edges of the code rather than the loops.
+     * @return The new matrix
+     */
+    public Matrix toMatrix() {
+        Matrix m = new Matrix(rows, cols);
+        for (int i = 0; i < rows; i++)
+            for (int j = 0; j < cols; j++)
+                m.setValue(i, j, data[i * cols + j]);
+        return m;
+    }
+    
+    private void checkSameSize(FlatMatrix B) {
+        if (B.rows != rows || B.cols != cols) throw new RuntimeException("Illegal matrix dimensions.");
+    }
+    
+    /**
+     * Checks if two matrices are equivalent.
+     * @param B The matrix to compare to
+     * @return <code>true</code> if the dimensions match and the individual elements are the same
+     */
+    public boolean equals(FlatMatrix B) {
+        if (B.rows != rows || B.cols != cols) return false;
+        for (int i = 0; i < data.length; i++)
+            if (data[i] != B.data[i]) return false;
+        return true;
+    }
+    
+    /**
+     * Returns a printable form of the matrix.
+     * @return The formatted string version of the matrix
+     */
+    public String toString() {
+        StringBuilder s = new StringBuilder();
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++)
+                s.append(data[i * cols + j]).append(' ');
+            s.append('\n');
+        }
+        return s.toString();
+    }
+}
@@ -0,0 +1,160 @@
+package org.harker.robotics.harkerrobolib.util;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Reads a recording made by a {@link FlightRecorder}, oldest record first.
+ * Records which were torn by a crash are skipped.
+ * 
+ * Run it on its own to convert a recording to CSV:
+ * <code>java org.harker.robotics.harkerrobolib.util.FlightRecordDecoder recording [csv]</code>
+ * which prints to standard output if no CSV file is given.
+ */
+public class FlightRecordDecoder {
+    
+    private final MappedByteBuffer buffer;
+    private final String[] fields;
+    private final int capacity;
+    private final int recordSize;
+    private final int dataOffset;
+    private final long count;
+    private long next;
+    private long sequence;
+    private double time;
+    
+    /**
+     * Opens a recording. Records written after it is opened are not read.
+     * @param file The recording
+     * @throws IOException If the file cannot be read or is not a recording
+     */
+    public FlightRecordDecoder(File file) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            buffer = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, raf.length());
+        } finally {
+            raf.close();
+        }
+        if (buffer.capacity() < FlightRecorder.NAMES_OFFSET || buffer.getInt(0) != FlightRecorder.MAGIC)
+            throw new IOException(file + " is not a flight recording");
+        if (buffer.getInt(4) != FlightRecorder.VERSION)
+            throw new IOException(file + " is a version " + buffer.getInt(4) + " recording");
+        capacity = buffer.getInt(FlightRecorder.CAPACITY_OFFSET);
+        recordSize = buffer.getInt(FlightRecorder.RECORD_SIZE_OFFSET);
+        dataOffset = buffer.getInt(FlightRecorder.DATA_OFFSET_OFFSET);
+        count = buffer.getLong(FlightRecorder.COUNT_OFFSET);
+        
+        fields = new String[buffer.getInt(FlightRecorder.FIELD_COUNT_OFFSET)];
+        int position = FlightRecorder.NAMES_OFFSET;
+        for (int i = 0; i < fields.length; i++) {
+            byte[] name = new byte[buffer.getShort(position)];
+            for (int j = 0; j < name.length; j++)
+                name[j] = buffer.get(position + 2 + j);
+            fields[i] = new String(name, "UTF-8");
+            position += 2 + name.length;
+        }
+        next = Math.max(0, count - capacity);
+    }
+    
+    /**
+     * Gets the names of the fields.
+     * @return The names, in order
+     */
+    public String[] getFields() {
+        return fields;
+    }
+    
+    /**
+     * Finds the index of a field.
+     * @param name The name of the field
+     * @return The index, or -1 if the recording has no such field
+     */
+    public int indexOf(String name) {
+        for (int i = 0; i < fields.length; i++)
+            if (fields[i].equals(name))
+                return i;
+        return -1;
+    }
+    
+    /**
+     * Reads the next whole record.
+     * @param values Filled with the value of each field
+     * @return Whether or not there was another record
+     */
+    public boolean next(float[] values) {
+        while (next < count) {
+            long n = next++;
+            int base = dataOffset + (int) (n % capacity) * recordSize;
+            if (buffer.getLong(base) != n)
+                continue;
+            time = buffer.getDouble(base + FlightRecorder.TIME_OFFSET);
+            for (int i = 0; i < fields.length; i++)
+                values[i] = buffer.getFloat(base + FlightRecorder.VALUES_OFFSET + 4 * i);
+            //The writer may have lapped us while we read
+            if (buffer.getLong(base) != n)
+                continue;
+            sequence = n;
+            return true;
+        }
+        return false;
+    }
+    
+    /**
+     * Gets the number of the record last read.
+     * @return The record number, counted from the start of the recording
+     */
+    public long getSequence() {
+        return sequence;
+    }
+    
+    /**
+     * Gets the time of the record last read.
+     * @return The time in seconds
+     */
+    public double getTime() {
+        return time;
+    }
+    
+    /**
+     * Writes every remaining record as a line of CSV, after a line naming the columns.
+     * @param out Where to write
+     */
+    public void writeCSV(PrintStream out) {
+        StringBuilder line = new StringBuilder("sequence,time");
+        for (int i = 0; i < fields.length; i++)
+            line.append(',').append(fields[i]);
+        out.println(line);
+        float[] values = new float[fields.length];
+        while (next(values)) {
+            line.setLength(0);
+            line.append(sequence).append(',').append(time);
+            for (int i = 0; i < values.length; i++)
+                line.append(',').append(values[i]);
+            out.println(line);
+        }
+    }
+    
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: FlightRecordDecoder recording [csv]");
+            System.exit(1);
+        }
+        FlightRecordDecoder decoder = new FlightRecordDecoder(new File(args[0]));
+        if (args.length > 1) {
+            PrintStream out = new PrintStream(new BufferedOutputStream(new FileOutputStream(args[1])));
+            try {
+                decoder.writeCSV(out);
+            } finally {
+                out.close();
+            }
+        } else {
+            decoder.writeCSV(System.out);
+        }
+    }
+}
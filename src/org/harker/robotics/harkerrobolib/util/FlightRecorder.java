@@ -0,0 +1,153 @@
+package org.harker.robotics.harkerrobolib.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Records a fixed set of numbered fields once per tick into a ring of
+ * fixed-size records in a memory-mapped file, so that recording costs a few
+ * stores into memory and nothing is lost if the program dies: the operating
+ * system holds the pages and writes them out on its own. Once the ring is full
+ * the oldest records are overwritten. Read recordings with {@link FlightRecordDecoder}.
+ * 
+ * The file starts with a header:
+ * <pre>
+ * int magic, int version, int capacity, int record size, int field count,
+ * int data offset, long records written, then for each field its name
+ * as a short length and that many bytes of UTF-8
+ * </pre>
+ * Record n is at data offset + (n % capacity) * record size and holds
+ * <pre>
+ * long n, double time, float value of each field
+ * </pre>
+ * The record number is written last, and the count in the header after that,
+ * so a record torn by a crash is never mistaken for a whole one.
+ * 
+ * Only one thread may record.
+ */
+public class FlightRecorder {
+    
+    public static final int MAGIC = 0x48524652;
+    public static final int VERSION = 1;
+    
+    static final int CAPACITY_OFFSET = 8;
+    static final int RECORD_SIZE_OFFSET = 12;
+    static final int FIELD_COUNT_OFFSET = 16;
+    static final int DATA_OFFSET_OFFSET = 20;
+    static final int COUNT_OFFSET = 24;
+    static final int NAMES_OFFSET = 32;
+    //Within a record
+    static final int TIME_OFFSET = 8;
+    static final int VALUES_OFFSET = 16;
+    
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private final int recordSize;
+    private final int dataOffset;
+    private final float[] values;
+    private long count;
+    
+    /**
+     * Creates a recording, replacing whatever the file held.
+     * @param file The file to record into
+     * @param fields The names of the fields
+     * @param capacity The number of records kept before the oldest are overwritten
+     * @throws IOException If the file cannot be created or mapped
+     */
+    public FlightRecorder(File file, String[] fields, int capacity) throws IOException {
+        byte[][] names = new byte[fields.length][];
+        int namesLength = 0;
+        for (int i = 0; i < fields.length; i++) {
+            names[i] = fields[i].getBytes("UTF-8");
+            namesLength += 2 + names[i].length;
+        }
+        this.capacity = capacity;
+        this.recordSize = VALUES_OFFSET + 4 * fields.length;
+        //Records start on a 64 byte boundary so that none straddles a cache line needlessly
+        this.dataOffset = (NAMES_OFFSET + namesLength + 63) & ~63;
+        long size = dataOffset + (long) capacity * recordSize;
+        if (size > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("A recording of " + capacity + " records is too large to map");
+        this.values = new float[fields.length];
+        
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            raf.setLength(0);
+            raf.setLength(size);
+            buffer = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+        } finally {
+            //The mapping stays valid once the file is closed
+            raf.close();
+        }
+        
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putInt(CAPACITY_OFFSET, capacity);
+        buffer.putInt(RECORD_SIZE_OFFSET, recordSize);
+        buffer.putInt(FIELD_COUNT_OFFSET, fields.length);
+        buffer.putInt(DATA_OFFSET_OFFSET, dataOffset);
+        buffer.putLong(COUNT_OFFSET, 0);
+        int position = NAMES_OFFSET;
+        for (int i = 0; i < names.length; i++) {
+            buffer.putShort(position, (short) names[i].length);
+            for (int j = 0; j < names[i].length; j++)
+                buffer.put(position + 2 + j, names[i][j]);
+            position += 2 + names[i].length;
+        }
+    }
+    
+    /**
+     * Sets a field of the record being built.
+     * @param field The index of the field
+     * @param value The value, which is stored as a float
+     */
+    public void set(int field, double value) {
+        values[field] = (float) value;
+    }
+    
+    /**
+     * Sets a field of the record being built to 1 or 0.
+     * @param field The index of the field
+     * @param value The value
+     */
+    public void set(int field, boolean value) {
+        values[field] = value ? 1 : 0;
+    }
+    
+    /**
+     * Writes the record that has been built. Fields which were not set since
+     * the last record keep their values.
+     * @param time The time of the record in seconds
+     */
+    public void commit(double time) {
+        int base = dataOffset + (int) (count % capacity) * recordSize;
+        //Mark the slot as torn until it is whole again
+        buffer.putLong(base, -1);
+        buffer.putDouble(base + TIME_OFFSET, time);
+        for (int i = 0; i < values.length; i++)
+            buffer.putFloat(base + VALUES_OFFSET + 4 * i, values[i]);
+        buffer.putLong(base, count);
+        count++;
+        buffer.putLong(COUNT_OFFSET, count);
+    }
+    
+    /**
+     * Gets the number of records written, including those overwritten since.
+     * @return The count
+     */
+    public long getCount() {
+        return count;
+    }
+    
+    /**
+     * Writes the recording out to the disk now instead of whenever the
+     * operating system gets to it. This can take milliseconds, so it should
+     * not be called from a loop.
+     */
+    public void force() {
+        buffer.force();
+    }
+}
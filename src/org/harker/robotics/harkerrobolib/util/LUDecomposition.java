@@ -0,0 +1,199 @@
+package org.harker.robotics.harkerrobolib.util;
+
+/**
+ * The LU factorization of a square matrix with partial pivoting, PA = LU,
+ * for solving A * x = b over and over when A stays the same and only b
+ * changes. Factorizing takes O(n<sup>3</sup>) time once; each solve after
+ * that takes O(n<sup>2</sup>) and allocates nothing. Several right hand
+ * sides may be solved at once as the columns of a {@link FlatMatrix}.
+ * 
+ * The storage is made once for a given size, so a system which does change
+ * now and then can be factorized again with {@link #decompose(FlatMatrix)}
+ * without creating garbage either.
+ */
+public class LUDecomposition {
+    
+    private final int n;
+    //L below the diagonal (its diagonal is all ones) and U on and above it, row-major
+    private final double[] lu;
+    //Row i of LU is row pivot[i] of A
+    private final int[] pivot;
+    private int swaps;
+    
+    /**
+     * Creates the storage for factorizing N-by-N matrices. Nothing may be
+     * solved until {@link #decompose(FlatMatrix)} is called.
+     * @param n The size of the matrices
+     */
+    public LUDecomposition(int n) {
+        this.n = n;
+        this.lu = new double[n * n];
+        this.pivot = new int[n];
+    }
+    
+    /**
+     * Factorizes a matrix.
+     * @param A The matrix, which must be square and is not changed
+     */
+    public LUDecomposition(FlatMatrix A) {
+        this(A.getRows());
+        decompose(A);
+    }
+    
+    /**
+     * Factorizes a matrix.
+     * @param A The matrix, which must be square and is not changed
+     */
+    public LUDecomposition(Matrix A) {
+        this(new FlatMatrix(A));
+    }
+    
+    /**
+     * Factorizes a new matrix of the same size in place of the last.
+     * @param A The matrix, which is not changed
+     * @throws RuntimeException If the matrix is the wrong size or singular
+     */
+    public void decompose(FlatMatrix A) {
+        if (A.getRows() != n || A.getCols() != n) throw new RuntimeException("Illegal matrix dimensions.");
+        System.arraycopy(A.data, 0, lu, 0, lu.length);
+        for (int i = 0; i < n; i++)
+            pivot[i] = i;
+        swaps = 0;
+        
+        for (int i = 0; i < n; i++) {
+            int max = i;
+            for (int j = i + 1; j < n; j++)
+                if (Math.abs(lu[j * n + i]) > Math.abs(lu[max * n + i]))
+                    max = j;
+            if (max != i) {
+                swapRows(i, max);
+                int p = pivot[i];
+                pivot[i] = pivot[max];
+                pivot[max] = p;
+                swaps++;
+            }
+            
+            double diagonal = lu[i * n + i];
+            if (diagonal == 0.0) throw new RuntimeException("Matrix is singular.");
+            
+            for (int j = i + 1; j < n; j++) {
+                int row = j * n;
+                double m = lu[row + i] / diagonal;
+                lu[row + i] = m;
+                if (m == 0.0)
+                    continue;
+                for (int k = i + 1; k < n; k++)
+                    lu[row + k] -= m * lu[i * n + k];
+            }
+        }
+    }
+    
+    private void swapRows(int i, int j) {
+        for (int k = 0; k < n; k++) {
+            double t = lu[i * n + k];
+            lu[i * n + k] = lu[j * n + k];
+            lu[j * n + k] = t;
+        }
+    }
+    
+    /**
+     * Solves A * x = b.
+     * @param b The right hand side, with n elements, which is not changed
+     * @param x The array to hold the solution, which may not be b
+     * @return x
+     */
+    public double[] solveInto(double[] b, double[] x) {
+        if (b.length != n || x.length != n) throw new RuntimeException("Illegal matrix dimensions.");
+        if (b == x) throw new RuntimeException("Cannot solve into the right hand side.");
+        //Forward substitution through L, taking b in pivoted order
+        for (int i = 0; i < n; i++) {
+            double sum = b[pivot[i]];
+            int row = i * n;
+            for (int k = 0; k < i; k++)
+                sum -= lu[row + k] * x[k];
+            x[i] = sum;
+        }
+        //Back substitution through U
+        for (int i = n - 1; i >= 0; i--) {
+            double sum = x[i];
+            int row = i * n;
+            for (int k = i + 1; k < n; k++)
+                sum -= lu[row + k] * x[k];
+            x[i] = sum / lu[row + i];
+        }
+        return x;
+    }
+    
+    /**
+     * Solves A * X = B for every column of B at once. Each step works along a
+     * whole row of X, which walks memory in order however many columns there are.
+     * @param B The right hand sides, n by m, which is not changed
+     * @param X The matrix to hold the solutions, n by m, which may not be B
+     * @return X
+     */
+    public FlatMatrix solveInto(FlatMatrix B, FlatMatrix X) {
+        int m = B.getCols();
+        if (B.getRows() != n || X.getRows() != n || X.getCols() != m) throw new RuntimeException("Illegal matrix dimensions.");
+        if (B == X) throw new RuntimeException("Cannot solve into the right hand side.");
+        double[] b = B.data, x = X.data;
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(b, pivot[i] * m, x, i * m, m);
+            for (int k = 0; k < i; k++) {
+                double l = lu[i * n + k];
+                if (l == 0.0)
+                    continue;
+                for (int j = 0; j < m; j++)
+                    x[i * m + j] -= l * x[k * m + j];
+            }
+        }
+        for (int i = n - 1; i >= 0; i--) {
+            for (int k = i + 1; k < n; k++) {
+                double u = lu[i * n + k];
+                if (u == 0.0)
+                    continue;
+                for (int j = 0; j < m; j++)
+                    x[i * m + j] -= u * x[k * m + j];
+            }
+            double diagonal = lu[i * n + i];
+            for (int j = 0; j < m; j++)
+                x[i * m + j] /= diagonal;
+        }
+        return X;
+    }
+    
+    /**
+     * Solves A * x = b, as {@link Matrix#solve(Matrix)} does but without
+     * factorizing again. This allocates the result.
+     * @param rhs The right hand side, b, with one column
+     * @return x = A<sup>-1</sup> * b
+     */
+    public Matrix solve(Matrix rhs) {
+        double[] b = new double[n];
+        for (int i = 0; i < n; i++)
+            b[i] = rhs.getValue(i, 0);
+        double[] x = solveInto(b, new double[n]);
+        Matrix result = new Matrix(n, 1);
+        for (int i = 0; i < n; i++)
+            result.setValue(i, 0, x[i]);
+        return result;
+    }
+    
+    /**
+     * Finds the determinant of the matrix.
+     * @return det(A)
+     */
+    public double determinant() {
+        double det = (swaps % 2 == 0) ? 1 : -1;
+        for (int i = 0; i < n; i++)
+            det *= lu[i * n + i];
+        return det;
+    }
+    
+    /**
+     * Gets the size of the matrices this factorizes.
+     * @return The number of rows and columns
+     */
+    public int getSize() {
+        return n;
+    }
+}
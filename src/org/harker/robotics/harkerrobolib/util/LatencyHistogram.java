@@ -0,0 +1,119 @@
+package org.harker.robotics.harkerrobolib.util;
+
+/**
+ * A histogram of durations in nanoseconds in the style of HdrHistogram: each
+ * power of two is split into 32 equal buckets, so any recorded value is
+ * known to within about 3% while the whole range from 1 ns to about a minute
+ * fits in 1024 counters. Recording is a few shifts and an increment and never
+ * allocates, so it can sit inside a control loop.
+ * 
+ * Only one thread may record. Other threads may read at any time, but may see
+ * the counts part way through an update.
+ */
+public class LatencyHistogram {
+    
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    //Values from 2^36 ns (about 69 s) up are counted as the largest value
+    private static final int MAX_EXPONENT = 35;
+    private static final long MAX_VALUE = (1L << (MAX_EXPONENT + 1)) - 1;
+    private static final int BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+    
+    private final long[] counts = new long[BUCKETS];
+    private volatile long total;
+    private volatile long max;
+    private long sum;
+    
+    /**
+     * Records one value.
+     * @param nanos The value, in nanoseconds
+     */
+    public void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        else if (nanos > MAX_VALUE) nanos = MAX_VALUE;
+        counts[indexOf(nanos)]++;
+        sum += nanos;
+        if (nanos > max) max = nanos;
+        total++;
+    }
+    
+    /**
+     * Gets the value below which the given percentage of the recorded values fall.
+     * @param percentile The percentile, from 0 to 100
+     * @return The value in nanoseconds, rounded up to the top of its bucket, or
+     * 0 if nothing has been recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        long count = total;
+        if (count == 0)
+            return 0;
+        long rank = (long) Math.ceil(percentile / 100 * count);
+        if (rank < 1) rank = 1;
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank)
+                return Math.min(highestInBucket(i), max);
+        }
+        return max;
+    }
+    
+    /**
+     * Gets the largest value recorded.
+     * @return The value in nanoseconds, exactly
+     */
+    public long getMax() {
+        return max;
+    }
+    
+    /**
+     * Gets the mean of the values recorded.
+     * @return The mean in nanoseconds
+     */
+    public double getMean() {
+        long count = total;
+        return (count == 0) ? 0 : (double) sum / count;
+    }
+    
+    /**
+     * Gets the number of values recorded.
+     * @return The count
+     */
+    public long getCount() {
+        return total;
+    }
+    
+    /**
+     * Forgets every recorded value. Only the recording thread may do this.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++)
+            counts[i] = 0;
+        sum = 0;
+        max = 0;
+        total = 0;
+    }
+    
+    /**
+     * Finds the bucket a value belongs in. Values below 32 get a bucket each;
+     * above that, the top five bits after the leading one pick the bucket
+     * within that value's power of two.
+     */
+    private static int indexOf(long value) {
+        if (value < SUB_BUCKETS)
+            return (int) value;
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+    }
+    
+    /**
+     * Finds the largest value which falls in a bucket.
+     */
+    private static long highestInBucket(int index) {
+        if (index < SUB_BUCKETS)
+            return index;
+        int shift = index / SUB_BUCKETS - 1;
+        long lowest = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+}
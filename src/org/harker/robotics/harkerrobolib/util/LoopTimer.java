@@ -0,0 +1,216 @@
+package org.harker.robotics.harkerrobolib.util;
+
+import java.io.PrintStream;
+
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+
+/**
+ * Measures how long each pass of a loop (or each call of a task) takes, and,
+ * for periodic loops, how far the time between passes strays from the period.
+ * Both go into {@link LatencyHistogram}s, so {@link #start()} and
+ * {@link #stop()} never allocate. A pass longer than the budget counts as an
+ * overrun.
+ * 
+ * Timers are registered by name, so every instance of a command shares one.
+ * {@link #publishAll()} puts each timer's p50, p99 and max (in milliseconds),
+ * its overrun count and, for periodic loops, its p99 jitter on the SmartDashboard.
+ * Commands started by button events also record the time from each event to
+ * their first pass, whose p99 is published once there is any.
+ * 
+ * Times are taken from System.nanoTime(). In simulation the passes run as fast
+ * as the host allows, so the durations are real but the jitter is not.
+ */
+public class LoopTimer {
+    
+    private static final Object registryLock = new Object();
+    private static volatile LoopTimer[] timers = new LoopTimer[0];
+    
+    private final String name;
+    private volatile long periodNanos;
+    private volatile long budgetNanos;
+    private final LatencyHistogram durations = new LatencyHistogram();
+    private final LatencyHistogram jitter = new LatencyHistogram();
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private volatile long overruns;
+    private long startNanos;
+    private long lastStartNanos;
+    
+    //Built once, so publishing does not build strings
+    private final String p50Key, p99Key, maxKey, overrunKey, jitterKey, latencyKey;
+    
+    private LoopTimer(String name, double period, double budget) {
+        this.name = name;
+        this.periodNanos = (long) (period * 1e9);
+        this.budgetNanos = (long) (budget * 1e9);
+        p50Key = "Timing: " + name + " p50 (ms)";
+        p99Key = "Timing: " + name + " p99 (ms)";
+        maxKey = "Timing: " + name + " max (ms)";
+        overrunKey = "Timing: " + name + " overruns";
+        jitterKey = "Timing: " + name + " p99 jitter (ms)";
+        latencyKey = "Timing: " + name + " p99 input latency (ms)";
+    }
+    
+    /**
+     * Gets the timer for a periodic loop, creating it if need be. A pass which
+     * takes longer than the period is an overrun.
+     * @param name The name of the loop
+     * @param period The time the loop is meant to take between passes, in seconds
+     * @return The timer
+     */
+    public static LoopTimer forLoop(String name, double period) {
+        return get(name, period, period);
+    }
+    
+    /**
+     * Gets the timer for a task which is not strictly periodic, creating it if need be.
+     * @param name The name of the task
+     * @param budget How long one call may take before it is an overrun, in seconds
+     * @return The timer
+     */
+    public static LoopTimer forTask(String name, double budget) {
+        return get(name, 0, budget);
+    }
+    
+    private static LoopTimer get(String name, double period, double budget) {
+        synchronized (registryLock) {
+            LoopTimer[] all = timers;
+            for (int i = 0; i < all.length; i++)
+                if (all[i].name.equals(name))
+                    return all[i];
+            LoopTimer timer = new LoopTimer(name, period, budget);
+            LoopTimer[] grown = new LoopTimer[all.length + 1];
+            System.arraycopy(all, 0, grown, 0, all.length);
+            grown[all.length] = timer;
+            timers = grown;
+            return timer;
+        }
+    }
+    
+    /**
+     * Marks the start of a pass.
+     */
+    public void start() {
+        long now = System.nanoTime();
+        long period = periodNanos;
+        if (period > 0 && lastStartNanos != 0)
+            jitter.record(Math.abs(now - lastStartNanos - period));
+        lastStartNanos = now;
+        startNanos = now;
+    }
+    
+    /**
+     * Marks the end of a pass.
+     */
+    public void stop() {
+        long elapsed = System.nanoTime() - startNanos;
+        durations.record(elapsed);
+        if (elapsed > budgetNanos)
+            overruns++;
+    }
+    
+    /**
+     * Records how long the task took to act on an input. Call from the thread
+     * which times the passes.
+     * @param nanos The time from the input to the end of the pass which acted on it
+     */
+    public void recordLatency(long nanos) {
+        latency.record(nanos);
+    }
+    
+    /**
+     * Forgets when the last pass started, so that a deliberate pause (such as
+     * between autonomous and operator control) is not counted as jitter.
+     */
+    public void restart() {
+        lastStartNanos = 0;
+    }
+    
+    /**
+     * Changes the period of a loop, which is also its budget.
+     * @param period The new period in seconds
+     */
+    public void setPeriod(double period) {
+        periodNanos = (long) (period * 1e9);
+        budgetNanos = periodNanos;
+    }
+    
+    /**
+     * Gets the name of the timer.
+     * @return The name
+     */
+    public String getName() {
+        return name;
+    }
+    
+    /**
+     * Gets the durations of the passes.
+     * @return The histogram of durations in nanoseconds
+     */
+    public LatencyHistogram getDurations() {
+        return durations;
+    }
+    
+    /**
+     * Gets how far the time between passes strayed from the period.
+     * @return The histogram of jitter in nanoseconds, empty if the timer is not for a periodic loop
+     */
+    public LatencyHistogram getJitter() {
+        return jitter;
+    }
+    
+    /**
+     * Gets how long the task took to act on its inputs.
+     * @return The histogram of latency in nanoseconds, empty if nothing was recorded
+     */
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+    
+    /**
+     * Gets the number of passes which took longer than the budget.
+     * @return The number of overruns
+     */
+    public long getOverruns() {
+        return overruns;
+    }
+    
+    /**
+     * Puts every timer's figures on the SmartDashboard.
+     */
+    public static void publishAll() {
+        LoopTimer[] all = timers;
+        for (int i = 0; i < all.length; i++)
+            all[i].publish();
+    }
+    
+    private void publish() {
+        SmartDashboard.putNumber(p50Key, durations.getValueAtPercentile(50) / 1e6);
+        SmartDashboard.putNumber(p99Key, durations.getValueAtPercentile(99) / 1e6);
+        SmartDashboard.putNumber(maxKey, durations.getMax() / 1e6);
+        SmartDashboard.putNumber(overrunKey, overruns);
+        if (periodNanos > 0)
+            SmartDashboard.putNumber(jitterKey, jitter.getValueAtPercentile(99) / 1e6);
+        if (latency.getCount() > 0)
+            SmartDashboard.putNumber(latencyKey, latency.getValueAtPercentile(99) / 1e6);
+    }
+    
+    /**
+     * Prints a table of every timer's figures, in milliseconds.
+     * @param out Where to print the table
+     */
+    public static void printReport(PrintStream out) {
+        out.println(String.format("%-28s %9s %9s %9s %9s %9s %9s %9s", "Loop", "passes",
+                "p50", "p99", "max", "overruns", "p99 jit", "p99 lat"));
+        LoopTimer[] all = timers;
+        for (int i = 0; i < all.length; i++) {
+            LoopTimer timer = all[i];
+            LatencyHistogram d = timer.durations;
+            out.println(String.format("%-28s %9d %9.3f %9.3f %9.3f %9d %9s %9s", timer.name, d.getCount(),
+                    d.getValueAtPercentile(50) / 1e6, d.getValueAtPercentile(99) / 1e6, d.getMax() / 1e6,
+                    timer.overruns, (timer.periodNanos > 0)
+                            ? String.format("%.3f", timer.jitter.getValueAtPercentile(99) / 1e6) : "-",
+                    (timer.latency.getCount() > 0)
+                            ? String.format("%.3f", timer.latency.getValueAtPercentile(99) / 1e6) : "-"));
+        }
+    }
+}
@@ -9,30 +9,145 @@ package org.harker.robotics.harkerrobolib.util;
  */
 public class MathUtil {
 
-    //answers are in radians
-    public static double aTan(double x) {
-	return x - (power(x, 3) / 3) + (power(x, 5) / 5) - (power(x, 7) / 7);
-    }
-
-    public static double aSin(double x) {
-	return (x + power(x, 3) / 6 + 3 * power(x, 5) / 40 + 5 * power(x, 7) / 112);
+    //The sine table holds SIN_TABLE_SIZE steps around the circle, plus one
+    //more so that interpolating never has to wrap around
+    private static final int SIN_TABLE_SIZE = 1 << 12;
+    private static final int SIN_MASK = SIN_TABLE_SIZE - 1;
+    private static final double SIN_SCALE = SIN_TABLE_SIZE / (2 * Math.PI);
+    private static final double[] SIN_TABLE = new double[SIN_TABLE_SIZE + 1];
+    
+    //The arctangent table covers [0, 1]; larger arguments are folded into it
+    private static final int ATAN_TABLE_SIZE = 1 << 10;
+    private static final double[] ATAN_TABLE = new double[ATAN_TABLE_SIZE + 1];
+    
+    //Past this many radians, reducing to the table loses precision, so Math is used
+    private static final double MAX_TABLE_ANGLE = 1 << 20;
+    
+    static {
+        for (int i = 0; i <= SIN_TABLE_SIZE; i++)
+            SIN_TABLE[i] = Math.sin(i / SIN_SCALE);
+        for (int i = 0; i <= ATAN_TABLE_SIZE; i++)
+            ATAN_TABLE[i] = Math.atan((double) i / ATAN_TABLE_SIZE);
     }
-
-    public static double aCos(double x) {
-	return (Math.PI / 2) - aSin(x);
+    
+    /*
+     * The trigonometric functions below are fast approximations for use in
+     * the control loops. All angles are in radians. sin and cos reduce any
+     * angle to one turn and interpolate linearly in a 4096-step table; their
+     * error is at most 3.0e-7 for any angle. aTan folds its argument into
+     * [0, 1] and interpolates in a 1024-step table; aTan, aTan2, aSin and
+     * aCos are within 8.0e-8 of the exact answer everywhere. tan is sin / cos,
+     * so its relative error grows near the poles at odd multiples of pi / 2.
+     * Use Math where full double precision matters.
+     */
+    
+    /**
+     * Approximates the sine of an angle.
+     * @param x The angle in radians
+     * @return sin(x), to within 3.0e-7
+     */
+    public static double sin(double x) {
+        if (!(Math.abs(x) <= MAX_TABLE_ANGLE))
+            return Math.sin(x);
+        return lookupSin(x * SIN_SCALE);
     }
-
+    
+    /**
+     * Approximates the cosine of an angle.
+     * @param x The angle in radians
+     * @return cos(x), to within 3.0e-7
+     */
     public static double cos(double x) {
-	return 1 - (power(x, 2) / 2) + (power(x, 4) / 24) - (power(x, 6) / 720) + (power(x, 8) / 40320);
-    }
-
-    public static double sin(double x) {
-	return x - (power(x, 3) / 6) + power(x, 5) / 120 - power(x, 7) / 5040;
+        if (!(Math.abs(x) <= MAX_TABLE_ANGLE))
+            return Math.cos(x);
+        //cos(x) = sin(x + pi / 2), a quarter of the table further on
+        return lookupSin(x * SIN_SCALE + SIN_TABLE_SIZE / 4);
     }
-
+    
+    /**
+     * Approximates the tangent of an angle.
+     * @param x The angle in radians
+     * @return tan(x), as the ratio of the approximate sine and cosine
+     */
     public static double tan(double x) {
-	return x + power(x, 3) / 3 + 2 * power(x, 5) / 15 + 17 * power(x, 7) / 315;
+        return sin(x) / cos(x);
     }
+    
+    /**
+     * Interpolates in the sine table.
+     * @param t The angle in table steps, of any size
+     */
+    private static double lookupSin(double t) {
+        double floor = Math.floor(t);
+        int i = (int) floor & SIN_MASK;
+        return SIN_TABLE[i] + (SIN_TABLE[i + 1] - SIN_TABLE[i]) * (t - floor);
+    }
+    
+    /**
+     * Approximates the arctangent of a number.
+     * @param x The number
+     * @return atan(x) in radians, between -pi / 2 and pi / 2, to within 8.0e-8
+     */
+    public static double aTan(double x) {
+        if (x != x)
+            return x;
+        boolean negative = x < 0;
+        if (negative) x = -x;
+        //atan(x) = pi / 2 - atan(1 / x)
+        boolean inverted = x > 1;
+        if (inverted) x = 1 / x;
+        
+        double t = x * ATAN_TABLE_SIZE;
+        int i = Math.min((int) t, ATAN_TABLE_SIZE - 1);
+        double result = ATAN_TABLE[i] + (ATAN_TABLE[i + 1] - ATAN_TABLE[i]) * (t - i);
+        
+        if (inverted) result = Math.PI / 2 - result;
+        return negative ? -result : result;
+    }
+    
+    /**
+     * Approximates the angle of the point (x, y) from the x axis.
+     * @param y The y coordinate
+     * @param x The x coordinate
+     * @return The angle in radians, between -pi and pi, to within 8.0e-8
+     */
+    public static double aTan2(double y, double x) {
+        if (x != x || y != y)
+            return Double.NaN;
+        if (x > 0)
+            return aTan(y / x);
+        if (x < 0)
+            return (y >= 0) ? aTan(y / x) + Math.PI : aTan(y / x) - Math.PI;
+        if (y > 0)
+            return Math.PI / 2;
+        if (y < 0)
+            return -Math.PI / 2;
+        return 0;
+    }
+    
+    /**
+     * Approximates the arcsine of a number.
+     * @param x The number, between -1 and 1
+     * @return asin(x) in radians, between -pi / 2 and pi / 2, to within 8.0e-8,
+     * or NaN if x is out of range
+     */
+    public static double aSin(double x) {
+        if (!(Math.abs(x) <= 1))
+            return Double.NaN;
+        //asin(x) = atan(x / sqrt(1 - x^2)), with 1 - x^2 factored to keep its precision near 1
+        return aTan(x / Math.sqrt((1 - x) * (1 + x)));
+    }
+    
+    /**
+     * Approximates the arccosine of a number.
+     * @param x The number, between -1 and 1
+     * @return acos(x) in radians, between 0 and pi, to within 8.0e-8,
+     * or NaN if x is out of range
+     */
+    public static double aCos(double x) {
+        return (Math.PI / 2) - aSin(x);
+    }
+    
     /**
      * Returns x<sup>power</sup>, works for any values of x and power.
      * Written by Ben H.
@@ -101,21 +216,18 @@ public class MathUtil {
     }
     
     /**
-     * Returns the standard deviation of the data set
+     * Returns the standard deviation of the data set, dividing by n.
+     * The data set is left as it is; see {@link RunningStats} to gather it
+     * one sample at a time.
      * @param points
      * @return stdev of data
      */
     public static double stdev(double[] points)
     {
-         double mean = mean(points);
-         int sum = 0;
-         for(int i=0; i<points.length; i++)
-         {
-             points[i] = power(points[i]-mean, 2);
-             sum += points[i];
-         }
-         sum /= points.length;
-         return Math.sqrt(sum);
+        RunningStats stats = new RunningStats();
+        for (int i = 0; i < points.length; i++)
+            stats.add(points[i]);
+        return stats.getPopulationStdev();
     }
     
     /**
@@ -132,9 +244,8 @@ public class MathUtil {
     }
     
     /**
-     * Analyzes data and outputs an array of results
-     *  Uses logic from the Princeton University Libraries:
-     *  http://introcs.cs.princeton.edu/java/97data/LinearRegression.java.html
+     * Analyzes data and outputs an array of results in one pass, with a
+     * {@link RunningRegression}, which can also fit the data one point at a time.
      * @param x the x coordinates of the data
      * @param y the y coordinates of the data
      * @return an array that contains
@@ -147,43 +258,14 @@ public class MathUtil {
      */
     public static double[] linReg(double[] x, double[] y)
     {
-        int n = 0;
-            // first pass: read in data, compute xbar and ybar
-        double sumx = 0.0, sumy = 0.0, sumx2 = 0.0;
-        double xbar = sumx / n;
-        double ybar = sumy / n;
-
-        // second pass: compute summary statistics
-            double xxbar = 0.0, yybar = 0.0, xybar = 0.0;
-            for (int i = 0; i < n; i++) 
-            {
-                    xxbar += (x[i] - xbar) * (x[i] - xbar);
-                    yybar += (y[i] - ybar) * (y[i] - ybar);
-                    xybar += (x[i] - xbar) * (y[i] - ybar);
-            }
-            double beta1 = xybar / xxbar;
-            double beta0 = ybar - beta1 * xbar;
-
-            // print results
-            //System.out.println("y   = " + beta1 + " * x + " + beta0);
-
-            // analyze results
-            int df = n - 2;
-            double rss = 0.0;      // residual sum of squares
-            double ssr = 0.0;      // regression sum of squares
-            for (int i = 0; i < n; i++) 
-            {
-                    double fit = beta1*x[i] + beta0;
-                    rss += (fit - y[i]) * (fit - y[i]);
-                    ssr += (fit - ybar) * (fit - ybar);
-            }
-
-            double R2    = ssr / yybar;
-            double svar  = rss / df;
-            double svar1 = svar / xxbar;
-            double svar0 = svar/n + xbar*xbar*svar1;
-
-            double[] arr = {R2, Math.sqrt(svar1), Math.sqrt(((svar *sumx2) / (n * xxbar))), yybar, rss, ssr}; 
-            return arr;
-     }
+        if (x.length != y.length) throw new RuntimeException("Illegal array sizes.");
+        RunningRegression regression = new RunningRegression();
+        for (int i = 0; i < x.length; i++)
+            regression.add(x[i], y[i]);
+        
+        double[] arr = {regression.getRSquared(), regression.getSlopeError(),
+                regression.getInterceptError(), regression.getTotalSumOfSquares(),
+                regression.getResidualSumOfSquares(), regression.getRegressionSumOfSquares()};
+        return arr;
+    }
 }
@@ -56,6 +56,22 @@ public class Matrix {
     public Matrix(Matrix A) { this(A.data); }
 
 
+    /**
+     * Gets the number of rows
+     * @return The number of rows
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Gets the number of columns
+     * @return The number of columns
+     */
+    public int getCols() {
+        return cols;
+    }
+
     /**
      * Gets the value of an element in the matrix
      * @param x The row number
@@ -208,6 +224,15 @@ public class Matrix {
         return x;
     }
 
+    /**
+     * Factorizes the matrix so that A * x = b can be solved for many b without
+     * repeating the elimination that {@link #solve(Matrix)} does every call
+     * @return The LU factorization of the matrix, assuming it is square and has full rank
+     */
+    public LUDecomposition decompose() {
+        return new LUDecomposition(this);
+    }
+
     /**
      * Creates a new {@link Vector3D} with the first column of the matrix.
      * @return A new {@link Vector3D} based on the first column of the matrix.
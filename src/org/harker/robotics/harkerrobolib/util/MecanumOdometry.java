@@ -0,0 +1,127 @@
+package org.harker.robotics.harkerrobolib.util;
+
+/**
+ * Keeps track of where a mecanum drivetrain is on the field from the
+ * distance each wheel has rolled and the heading from the gyro. Each update
+ * turns the change in the four wheel distances into a forward and sideways
+ * move in the robot frame by the mecanum forward kinematics, and turns that
+ * into the field frame at the heading halfway through the step. The heading
+ * itself comes from the gyro rather than from the wheels, which slip too much
+ * while turning to be trusted with it.
+ * 
+ * The wheel distances are positive when the wheel drives the robot forward,
+ * so mirrored encoders should be given a negative distance per pulse. The
+ * rollers slip sideways, so a strafing wheel turns further than the robot
+ * moves; the strafe efficiency scales the sideways move to make up for it.
+ * 
+ * One thread (the control loop) updates the pose, and any number of others
+ * may read it at the same time through {@link #getPose()}. The pose is
+ * published under a sequence number which is odd while it is being written,
+ * so a reader which overlaps a write sees the number change and reads again,
+ * and neither side ever blocks the other.
+ */
+public class MecanumOdometry {
+    
+    private final double strafeEfficiency;
+    
+    //Touched only by the updating thread
+    private double x, y;
+    private double headingOffset;
+    //The heading to take at the next update, after a reset
+    private double resetHeading;
+    private double lastFL, lastFR, lastRL, lastRR;
+    private double lastGyro;
+    private boolean primed;
+    
+    //The published pose and its sequence number
+    private volatile int sequence;
+    private volatile double publishedX, publishedY, publishedHeading;
+    
+    /**
+     * Creates an odometry at the origin facing +y.
+     * @param strafeEfficiency How far the robot strafes for each meter the wheels
+     * roll sideways, from 0 to 1
+     */
+    public MecanumOdometry(double strafeEfficiency) {
+        if (!(strafeEfficiency > 0)) throw new RuntimeException("Strafe efficiency must be positive.");
+        this.strafeEfficiency = strafeEfficiency;
+    }
+    
+    /**
+     * Moves the pose on by the change in the wheel distances since the last
+     * update. The first update after creation or a reset only records where
+     * the wheels are and the gyro's heading.
+     * @param frontLeft The distance the front left wheel has rolled in meters
+     * @param frontRight The distance the front right wheel has rolled
+     * @param rearLeft The distance the rear left wheel has rolled
+     * @param rearRight The distance the rear right wheel has rolled
+     * @param gyroHeading The gyro's heading in degrees, clockwise positive
+     */
+    public void update(double frontLeft, double frontRight, double rearLeft, double rearRight,
+            double gyroHeading) {
+        if (!primed) {
+            headingOffset = resetHeading - gyroHeading;
+        } else {
+            double dFL = frontLeft - lastFL;
+            double dFR = frontRight - lastFR;
+            double dRL = rearLeft - lastRL;
+            double dRR = rearRight - lastRR;
+            //Forward kinematics; the rotation term cancels out of both
+            double forward = (dFL + dFR + dRL + dRR) / 4;
+            double strafe = (dFL - dFR - dRL + dRR) / 4 * strafeEfficiency;
+    
+            double h = Math.toRadians((lastGyro + gyroHeading) / 2 + headingOffset);
+            double sin = MathUtil.sin(h), cos = MathUtil.cos(h);
+            x += forward * sin + strafe * cos;
+            y += forward * cos - strafe * sin;
+        }
+        lastFL = frontLeft;
+        lastFR = frontRight;
+        lastRL = rearLeft;
+        lastRR = rearRight;
+        lastGyro = gyroHeading;
+        primed = true;
+        publish(x, y, gyroHeading + headingOffset);
+    }
+    
+    /**
+     * Puts the robot at a pose. The next update only records where the wheels
+     * are and the gyro's heading, so the gyro may be reset in between.
+     * Call from the updating thread.
+     * @param x The x position in meters
+     * @param y The y position in meters
+     * @param heading The heading in degrees, clockwise from +y
+     */
+    public void reset(double x, double y, double heading) {
+        this.x = x;
+        this.y = y;
+        resetHeading = heading;
+        primed = false;
+        publish(x, y, heading);
+    }
+    
+    private void publish(double x, double y, double heading) {
+        int s = sequence;
+        sequence = s + 1;
+        publishedX = x;
+        publishedY = y;
+        publishedHeading = heading;
+        sequence = s + 2;
+    }
+    
+    /**
+     * Gets the pose as of the last update. Safe to call from any thread.
+     * @return The pose
+     */
+    public Pose getPose() {
+        while (true) {
+            int before = sequence;
+            double px = publishedX;
+            double py = publishedY;
+            double ph = publishedHeading;
+            if ((before & 1) == 0 && sequence == before)
+                return new Pose(px, py, ph);
+            Thread.yield();
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package org.harker.robotics.harkerrobolib.util;
+
+/**
+ * A move from rest to rest over a given distance, precomputed as position,
+ * velocity and acceleration sampled every time step. All of the work happens
+ * when the profile is made, typically in a command's constructor; following
+ * it then only costs a lookup and an interpolation per loop, whatever the
+ * length of the move.
+ * 
+ * A trapezoidal profile accelerates as hard as allowed, cruises at the top
+ * speed and brakes as hard as allowed, so its acceleration jumps at each
+ * corner. An S-curve profile limits jerk as well, which spares the gearboxes
+ * and keeps the wheels from breaking traction: it is the trapezoid run
+ * through a moving average as long as it takes to build up full
+ * acceleration, which ramps the acceleration without changing the distance
+ * or raising the top speed or acceleration, and makes the move longer by the
+ * length of the average.
+ */
+public class MotionProfile {
+    
+    private final double timeStep;
+    private final double[] position;
+    private final double[] velocity;
+    private final double[] acceleration;
+    
+    private MotionProfile(double timeStep, int samples) {
+        this.timeStep = timeStep;
+        position = new double[samples];
+        velocity = new double[samples];
+        acceleration = new double[samples];
+    }
+    
+    /**
+     * Makes a trapezoidal profile. If the distance is too short to reach the
+     * top speed, the profile is a triangle instead.
+     * @param distance The distance to move, negative to move backward
+     * @param maxVelocity The top speed
+     * @param maxAcceleration The largest acceleration and deceleration
+     * @param timeStep The time between samples in seconds
+     * @return The profile
+     */
+    public static MotionProfile trapezoidal(double distance, double maxVelocity, double maxAcceleration,
+            double timeStep) {
+        if (maxVelocity <= 0 || maxAcceleration <= 0 || timeStep <= 0)
+            throw new RuntimeException("Profile limits and time step must be positive.");
+        double length = Math.abs(distance);
+        double sign = (distance < 0) ? -1 : 1;
+    
+        //The peak speed, and the times spent accelerating and cruising
+        double peak = Math.min(maxVelocity, Math.sqrt(length * maxAcceleration));
+        double rampTime = peak / maxAcceleration;
+        double cruiseTime = (peak > 0) ? length / peak - rampTime : 0;
+        double duration = 2 * rampTime + cruiseTime;
+    
+        int samples = (int) Math.ceil(duration / timeStep) + 1;
+        MotionProfile profile = new MotionProfile(timeStep, samples);
+        for (int k = 0; k < samples; k++) {
+            double t = k * timeStep;
+            double p, v, a;
+            if (t < rampTime) {
+                a = maxAcceleration;
+                v = a * t;
+                p = a * t * t / 2;
+            } else if (t < rampTime + cruiseTime) {
+                a = 0;
+                v = peak;
+                p = peak * rampTime / 2 + peak * (t - rampTime);
+            } else if (t < duration) {
+                double left = duration - t;
+                a = -maxAcceleration;
+                v = maxAcceleration * left;
+                p = length - maxAcceleration * left * left / 2;
+            } else {
+                a = 0;
+                v = 0;
+                p = length;
+            }
+            profile.position[k] = sign * p;
+            profile.velocity[k] = sign * v;
+            profile.acceleration[k] = sign * a;
+        }
+        return profile;
+    }
+    
+    /**
+     * Makes an S-curve profile, which limits jerk as well as acceleration.
+     * @param distance The distance to move, negative to move backward
+     * @param maxVelocity The top speed
+     * @param maxAcceleration The largest acceleration and deceleration
+     * @param maxJerk The fastest rate of change of acceleration
+     * @param timeStep The time between samples in seconds
+     * @return The profile
+     */
+    public static MotionProfile sCurve(double distance, double maxVelocity, double maxAcceleration,
+            double maxJerk, double timeStep) {
+        if (maxJerk <= 0) throw new RuntimeException("Profile limits and time step must be positive.");
+        MotionProfile trapezoid = trapezoidal(distance, maxVelocity, maxAcceleration, timeStep);
+    
+        //Averaging over this many samples ramps the acceleration no faster than maxJerk.
+        //If the trapezoid cruises for less than that, its acceleration swings all the
+        //way from +max to -max within one window, so the window has to be twice as long.
+        double length = Math.abs(distance);
+        double peak = Math.min(maxVelocity, Math.sqrt(length * maxAcceleration));
+        double cruiseTime = (peak > 0) ? length / peak - peak / maxAcceleration : 0;
+        double rampTime = maxAcceleration / maxJerk;
+        if (cruiseTime < rampTime) rampTime *= 2;
+        int window = Math.max(1, (int) Math.ceil(rampTime / timeStep));
+        int last = trapezoid.position.length - 1;
+        MotionProfile profile = new MotionProfile(timeStep, last + window);
+    
+        //Running sums over the window; before the start the trapezoid is at rest at 0,
+        //and past its end it is at rest at the distance
+        double p = 0, v = 0, a = 0;
+        for (int k = 0; k < profile.position.length; k++) {
+            int in = Math.min(k, last);
+            p += trapezoid.position[in];
+            v += trapezoid.velocity[in];
+            a += trapezoid.acceleration[in];
+            int out = k - window;
+            if (out >= 0) {
+                out = Math.min(out, last);
+                p -= trapezoid.position[out];
+                v -= trapezoid.velocity[out];
+                a -= trapezoid.acceleration[out];
+            }
+            profile.position[k] = p / window;
+            profile.velocity[k] = v / window;
+            profile.acceleration[k] = a / window;
+        }
+        //Pin the end to the exact distance, free of rounding in the running sums
+        profile.position[profile.position.length - 1] = trapezoid.position[last];
+        profile.velocity[profile.position.length - 1] = 0;
+        profile.acceleration[profile.position.length - 1] = 0;
+        return profile;
+    }
+    
+    /**
+     * Gets the position at a time, interpolating between samples.
+     * @param t The time since the start of the move in seconds
+     * @return The position; the distance once the move is over
+     */
+    public double getPosition(double t) {
+        return sample(position, t);
+    }
+    
+    /**
+     * Gets the velocity at a time, interpolating between samples.
+     * @param t The time since the start of the move in seconds
+     * @return The velocity; 0 once the move is over
+     */
+    public double getVelocity(double t) {
+        return sample(velocity, t);
+    }
+    
+    /**
+     * Gets the acceleration at a time, interpolating between samples.
+     * @param t The time since the start of the move in seconds
+     * @return The acceleration; 0 once the move is over
+     */
+    public double getAcceleration(double t) {
+        return sample(acceleration, t);
+    }
+    
+    /**
+     * Interpolates linearly between the two samples around a time.
+     */
+    private double sample(double[] values, double t) {
+        double index = t / timeStep;
+        int last = values.length - 1;
+        if (!(index > 0))
+            return values[0];
+        if (index >= last)
+            return values[last];
+        int i = (int) index;
+        return values[i] + (values[i + 1] - values[i]) * (index - i);
+    }
+    
+    /**
+     * Gets how long the move takes.
+     * @return The time from the first sample to the last in seconds
+     */
+    public double getDuration() {
+        return (position.length - 1) * timeStep;
+    }
+    
+    /**
+     * Gets whether the move is over at a time.
+     * @param t The time since the start of the move in seconds
+     * @return Whether or not the profile has reached its end
+     */
+    public boolean isFinished(double t) {
+        return t >= getDuration();
+    }
+    
+    /**
+     * Gets the distance the profile moves.
+     * @return The final position
+     */
+    public double getDistance() {
+        return position[position.length - 1];
+    }
+    
+    /**
+     * Gets the time between samples.
+     * @return The time step in seconds
+     */
+    public double getTimeStep() {
+        return timeStep;
+    }
+    
+    /**
+     * Gets the number of samples.
+     * @return The number of samples, including both ends
+     */
+    public int getSampleCount() {
+        return position.length;
+    }
+}
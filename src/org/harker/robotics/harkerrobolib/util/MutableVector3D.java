@@ -0,0 +1,252 @@
+package org.harker.robotics.harkerrobolib.util;
+
+/**
+ * A three-dimensional vector which is changed in place, for use where
+ * {@link Vector3D} would create garbage on every call, such as inside a
+ * control loop. Operations either change this vector and return it, so they
+ * can be chained, or write into a vector the caller provides. Any vector may
+ * be the destination of any operation, including one of its own operands.
+ * 
+ * Temporary vectors should come from the calling thread's {@link Vector3DPool}
+ * rather than being made in the loop.
+ */
+public class MutableVector3D {
+    
+    private double x, y, z;
+    
+    /**
+     * Creates a zero vector.
+     */
+    public MutableVector3D() {
+    }
+    
+    /**
+     * Creates a vector with the given coordinates.
+     * @param x The x coordinate
+     * @param y The y coordinate
+     * @param z The z coordinate
+     */
+    public MutableVector3D(double x, double y, double z) {
+        this.x = x;
+        this.y = y;
+        this.z = z;
+    }
+    
+    public double getX() {
+        return x;
+    }
+    
+    public double getY() {
+        return y;
+    }
+    
+    public double getZ() {
+        return z;
+    }
+    
+    /**
+     * Sets the coordinates.
+     * @param x The x coordinate
+     * @param y The y coordinate
+     * @param z The z coordinate
+     * @return This vector
+     */
+    public MutableVector3D set(double x, double y, double z) {
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        return this;
+    }
+    
+    /**
+     * Copies another vector.
+     * @param v The vector to copy
+     * @return This vector
+     */
+    public MutableVector3D set(MutableVector3D v) {
+        return set(v.x, v.y, v.z);
+    }
+    
+    /**
+     * Copies a {@link Vector3D}.
+     * @param v The vector to copy
+     * @return This vector
+     */
+    public MutableVector3D set(Vector3D v) {
+        return set(v.getX(), v.getY(), v.getZ());
+    }
+    
+    /**
+     * Sets this vector from a magnitude and direction in the XY plane, with Z = 0.
+     * @param magnitude The magnitude of the vector
+     * @param direction The direction of the vector in radians, counterclockwise from the x axis
+     * @return This vector
+     */
+    public MutableVector3D setPolar(double magnitude, double direction) {
+        return set(Math.cos(direction) * magnitude, Math.sin(direction) * magnitude, 0);
+    }
+    
+    /**
+     * Adds another vector to this one.
+     * @param v The vector to add
+     * @return This vector
+     */
+    public MutableVector3D addInPlace(MutableVector3D v) {
+        return set(x + v.x, y + v.y, z + v.z);
+    }
+    
+    /**
+     * Subtracts another vector from this one.
+     * @param v The vector to subtract
+     * @return This vector
+     */
+    public MutableVector3D subtractInPlace(MutableVector3D v) {
+        return set(x - v.x, y - v.y, z - v.z);
+    }
+    
+    /**
+     * Multiplies this vector by a number.
+     * @param d The number to multiply by
+     * @return This vector
+     */
+    public MutableVector3D scaleInPlace(double d) {
+        return set(x * d, y * d, z * d);
+    }
+    
+    /**
+     * Scales this vector to a magnitude of one.
+     * @return This vector
+     */
+    public MutableVector3D normalizeInPlace() {
+        double mag = magnitude();
+        if (mag == 0) throw new RuntimeException("Error: Tried to normalize a zero vector");
+        return set(x / mag, y / mag, z / mag);
+    }
+    
+    /**
+     * Rotates this vector about the Z axis, as when turning a field-relative
+     * direction into a robot-relative one.
+     * @param angle The angle to rotate by in radians, counterclockwise
+     * @return This vector
+     */
+    public MutableVector3D rotateZInPlace(double angle) {
+        double cos = Math.cos(angle);
+        double sin = Math.sin(angle);
+        return set(x * cos - y * sin, x * sin + y * cos, z);
+    }
+    
+    /**
+     * Adds another vector to this one, putting the sum in a third.
+     * @param v The vector to add
+     * @param dest The vector to hold the sum
+     * @return dest
+     */
+    public MutableVector3D addInto(MutableVector3D v, MutableVector3D dest) {
+        return dest.set(x + v.x, y + v.y, z + v.z);
+    }
+    
+    /**
+     * Subtracts another vector from this one, putting the difference in a third.
+     * @param v The vector to subtract
+     * @param dest The vector to hold the difference
+     * @return dest
+     */
+    public MutableVector3D subtractInto(MutableVector3D v, MutableVector3D dest) {
+        return dest.set(x - v.x, y - v.y, z - v.z);
+    }
+    
+    /**
+     * Multiplies this vector by a number, putting the product in another.
+     * @param d The number to multiply by
+     * @param dest The vector to hold the product
+     * @return dest
+     */
+    public MutableVector3D scaleInto(double d, MutableVector3D dest) {
+        return dest.set(x * d, y * d, z * d);
+    }
+    
+    /**
+     * Gets the magnitude of this vector.
+     * @return The magnitude
+     */
+    public double magnitude() {
+        return Math.sqrt(x * x + y * y + z * z);
+    }
+    
+    /**
+     * Calculates the dot product of this vector with another.
+     * @param v The other vector
+     * @return The dot product
+     */
+    public double dot(MutableVector3D v) {
+        return x * v.x + y * v.y + z * v.z;
+    }
+    
+    /**
+     * Calculates the cross product of this vector with another.
+     * @param v The other vector
+     * @param dest The vector to hold this x v
+     * @return dest
+     */
+    public MutableVector3D crossInto(MutableVector3D v, MutableVector3D dest) {
+        return dest.set(y * v.z - z * v.y, z * v.x - x * v.z, x * v.y - y * v.x);
+    }
+    
+    /**
+     * Calculates the vector triple product v1 x (v2 x v3).
+     * @param v1 The first vector
+     * @param v2 The second vector
+     * @param v3 The third vector
+     * @param dest The vector to hold the product
+     * @return dest
+     */
+    public static MutableVector3D vectorTripInto(MutableVector3D v1, MutableVector3D v2, MutableVector3D v3,
+            MutableVector3D dest) {
+        double cx = v2.y * v3.z - v2.z * v3.y;
+        double cy = v2.z * v3.x - v2.x * v3.z;
+        double cz = v2.x * v3.y - v2.y * v3.x;
+        return dest.set(v1.y * cz - v1.z * cy, v1.z * cx - v1.x * cz, v1.x * cy - v1.y * cx);
+    }
+    
+    /**
+     * Calculates the scalar triple product v1 . (v2 x v3).
+     * @param v1 The first vector
+     * @param v2 The second vector
+     * @param v3 The third vector
+     * @return The scalar triple product
+     */
+    public static double scalTrip(MutableVector3D v1, MutableVector3D v2, MutableVector3D v3) {
+        return v1.x * (v2.y * v3.z - v2.z * v3.y)
+                + v1.y * (v2.z * v3.x - v2.x * v3.z)
+                + v1.z * (v2.x * v3.y - v2.y * v3.x);
+    }
+    
+    /**
+     * Writes this vector into a column of a matrix.
+     * @param m The matrix, with at least three rows
+     * @param col The column to write
+     * @return m
+     */
+    public FlatMatrix toMatrixInto(FlatMatrix m, int col) {
+        m.setValue(0, col, x);
+        m.setValue(1, col, y);
+        m.setValue(2, col, z);
+        return m;
+    }
+    
+    /**
+     * Creates an immutable copy of this vector. This allocates.
+     * @return The new vector
+     */
+    public Vector3D toVector3D() {
+        return new Vector3D(x, y, z);
+    }
+    
+    /**
+     * Returns a string representation of the vector.
+     * @return A formatted string version of the vector
+     */
+    public String toString() {
+        return "<" + x + ", " + y + ", " + z + ">";
+    }
+}
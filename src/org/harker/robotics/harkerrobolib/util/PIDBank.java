@@ -0,0 +1,201 @@
+package org.harker.robotics.harkerrobolib.util;
+
+/**
+ * A set of PID loops updated together, such as the wheel velocity loops and
+ * heading hold of one drivetrain. Where {@link PIDSystem} is an object per
+ * loop, a bank keeps the gains and state of every loop in parallel arrays of
+ * primitives indexed by loop number, and {@link #update(double)} runs all of
+ * them in one pass over those arrays. The state of the whole bank sits in a
+ * few cache lines, each pass does the same work whatever the errors, and
+ * nothing is allocated after construction.
+ * 
+ * On top of what PIDSystem does, each loop has
+ * <ul>
+ * <li>output limits, which the output is clamped to;</li>
+ * <li>anti-windup: while the output is clamped, error which would push it
+ * further past the limit is not integrated, so the loop recovers as soon as
+ * the error changes sign instead of first unwinding the integral;</li>
+ * <li>a first-order low-pass filter on the derivative, which otherwise turns
+ * sensor noise into output noise;</li>
+ * <li>no derivative kick on the first update after a reset.</li>
+ * </ul>
+ * 
+ * Not thread safe; set errors and update from the thread running the loops.
+ */
+public class PIDBank {
+    
+    private final int size;
+    
+    private final double[] kP, kI, kD;
+    private final double[] minOutput, maxOutput;
+    //Time constant of each derivative filter in seconds; 0 leaves it unfiltered
+    private final double[] filterTime;
+    
+    private final double[] error;
+    private final double[] integral;
+    private final double[] prevError;
+    private final double[] derivative;
+    private final double[] output;
+    //Whether each loop has been updated since it was reset, so prevError is real
+    private final boolean[] primed;
+    
+    /**
+     * Creates a bank of loops with no gains, no output limits and no derivative filter.
+     * @param size The number of loops
+     */
+    public PIDBank(int size) {
+        this.size = size;
+        kP = new double[size];
+        kI = new double[size];
+        kD = new double[size];
+        minOutput = new double[size];
+        maxOutput = new double[size];
+        filterTime = new double[size];
+        error = new double[size];
+        integral = new double[size];
+        prevError = new double[size];
+        derivative = new double[size];
+        output = new double[size];
+        primed = new boolean[size];
+        for (int k = 0; k < size; k++) {
+            minOutput[k] = Double.NEGATIVE_INFINITY;
+            maxOutput[k] = Double.POSITIVE_INFINITY;
+        }
+    }
+    
+    /**
+     * Updates every loop from its latest error.
+     * @param timeStep The time since the last update in seconds
+     */
+    public void update(double timeStep) {
+        for (int k = 0; k < size; k++) {
+            double e = error[k];
+            double raw = primed[k] ? (e - prevError[k]) / timeStep : 0;
+            double d = derivative[k] + timeStep / (filterTime[k] + timeStep) * (raw - derivative[k]);
+            double integrated = integral[k] + e * timeStep;
+    
+            double u = kP[k] * e + kI[k] * integrated + kD[k] * d;
+            double clamped = Math.max(minOutput[k], Math.min(maxOutput[k], u));
+            //Keep the new integral unless the output is clamped and the integral pushed it there
+            if (!((u - clamped) * (kI[k] * e) > 0))
+                integral[k] = integrated;
+    
+            derivative[k] = d;
+            prevError[k] = e;
+            output[k] = clamped;
+            primed[k] = true;
+        }
+    }
+    
+    /**
+     * Sets the error of a loop for the next update.
+     * @param loop The index of the loop
+     * @param error The setpoint minus the measurement
+     */
+    public void setError(int loop, double error) {
+        this.error[loop] = error;
+    }
+    
+    /**
+     * Gets the output of a loop from the last update.
+     * @param loop The index of the loop
+     * @return The output, within the loop's limits
+     */
+    public double getOutput(int loop) {
+        return output[loop];
+    }
+    
+    /**
+     * Sets the gains of a loop. Its state is kept, so the gains can be tuned
+     * while it runs.
+     * @param loop The index of the loop
+     * @param p The proportional gain
+     * @param i The integral gain, on the error integrated over seconds
+     * @param d The derivative gain, on the change in error per second
+     */
+    public void setGains(int loop, double p, double i, double d) {
+        kP[loop] = p;
+        kI[loop] = i;
+        kD[loop] = d;
+    }
+    
+    /**
+     * Gets the proportional gain of a loop.
+     * @param loop The index of the loop
+     * @return The proportional gain
+     */
+    public double getP(int loop) {
+        return kP[loop];
+    }
+    
+    /**
+     * Gets the integral gain of a loop.
+     * @param loop The index of the loop
+     * @return The integral gain
+     */
+    public double getI(int loop) {
+        return kI[loop];
+    }
+    
+    /**
+     * Gets the derivative gain of a loop.
+     * @param loop The index of the loop
+     * @return The derivative gain
+     */
+    public double getD(int loop) {
+        return kD[loop];
+    }
+    
+    /**
+     * Limits the output of a loop, such as to the -1 to 1 of a motor.
+     * @param loop The index of the loop
+     * @param min The lowest output
+     * @param max The highest output
+     */
+    public void setOutputLimits(int loop, double min, double max) {
+        if (min > max) throw new RuntimeException("Minimum output is above the maximum.");
+        minOutput[loop] = min;
+        maxOutput[loop] = max;
+    }
+    
+    /**
+     * Filters the derivative of a loop's error, so that it takes about the
+     * given time to follow a step.
+     * @param loop The index of the loop
+     * @param timeConstant The time constant of the filter in seconds, or 0 for none
+     */
+    public void setDerivativeFilter(int loop, double timeConstant) {
+        if (timeConstant < 0) throw new RuntimeException("Filter time constant is negative.");
+        filterTime[loop] = timeConstant;
+    }
+    
+    /**
+     * Clears the integral, derivative and output of a loop, as though it had
+     * just been created. Its gains, limits and filter are kept.
+     * @param loop The index of the loop
+     */
+    public void reset(int loop) {
+        error[loop] = 0;
+        integral[loop] = 0;
+        prevError[loop] = 0;
+        derivative[loop] = 0;
+        output[loop] = 0;
+        primed[loop] = false;
+    }
+    
+    /**
+     * Clears every loop.
+     */
+    public void reset() {
+        for (int k = 0; k < size; k++)
+            reset(k);
+    }
+    
+    /**
+     * Gets the number of loops in the bank.
+     * @return The number of loops
+     */
+    public int getSize() {
+        return size;
+    }
+}
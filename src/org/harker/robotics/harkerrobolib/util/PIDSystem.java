@@ -93,6 +93,16 @@ public class PIDSystem {
         prevError = currError;
     }
 
+    /**
+     * Clears the accumulated integral error, the previous error and the output,
+     * as though the system had just been created.
+     */
+    public void reset() {
+        prevError = 0;
+        intError = 0;
+        control = 0;
+    }
+
     /**
      * Gets the feedback from the PID Loop (this should be used directly as output)
      * @return The result of the PID Loop.
@@ -0,0 +1,66 @@
+package org.harker.robotics.harkerrobolib.util;
+
+/**
+ * Where the robot is on the field and which way it faces. Poses never
+ * change once made, so one can be handed between threads freely.
+ * 
+ * The field frame has the robot starting at the origin facing +y, with x to
+ * its right. Headings are clockwise positive, as the gyro reports them.
+ */
+public class Pose {
+    
+    private final double x;
+    private final double y;
+    private final double heading;
+    
+    /**
+     * Creates a pose.
+     * @param x The x position in meters
+     * @param y The y position in meters
+     * @param heading The heading in degrees, clockwise from +y
+     */
+    public Pose(double x, double y, double heading) {
+        this.x = x;
+        this.y = y;
+        this.heading = heading;
+    }
+    
+    /**
+     * Gets the x position.
+     * @return The x position in meters
+     */
+    public double getX() {
+        return x;
+    }
+    
+    /**
+     * Gets the y position.
+     * @return The y position in meters
+     */
+    public double getY() {
+        return y;
+    }
+    
+    /**
+     * Gets the heading.
+     * @return The heading in degrees, clockwise from +y
+     */
+    public double getHeading() {
+        return heading;
+    }
+    
+    /**
+     * Gets the straight-line distance to another pose.
+     * @param other The other pose
+     * @return The distance in meters, whatever the headings
+     */
+    public double distanceTo(Pose other) {
+        double dx = other.x - x;
+        double dy = other.y - y;
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+    
+    public String toString() {
+        return String.format("(%.3f, %.3f, %.1f)", x, y, heading);
+    }
+}
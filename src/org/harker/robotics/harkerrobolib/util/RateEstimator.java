@@ -0,0 +1,191 @@
+package org.harker.robotics.harkerrobolib.util;
+
+/**
+ * Estimates the rate and acceleration of a position (such as an encoder
+ * count) from timestamped samples by fitting a parabola to the most recent
+ * samples with least squares and differentiating it at the newest one.
+ * A single-step difference amplifies the count quantization by the loop rate;
+ * the fit averages it over the whole window, and because the parabola follows
+ * acceleration, the estimate does not lag behind the way a smoothed
+ * difference would.
+ * 
+ * The samples live in a fixed ring buffer of primitives and the fit is kept
+ * as running sums of the powers of time, updated as samples enter and leave
+ * the window, so each sample costs O(1) whatever the window size and never
+ * allocates. Times in the sums are measured from a base which moves up to
+ * the oldest sample once per window, which keeps the sums small and stops
+ * rounding errors from piling up.
+ * 
+ * Not thread safe; add samples from one thread.
+ */
+public class RateEstimator {
+    
+    public static final int DEFAULT_WINDOW = 8;
+    
+    private final long[] times;
+    private final double[] positions;
+    private int oldest;
+    private int size;
+    private int sinceRebase;
+    
+    private long baseTime;
+    private double basePosition;
+    //Sums over the window of t^k and t^k * y, with t and y measured from the base
+    private double st, st2, st3, st4;
+    private double sy, sty, st2y;
+    
+    private double rate;
+    private double acceleration;
+    
+    /**
+     * Creates an estimator with the default window.
+     */
+    public RateEstimator() {
+        this(DEFAULT_WINDOW);
+    }
+    
+    /**
+     * Creates an estimator.
+     * @param window The number of samples to fit, at least 3
+     */
+    public RateEstimator(int window) {
+        if (window < 3) throw new RuntimeException("Window must hold at least 3 samples.");
+        times = new long[window];
+        positions = new double[window];
+    }
+    
+    /**
+     * Adds a sample and updates the estimates. Samples which are not newer
+     * than the last one are ignored.
+     * @param nanos The time of the sample in nanoseconds, from any fixed origin
+     * @param position The position at that time
+     */
+    public void add(long nanos, double position) {
+        int capacity = times.length;
+        if (size == 0) {
+            baseTime = nanos;
+            basePosition = position;
+        } else if (nanos <= times[(oldest + size - 1) % capacity]) {
+            return;
+        }
+    
+        if (size == capacity) {
+            accumulate(oldest, -1);
+            oldest = (oldest + 1) % capacity;
+            size--;
+        }
+        int index = (oldest + size) % capacity;
+        times[index] = nanos;
+        positions[index] = position;
+        size++;
+        accumulate(index, 1);
+    
+        if (++sinceRebase >= capacity)
+            rebase();
+        fit(index);
+    }
+    
+    /**
+     * Forgets every sample and sets the estimates to zero.
+     */
+    public void reset() {
+        oldest = 0;
+        size = 0;
+        sinceRebase = 0;
+        st = st2 = st3 = st4 = 0;
+        sy = sty = st2y = 0;
+        rate = 0;
+        acceleration = 0;
+    }
+    
+    /**
+     * Gets the rate at the newest sample.
+     * @return The rate in position units per second
+     */
+    public double getRate() {
+        return rate;
+    }
+    
+    /**
+     * Gets the acceleration over the window.
+     * @return The acceleration in position units per second squared
+     */
+    public double getAcceleration() {
+        return acceleration;
+    }
+    
+    /**
+     * Gets the number of samples in the window.
+     * @return The number of samples, up to the window size
+     */
+    public int getSize() {
+        return size;
+    }
+    
+    /**
+     * Adds a sample's terms to the sums, or takes them away.
+     * @param index The index of the sample in the ring buffer
+     * @param sign 1 to add, -1 to take away
+     */
+    private void accumulate(int index, double sign) {
+        double t = (times[index] - baseTime) / 1e9;
+        double y = (positions[index] - basePosition) * sign;
+        double t2 = t * t;
+        st += t * sign;
+        st2 += t2 * sign;
+        st3 += t2 * t * sign;
+        st4 += t2 * t2 * sign;
+        sy += y;
+        sty += t * y;
+        st2y += t2 * y;
+    }
+    
+    /**
+     * Moves the base up to the oldest sample and adds the sums up afresh.
+     */
+    private void rebase() {
+        baseTime = times[oldest];
+        basePosition = positions[oldest];
+        st = st2 = st3 = st4 = 0;
+        sy = sty = st2y = 0;
+        for (int i = 0; i < size; i++)
+            accumulate((oldest + i) % times.length, 1);
+        sinceRebase = 0;
+    }
+    
+    /**
+     * Fits y = a + bt + ct<sup>2</sup> to the window by solving the normal
+     * equations with Cramer's rule, and takes the derivatives at the newest sample.
+     * With fewer than three samples, or times too close together to tell a
+     * curve from a line, it fits a line instead.
+     * @param newest The index of the newest sample in the ring buffer
+     */
+    private void fit(int newest) {
+        double n = size;
+        if (size < 2) {
+            rate = 0;
+            acceleration = 0;
+            return;
+        }
+    
+        //Cofactors of the symmetric matrix [n st st2; st st2 st3; st2 st3 st4]
+        double c00 = st2 * st4 - st3 * st3;
+        double c01 = st2 * st3 - st * st4;
+        double c02 = st * st3 - st2 * st2;
+        double c11 = n * st4 - st2 * st2;
+        double c12 = st * st2 - n * st3;
+        double c22 = n * st2 - st * st;
+        double det = n * c00 + st * c01 + st2 * c02;
+    
+        if (size >= 3 && det > 0) {
+            double b = (c01 * sy + c11 * sty + c12 * st2y) / det;
+            double c = (c02 * sy + c12 * sty + c22 * st2y) / det;
+            double t = (times[newest] - baseTime) / 1e9;
+            rate = b + 2 * c * t;
+            acceleration = 2 * c;
+        } else if (c22 > 0) {
+            rate = (n * sty - st * sy) / c22;
+            acceleration = 0;
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package org.harker.robotics.harkerrobolib.util;
+
+import java.io.PrintStream;
+
+/**
+ * Finds PID gains for a loop by the relay feedback test of Astrom and
+ * Hagglund. In place of the controller, a relay switches the output between
+ * bias + amplitude and bias - amplitude whenever the measurement crosses the
+ * setpoint, which makes almost any plant settle into a steady oscillation.
+ * The period of that oscillation is the ultimate period Tu, at which the
+ * plant lags by half a turn, and from its size a describing function gives
+ * the ultimate gain Ku = 4d / (pi a) at which a P loop would oscillate on its
+ * own. Ziegler-Nichols style rules then turn Ku and Tu into gains.
+ * 
+ * A little hysteresis keeps sensor noise from switching the relay back and
+ * forth at each crossing; the amplitude is corrected for it. The first cycle
+ * is discarded while the oscillation builds up, and Ku and Tu are averaged
+ * over the cycles after it.
+ * 
+ * If raising the output lowers the measurement, as when a motor turns the
+ * robot against the sense of its gyro, give a negative amplitude. The relay
+ * then pushes the other way and the proposed gains come out negative.
+ * 
+ * {@link #update(double, double)} must be called from one thread, but the
+ * results may be read from any thread once {@link #isDone()} is true.
+ */
+public class RelayTuner {
+    
+    //Rules for turning the ultimate gain and period into gains: Ziegler-Nichols,
+    //which is fast with some overshoot; Ziegler-Nichols PI, for noisy
+    //measurements; and a slower rule with little overshoot
+    public static final int RULE_CLASSIC_PID = 0;
+    public static final int RULE_PI = 1;
+    public static final int RULE_NO_OVERSHOOT = 2;
+    
+    //Cycles discarded while the oscillation builds up
+    private static final int SETTLING_CYCLES = 1;
+    
+    private final double setpoint;
+    private final double bias;
+    private final double amplitude;
+    private final double hysteresis;
+    private final int cycles;
+    
+    private boolean high;
+    private boolean started;
+    private double lastRise = Double.NaN;
+    private double peakHigh, peakLow;
+    private int cyclesSeen;
+    private double periodSum, heightSum;
+    
+    private volatile boolean done;
+    private double ultimateGain = Double.NaN;
+    private double ultimatePeriod = Double.NaN;
+    private double oscillation = Double.NaN;
+    
+    /**
+     * Creates a tuner.
+     * @param setpoint The measurement to oscillate around
+     * @param bias The output which roughly holds the setpoint
+     * @param amplitude How far the relay moves the output either side of the bias,
+     * negative if raising the output lowers the measurement
+     * @param hysteresis How far the measurement must cross the setpoint before the relay switches
+     * @param cycles The number of cycles to average over
+     */
+    public RelayTuner(double setpoint, double bias, double amplitude, double hysteresis, int cycles) {
+        if (amplitude == 0) throw new RuntimeException("Relay amplitude must not be zero.");
+        if (cycles < 1) throw new RuntimeException("Must average over at least one cycle.");
+        this.setpoint = setpoint;
+        this.bias = bias;
+        this.amplitude = amplitude;
+        this.hysteresis = hysteresis;
+        this.cycles = cycles;
+    }
+    
+    /**
+     * Runs the relay for one pass of the loop.
+     * @param measurement The measurement now
+     * @param time The time now in seconds, from any fixed origin
+     * @return The output to apply until the next pass, or the bias once done
+     */
+    public double update(double measurement, double time) {
+        if (done)
+            return bias;
+        double error = setpoint - measurement;
+        if (!started) {
+            started = true;
+            high = error > 0;
+            peakHigh = peakLow = measurement;
+        }
+        if (measurement > peakHigh) peakHigh = measurement;
+        if (measurement < peakLow) peakLow = measurement;
+    
+        if (!high && error > hysteresis) {
+            //The measurement has fallen through the setpoint, which starts a cycle
+            high = true;
+            if (lastRise == lastRise && ++cyclesSeen > SETTLING_CYCLES) {
+                periodSum += time - lastRise;
+                heightSum += (peakHigh - peakLow) / 2;
+                if (cyclesSeen - SETTLING_CYCLES == cycles)
+                    finish();
+            }
+            lastRise = time;
+            peakHigh = peakLow = measurement;
+        } else if (high && error < -hysteresis) {
+            high = false;
+        }
+        return done ? bias : bias + (high ? amplitude : -amplitude);
+    }
+    
+    /**
+     * Works out the ultimate gain and period from the measured cycles.
+     */
+    private void finish() {
+        double height = heightSum / cycles;
+        oscillation = height;
+        ultimatePeriod = periodSum / cycles;
+        if (height > hysteresis)
+            ultimateGain = 4 * Math.abs(amplitude) / (Math.PI * Math.sqrt(height * height - hysteresis * hysteresis));
+        done = true;
+    }
+    
+    /**
+     * Gets whether enough cycles have been measured.
+     * @return Whether or not the results are ready
+     */
+    public boolean isDone() {
+        return done;
+    }
+    
+    /**
+     * Gets the gain at which a P loop would oscillate steadily.
+     * @return Ku, which is never negative, or NaN if the test is not done or the oscillation was
+     * lost in the hysteresis
+     */
+    public double getUltimateGain() {
+        return done ? ultimateGain : Double.NaN;
+    }
+    
+    /**
+     * Gets the period of the oscillation.
+     * @return Tu in seconds, or NaN if the test is not done
+     */
+    public double getUltimatePeriod() {
+        return done ? ultimatePeriod : Double.NaN;
+    }
+    
+    /**
+     * Gets how far the measurement swung either side of the middle of the oscillation.
+     * @return The amplitude, or NaN if the test is not done
+     */
+    public double getOscillation() {
+        return done ? oscillation : Double.NaN;
+    }
+    
+    /**
+     * Gets the proportional gain proposed by a rule.
+     * @param rule One of the RULE_ constants
+     * @return The gain, or NaN if the test is not done
+     */
+    public double getP(int rule) {
+        double ku = getSignedGain();
+        if (rule == RULE_PI) return 0.45 * ku;
+        if (rule == RULE_NO_OVERSHOOT) return 0.2 * ku;
+        return 0.6 * ku;
+    }
+    
+    /**
+     * Gets the integral gain proposed by a rule.
+     * @param rule One of the RULE_ constants
+     * @return The gain, or NaN if the test is not done
+     */
+    public double getI(int rule) {
+        double ku = getSignedGain();
+        double tu = getUltimatePeriod();
+        if (rule == RULE_PI) return 0.54 * ku / tu;
+        if (rule == RULE_NO_OVERSHOOT) return 0.4 * ku / tu;
+        return 1.2 * ku / tu;
+    }
+    
+    /**
+     * Gets the derivative gain proposed by a rule.
+     * @param rule One of the RULE_ constants
+     * @return The gain, or NaN if the test is not done
+     */
+    public double getD(int rule) {
+        double ku = getSignedGain();
+        double tu = getUltimatePeriod();
+        if (rule == RULE_PI) return done ? 0 : Double.NaN;
+        if (rule == RULE_NO_OVERSHOOT) return ku * tu / 15;
+        return 0.075 * ku * tu;
+    }
+    
+    /**
+     * Gets the ultimate gain with the sign of the relay's amplitude.
+     */
+    private double getSignedGain() {
+        return (amplitude < 0) ? -getUltimateGain() : getUltimateGain();
+    }
+    
+    /**
+     * Prints the ultimate gain and period and the gains proposed by each rule.
+     * @param out Where to print the report
+     * @param name The name of the loop
+     */
+    public void printReport(PrintStream out, String name) {
+        if (!done) {
+            out.println(name + ": no steady oscillation was measured");
+            return;
+        }
+        out.println(String.format("%s: Ku %.4f, Tu %.4f s, oscillation +/- %.4f",
+                name, getUltimateGain(), getUltimatePeriod(), getOscillation()));
+        printRule(out, "classic PID", RULE_CLASSIC_PID);
+        printRule(out, "PI", RULE_PI);
+        printRule(out, "no overshoot", RULE_NO_OVERSHOOT);
+    }
+    
+    private void printRule(PrintStream out, String label, int rule) {
+        out.println(String.format("  %-14s P %.4f  I %.4f  D %.4f", label, getP(rule), getI(rule), getD(rule)));
+    }
+}
@@ -0,0 +1,157 @@
+package org.harker.robotics.harkerrobolib.util;
+
+/**
+ * A least-squares line y = slope * x + intercept fitted to a stream of
+ * points, kept up to date in one pass. Like {@link RunningStats}, it tracks
+ * the means and the sums of squared and cross deviations from them with
+ * Welford-style updates, so adding a point is O(1), never allocates and stays
+ * accurate when the data sit far from the origin. The fit, its correlation and
+ * the standard errors can be read after any point.
+ * 
+ * Not thread safe; add points from one thread.
+ */
+public class RunningRegression {
+    
+    private long count;
+    private double meanX, meanY;
+    //Sums of squared and cross deviations from the current means
+    private double sxx, syy, sxy;
+    
+    /**
+     * Adds one point.
+     * @param x The x coordinate
+     * @param y The y coordinate
+     */
+    public void add(double x, double y) {
+        count++;
+        double dx = x - meanX;
+        double dy = y - meanY;
+        meanX += dx / count;
+        meanY += dy / count;
+        sxx += dx * (x - meanX);
+        syy += dy * (y - meanY);
+        sxy += dx * (y - meanY);
+    }
+    
+    /**
+     * Forgets every point.
+     */
+    public void reset() {
+        count = 0;
+        meanX = meanY = 0;
+        sxx = syy = sxy = 0;
+    }
+    
+    /**
+     * Gets the number of points added.
+     * @return The count
+     */
+    public long getCount() {
+        return count;
+    }
+    
+    /**
+     * Gets the mean of the x coordinates.
+     * @return The mean, or NaN if there are no points
+     */
+    public double getMeanX() {
+        return (count > 0) ? meanX : Double.NaN;
+    }
+    
+    /**
+     * Gets the mean of the y coordinates.
+     * @return The mean, or NaN if there are no points
+     */
+    public double getMeanY() {
+        return (count > 0) ? meanY : Double.NaN;
+    }
+    
+    /**
+     * Gets the slope of the fitted line.
+     * @return The slope, or NaN if the x coordinates are all the same
+     */
+    public double getSlope() {
+        return (sxx > 0) ? sxy / sxx : Double.NaN;
+    }
+    
+    /**
+     * Gets the y intercept of the fitted line.
+     * @return The intercept, or NaN if the x coordinates are all the same
+     */
+    public double getIntercept() {
+        return meanY - getSlope() * meanX;
+    }
+    
+    /**
+     * Gets the value of the fitted line at a point.
+     * @param x The x coordinate
+     * @return The predicted y coordinate
+     */
+    public double predict(double x) {
+        return meanY + getSlope() * (x - meanX);
+    }
+    
+    /**
+     * Gets Pearson's correlation coefficient between x and y.
+     * @return The correlation, from -1 to 1, or NaN if either coordinate is constant
+     */
+    public double getCorrelation() {
+        return (sxx > 0 && syy > 0) ? sxy / Math.sqrt(sxx * syy) : Double.NaN;
+    }
+    
+    /**
+     * Gets the fraction of the variation in y explained by the fitted line.
+     * @return R<sup>2</sup>, from 0 to 1, or NaN if either coordinate is constant
+     */
+    public double getRSquared() {
+        double r = getCorrelation();
+        return r * r;
+    }
+    
+    /**
+     * Gets the sum of the squared distances from the mean of y to the fitted line.
+     * @return The regression sum of squares
+     */
+    public double getRegressionSumOfSquares() {
+        return (sxx > 0) ? sxy * sxy / sxx : Double.NaN;
+    }
+    
+    /**
+     * Gets the sum of the squared distances from the points to the fitted line.
+     * @return The residual sum of squares
+     */
+    public double getResidualSumOfSquares() {
+        return Math.max(syy - getRegressionSumOfSquares(), 0);
+    }
+    
+    /**
+     * Gets the sum of the squared distances from the y coordinates to their mean.
+     * @return The total sum of squares
+     */
+    public double getTotalSumOfSquares() {
+        return syy;
+    }
+    
+    /**
+     * Gets the standard error of the slope.
+     * @return The error, or NaN if there are fewer than three points
+     */
+    public double getSlopeError() {
+        return Math.sqrt(getResidualVariance() / sxx);
+    }
+    
+    /**
+     * Gets the standard error of the intercept.
+     * @return The error, or NaN if there are fewer than three points
+     */
+    public double getInterceptError() {
+        return Math.sqrt(getResidualVariance() * (1.0 / count + meanX * meanX / sxx));
+    }
+    
+    /**
+     * Estimates the variance of the points about the line, with n - 2 degrees of freedom.
+     */
+    private double getResidualVariance() {
+        return (count > 2) ? getResidualSumOfSquares() / (count - 2) : Double.NaN;
+    }
+}
@@ -0,0 +1,115 @@
+package org.harker.robotics.harkerrobolib.util;
+
+/**
+ * The mean, variance, minimum and maximum of a stream of samples, kept up to
+ * date in one pass with Welford's method. Adding a sample is a handful of
+ * arithmetic operations and never allocates, so statistics can be gathered at
+ * loop rate without buffering the samples. Unlike summing squares, Welford's
+ * update does not lose precision when the mean is large next to the spread.
+ * 
+ * Not thread safe; add samples from one thread.
+ */
+public class RunningStats {
+    
+    private long count;
+    private double mean;
+    //Sum of squared deviations from the current mean
+    private double squares;
+    private double min = Double.NaN;
+    private double max = Double.NaN;
+    
+    /**
+     * Adds one sample.
+     * @param x The sample
+     */
+    public void add(double x) {
+        count++;
+        double delta = x - mean;
+        mean += delta / count;
+        squares += delta * (x - mean);
+        if (count == 1) {
+            min = x;
+            max = x;
+        } else if (x < min) {
+            min = x;
+        } else if (x > max) {
+            max = x;
+        }
+    }
+    
+    /**
+     * Forgets every sample.
+     */
+    public void reset() {
+        count = 0;
+        mean = 0;
+        squares = 0;
+        min = Double.NaN;
+        max = Double.NaN;
+    }
+    
+    /**
+     * Gets the number of samples added.
+     * @return The count
+     */
+    public long getCount() {
+        return count;
+    }
+    
+    /**
+     * Gets the mean of the samples.
+     * @return The mean, or NaN if there are none
+     */
+    public double getMean() {
+        return (count > 0) ? mean : Double.NaN;
+    }
+    
+    /**
+     * Gets the variance of the samples themselves, dividing by n.
+     * @return The population variance, or NaN if there are no samples
+     */
+    public double getPopulationVariance() {
+        return (count > 0) ? squares / count : Double.NaN;
+    }
+    
+    /**
+     * Gets the unbiased estimate of the variance of whatever the samples were
+     * drawn from, dividing by n - 1.
+     * @return The sample variance, or NaN if there are fewer than two samples
+     */
+    public double getVariance() {
+        return (count > 1) ? squares / (count - 1) : Double.NaN;
+    }
+    
+    /**
+     * Gets the standard deviation of the samples themselves, dividing by n.
+     * @return The population standard deviation, or NaN if there are no samples
+     */
+    public double getPopulationStdev() {
+        return Math.sqrt(getPopulationVariance());
+    }
+    
+    /**
+     * Gets the sample standard deviation, dividing by n - 1.
+     * @return The standard deviation, or NaN if there are fewer than two samples
+     */
+    public double getStdev() {
+        return Math.sqrt(getVariance());
+    }
+    
+    /**
+     * Gets the smallest sample.
+     * @return The minimum, or NaN if there are no samples
+     */
+    public double getMin() {
+        return min;
+    }
+    
+    /**
+     * Gets the largest sample.
+     * @return The maximum, or NaN if there are no samples
+     */
+    public double getMax() {
+        return max;
+    }
+}
@@ -0,0 +1,69 @@
+package org.harker.robotics.harkerrobolib.util;
+
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+
+/**
+ * One value bound for the SmartDashboard. Setting it only stores the value in
+ * the channel's slot; the {@link TelemetryPublisher} sends it later along with
+ * every other channel that changed, so code in a control loop pays for a
+ * volatile write instead of a NetworkTables update.
+ * 
+ * Any thread may set a channel. If it is set several times between flushes,
+ * only the last value is sent.
+ */
+public class TelemetryChannel {
+    
+    private final String key;
+    private final boolean flag;
+    //The value as raw bits, so that a double is written and read in one piece
+    private volatile long value;
+    //What the dashboard was last sent, touched only by the publisher
+    private long published;
+    private boolean sent;
+    
+    TelemetryChannel(String key, boolean flag) {
+        this.key = key;
+        this.flag = flag;
+    }
+    
+    /**
+     * Sets the number to be shown.
+     * @param value The number
+     */
+    public void set(double value) {
+        this.value = Double.doubleToRawLongBits(value);
+    }
+    
+    /**
+     * Sets the boolean to be shown.
+     * @param value The boolean
+     */
+    public void set(boolean value) {
+        this.value = value ? 1 : 0;
+    }
+    
+    /**
+     * Gets the key the channel is shown under.
+     * @return The key
+     */
+    public String getKey() {
+        return key;
+    }
+    
+    /**
+     * Sends the value to the SmartDashboard if it has changed since it was last sent.
+     * @return Whether or not the value was sent
+     */
+    boolean flush() {
+        long current = value;
+        if (sent && current == published)
+            return false;
+        if (flag)
+            SmartDashboard.putBoolean(key, current != 0);
+        else
+            SmartDashboard.putNumber(key, Double.longBitsToDouble(current));
+        published = current;
+        sent = true;
+        return true;
+    }
+}
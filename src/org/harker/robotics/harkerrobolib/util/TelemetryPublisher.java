@@ -0,0 +1,97 @@
+package org.harker.robotics.harkerrobolib.util;
+
+import org.harker.robotics.harkerrobolib.hal.Hardware;
+import org.harker.robotics.harkerrobolib.hal.PeriodicNotifier;
+
+/**
+ * Hands out {@link TelemetryChannel}s and sends the ones that changed to the
+ * SmartDashboard in one batch, at a fixed rate, from a notifier of its own.
+ * Code called from the control loops should write to a channel made once
+ * (usually in a field) instead of calling SmartDashboard.put*() directly,
+ * which hashes the key and takes the NetworkTables lock on every call.
+ */
+public class TelemetryPublisher {
+    
+    //How many times a second the dashboard is updated by default
+    public static final double DEFAULT_RATE = 10;
+    
+    private static final Object lock = new Object();
+    private static volatile TelemetryChannel[] channels = new TelemetryChannel[0];
+    private static PeriodicNotifier notifier;
+    
+    /**
+     * Gets the channel for a number, creating it if need be.
+     * @param key The key to show the number under
+     * @return The channel
+     */
+    public static TelemetryChannel number(String key) {
+        return get(key, false);
+    }
+    
+    /**
+     * Gets the channel for a boolean, creating it if need be.
+     * @param key The key to show the boolean under
+     * @return The channel
+     */
+    public static TelemetryChannel flag(String key) {
+        return get(key, true);
+    }
+    
+    private static TelemetryChannel get(String key, boolean flag) {
+        synchronized (lock) {
+            TelemetryChannel[] all = channels;
+            for (int i = 0; i < all.length; i++)
+                if (all[i].getKey().equals(key))
+                    return all[i];
+            TelemetryChannel channel = new TelemetryChannel(key, flag);
+            TelemetryChannel[] grown = new TelemetryChannel[all.length + 1];
+            System.arraycopy(all, 0, grown, 0, all.length);
+            grown[all.length] = channel;
+            channels = grown;
+            return channel;
+        }
+    }
+    
+    /**
+     * Starts sending the channels periodically, or changes the rate if already started.
+     * @param rate The number of batches a second
+     */
+    public static void start(double rate) {
+        synchronized (lock) {
+            if (notifier == null) {
+                notifier = Hardware.getFactory().createNotifier(new Runnable() {
+                    public void run() {
+                        flush();
+                    }
+                });
+            }
+            notifier.startPeriodic(1 / rate);
+        }
+    }
+    
+    /**
+     * Stops sending the channels periodically.
+     */
+    public static void stop() {
+        synchronized (lock) {
+            if (notifier != null)
+                notifier.stop();
+        }
+    }
+    
+    /**
+     * Sends every channel whose value has changed since it was last sent.
+     * @return The number of values sent
+     */
+    public static int flush() {
+        //Only one flush may run at a time, as each channel remembers what it last sent
+        synchronized (lock) {
+            TelemetryChannel[] all = channels;
+            int sent = 0;
+            for (int i = 0; i < all.length; i++)
+                if (all[i].flush())
+                    sent++;
+            return sent;
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package org.harker.robotics.harkerrobolib.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * A path for a holonomic drivetrain, sampled every time step: where the robot
+ * should be on the field, which way it should face, and how fast each of
+ * those should be changing. Position, heading and rotational rate are given
+ * directly, and velocity and acceleration in the field frame, so a follower
+ * only has to look them up. Trajectories are made ahead of time by
+ * {@link TrajectoryGenerator} and saved to a file, so reading one back is all
+ * the work left for the robot.
+ * 
+ * The field frame is that of {@link Pose}: x to the right of the robot's
+ * starting heading and y ahead of it, in meters, with headings in degrees
+ * clockwise from +y.
+ * 
+ * The file holds the magic number, the version, the number of samples and
+ * the time step, then each sample's x, y, heading, x and y velocity,
+ * rotational rate and x and y acceleration as big-endian doubles.
+ */
+public class Trajectory {
+    
+    public static final int MAGIC = 0x5452414A;
+    public static final int VERSION = 1;
+    
+    private final double timeStep;
+    final double[] x, y, heading;
+    final double[] velocityX, velocityY, rotationalRate;
+    final double[] accelerationX, accelerationY;
+    
+    Trajectory(double timeStep, int samples) {
+        this.timeStep = timeStep;
+        x = new double[samples];
+        y = new double[samples];
+        heading = new double[samples];
+        velocityX = new double[samples];
+        velocityY = new double[samples];
+        rotationalRate = new double[samples];
+        accelerationX = new double[samples];
+        accelerationY = new double[samples];
+    }
+    
+    /**
+     * Reads a trajectory from a file.
+     * @param file The file, as written by {@link #write(File)}
+     * @return The trajectory
+     * @throws IOException If the file cannot be read or is not a trajectory
+     */
+    public static Trajectory read(File file) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+        try {
+            if (in.readInt() != MAGIC)
+                throw new IOException(file + " is not a trajectory");
+            int version = in.readInt();
+            if (version != VERSION)
+                throw new IOException(file + " is a version " + version + " trajectory");
+            int samples = in.readInt();
+            double timeStep = in.readDouble();
+            if (samples < 1 || !(timeStep > 0))
+                throw new IOException(file + " has no samples");
+            Trajectory trajectory = new Trajectory(timeStep, samples);
+            for (int k = 0; k < samples; k++) {
+                trajectory.x[k] = in.readDouble();
+                trajectory.y[k] = in.readDouble();
+                trajectory.heading[k] = in.readDouble();
+                trajectory.velocityX[k] = in.readDouble();
+                trajectory.velocityY[k] = in.readDouble();
+                trajectory.rotationalRate[k] = in.readDouble();
+                trajectory.accelerationX[k] = in.readDouble();
+                trajectory.accelerationY[k] = in.readDouble();
+            }
+            return trajectory;
+        } finally {
+            in.close();
+        }
+    }
+    
+    /**
+     * Writes the trajectory to a file, replacing anything there.
+     * @param file The file
+     * @throws IOException If the file cannot be written
+     */
+    public void write(File file) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(x.length);
+            out.writeDouble(timeStep);
+            for (int k = 0; k < x.length; k++) {
+                out.writeDouble(x[k]);
+                out.writeDouble(y[k]);
+                out.writeDouble(heading[k]);
+                out.writeDouble(velocityX[k]);
+                out.writeDouble(velocityY[k]);
+                out.writeDouble(rotationalRate[k]);
+                out.writeDouble(accelerationX[k]);
+                out.writeDouble(accelerationY[k]);
+            }
+        } finally {
+            out.close();
+        }
+    }
+    
+    /**
+     * Gets the x position at a time, interpolating between samples.
+     * @param t The time since the start of the trajectory in seconds
+     * @return The x position in meters
+     */
+    public double getX(double t) {
+        return sample(x, t);
+    }
+    
+    /**
+     * Gets the y position at a time.
+     * @param t The time since the start of the trajectory in seconds
+     * @return The y position in meters
+     */
+    public double getY(double t) {
+        return sample(y, t);
+    }
+    
+    /**
+     * Gets the heading at a time.
+     * @param t The time since the start of the trajectory in seconds
+     * @return The heading in degrees, clockwise from +y
+     */
+    public double getHeading(double t) {
+        return sample(heading, t);
+    }
+    
+    /**
+     * Gets the velocity along x at a time.
+     * @param t The time since the start of the trajectory in seconds
+     * @return The velocity in m/s; 0 once the trajectory is over
+     */
+    public double getVelocityX(double t) {
+        return sample(velocityX, t);
+    }
+    
+    /**
+     * Gets the velocity along y at a time.
+     * @param t The time since the start of the trajectory in seconds
+     * @return The velocity in m/s; 0 once the trajectory is over
+     */
+    public double getVelocityY(double t) {
+        return sample(velocityY, t);
+    }
+    
+    /**
+     * Gets the rotational rate at a time.
+     * @param t The time since the start of the trajectory in seconds
+     * @return The rate in degrees per second, clockwise positive
+     */
+    public double getRotationalRate(double t) {
+        return sample(rotationalRate, t);
+    }
+    
+    /**
+     * Gets the acceleration along x at a time.
+     * @param t The time since the start of the trajectory in seconds
+     * @return The acceleration in m/s^2
+     */
+    public double getAccelerationX(double t) {
+        return sample(accelerationX, t);
+    }
+    
+    /**
+     * Gets the acceleration along y at a time.
+     * @param t The time since the start of the trajectory in seconds
+     * @return The acceleration in m/s^2
+     */
+    public double getAccelerationY(double t) {
+        return sample(accelerationY, t);
+    }
+    
+    /**
+     * Interpolates linearly between the two samples around a time.
+     */
+    private double sample(double[] values, double t) {
+        double index = t / timeStep;
+        int last = values.length - 1;
+        if (!(index > 0))
+            return values[0];
+        if (index >= last)
+            return values[last];
+        int i = (int) index;
+        return values[i] + (values[i + 1] - values[i]) * (index - i);
+    }
+    
+    /**
+     * Gets where the trajectory ends.
+     * @return The last sample's pose
+     */
+    public Pose getEnd() {
+        int last = x.length - 1;
+        return new Pose(x[last], y[last], heading[last]);
+    }
+    
+    /**
+     * Gets how long the trajectory takes.
+     * @return The time from the first sample to the last in seconds
+     */
+    public double getDuration() {
+        return (x.length - 1) * timeStep;
+    }
+    
+    /**
+     * Gets whether the trajectory is over at a time.
+     * @param t The time since the start of the trajectory in seconds
+     * @return Whether or not the trajectory has reached its end
+     */
+    public boolean isFinished(double t) {
+        return t >= getDuration();
+    }
+    
+    /**
+     * Gets the time between samples.
+     * @return The time step in seconds
+     */
+    public double getTimeStep() {
+        return timeStep;
+    }
+    
+    /**
+     * Gets the number of samples.
+     * @return The number of samples, including both ends
+     */
+    public int getSampleCount() {
+        return x.length;
+    }
+}
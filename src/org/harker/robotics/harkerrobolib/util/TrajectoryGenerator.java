@@ -0,0 +1,144 @@
+package org.harker.robotics.harkerrobolib.util;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Makes {@link Trajectory}s for a holonomic drivetrain through a list of
+ * waypoints, each a position and a heading. The path through the positions
+ * is a quintic Hermite spline, whose tangent at each waypoint points from
+ * the waypoint before to the one after and whose curvature is zero there, so
+ * the path bends smoothly through every waypoint. The robot moves along the
+ * path under an S-curve {@link MotionProfile} over its whole length, and
+ * turns from each waypoint's heading to the next as it covers the distance
+ * between them, easing in and out of each turn. Since a mecanum drivetrain
+ * can turn while it drives in any direction, the heading is free of the path.
+ * 
+ * The spline and the profile are the expensive part, so trajectories are
+ * generated on a laptop and saved, and the robot only reads them back. Run it
+ * on its own to make a trajectory file:
+ * <code>java org.harker.robotics.harkerrobolib.util.TrajectoryGenerator file maxVelocity
+ * maxAcceleration maxJerk x,y,heading x,y,heading ...</code>
+ */
+public class TrajectoryGenerator {
+    
+    public static final double DEFAULT_TIME_STEP = 0.01;
+    
+    //How many points along each segment of the spline are used to measure its length
+    private static final int POINTS_PER_SEGMENT = 200;
+    
+    private TrajectoryGenerator() {
+    }
+    
+    /**
+     * Makes a trajectory which starts and ends at rest.
+     * @param waypoints At least two waypoints, each {x, y, heading} in meters and degrees
+     * clockwise from +y; consecutive positions must differ
+     * @param maxVelocity The top speed along the path
+     * @param maxAcceleration The largest acceleration along the path
+     * @param maxJerk The fastest rate of change of acceleration along the path
+     * @param timeStep The time between samples in seconds
+     * @return The trajectory
+     */
+    public static Trajectory generate(double[][] waypoints, double maxVelocity, double maxAcceleration,
+            double maxJerk, double timeStep) {
+        int segments = waypoints.length - 1;
+        if (segments < 1) throw new RuntimeException("A trajectory needs at least two waypoints.");
+    
+        //Tangents pointing from each waypoint's neighbor before to its neighbor after
+        double[] tangentX = new double[waypoints.length];
+        double[] tangentY = new double[waypoints.length];
+        for (int i = 0; i <= segments; i++) {
+            int before = Math.max(0, i - 1);
+            int after = Math.min(segments, i + 1);
+            double scale = (after - before == 2) ? 0.5 : 1;
+            tangentX[i] = (waypoints[after][0] - waypoints[before][0]) * scale;
+            tangentY[i] = (waypoints[after][1] - waypoints[before][1]) * scale;
+        }
+    
+        //Dense points along the spline, with the distance along it to each
+        int points = segments * POINTS_PER_SEGMENT + 1;
+        double[] pathX = new double[points];
+        double[] pathY = new double[points];
+        double[] pathS = new double[points];
+        for (int j = 0; j < points; j++) {
+            int i = Math.min(j / POINTS_PER_SEGMENT, segments - 1);
+            double u = (double) (j - i * POINTS_PER_SEGMENT) / POINTS_PER_SEGMENT;
+            double h0 = 1 + u * u * u * (-10 + u * (15 - 6 * u));
+            double h1 = u + u * u * u * (-6 + u * (8 - 3 * u));
+            double h4 = u * u * u * (-4 + u * (7 - 3 * u));
+            double h5 = 1 - h0;
+            pathX[j] = h0 * waypoints[i][0] + h1 * tangentX[i] + h4 * tangentX[i + 1] + h5 * waypoints[i + 1][0];
+            pathY[j] = h0 * waypoints[i][1] + h1 * tangentY[i] + h4 * tangentY[i + 1] + h5 * waypoints[i + 1][1];
+            if (j > 0) {
+                double dx = pathX[j] - pathX[j - 1];
+                double dy = pathY[j] - pathY[j - 1];
+                pathS[j] = pathS[j - 1] + Math.sqrt(dx * dx + dy * dy);
+            }
+        }
+        for (int i = 0; i < segments; i++)
+            if (!(pathS[(i + 1) * POINTS_PER_SEGMENT] > pathS[i * POINTS_PER_SEGMENT]))
+                throw new RuntimeException("Consecutive waypoints must not be at the same position.");
+    
+        MotionProfile profile = MotionProfile.sCurve(pathS[points - 1], maxVelocity, maxAcceleration, maxJerk,
+                timeStep);
+        int samples = profile.getSampleCount();
+        Trajectory trajectory = new Trajectory(timeStep, samples);
+        int j = 0;
+        for (int k = 0; k < samples; k++) {
+            double s = profile.getPosition(k * timeStep);
+            double v = profile.getVelocity(k * timeStep);
+            while (j < points - 2 && pathS[j + 1] < s)
+                j++;
+            double length = pathS[j + 1] - pathS[j];
+            double f = (length > 0) ? Math.max(0, Math.min(1, (s - pathS[j]) / length)) : 0;
+            trajectory.x[k] = pathX[j] + (pathX[j + 1] - pathX[j]) * f;
+            trajectory.y[k] = pathY[j] + (pathY[j + 1] - pathY[j]) * f;
+            if (length > 0) {
+                trajectory.velocityX[k] = v * (pathX[j + 1] - pathX[j]) / length;
+                trajectory.velocityY[k] = v * (pathY[j + 1] - pathY[j]) / length;
+            }
+    
+            //Ease from one waypoint's heading to the next over the segment's length
+            int i = Math.min(j / POINTS_PER_SEGMENT, segments - 1);
+            double start = pathS[i * POINTS_PER_SEGMENT];
+            double end = pathS[(i + 1) * POINTS_PER_SEGMENT];
+            double w = Math.max(0, Math.min(1, (s - start) / (end - start)));
+            w = w * w * (3 - 2 * w);
+            trajectory.heading[k] = waypoints[i][2] + (waypoints[i + 1][2] - waypoints[i][2]) * w;
+        }
+    
+        //The rest are the rates of change of the samples, which are at rest at both ends
+        for (int k = 1; k < samples - 1; k++) {
+            trajectory.rotationalRate[k] = (trajectory.heading[k + 1] - trajectory.heading[k - 1]) / (2 * timeStep);
+            trajectory.accelerationX[k] = (trajectory.velocityX[k + 1] - trajectory.velocityX[k - 1]) / (2 * timeStep);
+            trajectory.accelerationY[k] = (trajectory.velocityY[k + 1] - trajectory.velocityY[k - 1]) / (2 * timeStep);
+        }
+        return trajectory;
+    }
+    
+    public static void main(String[] args) throws IOException {
+        if (args.length < 6) {
+            System.err.println("Usage: TrajectoryGenerator file maxVelocity maxAcceleration maxJerk x,y,heading x,y,heading ...");
+            System.exit(1);
+        }
+        double[][] waypoints = new double[args.length - 4][];
+        for (int i = 0; i < waypoints.length; i++) {
+            String[] parts = args[i + 4].split(",");
+            if (parts.length != 3) throw new RuntimeException("Waypoints are x,y,heading: " + args[i + 4]);
+            waypoints[i] = new double[] {Double.parseDouble(parts[0]), Double.parseDouble(parts[1]),
+                    Double.parseDouble(parts[2])};
+        }
+        Trajectory trajectory = generate(waypoints, Double.parseDouble(args[1]), Double.parseDouble(args[2]),
+                Double.parseDouble(args[3]), DEFAULT_TIME_STEP);
+        trajectory.write(new File(args[0]));
+    
+        double peakSpeed = 0, peakRate = 0;
+        for (int k = 0; k < trajectory.getSampleCount(); k++) {
+            peakSpeed = Math.max(peakSpeed, Math.hypot(trajectory.velocityX[k], trajectory.velocityY[k]));
+            peakRate = Math.max(peakRate, Math.abs(trajectory.rotationalRate[k]));
+        }
+        System.out.println(String.format("%s: %d samples, %.2f s, ends at %s, peak speed %.2f m/s, peak rotation %.1f deg/s",
+                args[0], trajectory.getSampleCount(), trajectory.getDuration(), trajectory.getEnd(), peakSpeed, peakRate));
+    }
+}
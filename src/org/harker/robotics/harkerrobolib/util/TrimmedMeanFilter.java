@@ -0,0 +1,136 @@
+package org.harker.robotics.harkerrobolib.util;
+
+/**
+ * Smooths a noisy signal over the last few samples while ignoring the
+ * extremes: it gives the median of the window, or the mean of the window
+ * once the highest and lowest few samples are dropped. Either shrugs off a
+ * sample which is wildly wrong, such as a range finder catching an echo,
+ * where a plain average would be dragged along by it.
+ * 
+ * The window is kept twice, in a ring in the order the samples came and in
+ * a sorted array. Each sample replaces the oldest one: a binary search finds
+ * where each goes in the sorted array and the samples between move over by
+ * one, which for a window of a dozen samples is a short copy. The median is
+ * then a lookup, and the trimmed mean a running sum less the dropped ends.
+ * 
+ * Not thread safe; add samples from one thread.
+ */
+public class TrimmedMeanFilter {
+    
+    private final double[] ring;
+    private final double[] sorted;
+    private final int trim;
+    private int count;
+    private int next;
+    private double sum;
+    
+    /**
+     * Creates an empty filter.
+     * @param size The number of samples in the window
+     * @param trim How many of the highest and of the lowest samples the trimmed mean drops
+     */
+    public TrimmedMeanFilter(int size, int trim) {
+        if (size < 1) throw new RuntimeException("Window must hold at least one sample.");
+        if (trim < 0 || 2 * trim >= size) throw new RuntimeException("Trimming must leave at least one sample.");
+        ring = new double[size];
+        sorted = new double[size];
+        this.trim = trim;
+    }
+    
+    /**
+     * Adds a sample, dropping the oldest one once the window is full. A
+     * sample which is not a number is ignored.
+     * @param x The sample
+     */
+    public void add(double x) {
+        if (x != x)
+            return;
+        if (count < ring.length) {
+            int j = lowerBound(x, count);
+            System.arraycopy(sorted, j, sorted, j + 1, count - j);
+            sorted[j] = x;
+            count++;
+            sum += x;
+        } else {
+            double old = ring[next];
+            int i = lowerBound(old, count);
+            int j = lowerBound(x, count);
+            if (j > i) {
+                System.arraycopy(sorted, i + 1, sorted, i, j - 1 - i);
+                sorted[j - 1] = x;
+            } else {
+                System.arraycopy(sorted, j, sorted, j + 1, i - j);
+                sorted[j] = x;
+            }
+            sum += x - old;
+        }
+        ring[next] = x;
+        next++;
+        if (next == ring.length) {
+            next = 0;
+            //Once per trip around the ring, so the running sum never drifts far
+            sum = 0;
+            for (int k = 0; k < count; k++)
+                sum += sorted[k];
+        }
+    }
+    
+    /**
+     * Finds the first place in the sorted window holding a value no less than x.
+     */
+    private int lowerBound(double x, int length) {
+        int low = 0, high = length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] < x)
+                low = mid + 1;
+            else
+                high = mid;
+        }
+        return low;
+    }
+    
+    /**
+     * Gets the median of the window.
+     * @return The median, the mean of the middle two if the window holds an
+     * even number of samples, or NaN if it is empty
+     */
+    public double getMedian() {
+        if (count == 0)
+            return Double.NaN;
+        int middle = count / 2;
+        return (count % 2 == 1) ? sorted[middle] : (sorted[middle - 1] + sorted[middle]) / 2;
+    }
+    
+    /**
+     * Gets the mean of the window without its highest and lowest samples.
+     * Until the window fills, fewer are dropped if need be to leave one.
+     * @return The trimmed mean, or NaN if the window is empty
+     */
+    public double getTrimmedMean() {
+        if (count == 0)
+            return Double.NaN;
+        int k = Math.min(trim, (count - 1) / 2);
+        double kept = sum;
+        for (int i = 0; i < k; i++)
+            kept -= sorted[i] + sorted[count - 1 - i];
+        return kept / (count - 2 * k);
+    }
+    
+    /**
+     * Gets the number of samples in the window.
+     * @return The count, up to the size of the window
+     */
+    public int getCount() {
+        return count;
+    }
+    
+    /**
+     * Empties the window.
+     */
+    public void reset() {
+        count = 0;
+        next = 0;
+        sum = 0;
+    }
+}
@@ -0,0 +1,68 @@
+package org.harker.robotics.harkerrobolib.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands the latest value from one writer thread to one reader thread without
+ * either ever waiting on the other or allocating. There are three slots: the
+ * writer fills one, the reader reads another, and the third holds the most
+ * recently published value. Publishing swaps the writer's slot with the
+ * middle one, and reading swaps the middle one with the reader's slot if
+ * something new has been published, so each side always has a slot to itself.
+ * 
+ * Intermediate values may be skipped; the reader always sees the newest
+ * complete one. Only one thread may write and only one may read.
+ * 
+ * @param <T> The type of value held in each slot
+ */
+public class TripleBuffer<T> {
+    
+    //Set in the middle index when it holds a value the reader has not seen
+    private static final int FRESH = 4;
+    private static final int INDEX = 3;
+    
+    private final Object[] slots;
+    private final AtomicInteger middle = new AtomicInteger(1);
+    private int writeIndex = 0;
+    private int readIndex = 2;
+    
+    /**
+     * Creates a buffer over three preallocated slots. The reader starts out
+     * reading <code>initial</code>.
+     * @param first The slot the writer fills first
+     * @param second A spare slot
+     * @param initial The value the reader sees until something is published
+     */
+    public TripleBuffer(T first, T second, T initial) {
+        slots = new Object[] {first, second, initial};
+    }
+    
+    /**
+     * Gets the slot the writer may fill. Its contents are stale, so the writer
+     * should overwrite all of it before calling {@link #publish()}.
+     * @return The writer's slot
+     */
+    @SuppressWarnings("unchecked")
+    public T getWriteBuffer() {
+        return (T) slots[writeIndex];
+    }
+    
+    /**
+     * Makes the writer's slot the newest value and gives the writer a new slot.
+     */
+    public void publish() {
+        writeIndex = middle.getAndSet(writeIndex | FRESH) & INDEX;
+    }
+    
+    /**
+     * Gets the newest published value. It stays unchanged until the reader
+     * calls this again.
+     * @return The newest value
+     */
+    @SuppressWarnings("unchecked")
+    public T read() {
+        if ((middle.get() & FRESH) != 0)
+            readIndex = middle.getAndSet(readIndex) & INDEX;
+        return (T) slots[readIndex];
+    }
+}
@@ -0,0 +1,221 @@
+package org.harker.robotics.harkerrobolib.util;
+
+/**
+ * Many three-dimensional vectors stored as three arrays of coordinates, so
+ * that an operation on all of them is a plain loop over primitive arrays,
+ * with no objects to chase and no garbage made. Useful for the corners of
+ * the robot, the wheel positions of a drivetrain, or the points of a path.
+ * 
+ * The arrays are public, as the point is to let loops work on them directly.
+ */
+public class Vector3DArray {
+    
+    public final double[] x;
+    public final double[] y;
+    public final double[] z;
+    private final int size;
+    
+    /**
+     * Creates the given number of zero vectors.
+     * @param size The number of vectors
+     */
+    public Vector3DArray(int size) {
+        this.size = size;
+        x = new double[size];
+        y = new double[size];
+        z = new double[size];
+    }
+    
+    /**
+     * Gets the number of vectors.
+     * @return The number of vectors
+     */
+    public int size() {
+        return size;
+    }
+    
+    /**
+     * Sets one vector.
+     * @param i The index of the vector
+     * @param x The x coordinate
+     * @param y The y coordinate
+     * @param z The z coordinate
+     */
+    public void set(int i, double x, double y, double z) {
+        this.x[i] = x;
+        this.y[i] = y;
+        this.z[i] = z;
+    }
+    
+    /**
+     * Sets one vector.
+     * @param i The index of the vector
+     * @param v The vector to copy
+     */
+    public void set(int i, MutableVector3D v) {
+        set(i, v.getX(), v.getY(), v.getZ());
+    }
+    
+    /**
+     * Copies one vector out.
+     * @param i The index of the vector
+     * @param dest The vector to copy it into
+     * @return dest
+     */
+    public MutableVector3D get(int i, MutableVector3D dest) {
+        return dest.set(x[i], y[i], z[i]);
+    }
+    
+    /**
+     * Copies every vector of another array of the same size.
+     * @param a The array to copy
+     * @return This array
+     */
+    public Vector3DArray set(Vector3DArray a) {
+        checkSameSize(a);
+        System.arraycopy(a.x, 0, x, 0, size);
+        System.arraycopy(a.y, 0, y, 0, size);
+        System.arraycopy(a.z, 0, z, 0, size);
+        return this;
+    }
+    
+    /**
+     * Adds the same vector to every vector.
+     * @param v The vector to add
+     * @return This array
+     */
+    public Vector3DArray translate(MutableVector3D v) {
+        double dx = v.getX(), dy = v.getY(), dz = v.getZ();
+        for (int i = 0; i < size; i++) {
+            x[i] += dx;
+            y[i] += dy;
+            z[i] += dz;
+        }
+        return this;
+    }
+    
+    /**
+     * Adds each vector of another array to the vector at the same index.
+     * @param a The array to add
+     * @return This array
+     */
+    public Vector3DArray addInPlace(Vector3DArray a) {
+        checkSameSize(a);
+        for (int i = 0; i < size; i++) {
+            x[i] += a.x[i];
+            y[i] += a.y[i];
+            z[i] += a.z[i];
+        }
+        return this;
+    }
+    
+    /**
+     * Subtracts each vector of another array from the vector at the same index.
+     * @param a The array to subtract
+     * @return This array
+     */
+    public Vector3DArray subtractInPlace(Vector3DArray a) {
+        checkSameSize(a);
+        for (int i = 0; i < size; i++) {
+            x[i] -= a.x[i];
+            y[i] -= a.y[i];
+            z[i] -= a.z[i];
+        }
+        return this;
+    }
+    
+    /**
+     * Multiplies every vector by a number.
+     * @param d The number to multiply by
+     * @return This array
+     */
+    public Vector3DArray scaleInPlace(double d) {
+        for (int i = 0; i < size; i++) {
+            x[i] *= d;
+            y[i] *= d;
+            z[i] *= d;
+        }
+        return this;
+    }
+    
+    /**
+     * Rotates every vector about the Z axis by the same angle, working out
+     * the sine and cosine only once.
+     * @param angle The angle to rotate by in radians, counterclockwise
+     * @return This array
+     */
+    public Vector3DArray rotateZInPlace(double angle) {
+        double cos = Math.cos(angle);
+        double sin = Math.sin(angle);
+        for (int i = 0; i < size; i++) {
+            double xi = x[i];
+            x[i] = xi * cos - y[i] * sin;
+            y[i] = xi * sin + y[i] * cos;
+        }
+        return this;
+    }
+    
+    /**
+     * Scales every vector to a magnitude of one.
+     * @return This array
+     */
+    public Vector3DArray normalizeInPlace() {
+        for (int i = 0; i < size; i++) {
+            double mag = Math.sqrt(x[i] * x[i] + y[i] * y[i] + z[i] * z[i]);
+            if (mag == 0) throw new RuntimeException("Error: Tried to normalize a zero vector");
+            x[i] /= mag;
+            y[i] /= mag;
+            z[i] /= mag;
+        }
+        return this;
+    }
+    
+    /**
+     * Finds the magnitude of every vector.
+     * @param out The array to hold the magnitudes
+     * @return out
+     */
+    public double[] magnitudesInto(double[] out) {
+        for (int i = 0; i < size; i++)
+            out[i] = Math.sqrt(x[i] * x[i] + y[i] * y[i] + z[i] * z[i]);
+        return out;
+    }
+    
+    /**
+     * Finds the dot product of each vector with the vector at the same index of another array.
+     * @param a The other array
+     * @param out The array to hold the dot products
+     * @return out
+     */
+    public double[] dotInto(Vector3DArray a, double[] out) {
+        checkSameSize(a);
+        for (int i = 0; i < size; i++)
+            out[i] = x[i] * a.x[i] + y[i] * a.y[i] + z[i] * a.z[i];
+        return out;
+    }
+    
+    /**
+     * Finds the cross product of each vector with the vector at the same index
+     * of another array.
+     * @param a The other array
+     * @param dest The array to hold the cross products, which may be either operand
+     * @return dest
+     */
+    public Vector3DArray crossInto(Vector3DArray a, Vector3DArray dest) {
+        checkSameSize(a);
+        checkSameSize(dest);
+        for (int i = 0; i < size; i++) {
+            double cx = y[i] * a.z[i] - z[i] * a.y[i];
+            double cy = z[i] * a.x[i] - x[i] * a.z[i];
+            double cz = x[i] * a.y[i] - y[i] * a.x[i];
+            dest.x[i] = cx;
+            dest.y[i] = cy;
+            dest.z[i] = cz;
+        }
+        return dest;
+    }
+    
+    private void checkSameSize(Vector3DArray a) {
+        if (a.size != size) throw new RuntimeException("Illegal array sizes.");
+    }
+}
@@ -0,0 +1,76 @@
+package org.harker.robotics.harkerrobolib.util;
+
+/**
+ * Scratch {@link MutableVector3D}s for one thread, handed out like a stack so
+ * that temporaries cost nothing once the pool has grown to the depth the code
+ * needs. A method marks the pool, takes what it needs, and releases back to
+ * the mark before returning:
+ * <pre>
+ * Vector3DPool pool = Vector3DPool.get();
+ * int mark = pool.mark();
+ * MutableVector3D t = pool.acquire();
+ * ...
+ * pool.release(mark);
+ * </pre>
+ * Vectors from the pool must not be kept past the release or shared with
+ * another thread.
+ */
+public class Vector3DPool {
+    
+    private static final int INITIAL_SIZE = 16;
+    
+    private static final ThreadLocal<Vector3DPool> pools = new ThreadLocal<Vector3DPool>() {
+        protected Vector3DPool initialValue() {
+            return new Vector3DPool();
+        }
+    };
+    
+    private MutableVector3D[] vectors = new MutableVector3D[INITIAL_SIZE];
+    private int top;
+    
+    private Vector3DPool() {
+        for (int i = 0; i < vectors.length; i++)
+            vectors[i] = new MutableVector3D();
+    }
+    
+    /**
+     * Gets the calling thread's pool. Control loops should get it once and
+     * keep it, as the lookup is not free.
+     * @return The pool
+     */
+    public static Vector3DPool get() {
+        return pools.get();
+    }
+    
+    /**
+     * Notes how many vectors are in use, to release back to later.
+     * @return The mark
+     */
+    public int mark() {
+        return top;
+    }
+    
+    /**
+     * Takes a scratch vector. Its contents are whatever it last held.
+     * @return The vector
+     */
+    public MutableVector3D acquire() {
+        if (top == vectors.length) {
+            MutableVector3D[] grown = new MutableVector3D[vectors.length * 2];
+            System.arraycopy(vectors, 0, grown, 0, vectors.length);
+            for (int i = vectors.length; i < grown.length; i++)
+                grown[i] = new MutableVector3D();
+            vectors = grown;
+        }
+        return vectors[top++];
+    }
+    
+    /**
+     * Gives back every vector taken since a mark.
+     * @param mark The mark, from {@link #mark()}
+     */
+    public void release(int mark) {
+        if (mark < 0 || mark > top) throw new RuntimeException("Released the vector pool past its mark.");
+        top = mark;
+    }
+}
@@ -1,69 +1,119 @@
 package org.harker.robotics.harkerrobolib.wrappers;
 
+import org.harker.robotics.harkerrobolib.hal.EncoderSensor;
+import org.harker.robotics.harkerrobolib.hal.Hardware;
+import org.harker.robotics.harkerrobolib.util.RateEstimator;
+
 import edu.wpi.first.wpilibj.CounterBase;
-import edu.wpi.first.wpilibj.Encoder;
+import edu.wpi.first.wpilibj.Timer;
 
 /**
- *
+ * An encoder which measures its own rate and acceleration. Each call to
+ * {@link #updateRate()} samples the count with a timestamp, and a
+ * {@link RateEstimator} fits the last few samples, so call it once per loop.
  *
  * @author Brian Chan
  */
-public class EncoderWrapper extends Encoder {
+public class EncoderWrapper {
 
+    private final EncoderSensor encoder;
     private final double rateScale;
+    private double distancePerPulse = 1;
     //Rate and acceleration should be in meters per second and meters per second squared respectively
     private double rate = 0;
     private double acceleration = 0;
-    //previousCallTime denotes the last time updateRate() was called to be used for acceleration code (See below)
-    private double previousCallTime = System.currentTimeMillis() / 1000;
+    //Fits the count against the time of each updateRate() call
+    private RateEstimator estimator = new RateEstimator();
 
     public EncoderWrapper(int aChannel, int bChannel) {
-	super(aChannel, bChannel);
-	this.rateScale = 1;
+	this(aChannel, bChannel, CounterBase.EncodingType.k4X, 1);
     }
 
     public EncoderWrapper(int aChannel, int bChannel, double rateScale) {
-	super(aChannel, bChannel);
-	this.rateScale = rateScale;
+	this(aChannel, bChannel, CounterBase.EncodingType.k4X, rateScale);
     }
 
     public EncoderWrapper(int aSource, int bSource, final CounterBase.EncodingType encodingType) {
-	super(aSource, bSource, false, encodingType);
-	this.rateScale = 1;
+	this(aSource, bSource, encodingType, 1);
     }
     
     public EncoderWrapper(int aSource, int bSource, final CounterBase.EncodingType encodingType, double rateScale) {
-	super(aSource, bSource, false, encodingType);
+	encoder = Hardware.getFactory().createEncoder(aSource, bSource, encodingType);
 	this.rateScale = rateScale;
     }
 
+    /**
+     * Gets the raw count of the encoder.
+     * @return The number of counts since the last reset
+     */
+    public int get() {
+        return encoder.get();
+    }
+
+    /**
+     * Resets the count of the encoder to zero.
+     */
+    public void reset() {
+        encoder.reset();
+        estimator.reset();
+    }
+
+    /**
+     * Sets the distance travelled for every count of the encoder.
+     * @param distancePerPulse The distance per count
+     */
+    public void setDistancePerPulse(double distancePerPulse) {
+        this.distancePerPulse = distancePerPulse;
+    }
+
+    /**
+     * Gets the distance travelled since the last reset.
+     * @return The count scaled by the distance per pulse
+     */
+    public double getDistance() {
+        return encoder.get() * distancePerPulse;
+    }
+
+    /**
+     * Sets how many of the most recent samples the rate is fitted to. A
+     * longer window is smoother but slower to notice a change of
+     * acceleration. Forgets the samples so far.
+     * @param samples The number of samples, at least 3
+     */
+    public void setRateWindow(int samples) {
+        estimator = new RateEstimator(samples);
+    }
+
+    /**
+     * Gets the rate as of the last call to {@link #updateRate()}.
+     * @return The rate in distance per second, times the rate scale
+     */
     public double getRate() {
 	return rate * rateScale;
     }
 
+    /**
+     * Gets the acceleration as of the last call to {@link #updateRate()}.
+     * @return The acceleration in distance per second squared
+     */
     public double getAcceleration() {
         return acceleration;
     }
 
+    /**
+     * Samples the count now and updates the rate and acceleration.
+     */
     public void updateRate() {
-	double curRate = super.getRate();
-        double currTime;
-	if(!Double.isNaN(curRate))
-	    rate += (curRate - rate) / rateScale;
-        currTime = System.currentTimeMillis() / 1000; //Convert to seconds
-        //Kind of hacky piggyback updating the acceleration as a function of the change in rate
-        //versus the time difference between method calls.
-        updateAcceleration(currTime - previousCallTime, curRate, rate);
-        previousCallTime = currTime; //Update timestep
+        updateRate((long) (Timer.getFPGATimestamp() * 1e9));
     }
 
     /**
-     * Finds acceleration as the change in velocity over the change in time
-     * @param timeStep The time between the current and previous call of the function.
-     * @param oldRate The previous rate of the encoder.
-     * @param newRate The current rate of the encoder.
+     * Samples the count and updates the rate and acceleration.
+     * @param nanos The time of the sample in nanoseconds
      */
-    public void updateAcceleration(double timeStep, double oldRate, double newRate) {
-        acceleration = (newRate - oldRate) / timeStep;
+    public void updateRate(long nanos) {
+        estimator.add(nanos, encoder.get());
+        rate = estimator.getRate() * distancePerPulse;
+        acceleration = estimator.getAcceleration() * distancePerPulse;
     }
 }
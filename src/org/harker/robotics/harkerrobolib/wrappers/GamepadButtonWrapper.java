@@ -0,0 +1,55 @@
+package org.harker.robotics.harkerrobolib.wrappers;
+
+import org.harker.robotics.harkerrobolib.commands.InstrumentedCommand;
+import org.harker.robotics.harkerrobolib.util.ButtonEventQueue;
+
+import edu.wpi.first.wpilibj.command.Command;
+
+/**
+ * A button on a {@link GamepadWrapper}, which besides being polled like any
+ * other button can start commands from the gamepad's button events.
+ */
+public class GamepadButtonWrapper extends JoystickButtonWrapper {
+    private final GamepadWrapper gamepad;
+    private final int buttonNumber;
+
+    /**
+     * Create a gamepad button for triggering commands
+     * @param gamepad The gamepad that has the button
+     * @param buttonNumber The button number, starting at 1
+     */
+    public GamepadButtonWrapper(GamepadWrapper gamepad, int buttonNumber) {
+        super(gamepad, buttonNumber);
+        this.gamepad = gamepad;
+        this.buttonNumber = buttonNumber;
+    }
+    
+    /**
+     * Starts a command each time an event of a type is posted for this button.
+     * The events are read every time the Scheduler runs, so none are lost
+     * between runs. A command which is an {@link InstrumentedCommand} is told
+     * when its event happened, and times how long it took to act on it.
+     * @param type The type of event, such as {@link ButtonEventQueue#DOUBLE_TAPPED}
+     * @param command The command to start
+     */
+    public void whenEvent(final int type, final Command command) {
+        final ButtonEventQueue.Reader reader = gamepad.getEvents().subscribe();
+        new ButtonScheduler() {
+            //start() is protected, so only a ButtonScheduler can hand itself to the Scheduler
+            {
+                start();
+            }
+            
+            public void execute() {
+                while (reader.poll()) {
+                    if (reader.getButton() != buttonNumber || reader.getType() != type)
+                        continue;
+                    if (command instanceof InstrumentedCommand)
+                        ((InstrumentedCommand) command).startFromEvent(reader.getTime());
+                    else
+                        command.start();
+                }
+            }
+        };
+    }
+}
@@ -5,14 +5,33 @@ import java.awt.event.KeyListener;
 
 import javax.swing.JFrame;
 
-import edu.wpi.first.wpilibj.Joystick;
+import org.harker.robotics.harkerrobolib.hal.Hardware;
+import org.harker.robotics.harkerrobolib.hal.JoystickInput;
+import org.harker.robotics.harkerrobolib.util.ButtonEventQueue;
+
+import edu.wpi.first.wpilibj.GenericHID;
+import edu.wpi.first.wpilibj.Timer;
 
 /**
- * A Joystick wrapper for gamepads that include more accurate/useful names for the analogue stick axes
+ * A Joystick wrapper for gamepads that include more accurate/useful names for the analogue stick axes.
+ * The raw axes and buttons are read through the {@link Hardware} factory so the gamepad can be
+ * driven by a simulated driver station.
+ * 
+ * Call {@link #update()} once per scheduler tick, before anything reads the gamepad. It reads
+ * every axis, button and the POV hat once and works out the stick and trigger values, and every
+ * getter (including the buttons' get()) returns what it captured until the next update, so all
+ * the commands in a tick see the same input and the driver station is asked only once. Read the
+ * gamepad from the thread which updates it.
+ * 
+ * Each update also compares the buttons with the last ones and posts what changed to a
+ * {@link ButtonEventQueue}, stamped with the FPGA time of the update: presses, releases, a
+ * button held past {@link #HOLD_TIME} and a second press within {@link #DOUBLE_TAP_TIME} of the
+ * first. Commands subscribe to these through {@link GamepadButtonWrapper#whenEvent}. A press and
+ * release which both fall between two driver station packets is never seen.
  * @author neymikajain
  * @author atierno
  */
-public class GamepadWrapper extends Joystick {
+public class GamepadWrapper extends GenericHID {
 	public static final int SETTING_XBOX = 0;
 	public static final int SETTING_LOGITECH = 1;
 	
@@ -62,34 +81,58 @@ public class GamepadWrapper extends Joystick {
     public static final int LOGITECH_TRIGGER_LEFT = 7;
     public static final int LOGITECH_TRIGGER_RIGHT = 8;
     
-    private final JoystickButtonWrapper buttonA;
-    private final JoystickButtonWrapper buttonB;
-    private final JoystickButtonWrapper buttonX;
-    private final JoystickButtonWrapper buttonY;
-    private final JoystickButtonWrapper buttonStart;
-    private final JoystickButtonWrapper buttonSelect;
-    private final JoystickButtonWrapper buttonStickLeft;
-    private final JoystickButtonWrapper buttonStickRight;
-    private final JoystickButtonWrapper buttonBumperLeft;
-    private final JoystickButtonWrapper buttonBumperRight;
+    //How many axes and buttons are captured by update()
+    public static final int AXES = 6;
+    public static final int BUTTONS = 12;
+    
+    //How long a button must stay down to be held, and the most time between the presses of a double tap
+    public static final double HOLD_TIME = 0.5;
+    public static final double DOUBLE_TAP_TIME = 0.3;
+    private static final long HOLD_NANOS = (long) (HOLD_TIME * 1e9);
+    private static final long DOUBLE_TAP_NANOS = (long) (DOUBLE_TAP_TIME * 1e9);
+    private static final int EVENT_QUEUE_SIZE = 64;
     
+    private final GamepadButtonWrapper buttonA;
+    private final GamepadButtonWrapper buttonB;
+    private final GamepadButtonWrapper buttonX;
+    private final GamepadButtonWrapper buttonY;
+    private final GamepadButtonWrapper buttonStart;
+    private final GamepadButtonWrapper buttonSelect;
+    private final GamepadButtonWrapper buttonStickLeft;
+    private final GamepadButtonWrapper buttonStickRight;
+    private final GamepadButtonWrapper buttonBumperLeft;
+    private final GamepadButtonWrapper buttonBumperRight;
+    
+    private final JoystickInput input;
     private int setting;
     
+    //Everything captured by the last update(), button n in bit n - 1
+    private final double[] axes = new double[AXES];
+    private int buttons;
+    private int pov = -1;
+    private double leftX, leftY, rightX, rightY, leftTrigger, rightTrigger;
+    
+    private final ButtonEventQueue events = new ButtonEventQueue(EVENT_QUEUE_SIZE, getTime());
+    //When each button was last pressed, which buttons have posted HELD since, and which may be double tapped
+    private final long[] pressTimes = new long[BUTTONS];
+    private int held;
+    private int tapArmed;
+    
     private boolean aPressed, bPressed, xPressed, yPressed, sUpPressed, sDownPressed;
     private boolean sLeftPressed, sRightPressed, bLeftPressed, bRightPressed, sRRightPressed, sRLeftPressed;
     
     public GamepadWrapper(int port) {
-    	super(port);
-        buttonA = new JoystickButtonWrapper(this, XBOX_A_PORT);
-        buttonB = new JoystickButtonWrapper(this, XBOX_B_PORT);
-        buttonX = new JoystickButtonWrapper(this, XBOX_X_PORT);
-        buttonY = new JoystickButtonWrapper(this, XBOX_Y_PORT);
-        buttonStart = new JoystickButtonWrapper(this, XBOX_START_PORT);
-        buttonSelect = new JoystickButtonWrapper(this, XBOX_SELECT_PORT);
-        buttonStickLeft = new JoystickButtonWrapper(this, XBOX_STICK_LEFT_PORT);
-        buttonStickRight = new JoystickButtonWrapper(this, XBOX_STICK_RIGHT_PORT);
-        buttonBumperLeft = new JoystickButtonWrapper(this, XBOX_BUMPER_LEFT_PORT);
-        buttonBumperRight = new JoystickButtonWrapper(this, XBOX_BUMPER_RIGHT_PORT);
+    	input = Hardware.getFactory().createJoystick(port);
+        buttonA = new GamepadButtonWrapper(this, XBOX_A_PORT);
+        buttonB = new GamepadButtonWrapper(this, XBOX_B_PORT);
+        buttonX = new GamepadButtonWrapper(this, XBOX_X_PORT);
+        buttonY = new GamepadButtonWrapper(this, XBOX_Y_PORT);
+        buttonStart = new GamepadButtonWrapper(this, XBOX_START_PORT);
+        buttonSelect = new GamepadButtonWrapper(this, XBOX_SELECT_PORT);
+        buttonStickLeft = new GamepadButtonWrapper(this, XBOX_STICK_LEFT_PORT);
+        buttonStickRight = new GamepadButtonWrapper(this, XBOX_STICK_RIGHT_PORT);
+        buttonBumperLeft = new GamepadButtonWrapper(this, XBOX_BUMPER_LEFT_PORT);
+        buttonBumperRight = new GamepadButtonWrapper(this, XBOX_BUMPER_RIGHT_PORT);
         
         this.setting = SETTING_XBOX;
         
@@ -185,30 +228,30 @@ public class GamepadWrapper extends Joystick {
 //    }
     
     public GamepadWrapper(int port, int setting) {
-    	super(port);
+    	input = Hardware.getFactory().createJoystick(port);
     	if (setting == SETTING_XBOX) {
-    		buttonA = new JoystickButtonWrapper(this, XBOX_A_PORT);
-            buttonB = new JoystickButtonWrapper(this, XBOX_B_PORT);
-            buttonX = new JoystickButtonWrapper(this, XBOX_X_PORT);
-            buttonY = new JoystickButtonWrapper(this, XBOX_Y_PORT);
-            buttonStart = new JoystickButtonWrapper(this, XBOX_START_PORT);
-            buttonSelect = new JoystickButtonWrapper(this, XBOX_SELECT_PORT);
-            buttonStickLeft = new JoystickButtonWrapper(this, XBOX_STICK_LEFT_PORT);
-            buttonStickRight = new JoystickButtonWrapper(this, XBOX_STICK_RIGHT_PORT);
-            buttonBumperLeft = new JoystickButtonWrapper(this, XBOX_BUMPER_LEFT_PORT);
-            buttonBumperRight = new JoystickButtonWrapper(this, XBOX_BUMPER_RIGHT_PORT);
+    		buttonA = new GamepadButtonWrapper(this, XBOX_A_PORT);
+            buttonB = new GamepadButtonWrapper(this, XBOX_B_PORT);
+            buttonX = new GamepadButtonWrapper(this, XBOX_X_PORT);
+            buttonY = new GamepadButtonWrapper(this, XBOX_Y_PORT);
+            buttonStart = new GamepadButtonWrapper(this, XBOX_START_PORT);
+            buttonSelect = new GamepadButtonWrapper(this, XBOX_SELECT_PORT);
+            buttonStickLeft = new GamepadButtonWrapper(this, XBOX_STICK_LEFT_PORT);
+            buttonStickRight = new GamepadButtonWrapper(this, XBOX_STICK_RIGHT_PORT);
+            buttonBumperLeft = new GamepadButtonWrapper(this, XBOX_BUMPER_LEFT_PORT);
+            buttonBumperRight = new GamepadButtonWrapper(this, XBOX_BUMPER_RIGHT_PORT);
     	}
     	else if (setting == SETTING_LOGITECH) {
-    		buttonA = new JoystickButtonWrapper(this, LOGITECH_A_PORT);
-            buttonB = new JoystickButtonWrapper(this, LOGITECH_B_PORT);
-            buttonX = new JoystickButtonWrapper(this, LOGITECH_X_PORT);
-            buttonY = new JoystickButtonWrapper(this, LOGITECH_Y_PORT);
-            buttonStart = new JoystickButtonWrapper(this, LOGITECH_START_PORT);
-            buttonSelect = new JoystickButtonWrapper(this, LOGITECH_SELECT_PORT);
-            buttonStickLeft = new JoystickButtonWrapper(this, LOGITECH_STICK_LEFT_PORT);
-            buttonStickRight = new JoystickButtonWrapper(this, LOGITECH_STICK_RIGHT_PORT);
-            buttonBumperLeft = new JoystickButtonWrapper(this, LOGITECH_BUMPER_LEFT_PORT);
-            buttonBumperRight = new JoystickButtonWrapper(this, LOGITECH_BUMPER_RIGHT_PORT);
+    		buttonA = new GamepadButtonWrapper(this, LOGITECH_A_PORT);
+            buttonB = new GamepadButtonWrapper(this, LOGITECH_B_PORT);
+            buttonX = new GamepadButtonWrapper(this, LOGITECH_X_PORT);
+            buttonY = new GamepadButtonWrapper(this, LOGITECH_Y_PORT);
+            buttonStart = new GamepadButtonWrapper(this, LOGITECH_START_PORT);
+            buttonSelect = new GamepadButtonWrapper(this, LOGITECH_SELECT_PORT);
+            buttonStickLeft = new GamepadButtonWrapper(this, LOGITECH_STICK_LEFT_PORT);
+            buttonStickRight = new GamepadButtonWrapper(this, LOGITECH_STICK_RIGHT_PORT);
+            buttonBumperLeft = new GamepadButtonWrapper(this, LOGITECH_BUMPER_LEFT_PORT);
+            buttonBumperRight = new GamepadButtonWrapper(this, LOGITECH_BUMPER_RIGHT_PORT);
     	}
     	else {
     		throw new RuntimeException("Error, invalid setting given");
@@ -216,59 +259,192 @@ public class GamepadWrapper extends Joystick {
     	this.setting = setting;
     }
 
+    /**
+     * Reads the axes, buttons and POV hat from the driver station and works
+     * out the stick and trigger values, which the getters return until the
+     * next update. Posts the button events since the last update.
+     */
+    public void update() {
+    	long now = getTime();
+    	for (int i = 0; i < AXES; i++)
+    		axes[i] = input.getRawAxis(i);
+    	int pressed = 0;
+    	for (int i = 1; i <= BUTTONS; i++)
+    		if (input.getRawButton(i))
+    			pressed |= 1 << (i - 1);
+    	postEvents(pressed, now);
+    	buttons = pressed;
+    	pov = input.getPOV(0);
+    	
+    	//Forward on a stick reads negative, which is unintuitive, so the Y axes are flipped
+    	if (setting == SETTING_LOGITECH) {
+    		leftX = axes[LOGITECH_AXIS_LEFT_X];
+    		leftY = -axes[LOGITECH_AXIS_LEFT_Y];
+    		rightX = axes[LOGITECH_AXIS_RIGHT_X];
+    		rightY = -axes[LOGITECH_AXIS_RIGHT_Y];
+    		leftTrigger = getRawButton(LOGITECH_TRIGGER_LEFT) ? 1 : 0;
+    		rightTrigger = getRawButton(LOGITECH_TRIGGER_RIGHT) ? 1 : 0;
+    	} else {
+    		leftX = axes[XBOX_AXIS_LEFT_X];
+    		leftY = -axes[XBOX_AXIS_LEFT_Y];
+    		rightX = axes[XBOX_AXIS_RIGHT_X];
+    		rightY = -axes[XBOX_AXIS_RIGHT_Y];
+    		leftTrigger = axes[XBOX_AXIS_TRIGGER_LEFT];
+    		rightTrigger = axes[XBOX_AXIS_TRIGGER_RIGHT];
+    	}
+    	
+    	//The simulated keys override the sticks and triggers
+    	if (sLeftPressed) leftX = -1;
+    	else if (sRightPressed) leftX = 1;
+    	if (sUpPressed) leftY = 1;
+    	else if (sDownPressed) leftY = -1;
+    	if (sRLeftPressed) rightX = -1;
+    	else if (sRRightPressed) rightX = 1;
+    	if (bLeftPressed) leftTrigger = 1;
+    	if (bRightPressed) rightTrigger = 1;
+    }
+    
+    /**
+     * Posts an event for each button which went down or up since the last
+     * update, and for each which has now been held or double tapped.
+     */
+    private void postEvents(int pressed, long now) {
+    	int changed = pressed ^ buttons;
+    	if ((changed | pressed) == 0)
+    		return;
+    	for (int i = 0; i < BUTTONS; i++) {
+    		int bit = 1 << i;
+    		if ((changed & bit) != 0 && (pressed & bit) != 0) {
+    			events.post(ButtonEventQueue.PRESSED, i + 1, now);
+    			//A third press starts a new double tap rather than finishing another
+    			if ((tapArmed & bit) != 0 && now - pressTimes[i] <= DOUBLE_TAP_NANOS) {
+    				events.post(ButtonEventQueue.DOUBLE_TAPPED, i + 1, now);
+    				tapArmed &= ~bit;
+    			} else {
+    				tapArmed |= bit;
+    			}
+    			pressTimes[i] = now;
+    		} else if ((changed & bit) != 0) {
+    			events.post(ButtonEventQueue.RELEASED, i + 1, now);
+    			held &= ~bit;
+    		} else if ((pressed & bit) != 0 && (held & bit) == 0 && now - pressTimes[i] >= HOLD_NANOS) {
+    			events.post(ButtonEventQueue.HELD, i + 1, now);
+    			held |= bit;
+    		}
+    	}
+    }
+    
+    /**
+     * Gets the FPGA time, which is the simulation's clock off the robot.
+     * @return The time in nanoseconds
+     */
+    private static long getTime() {
+    	return (long) (Timer.getFPGATimestamp() * 1e9);
+    }
+    
+    /**
+     * Gets the queue the button events are posted to.
+     * @return The queue; subscribe to it to read the events
+     */
+    public ButtonEventQueue getEvents() {
+    	return events;
+    }
+    
+    /**
+     * Gets the raw value of an axis as of the last update.
+     * @param axis The axis number
+     * @return The value of the axis
+     */
+    public double getRawAxis(int axis) {
+    	if (axis >= 0 && axis < AXES)
+    		return axes[axis];
+    	return input.getRawAxis(axis);
+    }
+    
+    /**
+     * Gets the raw value of a button as of the last update.
+     * @param button The button number, starting at 1
+     * @return Whether or not the button is pressed
+     */
+    public boolean getRawButton(int button) {
+    	if (button >= 1 && button <= BUTTONS)
+    		return (buttons & (1 << (button - 1))) != 0;
+    	return input.getRawButton(button);
+    }
+    
+    /**
+     * Gets every captured button at once, as of the last update.
+     * @return The buttons, with button n in bit n - 1
+     */
+    public int getRawButtons() {
+    	return buttons;
+    }
+    
+    /**
+     * Gets the angle of a POV hat. The first hat is as of the last update.
+     * @param pov The index of the POV hat
+     * @return The angle in degrees, or -1 if the hat is not pressed
+     */
+    public int getPOV(int pov) {
+    	if (pov == 0)
+    		return this.pov;
+    	return input.getPOV(pov);
+    }
+    
+    public double getX(Hand hand) {
+    	return (hand == Hand.kLeft) ? getLeftX() : getRightX();
+    }
+    
+    public double getY(Hand hand) {
+    	return (hand == Hand.kLeft) ? getLeftY() : getRightY();
+    }
+    
+    public double getZ() {
+    	return getRightTrigger() - getLeftTrigger();
+    }
+    
+    public double getTwist() {
+    	return getRightX();
+    }
+    
+    public double getThrottle() {
+    	return getRightY();
+    }
+    
+    public boolean getTrigger(Hand hand) {
+    	return ((hand == Hand.kLeft) ? getLeftTrigger() : getRightTrigger()) > 0.5;
+    }
+    
+    public boolean getTop(Hand hand) {
+    	return (hand == Hand.kLeft) ? getButtonStickLeftState() : getButtonStickRightState();
+    }
+    
+    public boolean getBumper(Hand hand) {
+    	return (hand == Hand.kLeft) ? getButtonBumperLeftState() : getButtonBumperRightState();
+    }
+
     public double getLeftX() {
-    	if (sLeftPressed)
-    		return -1;
-    	else if (sRightPressed)
-    		return 1;
-    	if (setting == SETTING_LOGITECH)
-    		return getRawAxis(LOGITECH_AXIS_LEFT_X);
-    	return getRawAxis(XBOX_AXIS_LEFT_X);
+    	return leftX;
     }
 
     public double getLeftY() {
-    	if (sUpPressed)
-    		return 1;
-    	else if (sDownPressed)
-    		return -1;
-    	if (setting == SETTING_LOGITECH)
-    		return -getRawAxis(LOGITECH_AXIS_LEFT_Y);
-    	return -getRawAxis(XBOX_AXIS_LEFT_Y); //by default, forward returns a negative number, which is unintuitive
+    	return leftY;
     }
 
     public double getRightX() {
-    	if (sRLeftPressed)
-    		return -1;
-    	if (sRRightPressed)
-    		return 1;
-    	if (setting == SETTING_LOGITECH)
-    		return getRawAxis(LOGITECH_AXIS_RIGHT_X);
-    	return getRawAxis(XBOX_AXIS_RIGHT_X);
+    	return rightX;
     }
 
     public double getRightY() {
-    	if (setting == SETTING_LOGITECH) {
-    		return -getRawAxis(LOGITECH_AXIS_RIGHT_Y);
-    	}
-    	return -getRawAxis(XBOX_AXIS_RIGHT_Y); //by default, forward returns a negative number, which is unintuitive
+    	return rightY;
     }
     
     public double getRightTrigger() {
-    	if (bRightPressed)
-    		return 1;
-    	if (setting == SETTING_LOGITECH) {
-    		return (getRawButton(LOGITECH_TRIGGER_RIGHT) == true) ? 1 : 0;
-    	}
-    	return getRawAxis(XBOX_AXIS_TRIGGER_RIGHT);
+    	return rightTrigger;
     }
     
     public double getLeftTrigger() {
-    	if (bLeftPressed)
-    		return 1;
-    	if (setting == SETTING_LOGITECH) {
-    		return (getRawButton(LOGITECH_TRIGGER_LEFT) == true) ? 1 : 0;
-    	}
-    	return getRawAxis(XBOX_AXIS_TRIGGER_LEFT);
+    	return leftTrigger;
     }
     
     /**
@@ -363,7 +539,7 @@ public class GamepadWrapper extends Joystick {
      * Gets an instance of Button A
      * @return An instance of the button
      */
-    public JoystickButtonWrapper getButtonA() {
+    public GamepadButtonWrapper getButtonA() {
         return buttonA;
     }
     
@@ -371,7 +547,7 @@ public class GamepadWrapper extends Joystick {
      * Gets an instance of Button B
      * @return An instance of the button
      */
-    public JoystickButtonWrapper getButtonB() {
+    public GamepadButtonWrapper getButtonB() {
         return buttonB;
     }
     
@@ -379,7 +555,7 @@ public class GamepadWrapper extends Joystick {
      * Gets an instance of Button X
      * @return An instance of the button
      */
-    public JoystickButtonWrapper getButtonX() {
+    public GamepadButtonWrapper getButtonX() {
         return buttonX;
     }
     
@@ -387,7 +563,7 @@ public class GamepadWrapper extends Joystick {
      * Gets an instance of Button Y
      * @return An instance of the button
      */
-    public JoystickButtonWrapper getButtonY() {
+    public GamepadButtonWrapper getButtonY() {
         return buttonY;
     }
     
@@ -395,7 +571,7 @@ public class GamepadWrapper extends Joystick {
      * Gets an instance of the Start Button
      * @return An instance of the button
      */
-    public JoystickButtonWrapper getButtonStart() {
+    public GamepadButtonWrapper getButtonStart() {
         return buttonStart;
     }
     
@@ -403,7 +579,7 @@ public class GamepadWrapper extends Joystick {
      * Gets an instance of the Select Button
      * @return An instance of the button
      */
-    public JoystickButtonWrapper getButtonSelect() {
+    public GamepadButtonWrapper getButtonSelect() {
         return buttonSelect;
     }
     
@@ -411,7 +587,7 @@ public class GamepadWrapper extends Joystick {
      * Gets an instance of the Left Stick Button
      * @return An instance of the button
      */
-    public JoystickButtonWrapper getButtonStickLeft() {
+    public GamepadButtonWrapper getButtonStickLeft() {
         return buttonStickLeft;
     }
     
@@ -419,7 +595,7 @@ public class GamepadWrapper extends Joystick {
      * Gets an instance of the Right Stick Button
      * @return An instance of the button
      */
-    public JoystickButtonWrapper getButtonStickRight() {
+    public GamepadButtonWrapper getButtonStickRight() {
         return buttonStickRight;
     }
     
@@ -427,7 +603,7 @@ public class GamepadWrapper extends Joystick {
      * Gets an instance of the Left Bumper
      * @return An instance of the button
      */
-    public JoystickButtonWrapper getButtonBumperLeft() {
+    public GamepadButtonWrapper getButtonBumperLeft() {
         return buttonBumperLeft;
     }
     
@@ -435,7 +611,7 @@ public class GamepadWrapper extends Joystick {
      * Gets an instance of the Right Bumper
      * @return An instance of the button
      */
-    public JoystickButtonWrapper getButtonBumperRight() {
+    public GamepadButtonWrapper getButtonBumperRight() {
         return buttonBumperRight;
     }
 }
@@ -1,15 +1,19 @@
 package org.harker.robotics.harkerrobolib.wrappers;
 
-import edu.wpi.first.wpilibj.Solenoid;
+import org.harker.robotics.harkerrobolib.hal.Hardware;
+import org.harker.robotics.harkerrobolib.hal.SolenoidOutput;
 
 /**
  * Working on the assumption that a pneumatic system is effectively two solenoids, 
  * the wrapper sets the states of the two solenoids (input and output) to be 
  * opposite of one another for any given state.
+ * 
+ * Made from a {@link SolenoidBank}, the solenoids are written when the bank is
+ * flushed, and only if the state changed.
  * @author Manan
  */
 public class PneumaticsWrapper {
-    private final Solenoid in, out;
+    private final SolenoidOutput in, out;
     
     /**
      * Creates a new PneumaticsWrapper with input and output solenoids.
@@ -17,8 +21,20 @@ public class PneumaticsWrapper {
      * @param outChannel The channel of the output solenoid.
      */
     public PneumaticsWrapper(int inChannel, int outChannel) {
-        this.in = new Solenoid(inChannel);
-        this.out = new Solenoid(outChannel);
+        this.in = Hardware.getFactory().createSolenoid(inChannel);
+        this.out = Hardware.getFactory().createSolenoid(outChannel);
+    }
+    
+    /**
+     * Creates a new PneumaticsWrapper on two channels of a solenoid bank.
+     * @param bank The bank the solenoids are on
+     * @param inChannel The channel of the input solenoid.
+     * @param outChannel The channel of the output solenoid.
+     * @param name The name to audit the pair under
+     */
+    public PneumaticsWrapper(SolenoidBank bank, int inChannel, int outChannel, String name) {
+        this.in = bank.channel(inChannel, name + " in");
+        this.out = bank.channel(outChannel, name + " out");
     }
     
     /**
@@ -0,0 +1,164 @@
+package org.harker.robotics.harkerrobolib.wrappers;
+
+import java.io.PrintStream;
+
+import org.harker.robotics.harkerrobolib.hal.Hardware;
+import org.harker.robotics.harkerrobolib.hal.SolenoidOutput;
+import org.harker.robotics.harkerrobolib.util.TelemetryChannel;
+import org.harker.robotics.harkerrobolib.util.TelemetryPublisher;
+
+/**
+ * The solenoids on one pneumatics module, written together. Each channel is
+ * handed out as a {@link SolenoidOutput} which only remembers the state asked
+ * of it, and {@link #flush()}, called once per periodic call, writes the
+ * channels whose state differs from what was last written and nothing else.
+ * Asking for the state a channel already has, or changing it and back before
+ * the flush, costs no write at all, and a channel's get() answers from the
+ * remembered state instead of asking the module.
+ * 
+ * Every flushed change is an actuation. The bank counts the actuations and
+ * the requests for each channel, which shows up a command that fires a valve
+ * more often than it should; the actuations are also put on the SmartDashboard.
+ * 
+ * A bank, and every channel from it, belongs to one thread.
+ */
+public class SolenoidBank {
+    
+    //Channels on a pneumatics control module
+    public static final int CHANNELS = 8;
+    
+    private final SolenoidOutput[] solenoids = new SolenoidOutput[CHANNELS];
+    private final String[] names = new String[CHANNELS];
+    private final TelemetryChannel[] actuationTelemetry = new TelemetryChannel[CHANNELS];
+    //One bit per channel: which are in use, the state asked for and the state last written
+    private int used;
+    private int requested;
+    private int written;
+    //Channels to write at the next flush even if unchanged, since the module may have lost its state
+    private int stale;
+    
+    private final long[] requests = new long[CHANNELS];
+    private final long[] actuations = new long[CHANNELS];
+    private long flushes;
+    
+    /**
+     * Creates a channel of the bank, off until it is set.
+     * @param channel The channel on the module, from 0 to {@link #CHANNELS} - 1
+     * @param name The name to audit the channel under
+     * @return The channel
+     */
+    public SolenoidOutput channel(int channel, String name) {
+        if (channel < 0 || channel >= CHANNELS) throw new RuntimeException("Solenoid channel out of range: " + channel);
+        if ((used & (1 << channel)) != 0) throw new RuntimeException("Solenoid channel already in use: " + channel);
+        solenoids[channel] = Hardware.getFactory().createSolenoid(channel);
+        names[channel] = name;
+        actuationTelemetry[channel] = TelemetryPublisher.number("Solenoid " + name + " actuations");
+        used |= 1 << channel;
+        return new Channel(1 << channel, channel);
+    }
+    
+    /**
+     * Writes every channel whose requested state differs from the last one
+     * written. Call once per periodic call, after the commands have run.
+     */
+    public void flush() {
+        int changed = ((requested ^ written) | stale) & used;
+        if (changed == 0)
+            return;
+        for (int i = 0; i < CHANNELS; i++) {
+            int bit = 1 << i;
+            if ((changed & bit) == 0)
+                continue;
+            boolean on = (requested & bit) != 0;
+            solenoids[i].set(on);
+            if (((written ^ requested) & bit) != 0) {
+                actuations[i]++;
+                actuationTelemetry[i].set(actuations[i]);
+            }
+        }
+        written = requested;
+        stale = 0;
+        flushes++;
+    }
+    
+    /**
+     * Makes the next flush write every channel in use, for when the module may
+     * no longer hold what was written to it (such as after it loses power).
+     */
+    public void invalidate() {
+        stale = used;
+    }
+    
+    /**
+     * Turns every channel off as though the module had just been powered on,
+     * and makes the next flush write them all. The counts are kept.
+     */
+    public void reset() {
+        requested = 0;
+        written = 0;
+        stale = used;
+    }
+    
+    /**
+     * Gets the number of times a channel has changed state.
+     * @param channel The channel on the module
+     * @return The number of actuations
+     */
+    public long getActuations(int channel) {
+        return actuations[channel];
+    }
+    
+    /**
+     * Gets the number of times a channel has been set, changed or not.
+     * @param channel The channel on the module
+     * @return The number of requests
+     */
+    public long getRequests(int channel) {
+        return requests[channel];
+    }
+    
+    /**
+     * Gets the number of flushes which wrote anything.
+     * @return The number of writes to the module
+     */
+    public long getFlushes() {
+        return flushes;
+    }
+    
+    /**
+     * Prints a table of each channel's requests and actuations.
+     * @param out Where to print the table
+     */
+    public void printReport(PrintStream out) {
+        out.println(String.format("%-28s %9s %9s %9s", "Solenoid", "channel", "requests", "actuated"));
+        for (int i = 0; i < CHANNELS; i++)
+            if ((used & (1 << i)) != 0)
+                out.println(String.format("%-28s %9d %9d %9d", names[i], i, requests[i], actuations[i]));
+        out.println(String.format("%-28s %9s %9s %9d", "Module writes", "", "", flushes));
+    }
+    
+    /**
+     * One channel, which keeps its state in the bank until the next flush.
+     */
+    private class Channel implements SolenoidOutput {
+        private final int bit;
+        private final int index;
+        
+        private Channel(int bit, int index) {
+            this.bit = bit;
+            this.index = index;
+        }
+        
+        public void set(boolean on) {
+            requests[index]++;
+            if (on)
+                requested |= bit;
+            else
+                requested &= ~bit;
+        }
+        
+        public boolean get() {
+            return (requested & bit) != 0;
+        }
+    }
+}
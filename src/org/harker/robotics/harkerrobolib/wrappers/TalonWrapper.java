@@ -1,13 +1,19 @@
 package org.harker.robotics.harkerrobolib.wrappers;
 
-import edu.wpi.first.wpilibj.Talon;
+import org.harker.robotics.harkerrobolib.hal.Hardware;
+import org.harker.robotics.harkerrobolib.hal.MotorOutput;
+
+import edu.wpi.first.wpilibj.SpeedController;
 
 /**
- * A wrapper for Talons to enable quick switching of reversed motors.
+ * A wrapper for Talons to enable quick switching of reversed motors. The
+ * underlying motor is created through the {@link Hardware} factory, so the
+ * wrapper works the same on the robot and in simulation.
  * @author atierno
  */
-public class TalonWrapper extends Talon{
+public class TalonWrapper implements SpeedController {
     
+    private final MotorOutput motor;
     private boolean isReversed = false;
     private double scale = 1;
     
@@ -16,7 +22,7 @@ public class TalonWrapper extends Talon{
      * @param channel The PWM channel on the digital module the Talon is attached to.
      */
     public TalonWrapper (int channel) {
-        super(channel);
+        motor = Hardware.getFactory().createMotor(channel);
     }
     
     /**
@@ -25,7 +31,7 @@ public class TalonWrapper extends Talon{
      * @param isReversed Whether or not the output of this Talon should be flipped.
      */
     public TalonWrapper (int channel, boolean isReversed) {
-        super(channel);
+        this(channel);
         this.isReversed = isReversed;
     }
 
@@ -44,7 +50,40 @@ public class TalonWrapper extends Talon{
      */
     public void set (double speed) {
         speed *= scale;
-        super.set(isReversed ? -speed : speed);
+        motor.set(isReversed ? -speed : speed);
+    }
+    
+    /**
+     * Sets the speed of the Talon (handles reversing). Talons do not support
+     * sync groups, so the group is ignored.
+     * @param speed The speed to set the Talon.
+     * @param syncGroup Unused.
+     */
+    public void set (double speed, byte syncGroup) {
+        set(speed);
+    }
+    
+    /**
+     * Gets the speed last sent to the Talon.
+     * @return The speed, after scaling and reversing.
+     */
+    public double get () {
+        return motor.get();
+    }
+    
+    /**
+     * Stops the Talon.
+     */
+    public void disable () {
+        motor.set(0);
+    }
+    
+    /**
+     * Writes the output of a PID loop to the Talon.
+     * @param output The speed to set the Talon.
+     */
+    public void pidWrite (double output) {
+        set(output);
     }
     
     /**
@@ -0,0 +1,109 @@
+package org.harker.robotics.sim;
+
+import java.util.Random;
+
+import org.harker.robotics.subsystems.Drivetrain;
+import org.harker.robotics.subsystems.Manipulator;
+
+/**
+ * One simulated robot which plays autonomous periods under randomized
+ * conditions. A trial owns the robot's static state (the subsystems, the
+ * Scheduler and the installed hardware), so the {@link MonteCarloRunner}
+ * loads each one in its own class loader and only talks to it through
+ * {@link #run(String, long)}, whose arguments and result are plain Java types.
+ * 
+ * Between runs the robot is disabled, which cancels its commands, the world
+ * is reset to its power-on state, and so is what the subsystems remember:
+ * the drivetrain's acceleration limit, PID loop and pose, and the clamps and
+ * height filter of the manipulator. Each run therefore starts from the same
+ * place no matter what ran before it, and a seed always gives the same result
+ * whichever runs shared its robot.
+ */
+public class AutonomousTrial {
+	
+	//Indices into the result of run()
+	public static final int RESULT_X = 0;
+	public static final int RESULT_Y = 1;
+	public static final int RESULT_HEADING = 2;
+	public static final int RESULT_ELEVATOR_HEIGHT = 3;
+	public static final int RESULT_BATTERY_VOLTAGE = 4;
+	public static final int RESULT_TRACTION = 5;
+	public static final int RESULT_GYRO_DRIFT = 6;
+	public static final int RESULT_LENGTH = 7;
+	
+	//Battery voltage at the start of a match: mean and standard deviation, in volts
+	public static final double BATTERY_MEAN = 12.5;
+	public static final double BATTERY_STDEV = 0.35;
+	public static final double BATTERY_MIN = 11.0;
+	public static final double BATTERY_MAX = 13.2;
+	
+	//Carpet traction: the whole field varies, and each wheel slips a little more or less
+	public static final double TRACTION_STDEV = 0.1;
+	public static final double WHEEL_TRACTION_SPREAD = 0.15;
+	
+	//Gyro drift, in degrees per second
+	public static final double GYRO_DRIFT_STDEV = 0.25;
+	
+	//How long the robot sits disabled between runs, in seconds
+	private static final double DISABLED_TIME = 0.5;
+	
+	private final HeadlessRobot robot;
+	
+	/**
+	 * Creates and initializes the robot. NetworkTables is left in client mode
+	 * so that many trials can exist on one machine.
+	 */
+	public AutonomousTrial() {
+		robot = new HeadlessRobot(false);
+		robot.robotInit();
+	}
+	
+	/**
+	 * Plays one autonomous period.
+	 * @param mode The autonomous mode to run
+	 * @param seed The seed for the random conditions; the same seed gives the same result
+	 * @return The end of the run, indexed by the RESULT_ constants
+	 */
+	public double[] run(String mode, long seed) {
+		Random random = new Random(seed);
+		Simulation sim = robot.getSimulation();
+		DrivetrainModel drivetrain = sim.getDrivetrain();
+		
+		double battery = BATTERY_MEAN + BATTERY_STDEV * random.nextGaussian();
+		if (battery < BATTERY_MIN) battery = BATTERY_MIN;
+		else if (battery > BATTERY_MAX) battery = BATTERY_MAX;
+		double traction = DrivetrainModel.TRACTION * (1 + TRACTION_STDEV * random.nextGaussian());
+		double drift = GYRO_DRIFT_STDEV * random.nextGaussian();
+		
+		robot.runDisabled(DISABLED_TIME);
+		sim.reset();
+		//And so the robot's own memory of it, such as which clamps it last closed
+		Drivetrain.getInstance().resetState();
+		Manipulator.getInstance().resetState();
+		sim.setBatteryVoltage(battery);
+		drivetrain.setTraction(traction * wheelTraction(random), traction * wheelTraction(random),
+				traction * wheelTraction(random), traction * wheelTraction(random));
+		drivetrain.setGyroDrift(drift);
+		
+		robot.runAutonomous(mode, HeadlessRobot.AUTONOMOUS_TIME);
+		
+		double[] result = new double[RESULT_LENGTH];
+		result[RESULT_X] = drivetrain.getX();
+		result[RESULT_Y] = drivetrain.getY();
+		result[RESULT_HEADING] = drivetrain.getHeading();
+		result[RESULT_ELEVATOR_HEIGHT] = sim.getElevator().getHeight();
+		result[RESULT_BATTERY_VOLTAGE] = battery;
+		result[RESULT_TRACTION] = traction;
+		result[RESULT_GYRO_DRIFT] = drift;
+		return result;
+	}
+	
+	/**
+	 * Picks how much of the field's traction one wheel gets.
+	 * @param random The source of randomness for the run
+	 * @return A factor between 1 - WHEEL_TRACTION_SPREAD and 1
+	 */
+	private static double wheelTraction(Random random) {
+		return 1 - WHEEL_TRACTION_SPREAD * random.nextDouble();
+	}
+}
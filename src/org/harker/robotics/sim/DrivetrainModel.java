@@ -0,0 +1,284 @@
+package org.harker.robotics.sim;
+
+import org.harker.robotics.RobotMap;
+import org.harker.robotics.harkerrobolib.sim.SimEncoder;
+import org.harker.robotics.harkerrobolib.sim.SimGyro;
+import org.harker.robotics.harkerrobolib.sim.SimMotor;
+import org.harker.robotics.harkerrobolib.sim.SimulatedHardwareFactory;
+
+/**
+ * A rigid-body model of the four-wheel mecanum drivetrain. Each wheel is
+ * driven by a CIM through a gearbox with a linear torque-speed curve, its
+ * force is limited by the traction of the carpet, and the summed forces move
+ * the chassis in the robot frame. The pose is integrated in the field frame
+ * and the heading is reported through the simulated gyro. Each wheel's
+ * encoder counts the distance its surface has rolled, which, because the
+ * rollers slip, is further than the chassis moves while strafing.
+ * 
+ * Conventions: the robot frame has forward and right positive, rotation is
+ * clockwise positive (as the gyro reports it) and a positive wheel command
+ * drives that wheel forward. The field frame has the robot starting at the
+ * origin facing +y. Lengths are in meters and headings in degrees.
+ * 
+ * While the robot is disabled the motor controllers receive no signal, so the
+ * wheels are not driven whatever the robot code commands.
+ */
+public class DrivetrainModel {
+	
+	//Chassis
+	public static final double MASS = 54;					//kg, a full robot with battery
+	public static final double MOMENT_OF_INERTIA = 3.8;		//kg m^2
+	public static final double HALF_TRACK = 0.29;			//m, center to wheel, side to side
+	public static final double HALF_BASE = 0.33;			//m, center to wheel, front to back
+	public static final double K = HALF_TRACK + HALF_BASE;
+	
+	//One CIM per wheel through a 10.71:1 gearbox on a 6" wheel
+	public static final double NOMINAL_VOLTAGE = 12;
+	public static final double WHEEL_RADIUS = 0.0762;		//m
+	public static final double FREE_SPEED = 3.96;			//m/s at the wheel surface
+	public static final double STALL_FORCE = 340;			//N at the wheel surface
+	public static final double ENCODER_COUNTS = 1440;		//per wheel revolution, 360 lines decoded 4x
+	
+	//Losses
+	public static final double TRACTION = 1.1;				//coefficient of friction on carpet
+	public static final double STRAFE_EFFICIENCY = 0.7;		//rollers waste some force and speed sideways
+	public static final double LINEAR_DAMPING = 8;			//N per m/s
+	public static final double ROTATIONAL_SCRUB = 100;		//N m per rad/s
+	public static final double GRAVITY = 9.81;
+	
+	private final SimulatedHardwareFactory hardware;
+	private SimMotor frontLeft, frontRight, rearLeft, rearRight;
+	private SimGyro gyro;
+	//Front left, front right, rear left, rear right; null on a robot without drive encoders
+	private final SimEncoder[] encoders = new SimEncoder[4];
+	//How far each wheel's surface has rolled forward, in meters
+	private final double[] wheelTravel = new double[4];
+	
+	private double batteryVoltage = NOMINAL_VOLTAGE;
+	private boolean enabled = true;
+	
+	//Coefficient of friction under each wheel: front left, front right, rear left, rear right
+	private final double[] traction = {TRACTION, TRACTION, TRACTION, TRACTION};
+	
+	//How fast the gyro's reading wanders from the true heading, and how far it has wandered
+	private double gyroDrift;
+	private double gyroError;
+	
+	//Robot frame velocities
+	private double vForward, vStrafe, omega;
+	
+	//Field frame pose
+	private double x, y, heading;
+	
+	/**
+	 * Creates a new drivetrain model at rest at the origin.
+	 * @param hardware The simulated hardware holding the drive motors and gyro
+	 */
+	public DrivetrainModel(SimulatedHardwareFactory hardware) {
+		this.hardware = hardware;
+	}
+	
+	/**
+	 * Advances the model by one time step.
+	 * @param dt The length of the step in seconds
+	 */
+	public void update(double dt) {
+		if (!findDevices())
+			return;
+		
+		double supply = enabled ? batteryVoltage / NOMINAL_VOLTAGE : 0;
+		//The right side motors are mounted mirrored
+		double cmdFL = frontLeft.get() * supply;
+		double cmdFR = -frontRight.get() * supply;
+		double cmdRL = rearLeft.get() * supply;
+		double cmdRR = -rearRight.get() * supply;
+		
+		//Mecanum inverse kinematics: wheel surface speeds from the chassis velocity.
+		//The rollers slip when strafing, so the wheels turn faster than the chassis moves.
+		double kw = K * omega;
+		double vs = vStrafe / STRAFE_EFFICIENCY;
+		double fFL = wheelForce(cmdFL, vForward + vs + kw, traction[0]);
+		double fFR = wheelForce(cmdFR, vForward - vs - kw, traction[1]);
+		double fRL = wheelForce(cmdRL, vForward - vs + kw, traction[2]);
+		double fRR = wheelForce(cmdRR, vForward + vs - kw, traction[3]);
+		
+		double forward = fFL + fFR + fRL + fRR - LINEAR_DAMPING * vForward;
+		double strafe = (fFL - fFR - fRL + fRR) * STRAFE_EFFICIENCY - LINEAR_DAMPING * vStrafe;
+		double torque = K * (fFL - fFR + fRL - fRR) - ROTATIONAL_SCRUB * omega;
+		
+		vForward += forward / MASS * dt;
+		vStrafe += strafe / MASS * dt;
+		omega += torque / MOMENT_OF_INERTIA * dt;
+		
+		double h = Math.toRadians(heading);
+		double sin = Math.sin(h), cos = Math.cos(h);
+		x += (vForward * sin + vStrafe * cos) * dt;
+		y += (vForward * cos - vStrafe * sin) * dt;
+		heading += Math.toDegrees(omega) * dt;
+		
+		kw = K * omega;
+		vs = vStrafe / STRAFE_EFFICIENCY;
+		updateEncoder(0, vForward + vs + kw, dt, 1);
+		updateEncoder(1, vForward - vs - kw, dt, -1);
+		updateEncoder(2, vForward - vs + kw, dt, 1);
+		updateEncoder(3, vForward + vs - kw, dt, -1);
+		
+		gyroError += gyroDrift * dt;
+		gyro.update(heading + gyroError, Math.toDegrees(omega) + gyroDrift);
+	}
+	
+	/**
+	 * Calculates the force a wheel applies to the carpet.
+	 * @param command The effective command to the motor, scaled by the battery voltage
+	 * @param surfaceSpeed The current speed of the wheel surface in m/s
+	 * @param mu The coefficient of friction under the wheel
+	 * @return The force in N, limited by traction
+	 */
+	private double wheelForce(double command, double surfaceSpeed, double mu) {
+		double force = STALL_FORCE * (command - surfaceSpeed / FREE_SPEED);
+		double limit = mu * MASS * GRAVITY / 4;
+		if (force > limit) return limit;
+		if (force < -limit) return -limit;
+		return force;
+	}
+	
+	/**
+	 * Rolls a wheel on and sets its encoder to match.
+	 * @param wheel The index of the wheel
+	 * @param surfaceSpeed The speed of the wheel surface in m/s, forward positive
+	 * @param dt The length of the step in seconds
+	 * @param direction 1, or -1 for an encoder mounted mirrored
+	 */
+	private void updateEncoder(int wheel, double surfaceSpeed, double dt, int direction) {
+		wheelTravel[wheel] += surfaceSpeed * dt;
+		if (encoders[wheel] == null)
+			return;
+		double countsPerMeter = ENCODER_COUNTS / (2 * Math.PI * WHEEL_RADIUS);
+		int count = (int) Math.floor(wheelTravel[wheel] * countsPerMeter * direction);
+		encoders[wheel].update(count, surfaceSpeed * countsPerMeter * direction);
+	}
+	
+	/**
+	 * Looks up the motors, gyro and encoders, which only exist once the
+	 * Drivetrain has been initialized.
+	 * @return Whether or not all of the devices exist
+	 */
+	private boolean findDevices() {
+		if (gyro != null)
+			return true;
+		frontLeft = hardware.getMotor(RobotMap.Drivetrain.LEFT_FRONT_TALON_PORT);
+		frontRight = hardware.getMotor(RobotMap.Drivetrain.RIGHT_FRONT_TALON_PORT);
+		rearLeft = hardware.getMotor(RobotMap.Drivetrain.LEFT_BACK_TALON_PORT);
+		rearRight = hardware.getMotor(RobotMap.Drivetrain.RIGHT_BACK_TALON_PORT);
+		SimGyro g = hardware.getGyro(RobotMap.Drivetrain.GYRO_PORT);
+		if (frontLeft == null || frontRight == null || rearLeft == null || rearRight == null || g == null)
+			return false;
+		gyro = g;
+		encoders[0] = hardware.getEncoder(RobotMap.Drivetrain.LEFT_FRONT_ENCODER_A_PORT);
+		encoders[1] = hardware.getEncoder(RobotMap.Drivetrain.RIGHT_FRONT_ENCODER_A_PORT);
+		encoders[2] = hardware.getEncoder(RobotMap.Drivetrain.LEFT_BACK_ENCODER_A_PORT);
+		encoders[3] = hardware.getEncoder(RobotMap.Drivetrain.RIGHT_BACK_ENCODER_A_PORT);
+		return true;
+	}
+	
+	/**
+	 * Sets the voltage of the battery which powers the motors.
+	 * @param volts The battery voltage
+	 */
+	public void setBatteryVoltage(double volts) {
+		batteryVoltage = volts;
+	}
+	
+	/**
+	 * Sets whether the motor controllers are receiving a signal, which they
+	 * only do while the robot is enabled.
+	 * @param enabled Whether or not the robot is enabled
+	 */
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+	
+	/**
+	 * Sets the coefficient of friction under each wheel. Lower values let
+	 * that wheel slip sooner, and unequal values make the robot veer.
+	 * @param frontLeft The coefficient under the front left wheel
+	 * @param frontRight The coefficient under the front right wheel
+	 * @param rearLeft The coefficient under the rear left wheel
+	 * @param rearRight The coefficient under the rear right wheel
+	 */
+	public void setTraction(double frontLeft, double frontRight, double rearLeft, double rearRight) {
+		traction[0] = frontLeft;
+		traction[1] = frontRight;
+		traction[2] = rearLeft;
+		traction[3] = rearRight;
+	}
+	
+	/**
+	 * Sets how fast the gyro drifts. The drift adds to both the angle and the
+	 * rate the gyro reports, but not to the true heading.
+	 * @param degreesPerSecond The drift rate, clockwise positive
+	 */
+	public void setGyroDrift(double degreesPerSecond) {
+		gyroDrift = degreesPerSecond;
+	}
+	
+	/**
+	 * Puts the robot back at rest at the origin facing +y, with no gyro error.
+	 * The traction, drift and battery voltage are left as they are.
+	 */
+	public void reset() {
+		vForward = vStrafe = omega = 0;
+		x = y = heading = 0;
+		gyroError = 0;
+		for (int i = 0; i < wheelTravel.length; i++)
+			wheelTravel[i] = 0;
+	}
+	
+	/**
+	 * Gets the x position of the robot on the field.
+	 * @return The x position in meters
+	 */
+	public double getX() {
+		return x;
+	}
+	
+	/**
+	 * Gets the y position of the robot on the field.
+	 * @return The y position in meters
+	 */
+	public double getY() {
+		return y;
+	}
+	
+	/**
+	 * Gets the true heading of the robot.
+	 * @return The heading in degrees, clockwise positive
+	 */
+	public double getHeading() {
+		return heading;
+	}
+	
+	/**
+	 * Gets the forward velocity of the robot.
+	 * @return The velocity in m/s
+	 */
+	public double getForwardVelocity() {
+		return vForward;
+	}
+	
+	/**
+	 * Gets the rightward velocity of the robot.
+	 * @return The velocity in m/s
+	 */
+	public double getStrafeVelocity() {
+		return vStrafe;
+	}
+	
+	/**
+	 * Gets the rotational velocity of the robot.
+	 * @return The rate in degrees per second, clockwise positive
+	 */
+	public double getRotationalRate() {
+		return Math.toDegrees(omega);
+	}
+}
@@ -0,0 +1,160 @@
+package org.harker.robotics.sim;
+
+import org.harker.robotics.RobotMap;
+import org.harker.robotics.harkerrobolib.sim.SimAnalogInput;
+import org.harker.robotics.harkerrobolib.sim.SimDigitalInput;
+import org.harker.robotics.harkerrobolib.sim.SimMotor;
+import org.harker.robotics.harkerrobolib.sim.SimulatedHardwareFactory;
+
+/**
+ * A model of the tote elevator: a carriage (plus whatever it is carrying)
+ * lifted against gravity by a geared motor with a linear torque-speed curve.
+ * The gearbox does not backdrive, so the carriage holds its height when the
+ * motor is stopped. Hard stops at either end of travel press the limit
+ * switches, which read <code>false</code> when pressed.
+ * 
+ * Heights are in inches as measured by the range finder, so the bottom of
+ * travel reads {@link #MIN_HEIGHT}. The range finder reads 0 V there and
+ * {@link #RANGE_FINDER_VOLTS_PER_INCH} more for every inch above it.
+ * 
+ * While the robot is disabled the motor controller receives no signal, so
+ * the carriage holds where it is.
+ */
+public class ElevatorModel {
+	
+	public static final double MIN_HEIGHT = 8.5;			//in
+	public static final double MAX_HEIGHT = 70;				//in
+	//How far from the hard stop a limit switch closes
+	public static final double SWITCH_TRAVEL = 0.25;		//in
+	//An analog sonar range finder reads 5 V at 512 in
+	public static final double RANGE_FINDER_VOLTS_PER_INCH = 5.0 / 512;
+	
+	public static final double NOMINAL_VOLTAGE = 12;
+	public static final double CARRIAGE_MASS = 8;			//kg
+	public static final double REFLECTED_MASS = 20;			//kg, the motor and gearbox inertia
+	public static final double FREE_SPEED = 1.0;			//m/s
+	public static final double STALL_FORCE = 1500;			//N
+	public static final double GRAVITY = 9.81;
+	
+	private static final double METERS_PER_INCH = 0.0254;
+	
+	private final SimulatedHardwareFactory hardware;
+	private SimMotor motor;
+	private SimDigitalInput lowSwitch, highSwitch;
+	private SimAnalogInput rangeFinder;
+	
+	private double batteryVoltage = NOMINAL_VOLTAGE;
+	private double loadMass;
+	private boolean enabled = true;
+	
+	private double height = MIN_HEIGHT;
+	private double velocity;
+	
+	/**
+	 * Creates a new elevator model resting at the bottom of travel.
+	 * @param hardware The simulated hardware holding the elevator motor and limit switches
+	 */
+	public ElevatorModel(SimulatedHardwareFactory hardware) {
+		this.hardware = hardware;
+	}
+	
+	/**
+	 * Advances the model by one time step.
+	 * @param dt The length of the step in seconds
+	 */
+	public void update(double dt) {
+		if (!findDevices())
+			return;
+		
+		double command = enabled ? motor.get() * batteryVoltage / NOMINAL_VOLTAGE : 0;
+		if (command == 0) {
+			velocity = 0;
+		} else {
+			double mass = CARRIAGE_MASS + loadMass;
+			double speed = velocity * METERS_PER_INCH;
+			double force = STALL_FORCE * (command - speed / FREE_SPEED) - mass * GRAVITY;
+			velocity += force / (mass + REFLECTED_MASS) * dt / METERS_PER_INCH;
+		}
+		
+		height += velocity * dt;
+		if (height <= MIN_HEIGHT) {
+			height = MIN_HEIGHT;
+			velocity = 0;
+		} else if (height >= MAX_HEIGHT) {
+			height = MAX_HEIGHT;
+			velocity = 0;
+		}
+		
+		lowSwitch.set(height > MIN_HEIGHT + SWITCH_TRAVEL);
+		highSwitch.set(height < MAX_HEIGHT - SWITCH_TRAVEL);
+		rangeFinder.set((height - MIN_HEIGHT) * RANGE_FINDER_VOLTS_PER_INCH);
+	}
+	
+	/**
+	 * Looks up the motor, switches and range finder, which only exist once the Manipulator
+	 * has been initialized.
+	 * @return Whether or not all of the devices exist
+	 */
+	private boolean findDevices() {
+		if (highSwitch != null)
+			return true;
+		motor = hardware.getMotor(RobotMap.Manipulator.ELEVATOR_TALON_PORT);
+		lowSwitch = hardware.getDigitalInput(RobotMap.Manipulator.LIMIT_SWITCH_LOW_PORT);
+		rangeFinder = hardware.getAnalogInput(RobotMap.Manipulator.RANGE_FINDER_PORT);
+		SimDigitalInput high = hardware.getDigitalInput(RobotMap.Manipulator.LIMIT_SWITCH_HIGH_PORT);
+		if (motor == null || lowSwitch == null || rangeFinder == null || high == null)
+			return false;
+		highSwitch = high;
+		return true;
+	}
+	
+	/**
+	 * Sets the voltage of the battery which powers the motor.
+	 * @param volts The battery voltage
+	 */
+	public void setBatteryVoltage(double volts) {
+		batteryVoltage = volts;
+	}
+	
+	/**
+	 * Sets the mass of whatever the elevator is carrying.
+	 * @param kg The mass of the load in kilograms
+	 */
+	public void setLoadMass(double kg) {
+		loadMass = kg;
+	}
+	
+	/**
+	 * Sets whether the motor controller is receiving a signal, which it only
+	 * does while the robot is enabled.
+	 * @param enabled Whether or not the robot is enabled
+	 */
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+	
+	/**
+	 * Puts the carriage back at rest at the bottom of travel. The load and
+	 * battery voltage are left as they are.
+	 */
+	public void reset() {
+		height = MIN_HEIGHT;
+		velocity = 0;
+	}
+	
+	/**
+	 * Gets the height of the carriage.
+	 * @return The height in inches
+	 */
+	public double getHeight() {
+		return height;
+	}
+	
+	/**
+	 * Gets the velocity of the carriage.
+	 * @return The velocity in inches per second, up positive
+	 */
+	public double getVelocity() {
+		return velocity;
+	}
+}
@@ -0,0 +1,185 @@
+package org.harker.robotics.sim;
+
+import java.io.File;
+
+import org.harker.robotics.RobotCore;
+import org.harker.robotics.RobotMap;
+import org.harker.robotics.commands.AutonomousCommand;
+import org.harker.robotics.harkerrobolib.sim.SimJoystick;
+import org.harker.robotics.harkerrobolib.sim.SimRuntime;
+import org.harker.robotics.harkerrobolib.util.LoopTimer;
+import org.harker.robotics.harkerrobolib.wrappers.GamepadWrapper;
+import org.harker.robotics.subsystems.Drivetrain;
+import org.harker.robotics.subsystems.Manipulator;
+
+/**
+ * Runs the robot's full lifecycle (robotInit, disabled, autonomous, teleop)
+ * on a plain JVM against the simulated hardware and physics. Each periodic
+ * call is followed by one driver station packet (20 ms) of simulated time,
+ * which runs as fast as the host allows.
+ * 
+ * Usage: <code>java org.harker.robotics.sim.HeadlessRobot [teleopSeconds] [recording]</code>
+ * where recording is a file to keep a flight recording in (see {@link org.harker.robotics.FlightLog}).
+ */
+public class HeadlessRobot {
+	
+	//The period of the driver station packets, in seconds
+	public static final double PERIOD = 0.02;
+	
+	//The length of the autonomous period, in seconds
+	public static final double AUTONOMOUS_TIME = 15;
+	
+	private final Simulation sim;
+	private final RobotCore core;
+	
+	private long ticks;
+	private long totalNanos;
+	private long maxNanos;
+	
+	/**
+	 * Installs the simulated hardware and runtime and creates the robot,
+	 * serving its SmartDashboard from this machine.
+	 */
+	public HeadlessRobot() {
+		this(true);
+	}
+	
+	/**
+	 * Installs the simulated hardware and runtime and creates the robot. Only
+	 * one HeadlessRobot may be created per class loader, as the subsystems,
+	 * the Scheduler and the installed hardware are all static.
+	 * @param serveDashboard Whether to serve the SmartDashboard from this machine
+	 */
+	public HeadlessRobot(boolean serveDashboard) {
+		sim = new Simulation();
+		sim.install(serveDashboard);
+		core = new RobotCore();
+	}
+	
+	/**
+	 * Initializes the robot and leaves it disabled for a moment, as happens
+	 * while waiting for a match to start.
+	 */
+	public void robotInit() {
+		core.robotInit();
+		runDisabled(10 * PERIOD);
+	}
+	
+	/**
+	 * Starts a flight recording. Must be called after {@link #robotInit()}.
+	 * @param file The file to record into
+	 */
+	public void startRecording(File file) {
+		core.startRecording(file);
+	}
+	
+	/**
+	 * Disables the robot for a while. Every command which may not run while
+	 * disabled is cancelled at the next periodic call.
+	 * @param seconds How long to stay disabled
+	 */
+	public void runDisabled(double seconds) {
+		SimRuntime.setMode(SimRuntime.MODE_DISABLED);
+		core.disabledInit();
+		for (double t = 0; t < seconds; t += PERIOD) {
+			long start = System.nanoTime();
+			core.disabledPeriodic();
+			tock(start);
+		}
+	}
+	
+	/**
+	 * Runs the autonomous period in the default mode.
+	 * @param seconds The length of the autonomous period
+	 */
+	public void runAutonomous(double seconds) {
+		runAutonomous(AutonomousCommand.DEFAULT_MODE, seconds);
+	}
+	
+	/**
+	 * Runs the autonomous period.
+	 * @param mode The autonomous mode to run
+	 * @param seconds The length of the autonomous period
+	 */
+	public void runAutonomous(String mode, double seconds) {
+		SimRuntime.setMode(SimRuntime.MODE_AUTONOMOUS);
+		core.autonomousInit(mode);
+		for (double t = 0; t < seconds; t += PERIOD) {
+			long start = System.nanoTime();
+			core.autonomousPeriodic();
+			tock(start);
+		}
+	}
+	
+	/**
+	 * Runs operator control, driving forward for the first half and then stopping.
+	 * @param seconds The length of operator control
+	 */
+	public void runTeleop(double seconds) {
+		SimRuntime.setMode(SimRuntime.MODE_TELEOP);
+		core.teleopInit();
+		SimJoystick gamepad = sim.getHardware().getJoystick(RobotMap.OI.GAMEPAD_PORT);
+		for (double t = 0; t < seconds; t += PERIOD) {
+			gamepad.setRawAxis(GamepadWrapper.XBOX_AXIS_LEFT_Y, (t < seconds / 2) ? -0.5 : 0);
+			long start = System.nanoTime();
+			core.teleopPeriodic();
+			tock(start);
+		}
+		SimRuntime.setMode(SimRuntime.MODE_DISABLED);
+		core.disabledInit();
+	}
+	
+	/**
+	 * Records how long a periodic call took and then advances the simulation
+	 * to the next driver station packet.
+	 * @param start The time the periodic call started, from System.nanoTime()
+	 */
+	private void tock(long start) {
+		long elapsed = System.nanoTime() - start;
+		ticks++;
+		totalNanos += elapsed;
+		if (elapsed > maxNanos) maxNanos = elapsed;
+		sim.step(PERIOD);
+	}
+	
+	/**
+	 * Gets the simulation the robot is running in.
+	 * @return The simulation
+	 */
+	public Simulation getSimulation() {
+		return sim;
+	}
+	
+	/**
+	 * Prints how long the periodic calls took and where the robot ended up.
+	 */
+	public void printSummary() {
+		DrivetrainModel drive = sim.getDrivetrain();
+		System.out.println("Simulated time (s): " + sim.getClock().getTime());
+		System.out.println("Periodic calls: " + ticks);
+		System.out.println("Mean periodic time (us): " + (ticks == 0 ? 0 : totalNanos / ticks / 1000));
+		System.out.println("Max periodic time (us): " + maxNanos / 1000);
+		System.out.println("Final pose (m, m, deg): " + drive.getX() + ", " + drive.getY() + ", " + drive.getHeading());
+		System.out.println("Odometry pose (m, m, deg): " + Drivetrain.getInstance().getPose());
+		System.out.println("Final elevator height (in): " + sim.getElevator().getHeight());
+		System.out.println();
+		LoopTimer.printReport(System.out);
+		System.out.println();
+		Manipulator.getInstance().getSolenoids().printReport(System.out);
+	}
+	
+	public static void main(String[] args) {
+		double teleopSeconds = (args.length > 0) ? Double.parseDouble(args[0]) : 10;
+		HeadlessRobot robot = new HeadlessRobot();
+		long start = System.nanoTime();
+		robot.robotInit();
+		if (args.length > 1)
+			robot.startRecording(new File(args[1]));
+		robot.runAutonomous(AUTONOMOUS_TIME);
+		robot.runTeleop(teleopSeconds);
+		System.out.println("Wall time (ms): " + (System.nanoTime() - start) / 1000000);
+		robot.printSummary();
+		//NetworkTables threads are not daemons
+		System.exit(0);
+	}
+}
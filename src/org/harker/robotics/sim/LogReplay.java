@@ -0,0 +1,309 @@
+package org.harker.robotics.sim;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+
+import org.harker.robotics.FlightLog;
+import org.harker.robotics.RobotCore;
+import org.harker.robotics.RobotMap;
+import org.harker.robotics.commands.AutonomousCommand;
+import org.harker.robotics.harkerrobolib.sim.SimAnalogInput;
+import org.harker.robotics.harkerrobolib.sim.SimDigitalInput;
+import org.harker.robotics.harkerrobolib.sim.SimEncoder;
+import org.harker.robotics.harkerrobolib.sim.SimGyro;
+import org.harker.robotics.harkerrobolib.sim.SimJoystick;
+import org.harker.robotics.harkerrobolib.sim.SimRuntime;
+import org.harker.robotics.harkerrobolib.util.FlightRecordDecoder;
+import org.harker.robotics.subsystems.Drivetrain;
+import org.harker.robotics.subsystems.Manipulator;
+
+/**
+ * Plays a flight recording (see {@link FlightLog}) back through the robot code
+ * against the simulated hardware and compares what the code does now with
+ * what it did then. Each record's driver inputs are put on the simulated
+ * gamepad, the robot enters the recorded mode, the periodic method for that
+ * mode runs, and the outputs are compared with the record's. The clock then
+ * advances to the next record's time, running the control loops as it goes.
+ * 
+ * By default the gyro, wheel encoders, limit switches and range finder read what was recorded and the
+ * physics is off, which is the way to replay a real match. With simulated
+ * sensors the physics models set them instead, which is the way to replay a
+ * recording made by the {@link HeadlessRobot} and should then match exactly.
+ * 
+ * Usage: <code>java org.harker.robotics.sim.LogReplay recording [autoMode] [tolerance] [recorded|simulated]</code>
+ * The exit status is 1 if any output differed by more than the tolerance.
+ */
+public class LogReplay {
+	
+	//The largest difference in an output which is not reported
+	public static final double DEFAULT_TOLERANCE = 1e-3;
+	
+	//The outputs compared, as fields of the FlightLog
+	private static final int[] OUTPUTS = {
+		FlightLog.FIELD_LEFT_FRONT, FlightLog.FIELD_RIGHT_FRONT, FlightLog.FIELD_LEFT_BACK,
+		FlightLog.FIELD_RIGHT_BACK, FlightLog.FIELD_ELEVATOR, FlightLog.FIELD_LEFT_CLAMP,
+		FlightLog.FIELD_RIGHT_CLAMP, FlightLog.FIELD_LEFT_BIN_CLAMP, FlightLog.FIELD_RIGHT_BIN_CLAMP
+	};
+	
+	private final Simulation sim;
+	private final RobotCore core;
+	private final boolean recordedSensors;
+	private final String autonomousMode;
+	private final double tolerance;
+	
+	//Where each FlightLog field is in the recording
+	private int[] columns;
+	private final double[] outputs = new double[OUTPUTS.length];
+	
+	//The differences found, for each output
+	private final double[] maxError = new double[OUTPUTS.length];
+	private final double[] sumSquares = new double[OUTPUTS.length];
+	private final long[] overTolerance = new long[OUTPUTS.length];
+	private final long[] firstOver = new long[OUTPUTS.length];
+	private final double[] firstOverTime = new double[OUTPUTS.length];
+	private long records;
+	
+	/**
+	 * Installs the simulated hardware and creates and initializes the robot.
+	 * Only one LogReplay may be created per class loader.
+	 * @param recordedSensors Whether the sensors read what was recorded, instead of the physics models
+	 * @param autonomousMode The autonomous mode to run, as recordings do not say which ran
+	 * @param tolerance The largest difference in an output which is not reported
+	 */
+	public LogReplay(boolean recordedSensors, String autonomousMode, double tolerance) {
+		this.recordedSensors = recordedSensors;
+		this.autonomousMode = autonomousMode;
+		this.tolerance = tolerance;
+		sim = new Simulation();
+		sim.install(false);
+		sim.setPhysics(!recordedSensors);
+		core = new RobotCore();
+		core.robotInit();
+		for (int i = 0; i < OUTPUTS.length; i++)
+			firstOver[i] = -1;
+	}
+	
+	/**
+	 * Plays a recording from its oldest record to its newest.
+	 * @param log The recording
+	 */
+	public void replay(FlightRecordDecoder log) {
+		columns = findColumns(log);
+		float[] values = new float[log.getFields().length];
+		SimJoystick gamepad = sim.getHardware().getJoystick(RobotMap.OI.GAMEPAD_PORT);
+		int mode = -1;
+		double lastTime = 0;
+		
+		while (log.next(values)) {
+			double time = log.getTime();
+			//The last control loop pass before the record read the sensors as recorded,
+			//so they are set before the clock runs up to it
+			if (recordedSensors)
+				setSensors(values);
+			if (mode == -1) {
+				//Sit disabled until the recording starts, as the robot did after it turned on
+				SimRuntime.setMode(SimRuntime.MODE_DISABLED);
+				while (sim.getClock().getTime() + HeadlessRobot.PERIOD / 2 < time) {
+					core.disabledPeriodic();
+					sim.step(HeadlessRobot.PERIOD);
+				}
+			} else if (time > lastTime) {
+				sim.step(time - lastTime);
+			}
+			lastTime = time;
+			
+			for (int i = 0; i < FlightLog.AXES; i++)
+				gamepad.setRawAxis(i, get(values, FlightLog.FIELD_AXIS + i));
+			int buttons = (int) get(values, FlightLog.FIELD_BUTTONS);
+			for (int i = 1; i <= FlightLog.BUTTONS; i++)
+				gamepad.setRawButton(i, (buttons & (1 << (i - 1))) != 0);
+			
+			int recordedMode = (int) get(values, FlightLog.FIELD_MODE);
+			if (recordedMode != mode) {
+				enterMode(recordedMode);
+				mode = recordedMode;
+			}
+			runPeriodic(mode);
+			compare(values, log.getSequence(), time);
+			records++;
+		}
+	}
+	
+	/**
+	 * Puts the recorded gyro, encoder, limit switch and range finder readings on the simulated sensors.
+	 * @param values The record
+	 */
+	private void setSensors(float[] values) {
+		SimGyro gyro = sim.getHardware().getGyro(RobotMap.Drivetrain.GYRO_PORT);
+		gyro.clear();
+		//The Drivetrain reports the gyro's rate negated
+		gyro.update(get(values, FlightLog.FIELD_HEADING), -get(values, FlightLog.FIELD_ROTATIONAL_RATE));
+		
+		//The right side encoders are mounted mirrored, and count down going forward
+		setEncoder(RobotMap.Drivetrain.LEFT_FRONT_ENCODER_A_PORT,
+				get(values, FlightLog.FIELD_FRONT_LEFT_DISTANCE), Drivetrain.METERS_PER_COUNT);
+		setEncoder(RobotMap.Drivetrain.RIGHT_FRONT_ENCODER_A_PORT,
+				get(values, FlightLog.FIELD_FRONT_RIGHT_DISTANCE), -Drivetrain.METERS_PER_COUNT);
+		setEncoder(RobotMap.Drivetrain.LEFT_BACK_ENCODER_A_PORT,
+				get(values, FlightLog.FIELD_REAR_LEFT_DISTANCE), Drivetrain.METERS_PER_COUNT);
+		setEncoder(RobotMap.Drivetrain.RIGHT_BACK_ENCODER_A_PORT,
+				get(values, FlightLog.FIELD_REAR_RIGHT_DISTANCE), -Drivetrain.METERS_PER_COUNT);
+		
+		//The switches read false when pressed
+		SimDigitalInput high = sim.getHardware().getDigitalInput(RobotMap.Manipulator.LIMIT_SWITCH_HIGH_PORT);
+		SimDigitalInput low = sim.getHardware().getDigitalInput(RobotMap.Manipulator.LIMIT_SWITCH_LOW_PORT);
+		high.set(get(values, FlightLog.FIELD_HIGH_LIMIT) == 0);
+		low.set(get(values, FlightLog.FIELD_LOW_LIMIT) == 0);
+		
+		SimAnalogInput rangeFinder = sim.getHardware().getAnalogInput(RobotMap.Manipulator.RANGE_FINDER_PORT);
+		rangeFinder.set(get(values, FlightLog.FIELD_RANGE_FINDER));
+	}
+	
+	/**
+	 * Puts a recorded distance on a simulated encoder, as the count the robot
+	 * code read then. The encoder is cleared first, so that the count is the
+	 * same whether or not the code has reset the encoder since.
+	 * @param aChannel The encoder's A channel
+	 * @param distance The recorded distance in meters
+	 * @param metersPerCount The distance the robot code takes each count to be
+	 */
+	private void setEncoder(int aChannel, double distance, double metersPerCount) {
+		SimEncoder encoder = sim.getHardware().getEncoder(aChannel);
+		encoder.clear();
+		encoder.update((int) Math.round(distance / metersPerCount), 0);
+	}
+	
+	/**
+	 * Changes the mode of the robot as the driver station would.
+	 * @param mode One of the FlightLog.MODE_ constants
+	 */
+	private void enterMode(int mode) {
+		if (mode == FlightLog.MODE_AUTONOMOUS) {
+			SimRuntime.setMode(SimRuntime.MODE_AUTONOMOUS);
+			core.autonomousInit(autonomousMode);
+		} else if (mode == FlightLog.MODE_TELEOP) {
+			SimRuntime.setMode(SimRuntime.MODE_TELEOP);
+			core.teleopInit();
+		} else if (mode == FlightLog.MODE_TEST) {
+			SimRuntime.setMode(SimRuntime.MODE_TEST);
+		} else {
+			SimRuntime.setMode(SimRuntime.MODE_DISABLED);
+			core.disabledInit();
+		}
+	}
+	
+	private void runPeriodic(int mode) {
+		if (mode == FlightLog.MODE_AUTONOMOUS)
+			core.autonomousPeriodic();
+		else if (mode == FlightLog.MODE_TELEOP)
+			core.teleopPeriodic();
+		else if (mode == FlightLog.MODE_TEST)
+			core.testPeriodic();
+		else
+			core.disabledPeriodic();
+	}
+	
+	/**
+	 * Compares the outputs of the robot code with the record's.
+	 * @param values The record
+	 * @param sequence The number of the record
+	 * @param time The time of the record
+	 */
+	private void compare(float[] values, long sequence, double time) {
+		Drivetrain drivetrain = Drivetrain.getInstance();
+		Manipulator manipulator = Manipulator.getInstance();
+		outputs[0] = drivetrain.getLeftFrontSpeed();
+		outputs[1] = drivetrain.getRightFrontSpeed();
+		outputs[2] = drivetrain.getLeftBackSpeed();
+		outputs[3] = drivetrain.getRightBackSpeed();
+		outputs[4] = manipulator.getElevatorSpeed();
+		outputs[5] = manipulator.getLeftClamp() ? 1 : 0;
+		outputs[6] = manipulator.getRightClamp() ? 1 : 0;
+		outputs[7] = manipulator.getLeftBinClamp() ? 1 : 0;
+		outputs[8] = manipulator.getRightBinClamp() ? 1 : 0;
+		
+		for (int i = 0; i < OUTPUTS.length; i++) {
+			//Recorded values are floats, so round ours the same way before comparing
+			double error = Math.abs((float) outputs[i] - get(values, OUTPUTS[i]));
+			sumSquares[i] += error * error;
+			if (error > maxError[i])
+				maxError[i] = error;
+			if (error > tolerance) {
+				if (overTolerance[i] == 0) {
+					firstOver[i] = sequence;
+					firstOverTime[i] = time;
+				}
+				overTolerance[i]++;
+			}
+		}
+	}
+	
+	/**
+	 * Determines whether any output differed by more than the tolerance.
+	 * @return Whether or not the replay diverged from the recording
+	 */
+	public boolean diverged() {
+		for (int i = 0; i < OUTPUTS.length; i++)
+			if (overTolerance[i] > 0)
+				return true;
+		return false;
+	}
+	
+	/**
+	 * Prints how far each output strayed from the recording.
+	 * @param out Where to print the report
+	 */
+	public void printReport(PrintStream out) {
+		String[] names = FlightLog.getFieldNames();
+		out.println(String.format("%d records replayed with %s sensors, tolerance %g", records,
+				recordedSensors ? "recorded" : "simulated", tolerance));
+		out.println(String.format("  %-16s %10s %10s %8s %s", "output", "max error", "rms error", "over", "first over (record, s)"));
+		for (int i = 0; i < OUTPUTS.length; i++) {
+			double rms = (records == 0) ? 0 : Math.sqrt(sumSquares[i] / records);
+			out.println(String.format("  %-16s %10.6f %10.6f %8d %s", names[OUTPUTS[i]], maxError[i], rms,
+					overTolerance[i], (firstOver[i] < 0) ? "-" : firstOver[i] + ", " + firstOverTime[i]));
+		}
+	}
+	
+	/**
+	 * Finds where each FlightLog field is in a recording, by name, so that
+	 * recordings stay readable if fields are added.
+	 * @param log The recording
+	 * @return The column of each field, indexed by the FlightLog.FIELD_ constants
+	 */
+	private static int[] findColumns(FlightRecordDecoder log) {
+		String[] names = FlightLog.getFieldNames();
+		int[] columns = new int[names.length];
+		for (int i = 0; i < names.length; i++) {
+			columns[i] = log.indexOf(names[i]);
+			if (columns[i] < 0)
+				throw new RuntimeException("The recording has no field \"" + names[i] + "\"");
+		}
+		return columns;
+	}
+	
+	private float get(float[] values, int field) {
+		return values[columns[field]];
+	}
+	
+	public static void main(String[] args) throws IOException {
+		if (args.length < 1) {
+			System.err.println("Usage: LogReplay recording [autoMode] [tolerance] [recorded|simulated]");
+			System.exit(2);
+		}
+		FlightRecordDecoder log = new FlightRecordDecoder(new File(args[0]));
+		String autonomousMode = (args.length > 1) ? args[1] : AutonomousCommand.DEFAULT_MODE;
+		double tolerance = (args.length > 2) ? Double.parseDouble(args[2]) : DEFAULT_TOLERANCE;
+		boolean recordedSensors = (args.length > 3) ? !args[3].equals("simulated") : true;
+		
+		LogReplay replay = new LogReplay(recordedSensors, autonomousMode, tolerance);
+		long start = System.nanoTime();
+		replay.replay(log);
+		double elapsed = (System.nanoTime() - start) / 1e9;
+		System.out.println(String.format("Replayed %.1f s of robot time in %.2f s", replay.sim.getClock().getTime(), elapsed));
+		replay.printReport(System.out);
+		//NetworkTables threads are not daemons
+		System.exit(replay.diverged() ? 1 : 0);
+	}
+}
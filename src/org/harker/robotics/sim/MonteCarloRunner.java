@@ -0,0 +1,272 @@
+package org.harker.robotics.sim;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Plays thousands of simulated autonomous periods for each autonomous mode
+ * across every core, each with a randomly drawn battery voltage, carpet
+ * traction and gyro drift (see {@link AutonomousTrial}), and reports how
+ * often each mode ends in the auto zone and where the robot ends up.
+ * 
+ * The subsystems, the Scheduler and the installed hardware are static, so
+ * two robots cannot share a class loader. Each fork-join worker thread gets
+ * its own class loader holding a private copy of the robot code and WPILib
+ * and plays its share of the runs on that robot one after another.
+ * 
+ * Run i of every mode uses the same seed, so the modes are compared under
+ * the same conditions, and a given seed always gives the same report.
+ * 
+ * Usage: <code>java org.harker.robotics.sim.MonteCarloRunner [runs] [modes] [seed] [threads]</code>
+ * where modes is a comma separated list such as <code>Backup,Path</code>.
+ */
+public class MonteCarloRunner {
+	
+	public static final int DEFAULT_RUNS = 1000;
+	public static final String DEFAULT_MODES = "Bin,Path,Backup,Proto";
+	public static final long DEFAULT_SEED = 2015;
+	
+	//The auto zone, as a distance from the starting position along the starting
+	//heading (in either direction, as a routine may start facing away from it)
+	public static final double AUTO_ZONE_NEAR = 1.8;		//m
+	public static final double AUTO_ZONE_FAR = 4.5;			//m
+	//How far the robot may end up to either side before it is in a partner's way
+	public static final double LANE_HALF_WIDTH = 1.0;		//m
+	
+	//The most runs a task plays itself instead of splitting
+	private static final int BATCH = 8;
+	
+	private final String[] modes;
+	private final int runs;
+	private final long seed;
+	private final URL[] classpath;
+	private final double[][] results;
+	
+	//Each worker thread's robot, in its own class loader
+	private final ThreadLocal<IsolatedTrial> trials = new ThreadLocal<IsolatedTrial>() {
+		protected IsolatedTrial initialValue() {
+			return new IsolatedTrial(classpath);
+		}
+	};
+	
+	/**
+	 * Creates a runner.
+	 * @param modes The autonomous modes to evaluate
+	 * @param runs The number of runs of each mode
+	 * @param seed The seed of the first run
+	 */
+	public MonteCarloRunner(String[] modes, int runs, long seed) {
+		this.modes = modes;
+		this.runs = runs;
+		this.seed = seed;
+		this.classpath = getClasspath();
+		this.results = new double[modes.length * runs][];
+	}
+	
+	/**
+	 * Plays every run.
+	 * @param threads The number of worker threads
+	 */
+	public void run(int threads) {
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		try {
+			pool.invoke(new RunBatch(0, results.length));
+		} finally {
+			pool.shutdown();
+		}
+	}
+	
+	/**
+	 * Gets the result of one run, indexed by the AutonomousTrial.RESULT_ constants.
+	 * @param mode The index of the mode
+	 * @param run The index of the run
+	 * @return The result
+	 */
+	public double[] getResult(int mode, int run) {
+		return results[mode * runs + run];
+	}
+	
+	/**
+	 * Decides whether a run scored the auto points.
+	 * @param result The result of the run
+	 * @return Whether or not the robot ended in the auto zone without straying from its lane
+	 */
+	public static boolean isSuccess(double[] result) {
+		double distance = Math.abs(result[AutonomousTrial.RESULT_Y]);
+		return distance >= AUTO_ZONE_NEAR && distance <= AUTO_ZONE_FAR
+				&& Math.abs(result[AutonomousTrial.RESULT_X]) <= LANE_HALF_WIDTH;
+	}
+	
+	/**
+	 * Prints the success rate and the distribution of the end pose for each mode.
+	 * @param out Where to print the report
+	 */
+	public void printReport(PrintStream out) {
+		double[] values = new double[runs];
+		for (int m = 0; m < modes.length; m++) {
+			int successes = 0;
+			for (int r = 0; r < runs; r++)
+				if (isSuccess(getResult(m, r))) successes++;
+			
+			out.println();
+			out.println(String.format("Mode %s: %d runs, %.1f%% ended in the auto zone",
+					modes[m], runs, 100.0 * successes / runs));
+			out.println(String.format("  %-16s %9s %9s %9s %9s %9s %9s %9s",
+					"", "mean", "stdev", "min", "p5", "p50", "p95", "max"));
+			printRow(out, m, "x (m)", AutonomousTrial.RESULT_X, values);
+			printRow(out, m, "y (m)", AutonomousTrial.RESULT_Y, values);
+			printRow(out, m, "heading (deg)", AutonomousTrial.RESULT_HEADING, values);
+			printRow(out, m, "elevator (in)", AutonomousTrial.RESULT_ELEVATOR_HEIGHT, values);
+		}
+	}
+	
+	/**
+	 * Prints the distribution of one quantity over every run of a mode.
+	 * @param out Where to print the row
+	 * @param mode The index of the mode
+	 * @param label The name of the quantity
+	 * @param index The index of the quantity in the results
+	 * @param values Scratch space for one value per run
+	 */
+	private void printRow(PrintStream out, int mode, String label, int index, double[] values) {
+		double sum = 0;
+		for (int r = 0; r < runs; r++) {
+			values[r] = getResult(mode, r)[index];
+			sum += values[r];
+		}
+		double mean = sum / runs;
+		double squares = 0;
+		for (int r = 0; r < runs; r++)
+			squares += (values[r] - mean) * (values[r] - mean);
+		double stdev = (runs > 1) ? Math.sqrt(squares / (runs - 1)) : 0;
+		
+		Arrays.sort(values);
+		out.println(String.format("  %-16s %9.3f %9.3f %9.3f %9.3f %9.3f %9.3f %9.3f",
+				label, mean, stdev, values[0], percentile(values, 0.05),
+				percentile(values, 0.5), percentile(values, 0.95), values[runs - 1]));
+	}
+	
+	/**
+	 * Finds a percentile of sorted values by the nearest rank.
+	 * @param sorted The values, in ascending order
+	 * @param fraction The percentile, between 0 and 1
+	 * @return The value at that percentile
+	 */
+	private static double percentile(double[] sorted, double fraction) {
+		int rank = (int) Math.ceil(fraction * sorted.length) - 1;
+		return sorted[Math.max(rank, 0)];
+	}
+	
+	/**
+	 * Gets the class path this JVM was started with, which holds the robot
+	 * code and WPILib.
+	 * @return The entries of the class path
+	 */
+	private static URL[] getClasspath() {
+		String[] entries = System.getProperty("java.class.path").split(File.pathSeparator);
+		URL[] urls = new URL[entries.length];
+		try {
+			for (int i = 0; i < entries.length; i++)
+				urls[i] = new File(entries[i]).toURI().toURL();
+		} catch (MalformedURLException e) {
+			throw new RuntimeException("Bad class path entry: " + e.getMessage());
+		}
+		return urls;
+	}
+	
+	/**
+	 * Plays a range of runs, splitting it among the workers until the pieces
+	 * are small.
+	 */
+	private class RunBatch extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		
+		private final int from, to;
+		
+		public RunBatch(int from, int to) {
+			this.from = from;
+			this.to = to;
+		}
+		
+		protected void compute() {
+			if (to - from <= BATCH) {
+				IsolatedTrial trial = trials.get();
+				for (int i = from; i < to; i++)
+					results[i] = trial.run(modes[i / runs], seed + i % runs);
+			} else {
+				int middle = (from + to) >>> 1;
+				invokeAll(new RunBatch(from, middle), new RunBatch(middle, to));
+			}
+		}
+	}
+	
+	/**
+	 * An {@link AutonomousTrial} loaded in a class loader of its own. The
+	 * loader's parent is that of the system class loader, which only holds
+	 * the JDK, so the robot code and WPILib are loaded afresh instead of
+	 * being shared.
+	 */
+	private static class IsolatedTrial {
+		private final Object trial;
+		private final Method run;
+		
+		public IsolatedTrial(URL[] classpath) {
+			ClassLoader loader = new URLClassLoader(classpath, ClassLoader.getSystemClassLoader().getParent());
+			try {
+				Class<?> trialClass = loader.loadClass(AutonomousTrial.class.getName());
+				trial = trialClass.getConstructor().newInstance();
+				run = trialClass.getMethod("run", String.class, long.class);
+			} catch (Exception e) {
+				throw new RuntimeException("Could not create an isolated robot: " + e);
+			}
+		}
+		
+		public double[] run(String mode, long seed) {
+			try {
+				return (double[]) run.invoke(trial, mode, seed);
+			} catch (InvocationTargetException e) {
+				throw new RuntimeException("Mode " + mode + " with seed " + seed + " failed: " + e.getCause());
+			} catch (IllegalAccessException e) {
+				throw new RuntimeException("Could not run an isolated robot: " + e);
+			}
+		}
+	}
+	
+	public static void main(String[] args) {
+		int runs = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_RUNS;
+		String[] modes = ((args.length > 1) ? args[1] : DEFAULT_MODES).split(",");
+		long seed = (args.length > 2) ? Long.parseLong(args[2]) : DEFAULT_SEED;
+		int threads = (args.length > 3) ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+		
+		MonteCarloRunner runner = new MonteCarloRunner(modes, runs, seed);
+		//The robot code prints as it goes, which would bury the report
+		PrintStream out = System.out;
+		System.setOut(new PrintStream(new OutputStream() {
+			public void write(int b) {
+			}
+		}));
+		long start = System.nanoTime();
+		try {
+			runner.run(threads);
+		} finally {
+			System.setOut(out);
+		}
+		long elapsed = System.nanoTime() - start;
+		
+		out.println(String.format("%d runs on %d threads in %.1f s (%.0f simulated seconds per second)",
+				modes.length * runs, threads, elapsed / 1e9,
+				modes.length * runs * HeadlessRobot.AUTONOMOUS_TIME / (elapsed / 1e9)));
+		runner.printReport(out);
+		//NetworkTables threads are not daemons
+		System.exit(0);
+	}
+}
@@ -0,0 +1,139 @@
+package org.harker.robotics.sim;
+
+import org.harker.robotics.harkerrobolib.hal.Hardware;
+import org.harker.robotics.harkerrobolib.sim.SimClock;
+import org.harker.robotics.harkerrobolib.sim.SimRuntime;
+import org.harker.robotics.harkerrobolib.sim.SimulatedHardwareFactory;
+
+/**
+ * Steps the simulated world on a virtual clock. Each physics step advances
+ * the clock, runs any control loops (notifiers) which have come due against
+ * the current sensor readings, and then moves the drivetrain and elevator
+ * models according to the new motor outputs (which only reach the motors
+ * while the robot is enabled). Nothing depends on wall-clock
+ * time, so a run is deterministic and goes as fast as the host can step it.
+ */
+public class Simulation {
+	
+	//The length of one physics step, in seconds
+	public static final double PHYSICS_STEP = 0.001;
+	
+	private final SimClock clock;
+	private final SimulatedHardwareFactory hardware;
+	private final DrivetrainModel drivetrain;
+	private final ElevatorModel elevator;
+	private boolean physics = true;
+	
+	/**
+	 * Creates a new simulated world at time zero.
+	 */
+	public Simulation() {
+		clock = new SimClock();
+		hardware = new SimulatedHardwareFactory(clock);
+		drivetrain = new DrivetrainModel(hardware);
+		elevator = new ElevatorModel(hardware);
+	}
+	
+	/**
+	 * Makes this simulation the hardware and runtime the robot code uses.
+	 * This must be done before the robot is initialized.
+	 */
+	public void install() {
+		install(true);
+	}
+	
+	/**
+	 * Makes this simulation the hardware and runtime the robot code uses.
+	 * This must be done before the robot is initialized.
+	 * @param serveDashboard Whether to serve the SmartDashboard from this machine
+	 * @see SimRuntime#install(SimClock, boolean)
+	 */
+	public void install(boolean serveDashboard) {
+		Hardware.setFactory(hardware);
+		SimRuntime.install(clock, serveDashboard);
+	}
+	
+	/**
+	 * Puts the world back to how it was when the robot was turned on: every
+	 * device in its power-on state, the robot at rest at the origin with the
+	 * elevator at the bottom, and the clock at zero. The clock is only safe to
+	 * rewind while the robot is disabled, as no command is timing itself then.
+	 */
+	public void reset() {
+		clock.reset();
+		hardware.restartNotifiers();
+		hardware.clearDevices();
+		drivetrain.reset();
+		elevator.reset();
+	}
+	
+	/**
+	 * Advances the simulation.
+	 * @param seconds The amount of simulated time to run for
+	 */
+	public void step(double seconds) {
+		long steps = Math.round(seconds / PHYSICS_STEP);
+		boolean enabled = SimRuntime.getMode() != SimRuntime.MODE_DISABLED;
+		drivetrain.setEnabled(enabled);
+		elevator.setEnabled(enabled);
+		for (long i = 0; i < steps; i++) {
+			clock.advance(PHYSICS_STEP);
+			hardware.runNotifiers(clock.getNanos());
+			if (physics) {
+				drivetrain.update(PHYSICS_STEP);
+				elevator.update(PHYSICS_STEP);
+			}
+		}
+	}
+	
+	/**
+	 * Turns the physics models on or off. With them off, stepping only runs
+	 * the clock and the control loops, and the sensors read whatever they are
+	 * set to, as when replaying recorded sensor readings.
+	 * @param on Whether the models move the robot and set the sensors
+	 */
+	public void setPhysics(boolean on) {
+		physics = on;
+	}
+	
+	/**
+	 * Sets the voltage of the battery for every motor.
+	 * @param volts The battery voltage
+	 */
+	public void setBatteryVoltage(double volts) {
+		drivetrain.setBatteryVoltage(volts);
+		elevator.setBatteryVoltage(volts);
+	}
+	
+	/**
+	 * Gets the virtual clock of the simulation.
+	 * @return The clock
+	 */
+	public SimClock getClock() {
+		return clock;
+	}
+	
+	/**
+	 * Gets the simulated hardware the robot code runs against.
+	 * @return The simulated hardware factory
+	 */
+	public SimulatedHardwareFactory getHardware() {
+		return hardware;
+	}
+	
+	/**
+	 * Gets the model of the drivetrain.
+	 * @return The drivetrain model
+	 */
+	public DrivetrainModel getDrivetrain() {
+		return drivetrain;
+	}
+	
+	/**
+	 * Gets the model of the elevator.
+	 * @return The elevator model
+	 */
+	public ElevatorModel getElevator() {
+		return elevator;
+	}
+}
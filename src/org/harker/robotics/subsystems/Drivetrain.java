@@ -2,45 +2,63 @@ package org.harker.robotics.subsystems;
 
 import org.harker.robotics.commands.ManualDriveCommand;
 import org.harker.robotics.commands.ResetPIDCommand;
+import org.harker.robotics.harkerrobolib.hal.GyroSensor;
+import org.harker.robotics.harkerrobolib.hal.Hardware;
+import org.harker.robotics.harkerrobolib.hal.PeriodicNotifier;
+import org.harker.robotics.harkerrobolib.util.FlightRecorder;
+import org.harker.robotics.harkerrobolib.util.LoopTimer;
+import org.harker.robotics.harkerrobolib.util.MathUtil;
+import org.harker.robotics.harkerrobolib.util.MecanumOdometry;
+import org.harker.robotics.harkerrobolib.util.PIDBank;
+import org.harker.robotics.harkerrobolib.util.Pose;
+import org.harker.robotics.harkerrobolib.util.RelayTuner;
+import org.harker.robotics.harkerrobolib.util.TelemetryChannel;
+import org.harker.robotics.harkerrobolib.util.TelemetryPublisher;
+import org.harker.robotics.harkerrobolib.util.TripleBuffer;
+import org.harker.robotics.harkerrobolib.wrappers.EncoderWrapper;
 import org.harker.robotics.harkerrobolib.wrappers.TalonWrapper;
 import org.harker.robotics.RobotMap;
 
 import edu.wpi.first.wpilibj.BuiltInAccelerometer;
-import edu.wpi.first.wpilibj.Gyro;
-import edu.wpi.first.wpilibj.RobotDrive;
-import edu.wpi.first.wpilibj.RobotDrive.MotorType;
-import edu.wpi.first.wpilibj.command.PIDSubsystem;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.command.Subsystem;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 
 /**
  * The Drivetrain, which contains accessors for the Talons along the base as well as 
  * the gyroscope and encoders. 
  * 
+ * The Talons are only ever written by the control loop, which runs on a thread of its
+ * own every {@link #PERIOD} seconds (or as set by {@link #setControlPeriod(double)}),
+ * holding the rotational rate with a {@link PIDBank} and limiting acceleration.
+ * Commands never touch the loop's state: each call from a command fills in a
+ * {@link DriveCommand} and publishes it through a {@link TripleBuffer}, and the loop
+ * follows the newest one at its next pass. Neither side ever waits on the other.
+ * Each pass also moves the {@link MecanumOdometry} on from the wheel encoders and
+ * the gyro, and {@link #getPose()} reads the result from any thread. Given a
+ * {@link FlightRecorder} by {@link #setTrace(FlightRecorder)}, every pass also
+ * records the rate loop and the Talons into it.
+ * In simulation the loop is stepped by the simulated clock instead.
+ * 
  * @author Andrew Tierno
  * @author Manan Shah
  * @author Vedaad Shakib
  * @author Neymika
  */
 
-public class Drivetrain extends PIDSubsystem {
+public class Drivetrain extends Subsystem {
 	
-	//Drive related components
-	private static RobotDrive robotDrive;
+	//Drive related components. Note that, in mecanum order, the talons are
+	//front left = leftBack, rear left = rightBack, front right = leftFront
+	//and rear right = rightFront.
 	private static TalonWrapper leftBack, leftFront, rightBack, rightFront;
-	private static Gyro gyro;
+	private static GyroSensor gyro;
+	private static EncoderWrapper frontLeftEncoder, frontRightEncoder, rearLeftEncoder, rearRightEncoder;
 	private static BuiltInAccelerometer accel;
 	
-	//Deadzone constants
-	private static double DZ_Y = 0.15;	
-	private static double DZ_T = 0.20;
-	private static double DZ_X = 0.15;
-	
 	//Theta scale because we need to ensure we don't move theta too fast
 	private static double T_SCALE = 0.4;
 	
-	//Relative driving boolean
-	private static boolean isRelative = false;
-	
 	// The static instance variable Drivetrain
 	private static Drivetrain drivetrain;
 	
@@ -49,12 +67,82 @@ public class Drivetrain extends PIDSubsystem {
 	private static double MAX_ACCEL_Y = 0.02;
 	private static double MAX_ACCEL_T = 0.02;
 	
-	//PID Constants
-	private static final double P = 1.0;
-	private static final double I = 0.0;
-	private static final double D = 0.0;
-	//The time between calculations in seconds
-	private static final double PERIOD = .005;
+	//The default time between passes of the control loop in seconds
+	public static final double PERIOD = .005;
+	
+	//PID Constants, as tuned on WPILib's PIDController, which sums the error and takes its
+	//difference once per pass rather than per second
+	private static final double PASS_P = 1.0;
+	private static final double PASS_I = 0.0;
+	private static final double PASS_D = 0.0;
+	//The same gains for the PIDBank, which integrates and differentiates over time, so that
+	//I is per second of error and D is per unit of error per second
+	private static final double P = PASS_P;
+	private static final double I = PASS_I / PERIOD;
+	private static final double D = PASS_D * PERIOD;
+	
+	//Encoders on the wheel shafts, 360 lines counted on both edges of both channels, on 6" wheels
+	public static final double METERS_PER_COUNT = Math.PI * 0.1524 / 1440;
+	//How far the robot strafes for each meter the wheels roll sideways, as measured on carpet
+	private static final double STRAFE_EFFICIENCY = 0.7;
+	
+	//What the control loop does with the Talons
+	private static final int MODE_HOLD = 0;		//Leave them as they are
+	private static final int MODE_PID = 1;		//Drive toward the targets, holding the rotational rate
+	private static final int MODE_RAW = 2;		//Mecanum drive at the raw speeds, with no acceleration limit
+	private static final int MODE_TANK = 3;		//Tank drive toward the left and right targets
+	private static final int MODE_TUNE = 4;		//Rotate under a relay tuner in place of the rate loop
+	
+	//Fields of the control loop's trace, recorded on every pass
+	public static final int TRACE_MODE = 0;
+	public static final int TRACE_SETPOINT = 1;
+	public static final int TRACE_PID_INPUT = 2;
+	public static final int TRACE_PID_OUTPUT = 3;
+	public static final int TRACE_LEFT_FRONT = 4;
+	public static final int TRACE_RIGHT_FRONT = 5;
+	public static final int TRACE_LEFT_BACK = 6;
+	public static final int TRACE_RIGHT_BACK = 7;
+	public static final int TRACE_HEADING = 8;
+	public static final int TRACE_ROTATIONAL_RATE = 9;
+	public static final int TRACE_FIELD_COUNT = 10;
+	
+	//The loops in the control loop's PID bank
+	private static final int LOOP_ROTATION = 0;		//The rotational rate
+	private static final int LOOPS = 1;
+	
+	//The control loop, the rate it runs at and the PID loops it runs
+	private final PeriodicNotifier controlLoop;
+	private volatile double period = PERIOD;
+	private final PIDBank loops;
+	private final LoopTimer loopTimer = LoopTimer.forLoop("Drivetrain loop", PERIOD);
+	//Where the control loop records each pass, if anywhere; only the control loop writes to it
+	private volatile FlightRecorder trace;
+	
+	//Dashboard values written by the control loop, sent by the TelemetryPublisher
+	private final TelemetryChannel actualRateTelemetry = TelemetryPublisher.number("Actual Rate");
+	private final TelemetryChannel targetThetaTelemetry = TelemetryPublisher.number("Target Theta");
+	private final TelemetryChannel pidErrorTelemetry = TelemetryPublisher.number("PID Error");
+	private final TelemetryChannel poseXTelemetry = TelemetryPublisher.number("Pose X");
+	private final TelemetryChannel poseYTelemetry = TelemetryPublisher.number("Pose Y");
+	private final TelemetryChannel poseHeadingTelemetry = TelemetryPublisher.number("Pose Heading");
+	
+	//The command as last set by the commands, and the handoff to the control loop
+	private final DriveCommand command = new DriveCommand();
+	private final TripleBuffer<DriveCommand> commands =
+			new TripleBuffer<DriveCommand>(new DriveCommand(), new DriveCommand(), new DriveCommand());
+	
+	//Everything below is only touched by the control loop
+	private int lastMode = MODE_HOLD;
+	//The last input and output of the rate loop, for the flight log
+	private volatile double pidInput, pidOutput;
+	private int lastResets;
+	//The relay tuner being run and how long it has run for
+	private RelayTuner tuner;
+	private double tuneTime;
+	//Where the robot is, updated every pass and read by anyone
+	private final MecanumOdometry odometry = new MecanumOdometry(STRAFE_EFFICIENCY);
+	private int lastPoseResets;
+	private int lastStateResets;
 	
 	//A reference to previous speeds to use for acceleration
 	private double prevX;
@@ -64,14 +152,6 @@ public class Drivetrain extends PIDSubsystem {
 	private double prevLeft;
 	private double prevRight;
 	
-	//A reference to the current setpoint values
-	private double targetX;
-	private double targetY;
-	private double targetT;
-	
-	private double targetLeft;
-	private double targetRight;
-	
 	//Calibration factor for the gyro
 	private double voltsPerDegreePerSecond = (12.5e-3);
 	
@@ -81,13 +161,19 @@ public class Drivetrain extends PIDSubsystem {
 	
 	/**
 	 * Drivetrain singleton constructor. Initializes the various components 
-	 * of the robot along with the internal RobotDrive handler. Also initializes
-	 * the internal PID loop.
+	 * of the robot. Also initializes and starts the internal PID loop.
 	 */
 	private Drivetrain() {
-		super(P, I, D, PERIOD);
+		loops = new PIDBank(LOOPS);
+		loops.setGains(LOOP_ROTATION, P, I, D);
+		loops.setOutputLimits(LOOP_ROTATION, -1, 1);
+		command.p = P;
+		command.i = I;
+		command.d = D;
 		
-		SmartDashboard.putData("DT PID", getPIDController());
+		SmartDashboard.putNumber("DT P", P);
+		SmartDashboard.putNumber("DT I", I);
+		SmartDashboard.putNumber("DT D", D);
 		SmartDashboard.putData("Reset PID", new ResetPIDCommand());
 		
 		leftBack = new TalonWrapper(RobotMap.Drivetrain.LEFT_FRONT_TALON_PORT);
@@ -95,22 +181,39 @@ public class Drivetrain extends PIDSubsystem {
 		leftFront = new TalonWrapper(RobotMap.Drivetrain.RIGHT_FRONT_TALON_PORT);
 		rightFront = new TalonWrapper(RobotMap.Drivetrain.RIGHT_BACK_TALON_PORT);
 		
-		gyro = new Gyro(RobotMap.Drivetrain.GYRO_PORT);
+		gyro = Hardware.getFactory().createGyro(RobotMap.Drivetrain.GYRO_PORT);
 		gyro.setSensitivity(voltsPerDegreePerSecond);
 		gyro.reset();
 		
-		robotDrive = new RobotDrive(leftBack, rightBack, leftFront, rightFront);
-		robotDrive.setSafetyEnabled(false);
-		robotDrive.setInvertedMotor(MotorType.kFrontRight, true);
-		robotDrive.setInvertedMotor(MotorType.kRearRight, true);
+		frontLeftEncoder = createEncoder(RobotMap.Drivetrain.LEFT_FRONT_ENCODER_A_PORT,
+				RobotMap.Drivetrain.LEFT_FRONT_ENCODER_B_PORT, METERS_PER_COUNT);
+		rearLeftEncoder = createEncoder(RobotMap.Drivetrain.LEFT_BACK_ENCODER_A_PORT,
+				RobotMap.Drivetrain.LEFT_BACK_ENCODER_B_PORT, METERS_PER_COUNT);
+		//The right side encoders are mounted mirrored, like the motors
+		frontRightEncoder = createEncoder(RobotMap.Drivetrain.RIGHT_FRONT_ENCODER_A_PORT,
+				RobotMap.Drivetrain.RIGHT_FRONT_ENCODER_B_PORT, -METERS_PER_COUNT);
+		rearRightEncoder = createEncoder(RobotMap.Drivetrain.RIGHT_BACK_ENCODER_A_PORT,
+				RobotMap.Drivetrain.RIGHT_BACK_ENCODER_B_PORT, -METERS_PER_COUNT);
 		
 //		accel = new BuiltInAccelerometer(Accelerometer.Range.k2g);
 		
-		targetX = targetY = targetT = targetLeft = targetRight = 0; 
 		prevX = prevY = prevT = prevLeft = prevRight = 0;
 		
-		this.setOutputRange(-1, 1);
-		this.enable();
+		this.enable();
+		controlLoop = Hardware.getFactory().createControlThread("Drivetrain control", new Runnable() {
+			public void run() {
+				loopTimer.start();
+				runControlLoop();
+				loopTimer.stop();
+			}
+		});
+		controlLoop.startPeriodic(period);
+	}
+	
+	private static EncoderWrapper createEncoder(int aChannel, int bChannel, double distancePerPulse) {
+		EncoderWrapper encoder = new EncoderWrapper(aChannel, bChannel);
+		encoder.setDistancePerPulse(distancePerPulse);
+		return encoder;
 	}
 	
 	/**
@@ -145,16 +248,31 @@ public class Drivetrain extends PIDSubsystem {
 	 * @param speed The speed at which to drive all four motors
 	 */
 	public void driveRaw(double speed) {
-		disable();
-		robotDrive.mecanumDrive_Cartesian(0, speed, 0, 0);
+		driveRaw(0, speed, 0);
 //		System.out.println("Speed: " + speed);
 	}
 	
-	public void tankDriveRaw(double left, double right) {
+	/**
+	 * Has the control loop drive at the given speeds with no rotational rate
+	 * loop or acceleration limit until told otherwise. The speeds are in the
+	 * robot's frame, whatever {@link #isRelative()} says.
+	 * @param x The sideways speed, positive to the right
+	 * @param y The forward speed, positive backward as with {@link #driveRaw(double)}
+	 * @param rotation The rotational speed, positive clockwise
+	 */
+	public synchronized void driveRaw(double x, double y, double rotation) {
+		command.mode = MODE_RAW;
+		command.rawX = x;
+		command.rawY = y;
+		command.rawT = rotation;
+		publish();
+	}
+	
+	private void tankDriveRaw(double left, double right) {
 		leftFront.set(left);
 		leftBack.set(left);
 		rightFront.set(right);
-		rightFront.set(right);
+		rightBack.set(right);
 	}
 	
 	/**
@@ -162,49 +280,217 @@ public class Drivetrain extends PIDSubsystem {
 	 * @param speed The speed at which to drive all four motors
 	 */
 	public void strafeRaw(double speed) {
-		disable();
-		robotDrive.mecanumDrive_Cartesian(speed, 0, 0, 0);
+		driveRaw(speed, 0, 0);
 //		System.out.println("Speed: " + speed);
 	}
 	
 	public void rotate(double speed) {
-		disable();
-		robotDrive.mecanumDrive_Cartesian(0, 0, speed, 0);
+		driveRaw(0, 0, speed);
 	}
 	
 	/**
 	 * Sets the robot to the given target values using a Cartesian style mecanum drive with the 
-	 * supplied x, y, and rotational velocities. 
+	 * supplied x, y, and rotational velocities. Stick input should already be shaped, dead
+	 * zone and all, as {@link ManualDriveCommand} does with the OI's curves.
 	 * @param sx The x-velocity
 	 * @param sy The y-velocity
 	 * @param rotation The rotational velocity
 	 */
-	public void drive(double sx, double sy, double rotation) {
-		//Applying deadzone
-		targetX = (Math.abs(sx) > DZ_X) ? -sx : 0; 
-		targetY = (Math.abs(sy) > DZ_Y) ? sy : 0;
-		targetT = (Math.abs(rotation) > DZ_T) ? -rotation * T_SCALE : 0;
-		this.setSetpoint(targetT);
+	public synchronized void drive(double sx, double sy, double rotation) {
+		command.targetX = -sx;
+		command.targetY = sy;
+		command.targetT = -rotation * T_SCALE;
+		command.setpoint = command.targetT;
+		publish();
+	}
+	
+	/**
+	 * Tank drives toward the given speeds, with the same acceleration limit as
+	 * mecanum driving.
+	 * @param left The speed of the left side
+	 * @param right The speed of the right side
+	 */
+	public synchronized void drive(double left, double right) {
+		command.mode = MODE_TANK;
+		command.targetLeft = left;
+		command.targetRight = right;
+		publish();
+	}
+	
+	/**
+	 * Hands the current command to the control loop. Callers must hold the lock,
+	 * which only orders the commands among themselves; the loop never takes it.
+	 */
+	private void publish() {
+		commands.getWriteBuffer().copyFrom(command);
+		commands.publish();
+	}
+	
+	/**
+	 * Runs one pass of the control loop, following the newest command. Called
+	 * every period by the control thread.
+	 */
+	private void runControlLoop() {
+		DriveCommand cmd = commands.read();
+		if (cmd.stateResets != lastStateResets) {
+			lastStateResets = cmd.stateResets;
+			resetLoopState();
+		}
+		updateOdometry(cmd);
+		if (cmd.resets != lastResets) {
+			lastResets = cmd.resets;
+			loops.setGains(LOOP_ROTATION, cmd.p, cmd.i, cmd.d);
+			loops.reset(LOOP_ROTATION);
+		}
+		//Leaving the rate loop drives once with no correction, as WPILib's PIDSubsystem did
+		if (lastMode == MODE_PID && cmd.mode != MODE_PID)
+			updateDrive(cmd, 0);
+		lastMode = cmd.mode;
+		
+		if (cmd.mode == MODE_PID) {
+			double input = returnPIDInput(cmd);
+			loops.setError(LOOP_ROTATION, cmd.setpoint - input);
+			loops.update(period);
+			double output = loops.getOutput(LOOP_ROTATION);
+			pidInput = input;
+			pidOutput = output;
+			usePIDOutput(cmd, output);
+		} else if (cmd.mode == MODE_RAW) {
+			mecanumDrive(cmd.rawX, cmd.rawY, cmd.rawT, 0);
+		} else if (cmd.mode == MODE_TANK) {
+			updateDrive(cmd);
+		} else if (cmd.mode == MODE_TUNE) {
+			runTuner(cmd);
+		}
+		
+		FlightRecorder recorder = trace;
+		if (recorder != null)
+			recordTrace(recorder, cmd);
+	}
+	
+	/**
+	 * Records the rate loop and what was sent to the Talons on this pass.
+	 */
+	private void recordTrace(FlightRecorder recorder, DriveCommand cmd) {
+		recorder.set(TRACE_MODE, cmd.mode);
+		recorder.set(TRACE_SETPOINT, cmd.setpoint);
+		recorder.set(TRACE_PID_INPUT, pidInput);
+		recorder.set(TRACE_PID_OUTPUT, pidOutput);
+		recorder.set(TRACE_LEFT_FRONT, leftFront.get());
+		recorder.set(TRACE_RIGHT_FRONT, rightFront.get());
+		recorder.set(TRACE_LEFT_BACK, leftBack.get());
+		recorder.set(TRACE_RIGHT_BACK, rightBack.get());
+		recorder.set(TRACE_HEADING, gyro.getAngle());
+		recorder.set(TRACE_ROTATIONAL_RATE, getRotationalRate());
+		recorder.commit(Timer.getFPGATimestamp());
+	}
+	
+	/**
+	 * Names the fields of the control loop's trace, in the order of the TRACE_ constants.
+	 * @return The names
+	 */
+	public static String[] getTraceFieldNames() {
+		String[] names = new String[TRACE_FIELD_COUNT];
+		names[TRACE_MODE] = "loop mode";
+		names[TRACE_SETPOINT] = "setpoint";
+		names[TRACE_PID_INPUT] = "pid input";
+		names[TRACE_PID_OUTPUT] = "pid output";
+		names[TRACE_LEFT_FRONT] = "left front";
+		names[TRACE_RIGHT_FRONT] = "right front";
+		names[TRACE_LEFT_BACK] = "left back";
+		names[TRACE_RIGHT_BACK] = "right back";
+		names[TRACE_HEADING] = "heading";
+		names[TRACE_ROTATIONAL_RATE] = "rotational rate";
+		return names;
+	}
+	
+	/**
+	 * Has the control loop record every pass into a recorder, starting with its
+	 * next pass. The recorder then belongs to the control loop, which is the
+	 * only thread that may record into it.
+	 * @param recorder The recorder, with the fields named by {@link #getTraceFieldNames()},
+	 * or null to stop recording
+	 */
+	public void setTrace(FlightRecorder recorder) {
+		trace = recorder;
 	}
 	
-	public void drive(double left, double right) {
-		targetLeft = left;
-		targetRight = right;
+	/**
+	 * Puts everything the control loop remembers from pass to pass back as it
+	 * was when the loop started.
+	 */
+	private void resetLoopState() {
+		prevX = prevY = prevT = prevLeft = prevRight = 0;
+		lastMode = MODE_HOLD;
+		tuner = null;
+		tuneTime = 0;
+		pidInput = pidOutput = 0;
+		loops.reset();
+		frontLeftEncoder.reset();
+		frontRightEncoder.reset();
+		rearLeftEncoder.reset();
+		rearRightEncoder.reset();
+	}
+	
+	/**
+	 * Moves the pose on from the encoders and gyro, first putting the robot
+	 * where it was last placed if that has changed.
+	 */
+	private void updateOdometry(DriveCommand cmd) {
+		if (cmd.poseResets != lastPoseResets) {
+			lastPoseResets = cmd.poseResets;
+			odometry.reset(cmd.poseX, cmd.poseY, cmd.poseHeading);
+		}
+		odometry.update(frontLeftEncoder.getDistance(), frontRightEncoder.getDistance(),
+				rearLeftEncoder.getDistance(), rearRightEncoder.getDistance(), getCurrentContinuousHeading());
+		Pose pose = odometry.getPose();
+		poseXTelemetry.set(pose.getX());
+		poseYTelemetry.set(pose.getY());
+		poseHeadingTelemetry.set(pose.getHeading());
 	}
 	
 	/**
-	 * Updates the speed at which the drivetrain moves, applying acceleration and updating 
-	 * the previous values for acceleration.
-	 * @param thetaOffset The output calculated by the PID Controller which is added to 
-	 * 						the current rotational velocity
+	 * Runs one pass of a relay test on the rotational rate loop. The relay
+	 * takes the place of the rate loop's output, going through the same
+	 * acceleration limit to the same rotation, so that the test sees the loop
+	 * exactly as the rate loop does.
 	 */
-	public void updateDrive(double theta) {
+	private void runTuner(DriveCommand cmd) {
+		if (cmd.tuner != tuner) {
+			tuner = cmd.tuner;
+			tuneTime = 0;
+		} else {
+			tuneTime += period;
+		}
+		double input = returnPIDInput(cmd);
+		double output = tuner.update(input, tuneTime);
+		pidInput = input;
+		pidOutput = output;
+		
+		double vT = output;
+		if (Math.abs(vT - prevT) > MAX_ACCEL_T)
+			vT = prevT + Math.signum(vT - prevT) * MAX_ACCEL_T;
+		prevX = 0;
+		prevY = 0;
+		prevT = vT;
+		mecanumDrive(0, 0, vT, 0);
+	}
+	
+	/**
+	 * Updates the speed at which the drivetrain moves toward the targets,
+	 * applying acceleration and updating the previous values for acceleration.
+	 * @param theta The output calculated by the PID loop, used as the rotational
+	 * 						velocity while strafing
+	 */
+	private void updateDrive(DriveCommand cmd, double theta) {
+		double targetX = cmd.targetX;
+		double targetT = cmd.targetT;
 		double vX = targetX;
-		double vY = targetY;
+		double vY = cmd.targetY;
 		double vT = theta;
 		if (vX == 0)
 			vT = targetT;
-		double heading = (isRelative) ? getCurrentAbsoluteHeading() : 0;
+		double heading = (cmd.relative) ? getCurrentAbsoluteHeading() : 0;
 		
 		//Apply accelerations
 		if (Math.abs(targetX - prevX) > MAX_ACCEL_X)
@@ -218,11 +504,16 @@ public class Drivetrain extends PIDSubsystem {
 		prevX = vX;
 		prevY = vY;
 		prevT = vT;
-		
-		robotDrive.mecanumDrive_Cartesian(vX, vY, vT, heading);
+		
+		mecanumDrive(vX, vY, vT, heading);
 	}
 	
-	public void updateDrive() {
+	/**
+	 * Tank drives toward the left and right targets with the acceleration limit.
+	 */
+	private void updateDrive(DriveCommand cmd) {
+		double targetLeft = cmd.targetLeft;
+		double targetRight = cmd.targetRight;
 		double vL = targetLeft;
 		double vR = targetRight;
 		
@@ -238,6 +529,42 @@ public class Drivetrain extends PIDSubsystem {
 	}
 	
 	
+	/**
+	 * Drives the mecanum wheels given Cartesian velocities, in the same manner as
+	 * WPILib's RobotDrive.mecanumDrive_Cartesian (whose usage reporting requires
+	 * the FPGA). The right side motors are inverted.
+	 * @param x The x-velocity
+	 * @param y The y-velocity (forward is negative, as with the joystick)
+	 * @param rotation The rotational velocity
+	 * @param gyroAngle The heading in degrees used for field-centric driving
+	 */
+	private void mecanumDrive(double x, double y, double rotation, double gyroAngle) {
+		double cosA = MathUtil.cos(Math.toRadians(gyroAngle));
+		double sinA = MathUtil.sin(Math.toRadians(gyroAngle));
+		double xIn = x * cosA + y * sinA;
+		double yIn = x * sinA - y * cosA;
+		
+		double frontLeft = xIn + yIn + rotation;
+		double frontRight = -xIn + yIn - rotation;
+		double rearLeft = -xIn + yIn + rotation;
+		double rearRight = xIn + yIn - rotation;
+		
+		//Normalize so that no wheel is asked to go faster than full speed
+		double max = Math.max(Math.max(Math.abs(frontLeft), Math.abs(frontRight)),
+				Math.max(Math.abs(rearLeft), Math.abs(rearRight)));
+		if (max > 1) {
+			frontLeft /= max;
+			frontRight /= max;
+			rearLeft /= max;
+			rearRight /= max;
+		}
+		
+		leftBack.set(frontLeft);
+		leftFront.set(-frontRight);
+		rightBack.set(rearLeft);
+		rightFront.set(-rearRight);
+	}
+	
 	/**
 	 * Determines the rate at which the robot is currently spinning in degrees
 	 * per second. 
@@ -271,27 +598,142 @@ public class Drivetrain extends PIDSubsystem {
 		gyro.reset();
 	}
 	
+	/**
+	 * Gets where the robot is on the field, as of the last pass of the control
+	 * loop. Never blocks, and may be called from any thread.
+	 * @return The pose, starting at the origin facing +y unless placed elsewhere
+	 */
+	public Pose getPose() {
+		return odometry.getPose();
+	}
+	
+	/**
+	 * Tells the control loop where the robot is, such as at the start of
+	 * autonomous. The pose is tracked from there on from its next pass.
+	 * @param x The x position in meters
+	 * @param y The y position in meters
+	 * @param heading The heading in degrees, clockwise from +y
+	 */
+	public synchronized void resetPose(double x, double y, double heading) {
+		command.poseX = x;
+		command.poseY = y;
+		command.poseHeading = heading;
+		command.poseResets++;
+		publish();
+	}
+	
+	/**
+	 * Gets the sideways speed the drivetrain was last told to reach.
+	 * @return The target, from -1 to 1
+	 */
+	public synchronized double getTargetX() {
+		return command.targetX;
+	}
+	
+	/**
+	 * Gets the forward speed the drivetrain was last told to reach.
+	 * @return The target, from -1 to 1
+	 */
+	public synchronized double getTargetY() {
+		return command.targetY;
+	}
+	
+	/**
+	 * Gets the rotational speed the drivetrain was last told to reach.
+	 * @return The target, from -1 to 1
+	 */
+	public synchronized double getTargetT() {
+		return command.targetT;
+	}
+	
+	/**
+	 * Gets the rotational rate the rate loop last measured.
+	 * @return The rate, scaled from -1 to 1
+	 */
+	public double getPIDInput() {
+		return pidInput;
+	}
+	
+	/**
+	 * Gets the correction the rate loop last applied.
+	 * @return The output, from -1 to 1
+	 */
+	public double getPIDOutput() {
+		return pidOutput;
+	}
+	
+	/**
+	 * Gets the speeds last sent to the Talons, named by where they are mounted.
+	 * @return The speed of the Talon
+	 */
+	public double getLeftFrontSpeed() {
+		return leftFront.get();
+	}
+	
+	public double getRightFrontSpeed() {
+		return rightFront.get();
+	}
+	
+	public double getLeftBackSpeed() {
+		return leftBack.get();
+	}
+	
+	public double getRightBackSpeed() {
+		return rightBack.get();
+	}
+	
+	/**
+	 * Gets how far each wheel has rolled, as its encoder counts it. A mirrored
+	 * encoder counts down, so these are all positive when driving forward.
+	 * @return The distance in meters
+	 */
+	public double getFrontLeftDistance() {
+		return frontLeftEncoder.getDistance();
+	}
+	
+	public double getFrontRightDistance() {
+		return frontRightEncoder.getDistance();
+	}
+	
+	public double getRearLeftDistance() {
+		return rearLeftEncoder.getDistance();
+	}
+	
+	public double getRearRightDistance() {
+		return rearRightEncoder.getDistance();
+	}
+	
+	/**
+	 * Determines whether driving is relative to the player or absolute to the field.
+	 * @return Whether or not relative driving is on
+	 */
+	public synchronized boolean isRelative() {
+		return command.relative;
+	}
+	
 	/**
 	 * Sets whether or not driving should be relative to the player or
 	 * absolute to the field. 
 	 * @param flag
 	 */
-	public void setRelative(boolean flag) {
-		isRelative = flag;
+	public synchronized void setRelative(boolean flag) {
+		command.relative = flag;
+		publish();
 	}
 	
 	/**
 	 * Toggles whether or not relative driving should be used. 
 	 */
-	public void toggleRelative() {
-		isRelative = !isRelative;
+	public synchronized void toggleRelative() {
+		command.relative = !command.relative;
+		publish();
 	}
 
 	/**
-	 * Calculates the error term for the PID Controller as the difference between 
-	 * target rotational speed and the true rotational speed.
+	 * Measures the rotational rate for the rate loop, scaled so that the fastest
+	 * the robot can turn either way is T_SCALE.
 	 */
-	protected double returnPIDInput() {
+	private double returnPIDInput(DriveCommand cmd) {
 		double rawRate = getRotationalRate();
 		double actualRate = rawRate;
 		if (rawRate > 0)
@@ -302,22 +744,158 @@ public class Drivetrain extends PIDSubsystem {
 //		double error = actualRate - targetT;
 //		System.out.println("targetT: " + targetT + " actualRate: " + actualRate + " error: " + error);
 		
-		SmartDashboard.putNumber("Actual Rate", actualRate);
-		SmartDashboard.putNumber("Target Theta", targetT);
-		SmartDashboard.putNumber("PID Error", actualRate - targetT);
+		actualRateTelemetry.set(actualRate);
+		targetThetaTelemetry.set(cmd.targetT);
+		pidErrorTelemetry.set(actualRate - cmd.targetT);
 		return actualRate;
 	}
 
 	/**
-	 * Uses the offset calculated by the PID Controller in the update drive method
-	 * to affect the speed of the RobotDrive. 
+	 * Uses the offset calculated by the rate loop in the update drive method
+	 * to affect the speed of the drive. 
+	 */
+	private void usePIDOutput(DriveCommand cmd, double output) {
+		updateDrive(cmd, output);
+	}
+	
+	/**
+	 * Sets the target rotational rate of the PID loop.
+	 * @param setpoint The target rate, in the same units as {@link #getPIDInput()}
+	 */
+	public synchronized void setSetpoint(double setpoint) {
+		command.setpoint = setpoint;
+		publish();
+	}
+	
+	/**
+	 * Starts running the PID loop, driving toward the targets set by {@link #drive(double, double, double)}.
 	 */
-	protected void usePIDOutput(double output) {
-		updateDrive(output);
+	public synchronized void enable() {
+		command.mode = MODE_PID;
+		publish();
 	}
 	
-	public void resetPID() {
-		getPIDController().reset();
-		getPIDController().enable();
+	/**
+	 * Stops running the PID loop. The loop drives once with a zero PID output
+	 * and then leaves the Talons alone, so that the raw drive methods can take over.
+	 */
+	public synchronized void disable() {
+		command.mode = MODE_HOLD;
+		publish();
+	}
+	
+	/**
+	 * Clears the PID loop, reloads its gains from the SmartDashboard and restarts it.
+	 */
+	public synchronized void resetPID() {
+		command.p = SmartDashboard.getNumber("DT P", P);
+		command.i = SmartDashboard.getNumber("DT I", I);
+		command.d = SmartDashboard.getNumber("DT D", D);
+		command.resets++;
+		command.mode = MODE_PID;
+		publish();
+	}
+	
+	/**
+	 * Puts the drivetrain back as it was when it was created: stopped, driving
+	 * under the rate loop with the default gains, absolute, at the origin, and
+	 * with the control loop's acceleration limit, PID state and encoders cleared
+	 * at its next pass. For simulations which play one run after another on the
+	 * same robot and should not carry anything from one to the next.
+	 */
+	public synchronized void resetState() {
+		int resets = command.resets;
+		int poseResets = command.poseResets;
+		int stateResets = command.stateResets;
+		command.copyFrom(new DriveCommand());
+		command.mode = MODE_PID;
+		command.p = P;
+		command.i = I;
+		command.d = D;
+		command.resets = resets + 1;
+		command.poseResets = poseResets + 1;
+		command.stateResets = stateResets + 1;
+		publish();
+	}
+	
+	/**
+	 * Has the control loop run a relay test on the rotational rate loop with
+	 * the robot turning in place until told otherwise. The tuner's setpoint
+	 * is a rotational rate in the same units as {@link #getPIDInput()},
+	 * and its output takes the place of the rate loop's.
+	 * @param tuner The tuner to run, which should be new
+	 */
+	public synchronized void startTuning(RelayTuner tuner) {
+		command.mode = MODE_TUNE;
+		command.tuner = tuner;
+		publish();
+	}
+	
+	/**
+	 * Changes how often the control loop runs.
+	 * @param seconds The time between passes of the loop
+	 */
+	public void setControlPeriod(double seconds) {
+		period = seconds;
+		loopTimer.setPeriod(seconds);
+		controlLoop.startPeriodic(seconds);
+	}
+	
+	/**
+	 * Gets how often the control loop runs.
+	 * @return The time between passes of the loop in seconds
+	 */
+	public double getControlPeriod() {
+		return period;
+	}
+	
+	/**
+	 * Everything the commands ask of the control loop. One is filled in by the
+	 * commands and copied whole into the {@link TripleBuffer} on every change,
+	 * so the loop always sees a consistent set of values.
+	 */
+	private static class DriveCommand {
+		int mode;
+		//Mecanum targets and the rotational rate setpoint
+		double targetX, targetY, targetT, setpoint;
+		//Speeds for raw driving
+		double rawX, rawY, rawT;
+		//Tank targets
+		double targetLeft, targetRight;
+		boolean relative;
+		//PID gains, applied whenever resets changes
+		double p, i, d;
+		int resets;
+		//The relay tuner to run in place of the rate loop
+		RelayTuner tuner;
+		//Where to put the robot, applied whenever poseResets changes
+		double poseX, poseY, poseHeading;
+		int poseResets;
+		//Clears the control loop's own state whenever it changes
+		int stateResets;
+		
+		void copyFrom(DriveCommand other) {
+			mode = other.mode;
+			targetX = other.targetX;
+			targetY = other.targetY;
+			targetT = other.targetT;
+			setpoint = other.setpoint;
+			rawX = other.rawX;
+			rawY = other.rawY;
+			rawT = other.rawT;
+			targetLeft = other.targetLeft;
+			targetRight = other.targetRight;
+			relative = other.relative;
+			p = other.p;
+			i = other.i;
+			d = other.d;
+			resets = other.resets;
+			tuner = other.tuner;
+			poseX = other.poseX;
+			poseY = other.poseY;
+			poseHeading = other.poseHeading;
+			poseResets = other.poseResets;
+			stateResets = other.stateResets;
+		}
 	}
-}
+}
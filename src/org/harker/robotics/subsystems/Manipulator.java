@@ -2,18 +2,28 @@ package org.harker.robotics.subsystems;
 
 import org.harker.robotics.RobotMap;
 import org.harker.robotics.commands.ManualElevatorCommand;
+import org.harker.robotics.harkerrobolib.hal.AnalogSensor;
+import org.harker.robotics.harkerrobolib.hal.DigitalSensor;
+import org.harker.robotics.harkerrobolib.hal.Hardware;
+import org.harker.robotics.harkerrobolib.hal.HardwareFactory;
+import org.harker.robotics.harkerrobolib.hal.SolenoidOutput;
+import org.harker.robotics.harkerrobolib.util.TelemetryChannel;
+import org.harker.robotics.harkerrobolib.util.TelemetryPublisher;
+import org.harker.robotics.harkerrobolib.util.TrimmedMeanFilter;
+import org.harker.robotics.harkerrobolib.wrappers.SolenoidBank;
 import org.harker.robotics.harkerrobolib.wrappers.TalonWrapper;
 
-import edu.wpi.first.wpilibj.DigitalInput;
-import edu.wpi.first.wpilibj.Solenoid;
 import edu.wpi.first.wpilibj.command.Subsystem;
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 
 /**
  * The Manipulator, which contains methods to manipulate the elevator talons, 
  * solenoid clamps, limit switches, and range finder, represents the manipulator that 
  * controls the stacking and manipulation of totes. 
  * 
+ * The clamps are written through a {@link SolenoidBank}, so setting a clamp only
+ * records the state wanted and {@link #flushSolenoids()} writes the ones that changed
+ * once per periodic call.
+ * 
  * @author Vedaad Shakib
  * @author Neymika J
  * @author Andrew Tierno
@@ -23,37 +33,42 @@ public class Manipulator extends Subsystem {
 	// Singleton instance
 	private static Manipulator manipulator;
 	
+	// The pneumatics module every clamp is on
+	private final SolenoidBank solenoids = new SolenoidBank();
+	
 	// Solenoids that control the clamps
-	private Solenoid leftClamp;
-	private Solenoid rightClamp;
+	private SolenoidOutput leftClamp;
+	private SolenoidOutput rightClamp;
 	
 	// Solenoids that control the bin mechanism
-	private Solenoid leftBinClamp;
-	private Solenoid rightBinClamp;
+	private SolenoidOutput leftBinClamp;
+	private SolenoidOutput rightBinClamp;
 	
 	// Talons that lift the elevator
 	private TalonWrapper elevatorTalon;
 	
 	// Limit switches that detect if the elevator is too high or low
-	private DigitalInput limitSwitchLow;
-	private DigitalInput limitSwitchHigh;
+	private DigitalSensor limitSwitchLow;
+	private DigitalSensor limitSwitchHigh;
 	
-//	private AnalogInput rangeFinder;
+	// Range finder which measures the height of the elevator
+	private AnalogSensor rangeFinder;
 	
 	// The open and closed states of the Solenoids
 	public final boolean CLAMP_OPEN_STATE = false;
 	public final boolean CLAMP_CLOSED_STATE = true;
 	
 	//The inches of distance reported by the range finder per volt
-	public final double INCHES_PER_VOLT = 512 / 5;
+	public static final double INCHES_PER_VOLT = 512.0 / 5;
 	
-	//Fields for calculating the average height, to avoid random noise
-	private double averageElevatorHeight;
-//	private double[] instantHeightValues;
-//	private int nDataPoints;
+	//Fields for calculating the average height, to avoid random noise; the average is
+	//written by updateElevatorHeight() and may be read from any thread
+	private volatile double averageElevatorHeight;
+	private final TrimmedMeanFilter elevatorHeights;
 	
-	//The sample size used for averaging
-	private static final int DATA_POINTS_PER_CALC = 4;
+	//The sample size used for averaging, and how many of the highest and lowest are discarded
+	private static final int DATA_POINTS_PER_CALC = 10;
+	private static final int DATA_POINTS_TRIMMED = 1;
 	
 	//Distance from top or bottom when to start decellerating
 	public static final double MIN_HEIGHT = 20;
@@ -65,7 +80,15 @@ public class Manipulator extends Subsystem {
 	private static final double SLOW_SPEED = 0.4;
 	
 	//Rangefinder offset
-	private static final double RANGE_FINDER_OFFSET = 8.5;
+	public static final double RANGE_FINDER_OFFSET = 8.5;
+	
+	//Dashboard values, sent by the TelemetryPublisher
+	private final TelemetryChannel slowingDownTelemetry = TelemetryPublisher.flag("slowingDown");
+	private final TelemetryChannel slowingUpTelemetry = TelemetryPublisher.flag("slowingUp");
+	private final TelemetryChannel speedTelemetry = TelemetryPublisher.number("Manipulator speed");
+	private final TelemetryChannel highLimitTelemetry = TelemetryPublisher.flag("HIGH LIM");
+	private final TelemetryChannel lowLimitTelemetry = TelemetryPublisher.flag("LOW LIM");
+	private final TelemetryChannel heightTelemetry = TelemetryPublisher.number("Manipulator Height");
 	
 //	private static EncoderWrapper heightEnc;
 	
@@ -80,22 +103,23 @@ public class Manipulator extends Subsystem {
 	 * Creates a new Manipulator instance by initializing all of the elements of the manipulator.
 	 */
 	private Manipulator() {
-		leftClamp = new Solenoid(RobotMap.Manipulator.LEFT_CLAMP_PORT);
-		rightClamp = new Solenoid(RobotMap.Manipulator.RIGHT_CLAMP_PORT);
+		HardwareFactory hardware = Hardware.getFactory();
 		
-		leftBinClamp = new Solenoid(RobotMap.Manipulator.LEFT_BIN_CLAMP_PORT);
-		rightBinClamp = new Solenoid(RobotMap.Manipulator.RIGHT_BIN_CLAMP_PORT);
+		leftClamp = solenoids.channel(RobotMap.Manipulator.LEFT_CLAMP_PORT, "Left clamp");
+		rightClamp = solenoids.channel(RobotMap.Manipulator.RIGHT_CLAMP_PORT, "Right clamp");
+		
+		leftBinClamp = solenoids.channel(RobotMap.Manipulator.LEFT_BIN_CLAMP_PORT, "Left bin clamp");
+		rightBinClamp = solenoids.channel(RobotMap.Manipulator.RIGHT_BIN_CLAMP_PORT, "Right bin clamp");
 		
 		elevatorTalon = new TalonWrapper(RobotMap.Manipulator.ELEVATOR_TALON_PORT);
 		
-		limitSwitchLow = new DigitalInput(RobotMap.Manipulator.LIMIT_SWITCH_LOW_PORT);
-		limitSwitchHigh = new DigitalInput(RobotMap.Manipulator.LIMIT_SWITCH_HIGH_PORT);
+		limitSwitchLow = hardware.createDigitalInput(RobotMap.Manipulator.LIMIT_SWITCH_LOW_PORT);
+		limitSwitchHigh = hardware.createDigitalInput(RobotMap.Manipulator.LIMIT_SWITCH_HIGH_PORT);
 		
-//		rangeFinder = new AnalogInput(RobotMap.Manipulator.RANGE_FINDER_PORT);
+		rangeFinder = hardware.createAnalogInput(RobotMap.Manipulator.RANGE_FINDER_PORT);
 		
 		averageElevatorHeight = getInstantElevatorHeight();
-//		instantHeightValues = new double[DATA_POINTS_PER_CALC];
-//		nDataPoints = 0;
+		elevatorHeights = new TrimmedMeanFilter(DATA_POINTS_PER_CALC, DATA_POINTS_TRIMMED);
 		
 //		heightEnc = new EncoderWrapper(RobotMap.Manipulator.ENC_PORT_A, RobotMap.Manipulator.ENC_PORT_B);
 //		heightEnc.setDistancePerPulse(1);
@@ -161,10 +185,10 @@ public class Manipulator extends Subsystem {
 //    		heightEnc.reset();
     	}
     	
-    	SmartDashboard.putBoolean("slowingDown", slowingDown);
-    	SmartDashboard.putBoolean("slowingUp", slowingUp);
+    	slowingDownTelemetry.set(slowingDown);
+    	slowingUpTelemetry.set(slowingUp);
     	
-    	SmartDashboard.putNumber("Manipulator speed", spd);
+    	speedTelemetry.set(spd);
     	
     	elevatorTalon.set(spd);
     }
@@ -175,7 +199,7 @@ public class Manipulator extends Subsystem {
      * @return whether the elevator has reached its maximum height
      */
     public boolean isHighSwitchPressed() {
-    	SmartDashboard.putBoolean("HIGH LIM", !limitSwitchHigh.get());
+    	highLimitTelemetry.set(!limitSwitchHigh.get());
     	return ! limitSwitchHigh.get();
     }
     
@@ -185,7 +209,7 @@ public class Manipulator extends Subsystem {
      * @return whether the elevator has reached its minimum height
      */
     public boolean isLowSwitchPressed() {
-    	SmartDashboard.putBoolean("LOW LIM", !limitSwitchLow.get());
+    	lowLimitTelemetry.set(!limitSwitchLow.get());
     	return ! limitSwitchLow.get();
     }
     
@@ -307,38 +331,113 @@ public class Manipulator extends Subsystem {
     	setLeftClamp(state);
     }
     
+    /**
+     * Writes the clamps which were set to a new state since the last call.
+     * Called once at the end of every periodic call, after the commands have run.
+     */
+    public void flushSolenoids() {
+    	solenoids.flush();
+    }
+    
+    /**
+     * Makes the next flush write every clamp, for when the pneumatics module
+     * may have lost its state.
+     */
+    public void resyncSolenoids() {
+    	solenoids.invalidate();
+    }
+    
+    /**
+     * Puts the manipulator back as it was when it was created: every clamp off,
+     * the height estimate started afresh from the range finder and the elevator
+     * no longer slowing. For simulations which play one run after another on the
+     * same robot and should not carry anything from one to the next.
+     */
+    public void resetState() {
+    	solenoids.reset();
+    	elevatorHeights.reset();
+    	averageElevatorHeight = getInstantElevatorHeight();
+    	slowingDown = false;
+    	slowingUp = false;
+    }
+    
+    /**
+     * Gets the clamps' pneumatics module, for auditing how often each clamp fires.
+     * 
+     * @return the solenoid bank
+     */
+    public SolenoidBank getSolenoids() {
+    	return solenoids;
+    }
+    
+    /**
+     * Gets the speed last sent to the elevator Talon.
+     * 
+     * @return the speed, from -1 to 1
+     */
+    public double getElevatorSpeed() {
+    	return elevatorTalon.get();
+    }
+    
+    /**
+     * Returns the states of the clamp solenoids, as last set; the module is
+     * written at the end of the periodic call.
+     * 
+     * @return the state of the solenoid, as compared with CLAMP_CLOSED_STATE
+     */
+    public boolean getLeftClamp() {
+    	return leftClamp.get();
+    }
+    
+    public boolean getRightClamp() {
+    	return rightClamp.get();
+    }
+    
+    public boolean getLeftBinClamp() {
+    	return leftBinClamp.get();
+    }
+    
+    public boolean getRightBinClamp() {
+    	return rightBinClamp.get();
+    }
+    
     /**
      * Gives the average elevator height, in inches, determined over time.
-     * @return
+     * Safe to call from any thread.
+     * @return the height as of the last update
      */
     public double getAverageElevatorHeight() {
-//    	System.out.println("A: " + chnA.get());
-//    	System.out.println("B: " + chnB.get());
-    	averageElevatorHeight = 5;//heightEnc.getDistance() + startHeight;
-    	SmartDashboard.putNumber("Manipulator Height", averageElevatorHeight);
     	return averageElevatorHeight;
     }
     
     /**
      * Updates the average elevator height by summing the previous 10 values and discarding the 
-     * highest and lowest of them.
+     * highest and lowest of them. Called every periodic call by UpdateElevatorHeightCommand.
      */
     public void updateElevatorHeight() {
-//    	averageElevatorHeight = heightEnc.getDistance() + startHeight;
+    	elevatorHeights.add(getInstantElevatorHeight());
+    	averageElevatorHeight = elevatorHeights.getTrimmedMean();
+    	heightTelemetry.set(averageElevatorHeight);
     }
     
     /**
      * Determines the current elevation of the elevator in inches.
-     * @return
+     * @return the height read by the range finder, unfiltered
      */
     private double getInstantElevatorHeight() {
-//    	return rangeFinder.getVoltage() * INCHES_PER_VOLT + RANGE_FINDER_OFFSET;
-    	return 5; // please accept this magic number. Trust mde
+    	return getRangeFinderVoltage() * INCHES_PER_VOLT + RANGE_FINDER_OFFSET;
+    }
+    
+    /**
+     * Gets the raw reading of the range finder.
+     * @return the voltage on the range finder's input
+     */
+    public double getRangeFinderVoltage() {
+    	return rangeFinder.getVoltage();
     }
     
     private boolean nearBottom() {
-//    	return getAverageElevatorHeight() <= MIN_HEIGHT;
-    	return true;
+    	return getAverageElevatorHeight() <= MIN_HEIGHT;
     }
     
     private boolean nearTop() {